@@ -1,61 +1,54 @@
 package com.packed_go.analytics_service.security;
 
-import javax.crypto.SecretKey;
-
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.packed_go.security.GatewayIdentity;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.TokenVerifier;
+import com.packed_go.security.VerifiedToken;
+
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Validador de tokens JWT generados por auth-service
+ * Validador de tokens JWT generados por auth-service (sobre el TokenVerifier de packedgo-security-commons)
  * Extrae información del usuario (userId, role, authorities) del token
+ * Si el api-gateway ya verificó este mismo token (GatewayIdentity), userId y rol salen de ahí
  */
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class JwtTokenValidator {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    private final TokenVerifier tokenVerifier;
 
-    public Claims validateToken(String token) {
+    public VerifiedToken validateToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (Exception e) {
+            return tokenVerifier.verify(token);
+        } catch (InvalidTokenException e) {
             log.error("Error validando token JWT: {}", e.getMessage());
             throw new RuntimeException("Token inválido o expirado");
         }
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = validateToken(token);
-        Object userIdObj = claims.get("userId");
-        
-        if (userIdObj instanceof Integer) {
-            return ((Integer) userIdObj).longValue();
-        } else if (userIdObj instanceof Long) {
-            return (Long) userIdObj;
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.userId();
+        }
+        Long userId = validateToken(token).userId();
+        if (userId == null) {
+            throw new RuntimeException("No se pudo extraer userId del token");
         }
-        
-        throw new RuntimeException("No se pudo extraer userId del token");
+        return userId;
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = validateToken(token);
-        return (String) claims.get("role");
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.role();
+        }
+        return validateToken(token).role();
     }
 
     public String extractTokenFromHeader(String authorizationHeader) {
@@ -0,0 +1,104 @@
+package com.packed_go.api_gateway.config;
+
+import com.packed_go.security.TokenVerifier;
+import com.packed_go.security.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resuelve la identidad de un JWT verificándolo una sola vez por petición.
+ *
+ * Los tokens ya verificados se guardan en una caché acotada indexada por el SHA-256 del token
+ * completo (firma incluida), así que un token alterado nunca coincide con una entrada. Cada entrada
+ * vence en el exp del propio token. Al superar max-size se descartan primero las vencidas y, si no
+ * alcanza, entradas arbitrarias: un miss solo cuesta una verificación.
+ *
+ * Métricas: gateway.jwt.cache.requests{result} y gateway.jwt.cache.size.
+ */
+@Component
+@Slf4j
+public class JwtClaimsResolver {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final TokenVerifier tokenVerifier;
+    private final int maxSize;
+    private final Map<String, VerifiedToken> cache = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public JwtClaimsResolver(TokenVerifier tokenVerifier,
+                             MeterRegistry meterRegistry,
+                             @Value("${jwt.claims-cache.max-size:10000}") int maxSize) {
+        this.tokenVerifier = tokenVerifier;
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("gateway.jwt.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("gateway.jwt.cache.requests", "result", "miss");
+        Gauge.builder("gateway.jwt.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Devuelve el token verificado; lanza InvalidTokenException si la firma no es válida o el token venció
+     */
+    public VerifiedToken resolve(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = cache.get(key);
+        if (cached != null) {
+            if (now < cached.expiresAt().toEpochMilli()) {
+                hits.increment();
+                return cached;
+            }
+            cache.remove(key, cached);
+        }
+
+        misses.increment();
+        VerifiedToken verified = tokenVerifier.verify(token);
+
+        // Los tokens sin exp no se cachean: no hay un vencimiento al que atar la entrada
+        if (verified.expiresAt() != null) {
+            evictIfNeeded(now);
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    private void evictIfNeeded(long now) {
+        if (cache.size() < maxSize) {
+            return;
+        }
+        cache.values().removeIf(verified -> now >= verified.expiresAt().toEpochMilli());
+        Iterator<String> keys = cache.keySet().iterator();
+        int target = maxSize - maxSize / 10;
+        while (cache.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("JWT claims cache trimmed to {} entries", cache.size());
+    }
+
+    private static String hash(String token) {
+        byte[] digest = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(digest);
+    }
+}
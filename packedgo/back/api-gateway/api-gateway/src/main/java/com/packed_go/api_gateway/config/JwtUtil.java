@@ -1,81 +0,0 @@
-package com.packed_go.api_gateway.config;
-
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
-
-import javax.crypto.SecretKey;
-import java.util.Date;
-
-@Component
-@Slf4j
-public class JwtUtil {
-
-    @Value("${jwt.secret}")
-    private String secret;
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public Claims getAllClaimsFromToken(String token) {
-        try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (Exception e) {
-            log.error("Error parsing JWT token: {}", e.getMessage());
-            throw e;
-        }
-    }
-
-    public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = getAllClaimsFromToken(token).getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            log.error("Error checking token expiration: {}", e.getMessage());
-            return true;
-        }
-    }
-
-    public boolean validateToken(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            log.error("Token validation failed: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    public String getUserIdFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            Object userIdObj = claims.get("userId");
-            if (userIdObj != null) {
-                return userIdObj.toString();
-            }
-            return null;
-        } catch (Exception e) {
-            log.error("Error extracting userId from token: {}", e.getMessage());
-            return null;
-        }
-    }
-
-    public String getRoleFromToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("role", String.class);
-        } catch (Exception e) {
-            log.error("Error extracting role from token: {}", e.getMessage());
-            return null;
-        }
-    }
-}
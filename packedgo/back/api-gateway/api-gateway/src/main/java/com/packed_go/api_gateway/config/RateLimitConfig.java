@@ -0,0 +1,41 @@
+package com.packed_go.api_gateway.config;
+
+import com.packed_go.api_gateway.ratelimit.InMemoryRateLimitStore;
+import com.packed_go.api_gateway.ratelimit.RateLimitStore;
+import com.packed_go.api_gateway.ratelimit.RedisRateLimitStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Elige el store de token buckets según gateway.rate-limit.store ("memory" o "redis")
+ */
+@Configuration
+@Slf4j
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore(MeterRegistry meterRegistry,
+                                                 @Value("${gateway.rate-limit.max-keys:100000}") int maxKeys) {
+        log.info("🚦 Rate limiting con buckets en memoria (max {} claves)", maxKeys);
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(maxKeys);
+        Gauge.builder("gateway.rate-limit.buckets", store, InMemoryRateLimitStore::size).register(meterRegistry);
+        return store;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.rate-limit.store", havingValue = "redis")
+    public RateLimitStore redisRateLimitStore(ReactiveStringRedisTemplate redisTemplate,
+                                              @Value("${gateway.rate-limit.redis-timeout-ms:200}") long timeoutMs) {
+        log.info("🚦 Rate limiting con buckets compartidos en Redis (timeout {} ms)", timeoutMs);
+        return new RedisRateLimitStore(redisTemplate, Duration.ofMillis(timeoutMs));
+    }
+}
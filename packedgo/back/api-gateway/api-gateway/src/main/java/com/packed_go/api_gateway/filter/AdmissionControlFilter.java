@@ -0,0 +1,170 @@
+package com.packed_go.api_gateway.filter;
+
+import com.packed_go.api_gateway.ratelimit.AdaptiveConcurrencyLimiter;
+import com.packed_go.api_gateway.ratelimit.RateLimitStore;
+import com.packed_go.security.GatewayIdentityCodec;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Control de admisión por ruta: token bucket por usuario (o por IP en rutas públicas) y un
+ * límite adaptativo de peticiones en vuelo hacia el servicio.
+ *
+ * Rechaza con 429 cuando el usuario supera su cuota y con 503 cuando la ruta ya está en su límite
+ * de concurrencia, antes de que la petición llegue a encolarse en el backend. Debe ir después del
+ * AuthenticationFilter para poder limitar por usuario.
+ *
+ * Métricas: gateway.admission.rejected{route,reason}, gateway.admission.concurrency.limit{route}
+ * y gateway.admission.concurrency.in-flight{route}.
+ */
+@Component
+@Slf4j
+public class AdmissionControlFilter extends AbstractGatewayFilterFactory<AdmissionControlFilter.Config> {
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdmissionControlFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(config.getInitialConcurrency(),
+                config.getMinConcurrency(), config.getMaxConcurrency(),
+                config.getLatencyThresholdMs(), config.getBackoffRatio());
+        // Al refrescar las rutas se reemplaza el limitador; los gauges siempre leen el actual
+        if (limiters.put(routeId, limiter) == null) {
+            registerGauges(routeId);
+        }
+
+        return (exchange, chain) -> {
+            String bucketKey = routeId + ":" + resolveClientKey(exchange);
+
+            return rateLimitStore.tryConsume(bucketKey, config.getReplenishRate(), config.getBurstCapacity(), 1)
+                    .flatMap(decision -> {
+                        if (!decision.allowed()) {
+                            log.warn("🚦 Rate limit exceeded - Route: {}, Key: {}", routeId, bucketKey);
+                            meterRegistry.counter("gateway.admission.rejected", "route", routeId, "reason", "rate_limit")
+                                    .increment();
+                            return reject(exchange, "Too many requests", HttpStatus.TOO_MANY_REQUESTS,
+                                    decision.retryAfterMillis());
+                        }
+                        if (decision.remaining() >= 0) {
+                            exchange.getResponse().getHeaders()
+                                    .set("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+                        }
+
+                        if (!limiter.tryAcquire()) {
+                            log.warn("🚦 Concurrency limit reached - Route: {}, Limit: {}", routeId, limiter.getLimit());
+                            meterRegistry.counter("gateway.admission.rejected", "route", routeId, "reason", "concurrency")
+                                    .increment();
+                            return reject(exchange, "Service busy, try again later", HttpStatus.SERVICE_UNAVAILABLE, 1000);
+                        }
+
+                        long start = System.nanoTime();
+                        return chain.filter(exchange)
+                                .doFinally(signal -> release(limiter, exchange, signal, System.nanoTime() - start));
+                    });
+        };
+    }
+
+    private void release(AdaptiveConcurrencyLimiter limiter, ServerWebExchange exchange,
+                         SignalType signal, long latencyNanos) {
+        if (signal == SignalType.CANCEL) {
+            limiter.onIgnore();
+            return;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean overloaded = signal == SignalType.ON_ERROR
+                || status == HttpStatus.BAD_GATEWAY
+                || status == HttpStatus.SERVICE_UNAVAILABLE
+                || status == HttpStatus.GATEWAY_TIMEOUT;
+        if (overloaded) {
+            limiter.onDropped();
+        } else {
+            limiter.onSuccess(latencyNanos);
+        }
+    }
+
+    /**
+     * Usuario autenticado si el AuthenticationFilter ya firmó su identidad; si no, la IP del cliente.
+     * X-User-Id solo es confiable junto con X-Gateway-Identity (que el cliente no puede inyectar).
+     */
+    private String resolveClientKey(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String userId = headers.getFirst("X-User-Id");
+        if (userId != null && headers.containsKey(GatewayIdentityCodec.HEADER)) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote != null && remote.getAddress() != null) {
+            return "ip:" + remote.getAddress().getHostAddress();
+        }
+        return "ip:unknown";
+    }
+
+    private void registerGauges(String routeId) {
+        Gauge.builder("gateway.admission.concurrency.limit", limiters,
+                        map -> map.containsKey(routeId) ? map.get(routeId).getLimit() : 0)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.admission.concurrency.in-flight", limiters,
+                        map -> map.containsKey(routeId) ? map.get(routeId).getInFlight() : 0)
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String message, HttpStatus status, long retryAfterMillis) {
+        exchange.getResponse().setStatusCode(status);
+        exchange.getResponse().getHeaders().add("Content-Type", "application/json");
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        String errorResponse = String.format("{\"error\": \"%s\", \"status\": %d}", message, status.value());
+        return exchange.getResponse().writeWith(
+                Mono.just(exchange.getResponse().bufferFactory().wrap(errorResponse.getBytes()))
+        );
+    }
+
+    /**
+     * Parámetros por ruta (args del filtro en application.yml)
+     */
+    @Data
+    public static class Config implements HasRouteId {
+        private String routeId;
+
+        // Token bucket por usuario / IP
+        private int replenishRate = 10;
+        private int burstCapacity = 20;
+
+        // Límite adaptativo de concurrencia (AIMD) hacia el servicio
+        private int initialConcurrency = 50;
+        private int minConcurrency = 10;
+        private int maxConcurrency = 200;
+        private long latencyThresholdMs = 1000;
+        private double backoffRatio = 0.9;
+    }
+}
@@ -1,6 +1,9 @@
 package com.packed_go.api_gateway.filter;
 
-import com.packed_go.api_gateway.config.JwtUtil;
+import com.packed_go.api_gateway.config.JwtClaimsResolver;
+import com.packed_go.security.GatewayIdentityCodec;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.VerifiedToken;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -17,7 +20,10 @@ import reactor.core.publisher.Mono;
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private JwtClaimsResolver jwtClaimsResolver;
+
+    @Autowired
+    private GatewayIdentityCodec identityCodec;
 
     public AuthenticationFilter() {
         super(Config.class);
@@ -44,23 +50,34 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
             String token = authHeader.substring(7);
 
-            // Validate token
+            // Validate token (una sola verificación; los tokens ya vistos salen de la caché hasta su exp)
             try {
-                if (!jwtUtil.validateToken(token)) {
+                VerifiedToken verified;
+                try {
+                    verified = jwtClaimsResolver.resolve(token);
+                } catch (InvalidTokenException e) {
                     log.warn("⚠️ Invalid or expired token for path: {}", request.getPath());
                     return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
                 }
 
                 // Extract user information and add to headers for downstream services
-                String userId = jwtUtil.getUserIdFromToken(token);
-                String role = jwtUtil.getRoleFromToken(token);
+                String userId = verified.userId() != null ? verified.userId().toString() : null;
+                String role = verified.role();
 
                 log.info("✅ Token validated - UserId: {}, Role: {}", userId, role);
 
                 // Add user information to request headers
+                // Se reemplazan (no se agregan) para que el cliente no pueda inyectar su propia identidad
+                String identityEnvelope = identityCodec.sign(verified, token);
                 ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                        .header("X-User-Id", userId)
-                        .header("X-User-Role", role)
+                        .headers(headers -> {
+                            headers.remove(GatewayIdentityCodec.HEADER);
+                            headers.set("X-User-Id", userId);
+                            headers.set("X-User-Role", role);
+                            if (identityEnvelope != null) {
+                                headers.set(GatewayIdentityCodec.HEADER, identityEnvelope);
+                            }
+                        })
                         .build();
 
                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -1,5 +1,6 @@
 package com.packed_go.api_gateway.filter;
 
+import com.packed_go.security.GatewayIdentityCodec;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -18,6 +19,14 @@ public class PublicEndpointFilter extends AbstractGatewayFilterFactory<PublicEnd
         return (exchange, chain) -> {
             log.info("🌐 PublicEndpointFilter - Path: {} (No authentication required)", 
                     exchange.getRequest().getPath());
+            // Una identidad firmada solo puede venir del AuthenticationFilter, nunca del cliente
+            if (exchange.getRequest().getHeaders().containsKey(GatewayIdentityCodec.HEADER)) {
+                return chain.filter(exchange.mutate()
+                        .request(exchange.getRequest().mutate()
+                                .headers(headers -> headers.remove(GatewayIdentityCodec.HEADER))
+                                .build())
+                        .build());
+            }
             return chain.filter(exchange);
         };
     }
@@ -0,0 +1,94 @@
+package com.packed_go.api_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de peticiones en vuelo hacia una ruta, ajustado con AIMD.
+ *
+ * Cada respuesta es una muestra: si el backend respondió 5xx de sobrecarga, falló o tardó más que
+ * latencyThreshold, el límite se multiplica por backoffRatio; si respondió bien y el límite se
+ * estaba usando (al menos la mitad ocupada) crece en 1. Así el gateway deja de empujar peticiones
+ * en cuanto el servicio empieza a encolar, en lugar de esperar a que se caiga.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long latencyThresholdMillis, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits: min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdMillis * 1_000_000L;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Reserva un lugar; false si la ruta ya está en su límite y hay que descartar la petición
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera el lugar y registra una respuesta correcta con su latencia
+     */
+    public void onSuccess(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos) {
+            decrease();
+        } else if (inFlightBefore * 2 >= limit) {
+            increase();
+        }
+    }
+
+    /**
+     * Libera el lugar y registra que el backend está saturado (5xx, timeout o error de conexión)
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        decrease();
+    }
+
+    /**
+     * Libera el lugar sin ajustar el límite (p. ej. el cliente canceló la petición)
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void increase() {
+        if (limit < maxLimit) {
+            limit = limit + 1;
+        }
+    }
+
+    private synchronized void decrease() {
+        limit = Math.max(minLimit, (int) (limit * backoffRatio));
+    }
+}
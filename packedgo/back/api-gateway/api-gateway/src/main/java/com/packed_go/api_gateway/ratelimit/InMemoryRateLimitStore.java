@@ -0,0 +1,89 @@
+package com.packed_go.api_gateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets en memoria (por instancia del gateway).
+ *
+ * Cada bucket se repone de forma perezosa al consumir, según el tiempo transcurrido desde el último
+ * acceso, así que no hace falta ningún scheduler. Un bucket que ya se llenó es indistinguible de uno
+ * nuevo, por eso al superar max-keys se descartan primero esos; si no alcanza, se descartan
+ * entradas arbitrarias.
+ */
+@Slf4j
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final int maxKeys;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimitStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity, int requested) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            evictIfNeeded(now);
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(burstCapacity, now));
+        }
+        return Mono.just(bucket.tryConsume(now, replenishRate, burstCapacity, requested));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictIfNeeded(long now) {
+        if (buckets.size() < maxKeys) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        Iterator<String> keys = buckets.keySet().iterator();
+        int target = maxKeys - maxKeys / 10;
+        while (buckets.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+        log.debug("Rate limit buckets trimmed to {} entries", buckets.size());
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long lastRefillNanos;
+        private long fullAtNanos;
+
+        TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefillNanos = now;
+            this.fullAtNanos = now;
+        }
+
+        synchronized RateLimitDecision tryConsume(long now, int rate, int capacity, int requested) {
+            long elapsed = Math.max(0, now - lastRefillNanos);
+            tokens = Math.min(capacity, tokens + elapsed * (double) rate / 1_000_000_000L);
+            lastRefillNanos = now;
+
+            RateLimitDecision decision;
+            if (tokens >= requested) {
+                tokens -= requested;
+                decision = RateLimitDecision.allow((long) tokens);
+            } else {
+                decision = RateLimitDecision.deny((long) Math.ceil((requested - tokens) * 1000 / rate));
+            }
+            fullAtNanos = now + (long) ((capacity - tokens) * 1_000_000_000L / rate);
+            return decision;
+        }
+
+        synchronized boolean isFull(long now) {
+            return now - fullAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.packed_go.api_gateway.ratelimit;
+
+/**
+ * Resultado de consumir tokens de un bucket.
+ *
+ * @param allowed          si la petición puede pasar
+ * @param remaining        tokens que quedan en el bucket (-1 si se desconoce)
+ * @param retryAfterMillis espera sugerida antes de reintentar cuando no se permite
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterMillis) {
+
+    public static RateLimitDecision allow(long remaining) {
+        return new RateLimitDecision(true, remaining, 0);
+    }
+
+    public static RateLimitDecision deny(long retryAfterMillis) {
+        return new RateLimitDecision(false, 0, retryAfterMillis);
+    }
+}
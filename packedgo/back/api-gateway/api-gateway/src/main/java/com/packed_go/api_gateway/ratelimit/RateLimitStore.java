@@ -0,0 +1,23 @@
+package com.packed_go.api_gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Almacén de token buckets usado por el AdmissionControlFilter.
+ *
+ * La implementación se elige con gateway.rate-limit.store: "memory" (por instancia, por defecto)
+ * o "redis" (compartida entre instancias del gateway). Cualquier otro bean que implemente esta
+ * interfaz puede reemplazarlas, p. ej. un doble en memoria para tests.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Intenta consumir tokens del bucket identificado por key.
+     *
+     * @param key            identificador del bucket (ruta + usuario o IP)
+     * @param replenishRate  tokens que se reponen por segundo
+     * @param burstCapacity  capacidad máxima del bucket
+     * @param requested      tokens que consume esta petición
+     */
+    Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity, int requested);
+}
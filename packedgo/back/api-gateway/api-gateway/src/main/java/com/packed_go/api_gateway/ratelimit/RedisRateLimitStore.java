@@ -0,0 +1,59 @@
+package com.packed_go.api_gateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token buckets compartidos entre instancias del gateway sobre cualquier servidor compatible con
+ * Redis (EVAL + TIME). Toda la lógica corre en scripts/token_bucket.lua, así que cada decisión es
+ * un único round-trip atómico.
+ *
+ * Si el servidor no responde a tiempo se deja pasar la petición: el limitador de concurrencia por
+ * ruta sigue protegiendo a los servicios y una caída del store no debe tumbar el gateway.
+ */
+@Slf4j
+public class RedisRateLimitStore implements RateLimitStore {
+
+    private static final String KEY_PREFIX = "packedgo:rate-limit:";
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final RedisScript<List<Long>> SCRIPT =
+            (RedisScript) RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final Duration timeout;
+
+    public RedisRateLimitStore(ReactiveStringRedisTemplate redisTemplate, Duration timeout) {
+        this.redisTemplate = redisTemplate;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity, int requested) {
+        // El hash tag {key} deja ambas claves en el mismo slot si el servidor corre en modo cluster
+        List<String> keys = List.of(KEY_PREFIX + "{" + key + "}.tokens", KEY_PREFIX + "{" + key + "}.timestamp");
+        List<String> args = List.of(String.valueOf(replenishRate), String.valueOf(burstCapacity),
+                String.valueOf(requested));
+
+        return redisTemplate.execute(SCRIPT, keys, args)
+                .reduce(new ArrayList<Long>(), (all, part) -> {
+                    all.addAll(part);
+                    return all;
+                })
+                .timeout(timeout)
+                .map(result -> result.get(0) == 1L
+                        ? RateLimitDecision.allow(result.get(1))
+                        : RateLimitDecision.deny(result.get(2)))
+                .onErrorResume(e -> {
+                    log.warn("⚠️ Rate limit store unavailable, allowing request: {}", e.getMessage());
+                    return Mono.just(RateLimitDecision.allow(-1));
+                });
+    }
+}
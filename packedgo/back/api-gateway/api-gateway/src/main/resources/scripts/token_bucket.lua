@@ -0,0 +1,45 @@
+-- Token bucket atómico para RedisRateLimitStore
+-- KEYS[1] = tokens, KEYS[2] = timestamp (ms) de la última reposición
+-- ARGV[1] = tokens por segundo, ARGV[2] = capacidad, ARGV[3] = tokens pedidos
+-- Devuelve { permitido (0/1), tokens restantes, espera sugerida en ms }
+
+local tokens_key = KEYS[1]
+local timestamp_key = KEYS[2]
+
+local rate = tonumber(ARGV[1])
+local capacity = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- Las claves viven el doble de lo que tarda en llenarse el bucket
+local ttl = math.max(1, math.ceil(capacity / rate * 2))
+
+local last_tokens = tonumber(redis.call('GET', tokens_key))
+if last_tokens == nil then
+  last_tokens = capacity
+end
+
+local last_refreshed = tonumber(redis.call('GET', timestamp_key))
+if last_refreshed == nil then
+  last_refreshed = now
+end
+
+local elapsed = math.max(0, now - last_refreshed)
+local filled = math.min(capacity, last_tokens + elapsed * rate / 1000)
+
+local allowed = 0
+local retry_after = 0
+local new_tokens = filled
+if filled >= requested then
+  new_tokens = filled - requested
+  allowed = 1
+else
+  retry_after = math.ceil((requested - filled) * 1000 / rate)
+end
+
+redis.call('SETEX', tokens_key, ttl, new_tokens)
+redis.call('SETEX', timestamp_key, ttl, now)
+
+return { allowed, math.floor(new_tokens), retry_after }
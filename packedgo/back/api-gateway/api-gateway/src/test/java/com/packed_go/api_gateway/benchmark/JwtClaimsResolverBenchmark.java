@@ -0,0 +1,107 @@
+package com.packed_go.api_gateway.benchmark;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.packed_go.api_gateway.config.JwtClaimsResolver;
+import com.packed_go.security.TokenVerifier;
+import com.packed_go.security.VerifiedToken;
+
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Costo por petición de resolver la identidad de un JWT en el gateway: JwtClaimsResolver (caché
+ * por SHA-256 del token) frente a verificar la firma en cada petición. Con 20000 tokens distintos
+ * y max-size de 10000 la caché entra en evicción, que es el peor caso del resolver.
+ *
+ * Ejecutar con: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.packed_go.api_gateway.benchmark.JwtClaimsResolverBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class JwtClaimsResolverBenchmark {
+
+    private static final int CACHE_MAX_SIZE = 10_000;
+
+    @Param({"1", "1000", "20000"})
+    private int distinctTokens;
+
+    private TokenVerifier tokenVerifier;
+    private JwtClaimsResolver resolver;
+    private String[] tokens;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        String nextToken(String[] tokens) {
+            String token = tokens[next];
+            next = next + 1 == tokens.length ? 0 : next + 1;
+            return token;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        String secret = Base64.getEncoder().encodeToString(
+                "packedgo-benchmark-secret-with-at-least-256-bits".getBytes());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        tokenVerifier = new TokenVerifier(secret, meterRegistry);
+        resolver = new JwtClaimsResolver(tokenVerifier, meterRegistry, CACHE_MAX_SIZE);
+
+        Date expiration = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+        tokens = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            tokens[i] = Jwts.builder()
+                    .subject("user" + i)
+                    .claim("userId", i)
+                    .claim("email", "user" + i + "@packedgo.com")
+                    .claim("role", "CUSTOMER")
+                    .claim("authorities", List.of("ROLE_CUSTOMER"))
+                    .issuedAt(new Date())
+                    .expiration(expiration)
+                    .signWith(tokenVerifier.signingKey())
+                    .compact();
+        }
+    }
+
+    @Benchmark
+    public VerifiedToken cachedResolve(Cursor cursor) {
+        return resolver.resolve(cursor.nextToken(tokens));
+    }
+
+    @Benchmark
+    public VerifiedToken verifyEveryRequest(Cursor cursor) {
+        return tokenVerifier.verify(cursor.nextToken(tokens));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtClaimsResolverBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,211 @@
+package com.packed_go.api_gateway.filter;
+
+import com.packed_go.api_gateway.ratelimit.RateLimitDecision;
+import com.packed_go.api_gateway.ratelimit.RateLimitStore;
+import com.packed_go.security.GatewayIdentityCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AdmissionControlFilter con un RateLimitStore de reemplazo que devuelve la decisión que pide
+ * cada test: sin Redis ni buckets reales se verifica la clave de cada cliente, las respuestas
+ * 429/503 y que el límite de concurrencia se libere y se ajuste con cada respuesta del backend.
+ */
+class AdmissionControlFilterTest {
+
+    private StandInRateLimitStore rateLimitStore;
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlFilter filterFactory;
+
+    @BeforeEach
+    void setUp() {
+        rateLimitStore = new StandInRateLimitStore();
+        meterRegistry = new SimpleMeterRegistry();
+        filterFactory = new AdmissionControlFilter();
+        ReflectionTestUtils.setField(filterFactory, "rateLimitStore", rateLimitStore);
+        ReflectionTestUtils.setField(filterFactory, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void forwardsAllowedRequestsWithRemainingTokens() {
+        rateLimitStore.next = RateLimitDecision.allow(7);
+        StandInChain chain = new StandInChain(HttpStatus.OK);
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/events"));
+
+        filter(config("event-service")).filter(exchange, chain).block();
+
+        assertEquals(1, chain.calls.get());
+        assertEquals("7", exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+        assertEquals(List.of("event-service:ip:10.0.0.1"), rateLimitStore.keys);
+        assertEquals(0.0, inFlight("event-service"));
+    }
+
+    @Test
+    void rejectsWith429WhenTheBucketIsEmpty() {
+        rateLimitStore.next = RateLimitDecision.deny(1_500);
+        StandInChain chain = new StandInChain(HttpStatus.OK);
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/orders"));
+
+        filter(config("order-service")).filter(exchange, chain).block();
+
+        assertEquals(0, chain.calls.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exchange.getResponse().getStatusCode());
+        assertEquals("2", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(exchange.getResponse().getBodyAsString().block().contains("\"status\": 429"));
+        assertEquals(1.0, meterRegistry.counter("gateway.admission.rejected",
+                "route", "order-service", "reason", "rate_limit").count());
+    }
+
+    @Test
+    void limitsByUserOnlyWhenTheGatewaySignedTheIdentity() {
+        GatewayFilter filter = filter(config("order-service"));
+
+        filter.filter(exchange(MockServerHttpRequest.get("/api/cart")
+                .header("X-User-Id", "42")
+                .header(GatewayIdentityCodec.HEADER, "signed-identity")), new StandInChain(HttpStatus.OK)).block();
+        // Un X-User-Id sin identidad firmada lo pudo mandar el cliente: se limita por IP
+        filter.filter(exchange(MockServerHttpRequest.get("/api/cart")
+                .header("X-User-Id", "42")), new StandInChain(HttpStatus.OK)).block();
+
+        assertEquals(List.of("order-service:user:42", "order-service:ip:10.0.0.1"), rateLimitStore.keys);
+    }
+
+    @Test
+    void rejectsWith503WhileTheRouteIsAtItsConcurrencyLimit() {
+        AdmissionControlFilter.Config config = config("order-service");
+        config.setInitialConcurrency(1);
+        config.setMinConcurrency(1);
+        config.setMaxConcurrency(1);
+        GatewayFilter filter = filter(config);
+
+        Sinks.Empty<Void> pending = Sinks.empty();
+        filter.filter(exchange(MockServerHttpRequest.get("/api/orders")), exchange -> pending.asMono()).subscribe();
+        assertEquals(1.0, inFlight("order-service"));
+
+        StandInChain chain = new StandInChain(HttpStatus.OK);
+        MockServerWebExchange rejected = exchange(MockServerHttpRequest.get("/api/orders"));
+        filter.filter(rejected, chain).block();
+
+        assertEquals(0, chain.calls.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.counter("gateway.admission.rejected",
+                "route", "order-service", "reason", "concurrency").count());
+
+        // Cuando el backend responde se libera el lugar
+        pending.tryEmitEmpty();
+        assertEquals(0.0, inFlight("order-service"));
+        filter.filter(exchange(MockServerHttpRequest.get("/api/orders")), chain).block();
+        assertEquals(1, chain.calls.get());
+    }
+
+    @Test
+    void backsOffWhenTheBackendIsOverloaded() {
+        AdmissionControlFilter.Config config = config("payment-service");
+        config.setInitialConcurrency(40);
+        config.setMinConcurrency(1);
+        config.setBackoffRatio(0.5);
+        GatewayFilter filter = filter(config);
+
+        filter.filter(exchange(MockServerHttpRequest.get("/api/payments")),
+                new StandInChain(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        assertEquals(20.0, concurrencyLimit("payment-service"));
+
+        filter.filter(exchange(MockServerHttpRequest.get("/api/payments")),
+                exchange -> Mono.error(new IllegalStateException("connection refused"))).onErrorComplete().block();
+        assertEquals(10.0, concurrencyLimit("payment-service"));
+
+        // Un 4xx es un error del cliente, no sobrecarga: el límite no baja
+        filter.filter(exchange(MockServerHttpRequest.get("/api/payments")),
+                new StandInChain(HttpStatus.NOT_FOUND)).block();
+        assertEquals(10.0, concurrencyLimit("payment-service"));
+        assertEquals(0.0, inFlight("payment-service"));
+    }
+
+    @Test
+    void skipsTheRemainingHeaderWhenTheStoreDoesNotKnowIt() {
+        rateLimitStore.next = RateLimitDecision.allow(-1);
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/events"));
+
+        filter(config("event-service")).filter(exchange, new StandInChain(HttpStatus.OK)).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst("X-RateLimit-Remaining"));
+    }
+
+    private GatewayFilter filter(AdmissionControlFilter.Config config) {
+        return filterFactory.apply(config);
+    }
+
+    private static AdmissionControlFilter.Config config(String routeId) {
+        AdmissionControlFilter.Config config = new AdmissionControlFilter.Config();
+        config.setRouteId(routeId);
+        return config;
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request.remoteAddress(new InetSocketAddress("10.0.0.1", 52000)));
+    }
+
+    private double inFlight(String routeId) {
+        return meterRegistry.get("gateway.admission.concurrency.in-flight").tag("route", routeId).gauge().value();
+    }
+
+    private double concurrencyLimit(String routeId) {
+        return meterRegistry.get("gateway.admission.concurrency.limit").tag("route", routeId).gauge().value();
+    }
+
+    /**
+     * Devuelve siempre la decisión configurada y registra las claves consultadas
+     */
+    private static final class StandInRateLimitStore implements RateLimitStore {
+
+        final List<String> keys = new ArrayList<>();
+        RateLimitDecision next = RateLimitDecision.allow(10);
+
+        @Override
+        public Mono<RateLimitDecision> tryConsume(String key, int replenishRate, int burstCapacity, int requested) {
+            keys.add(key);
+            return Mono.just(next);
+        }
+    }
+
+    /**
+     * Backend que responde de inmediato con el estado indicado
+     */
+    private static final class StandInChain implements GatewayFilterChain {
+
+        private final HttpStatus status;
+        final AtomicInteger calls = new AtomicInteger();
+
+        StandInChain(HttpStatus status) {
+            this.status = status;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            calls.incrementAndGet();
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.packed_go.api_gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AIMD del límite de concurrencia: crece de a uno con respuestas rápidas y se reduce
+ * multiplicativamente con respuestas lentas o de sobrecarga, siempre dentro de [min, max].
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 1_000_000L;          // 1 ms
+    private static final long SLOW = 2_000_000_000L;      // 2 s, por encima del umbral de 1 s
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 1, 10, 1000, 0.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(3, limiter.getInFlight());
+
+        limiter.onIgnore();
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(3, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void growsByOneWhileTheLimitIsBeingUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, 1000, 0.5);
+
+        // Con 2 de 4 en vuelo el límite se está usando: cada respuesta rápida suma uno
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.onSuccess(FAST);
+        assertEquals(5, limiter.getLimit());
+
+        // Nunca supera el máximo
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.onSuccess(FAST);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhenMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 20, 1000, 0.5);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.onSuccess(FAST);
+        }
+
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void backsOffOnSlowResponsesAndOverloadDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(40, 3, 100, 1000, 0.5);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(SLOW);
+        assertEquals(20, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.onDropped();
+        assertEquals(10, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+        assertEquals(3, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void clampsTheInitialLimitAndRejectsInvalidBounds() {
+        assertEquals(10, new AdaptiveConcurrencyLimiter(500, 1, 10, 1000, 0.9).getLimit());
+        assertEquals(5, new AdaptiveConcurrencyLimiter(0, 5, 10, 1000, 0.9).getLimit());
+
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 0, 10, 1000, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 10, 5, 1000, 0.9));
+    }
+}
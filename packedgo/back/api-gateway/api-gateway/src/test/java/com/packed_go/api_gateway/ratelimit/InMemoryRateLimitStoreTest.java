@@ -0,0 +1,90 @@
+package com.packed_go.api_gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Token buckets en memoria: ráfaga inicial, rechazo con espera sugerida, reposición perezosa
+ * y tope de claves.
+ */
+class InMemoryRateLimitStoreTest {
+
+    @Test
+    void allowsTheBurstThenDenies() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100);
+
+        for (int i = 2; i >= 0; i--) {
+            RateLimitDecision decision = store.tryConsume("route:user:1", 1, 3, 1).block();
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        RateLimitDecision denied = store.tryConsume("route:user:1", 1, 3, 1).block();
+        assertFalse(denied.allowed());
+        // A 1 token por segundo falta casi un segundo entero para el próximo
+        assertTrue(denied.retryAfterMillis() > 900 && denied.retryAfterMillis() <= 1000,
+                "retry after " + denied.retryAfterMillis());
+    }
+
+    @Test
+    void keepsOneBucketPerKey() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100);
+
+        assertTrue(store.tryConsume("route:user:1", 1, 1, 1).block().allowed());
+        assertFalse(store.tryConsume("route:user:1", 1, 1, 1).block().allowed());
+        assertTrue(store.tryConsume("route:user:2", 1, 1, 1).block().allowed());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void refillsFromElapsedTime() throws InterruptedException {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100);
+
+        assertTrue(store.tryConsume("route:ip:10.0.0.1", 1000, 1, 1).block().allowed());
+        assertFalse(store.tryConsume("route:ip:10.0.0.1", 1000, 1, 1).block().allowed());
+
+        // 1000 tokens por segundo: en 20 ms el bucket ya está lleno otra vez
+        Thread.sleep(20);
+        assertTrue(store.tryConsume("route:ip:10.0.0.1", 1000, 1, 1).block().allowed());
+    }
+
+    @Test
+    void deniesRequestsLargerThanTheBucket() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100);
+
+        RateLimitDecision decision = store.tryConsume("route:user:1", 10, 5, 6).block();
+
+        assertFalse(decision.allowed());
+        assertEquals(100, decision.retryAfterMillis());
+    }
+
+    @Test
+    void trimsKeysAboveMaxKeys() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(10);
+
+        for (int i = 0; i < 100; i++) {
+            store.tryConsume("route:user:" + i, 1, 5, 1).block();
+            assertTrue(store.size() <= 10, "size " + store.size());
+        }
+    }
+
+    @Test
+    void evictsFullBucketsFirst() throws InterruptedException {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(3);
+
+        // Un bucket que vuelve a estar lleno es igual a uno nuevo: se descarta antes que los demás
+        store.tryConsume("route:user:fast", 1000, 1, 1).block();
+        store.tryConsume("route:user:slow-1", 1, 5, 5).block();
+        store.tryConsume("route:user:slow-2", 1, 5, 5).block();
+        Thread.sleep(20);
+
+        store.tryConsume("route:user:new", 1, 5, 1).block();
+
+        assertEquals(3, store.size());
+        assertFalse(store.tryConsume("route:user:slow-1", 1, 5, 1).block().allowed());
+        assertFalse(store.tryConsume("route:user:slow-2", 1, 5, 1).block().allowed());
+    }
+}
@@ -11,19 +11,18 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.TokenVerifier;
+
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    // Clave y parser compartidos (packedgo-security-commons): se construyen una sola vez
+    private final TokenVerifier tokenVerifier;
 
     @Value("${app.jwt.expiration}")
     private Long jwtExpiration;
@@ -31,9 +30,12 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration}")
     private Long refreshTokenExpiration;
 
+    public JwtTokenProvider(TokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return tokenVerifier.signingKey();
     }
 
     public String generateToken(Authentication authentication) {
@@ -88,54 +90,26 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+        return tokenVerifier.verify(token).subject();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("userId", Long.class);
+        return tokenVerifier.verify(token).userId();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("role", String.class);
+        return tokenVerifier.verify(token).role();
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getAuthoritiesFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.get("authorities", List.class);
+        return tokenVerifier.verify(token).authorities();
     }
 
     public boolean validateToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
+            tokenVerifier.verify(authToken);
             return true;
-        } catch (JwtException | IllegalArgumentException ex) {
+        } catch (InvalidTokenException ex) {
             //log.error("Invalid JWT token: {}", ex.getMessage());
         }
         return false;
@@ -21,10 +21,12 @@ import org.springframework.web.bind.annotation.RestController;
 import com.packed_go.event_service.dtos.consumption.ConsumptionDTO;
 import com.packed_go.event_service.dtos.event.CreateEventDTO;
 import com.packed_go.event_service.dtos.event.EventDTO;
+import com.packed_go.event_service.dtos.event.EventPassCountsDTO;
 import com.packed_go.event_service.dtos.stats.EventStatsDTO;
 import com.packed_go.event_service.repositories.EventRepository;
 import com.packed_go.event_service.security.JwtTokenValidator;
 import com.packed_go.event_service.services.EventService;
+import com.packed_go.event_service.services.TicketService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +40,7 @@ public class EventController {
     private final ModelMapper modelMapper;
     private final JwtTokenValidator jwtValidator;
     private final EventRepository eventRepository;
+    private final TicketService ticketService;
 
     /**
      * 🔐 Helper: Extrae userId del JWT
@@ -64,6 +67,15 @@ public class EventController {
         return ResponseEntity.ok(service.findById(id));
     }
 
+    /**
+     * 🔓 GET /event/{id}/availability - Passes disponibles al momento (sin caché), para ORDER-SERVICE
+     * al reservar passes en un carrito
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<EventPassCountsDTO> getAvailability(@PathVariable Long id) {
+        return ResponseEntity.ok(service.getPassCounts(id));
+    }
+
     /**
      * 🔓 GET /event - Listar todos los eventos (público para consumers)
      * TODO: En producción, considerar filtrar solo eventos activos o públicos
@@ -188,6 +200,31 @@ public class EventController {
         return ResponseEntity.ok(service.deleteLogical(id));
     }
 
+    /**
+     * 🔒 POST /event/{id}/qr-key/rotate - Rotar la clave de firma de los QR del evento (solo el creador)
+     * Los QR emitidos con la clave anterior dejan de ser válidos y se re-firman los tickets existentes.
+     */
+    @PostMapping("/{id}/qr-key/rotate")
+    public ResponseEntity<Map<String, Object>> rotateQrKey(
+            @PathVariable Long id,
+            @RequestHeader("Authorization") String authHeader) {
+
+        Long userId = extractUserIdFromToken(authHeader);
+        log.info("🔑 User {} rotating QR key of event {}", userId, id);
+
+        EventDTO existingEvent = service.findById(id);
+        if (!existingEvent.getCreatedBy().equals(userId)) {
+            log.warn("⚠️ User {} tried to rotate QR key of event {} owned by {}", userId, id, existingEvent.getCreatedBy());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        int reissued = ticketService.rotateEventQrKey(id);
+        return ResponseEntity.ok(Map.of(
+                "eventId", id,
+                "reissuedTickets", reissued
+        ));
+    }
+
     /**
      * 🔓 GET /event/{eventId}/consumptions - Obtener consumiciones de un evento (público)
      */
@@ -0,0 +1,113 @@
+package com.packed_go.event_service.controllers;
+
+import java.util.Set;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.packed_go.event_service.dtos.event.EventDTO;
+import com.packed_go.event_service.dtos.gate.GateStatusDTO;
+import com.packed_go.event_service.security.JwtTokenValidator;
+import com.packed_go.event_service.services.EventService;
+import com.packed_go.event_service.services.GateModeService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller para abrir/cerrar el modo puerta de un evento.
+ * Con la puerta abierta, la validación de entradas se resuelve en memoria.
+ */
+@RestController
+@RequestMapping("/event-service/gate")
+@RequiredArgsConstructor
+@Slf4j
+public class GateController {
+
+    private static final Set<String> GATE_ROLES = Set.of("ADMIN", "SUPER_ADMIN", "EMPLOYEE");
+
+    private final GateModeService gateModeService;
+    private final EventService eventService;
+    private final JwtTokenValidator jwtValidator;
+
+    /**
+     * 🔒 POST /gate/{eventId}/open - Precarga los tickets del evento (solo el creador)
+     */
+    @PostMapping("/{eventId}/open")
+    public ResponseEntity<GateStatusDTO> openGate(
+            @PathVariable Long eventId,
+            @RequestHeader("Authorization") String authHeader) {
+        if (!isEventOwner(authHeader, eventId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(gateModeService.openGate(eventId));
+    }
+
+    /**
+     * 🔒 POST /gate/{eventId}/close - Libera la memoria del evento (solo el creador)
+     */
+    @PostMapping("/{eventId}/close")
+    public ResponseEntity<GateStatusDTO> closeGate(
+            @PathVariable Long eventId,
+            @RequestHeader("Authorization") String authHeader) {
+        if (!isEventOwner(authHeader, eventId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(gateModeService.closeGate(eventId));
+    }
+
+    /**
+     * 🔒 GET /gate/{eventId}/status - Estado del modo puerta (ADMIN o EMPLOYEE)
+     */
+    @GetMapping("/{eventId}/status")
+    public ResponseEntity<GateStatusDTO> getStatus(
+            @PathVariable Long eventId,
+            @RequestHeader("Authorization") String authHeader) {
+        if (!hasGateRole(validatedToken(authHeader))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(gateModeService.getGateStatus(eventId));
+    }
+
+    private boolean isEventOwner(String authHeader, Long eventId) {
+        String token = validatedToken(authHeader);
+        if (!hasGateRole(token)) {
+            return false;
+        }
+
+        Long userId = jwtValidator.getUserIdFromToken(token);
+        EventDTO event = eventService.findById(eventId);
+        if (!event.getCreatedBy().equals(userId)) {
+            log.warn("⚠️ User {} tried to manage gate of event {} owned by {}", userId, eventId, event.getCreatedBy());
+            return false;
+        }
+        return true;
+    }
+
+    private String validatedToken(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new RuntimeException("Missing or invalid Authorization header");
+        }
+
+        String token = authHeader.substring(7);
+        if (!jwtValidator.validateToken(token)) {
+            throw new RuntimeException("Invalid JWT token");
+        }
+        return token;
+    }
+
+    private boolean hasGateRole(String token) {
+        String role = jwtValidator.getRoleFromToken(token);
+        if (role == null || !GATE_ROLES.contains(role.toUpperCase())) {
+            log.warn("⚠️ Role {} is not allowed to use gate mode", role);
+            return false;
+        }
+        return true;
+    }
+}
@@ -4,7 +4,10 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -17,12 +20,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.packed_go.event_service.dtos.event.EventDTO;
+import com.packed_go.event_service.dtos.ticket.CreateTicketBatchRequest;
 import com.packed_go.event_service.dtos.ticket.CreateTicketDTO;
 import com.packed_go.event_service.dtos.ticket.CreateTicketWithConsumptionsRequest;
 import com.packed_go.event_service.dtos.ticket.TicketDTO;
+import com.packed_go.event_service.dtos.ticket.TicketQRDTO;
 import com.packed_go.event_service.dtos.ticket.TicketWithConsumptionsResponse;
 import com.packed_go.event_service.security.JwtTokenValidator;
 import com.packed_go.event_service.services.EventService;
+import com.packed_go.event_service.services.TicketQRImageService;
 import com.packed_go.event_service.services.TicketService;
 
 import jakarta.validation.Valid;
@@ -35,9 +41,14 @@ public class TicketController {
 
     private static final Logger log = LoggerFactory.getLogger(TicketController.class);
 
+    // Siempre se revalida con ETag: al rotar la clave del evento (o desactivar el ticket)
+    // el QR anterior deja de servir en el acto, y el 304 no renderiza la imagen
+    private static final CacheControl QR_IMAGE_CACHE = CacheControl.noCache().cachePrivate();
+
     private final TicketService ticketService;
     private final EventService eventService;
     private final JwtTokenValidator jwtValidator;
+    private final TicketQRImageService ticketQRImageService;
 
     @PostMapping
     public ResponseEntity<TicketDTO> createTicket(@RequestBody CreateTicketDTO createTicketDTO) {
@@ -52,6 +63,19 @@ public class TicketController {
         log.info("Creando ticket con consumiciones para usuario: {}, evento: {}", 
                 request.getUserId(), request.getEventId());
         TicketWithConsumptionsResponse response = ticketService.createTicketWithConsumptions(request);
+        // La imagen se genera después del commit de la compra, fuera de la transacción
+        response.setQrCode(ticketQRImageService.getDataUri(response.getTicketId(), response.getQrText()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * POST /tickets/create-batch - Emite todos los tickets de una orden pagada en una sola llamada
+     */
+    @PostMapping("/create-batch")
+    public ResponseEntity<List<TicketWithConsumptionsResponse>> createTicketsBatch(
+            @Valid @RequestBody CreateTicketBatchRequest request) {
+        log.info("Creando lote de tickets para usuario: {} ({} items)", request.getUserId(), request.getItems().size());
+        List<TicketWithConsumptionsResponse> response = ticketService.createTicketsBatch(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
@@ -76,6 +100,35 @@ public class TicketController {
         return ResponseEntity.ok(ticket);
     }
 
+    /**
+     * 🔒 GET /tickets/{ticketId}/qr.png - Imagen del QR generada bajo demanda (solo el dueño del ticket)
+     */
+    @GetMapping(value = "/{ticketId}/qr.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getTicketQRImage(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @PathVariable Long ticketId) {
+        TicketQRDTO qrData = ticketService.findQrDataById(ticketId);
+        validateAndExtractUserId(authHeader, qrData.getUserId());
+
+        // Ticket sin QR (todavía no emitido o de antes de los QR firmados): no hay imagen que servir
+        if (qrData.getQrText() == null || qrData.getQrText().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = ticketQRImageService.getETag(ticketId, qrData.getQrText());
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(QR_IMAGE_CACHE).build();
+        }
+
+        byte[] png = ticketQRImageService.getPng(ticketId, qrData.getQrText());
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(QR_IMAGE_CACHE)
+                .contentType(MediaType.IMAGE_PNG)
+                .body(png);
+    }
+
     @GetMapping("/pass-code/{passCode}")
     public ResponseEntity<TicketDTO> getTicketByPassCode(@PathVariable String passCode) {
         log.info("Obteniendo ticket con código de pass: {}", passCode);
@@ -93,10 +146,10 @@ public class TicketController {
         
         // Log para debug
         tickets.forEach(ticket -> {
-            log.info("Ticket ID: {}, Pass Code: {}, QR Code present: {}", 
+            log.info("Ticket ID: {}, Pass Code: {}, QR image: {}", 
                     ticket.getId(), 
                     ticket.getPassCode(), 
-                    ticket.getQrCode() != null && !ticket.getQrCode().isEmpty());
+                    ticket.getQrImageUrl());
         });
         
         return ResponseEntity.ok(tickets);
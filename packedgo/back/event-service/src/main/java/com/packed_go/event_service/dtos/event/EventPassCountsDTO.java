@@ -0,0 +1,19 @@
+package com.packed_go.event_service.dtos.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Disponibilidad real de un evento: valores base de la fila del evento más las ventas
+ * todavía no consolidadas de event_pass_counters (ver EventRepository.findPassCounts)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPassCountsDTO {
+    private Long eventId;
+    private Integer totalPasses;
+    private Long availablePasses;
+    private Long soldPasses;
+}
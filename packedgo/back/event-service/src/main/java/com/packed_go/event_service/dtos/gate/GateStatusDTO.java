@@ -0,0 +1,18 @@
+package com.packed_go.event_service.dtos.gate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateStatusDTO {
+    private Long eventId;
+    private Boolean open;
+    private Integer loadedTickets;
+    private Integer redeemedTickets;
+    private Integer pendingWrites;  // Canjes esperando el commit en curso del hilo escritor
+}
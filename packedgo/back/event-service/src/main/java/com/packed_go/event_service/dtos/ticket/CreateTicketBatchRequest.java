@@ -0,0 +1,32 @@
+package com.packed_go.event_service.dtos.ticket;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO para emitir en una sola transacción todos los tickets de una orden pagada.
+ * Lo llama order-service al confirmar el pago.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreateTicketBatchRequest {
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotEmpty(message = "At least one item is required")
+    @Valid
+    private List<TicketBatchItemDTO> items;
+
+    private LocalDateTime purchasedAt; // Fecha de compra desde order-service
+}
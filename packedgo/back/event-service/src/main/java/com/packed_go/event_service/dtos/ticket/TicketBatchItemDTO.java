@@ -0,0 +1,37 @@
+package com.packed_go.event_service.dtos.ticket;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entradas de un mismo evento dentro de una emisión en lote.
+ * Todas las unidades comparten las mismas consumiciones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketBatchItemDTO {
+
+    @NotNull(message = "Event ID is required")
+    private Long eventId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @Valid
+    private List<ConsumptionItemDTO> consumptions;
+
+    // Opcional: si ya se emitieron tickets con esta clave se devuelven los existentes en lugar de emitir otros
+    @Size(max = 100, message = "Idempotency key must be at most 100 characters")
+    private String idempotencyKey;
+}
@@ -15,7 +15,7 @@ public class TicketDTO {
     private Long userId;
     private PassDTO pass;
     private String passCode; // Código del pase (para mostrar en UI)
-    private String qrCode; // QR code en formato base64
+    private String qrImageUrl; // GET /tickets/{id}/qr.png (cacheable con ETag); el data URI solo viaja en la respuesta de compra
     private TicketConsumptionDTO ticketConsumption;
     
     // Event details
@@ -0,0 +1,15 @@
+package com.packed_go.event_service.dtos.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Datos mínimos para servir la imagen QR de un ticket sin cargar la entidad completa
+ */
+@Getter
+@AllArgsConstructor
+public class TicketQRDTO {
+    private Long ticketId;
+    private Long userId;
+    private String qrText;
+}
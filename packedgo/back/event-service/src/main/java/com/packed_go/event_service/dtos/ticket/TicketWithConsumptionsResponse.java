@@ -24,8 +24,10 @@ public class TicketWithConsumptionsResponse {
     private String passCode;
     private Long passId;
     
-    // QR Code for ticket validation
+    // QR Code for ticket validation: payload en texto, imagen base64 y URL de la imagen
+    private String qrText;
     private String qrCode;
+    private String qrImageUrl;
     
     // Información del evento
     private Long eventId;
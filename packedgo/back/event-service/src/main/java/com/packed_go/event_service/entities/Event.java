@@ -75,10 +75,13 @@ public class Event {
     @Column(nullable = false)
     private Integer totalPasses;
 
-    @Column(nullable = false)
+    // Valores base de disponibilidad: sólo se escriben al insertar y con las consultas de
+    // EventRepository/EventPassCounterRepository. Las ventas recientes viven en event_pass_counters
+    // hasta que PassCounterService las consolida; la disponibilidad real sale de EventRepository.findPassCounts
+    @Column(nullable = false, updatable = false)
     private Integer availablePasses;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer soldPasses;
 
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -96,6 +99,10 @@ public class Event {
     @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
     private Long version = 0L;
 
+    // Versión de la clave con la que se firman los QR del evento (rotarla invalida los QR anteriores)
+    @Column(nullable = false, columnDefinition = "INTEGER DEFAULT 1")
+    private Integer qrKeyVersion = 1;
+
     // Constructor por defecto
     public Event() {
         this.status = "ACTIVE";
@@ -109,22 +116,16 @@ public class Event {
         this.passes = new ArrayList<>();
         this.consumptions = new ArrayList<>();
         this.version = 0L;
+        this.qrKeyVersion = 1;
     }
 
-    // Métodos de utilidad para gestión de Pass
+    // Métodos de utilidad para gestión de Pass (los totales se suman con EventRepository.addPasses)
     public void addPass(Pass pass) {
         this.passes.add(pass);
-        this.totalPasses++;
-        this.availablePasses++;
-    }
-
-    public void markPassAsSold() {
-        this.soldPasses++;
-        this.availablePasses--;
     }
 
-    public boolean hasAvailablePasses() {
-        return this.availablePasses > 0;
+    public void rotateQrKey() {
+        this.qrKeyVersion++;
     }
 
 }
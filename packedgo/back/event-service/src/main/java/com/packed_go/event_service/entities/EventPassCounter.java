@@ -0,0 +1,37 @@
+package com.packed_go.event_service.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Contador de ventas de un evento repartido en varias filas (shards).
+ * Cada venta incrementa una fila distinta para no contender sobre la fila del evento;
+ * el total se obtiene sumando los shards y se consolida periódicamente en Event.
+ */
+@Entity
+@Table(name = "event_pass_counters", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"event_id", "shard"})
+})
+@Getter
+@Setter
+public class EventPassCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Integer soldPasses = 0;
+}
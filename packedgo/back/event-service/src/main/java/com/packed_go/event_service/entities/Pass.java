@@ -9,6 +9,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "passes", uniqueConstraints = {
     @UniqueConstraint(columnNames = "code")
+}, indexes = {
+    @Index(name = "idx_passes_event_available", columnList = "event_id, available")
 })
 @Getter
 @Setter
@@ -37,6 +39,11 @@ public class Pass {
     private LocalDateTime soldAt;
     private Long soldToUserId;
 
+    // Reserva del pool de asignación (PassAllocationServiceImpl): instancia dueña y vencimiento
+    @Column(length = 36)
+    private String reservedBy;
+    private LocalDateTime reservedUntil;
+
     @Version
     private Long version;
 
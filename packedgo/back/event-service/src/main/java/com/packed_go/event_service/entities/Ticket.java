@@ -46,9 +46,9 @@ public class Ticket {
     @Column(columnDefinition = "TEXT")
     private String qrText;
 
-    // Imagen del QR en formato base64 (para escanear)
-    @Column(columnDefinition = "TEXT")
-    private String qrCode;
+    // Clave de idempotencia de la emisión en lote (<clave del item>#<unidad>): un reintento no duplica tickets
+    @Column(name = "idempotency_key", unique = true, length = 120)
+    private String idempotencyKey;
 
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime purchasedAt;
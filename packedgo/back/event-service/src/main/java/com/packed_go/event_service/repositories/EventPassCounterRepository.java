@@ -0,0 +1,31 @@
+package com.packed_go.event_service.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.packed_go.event_service.entities.EventPassCounter;
+
+@Repository
+public interface EventPassCounterRepository extends JpaRepository<EventPassCounter, Long> {
+
+    // Sumar ventas al shard indicado (crea la fila si no existe)
+    @Modifying
+    @Query(value = "INSERT INTO event_pass_counters (event_id, shard, sold_passes) VALUES (:eventId, :shard, :count) " +
+                   "ON CONFLICT (event_id, shard) DO UPDATE SET sold_passes = event_pass_counters.sold_passes + EXCLUDED.sold_passes",
+           nativeQuery = true)
+    int addSoldPasses(@Param("eventId") Long eventId, @Param("shard") int shard, @Param("count") int count);
+
+    // Mover los contadores a la fila del evento en una sola sentencia. No toca la versión del evento:
+    // las columnas consolidadas no las escribe ninguna entidad, así que no hay conflicto que detectar
+    @Modifying
+    @Query(value = "WITH moved AS (DELETE FROM event_pass_counters RETURNING event_id, sold_passes), " +
+                   "totals AS (SELECT event_id, SUM(sold_passes) AS sold FROM moved GROUP BY event_id) " +
+                   "UPDATE events e SET sold_passes = e.sold_passes + t.sold, " +
+                   "available_passes = e.available_passes - t.sold " +
+                   "FROM totals t WHERE e.id = t.event_id",
+           nativeQuery = true)
+    int foldIntoEvents();
+}
@@ -1,15 +1,18 @@
 package com.packed_go.event_service.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.packed_go.event_service.dtos.event.EventPassCountsDTO;
 import com.packed_go.event_service.entities.Event;
 
 import jakarta.persistence.LockModeType;
@@ -33,12 +36,43 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT e FROM Event e WHERE e.id = :id")
     Optional<Event> findByIdWithLock(@Param("id") Long id);
 
-    @Query("SELECT e FROM Event e WHERE e.availablePasses > 0")
+    // La disponibilidad real descuenta las ventas aún no consolidadas de event_pass_counters
+    @Query("SELECT e FROM Event e " +
+           "WHERE e.availablePasses - COALESCE((SELECT SUM(c.soldPasses) FROM EventPassCounter c WHERE c.eventId = e.id), 0) > 0")
     List<Event> findEventsWithAvailablePasses();
 
-    @Query("SELECT COUNT(e) FROM Event e WHERE e.id = :eventId AND e.availablePasses > 0")
+    @Query("SELECT COUNT(e) FROM Event e WHERE e.id = :eventId " +
+           "AND e.availablePasses - COALESCE((SELECT SUM(c.soldPasses) FROM EventPassCounter c WHERE c.eventId = e.id), 0) > 0")
     Long hasAvailablePasses(@Param("eventId") Long eventId);
 
+    @Query("SELECT new com.packed_go.event_service.dtos.event.EventPassCountsDTO(e.id, e.totalPasses, " +
+           "e.availablePasses - COALESCE((SELECT SUM(c.soldPasses) FROM EventPassCounter c WHERE c.eventId = e.id), 0), " +
+           "e.soldPasses + COALESCE((SELECT SUM(c.soldPasses) FROM EventPassCounter c WHERE c.eventId = e.id), 0)) " +
+           "FROM Event e WHERE e.id IN :eventIds")
+    List<EventPassCountsDTO> findPassCounts(@Param("eventIds") Collection<Long> eventIds);
+
+    // Las columnas de passes no las escribe la entidad: se ajustan con sentencias puntuales sin tocar la versión
+    @Modifying
+    @Query(value = "UPDATE events SET total_passes = total_passes + :quantity, " +
+                   "available_passes = available_passes + :quantity WHERE id = :eventId",
+           nativeQuery = true)
+    int addPasses(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+
+    // Los valores indicados son los reales: se compensan las ventas aún no consolidadas
+    @Modifying
+    @Query(value = "UPDATE events SET available_passes = :available + " +
+                   "COALESCE((SELECT SUM(c.sold_passes) FROM event_pass_counters c WHERE c.event_id = :eventId), 0) " +
+                   "WHERE id = :eventId",
+           nativeQuery = true)
+    int overrideAvailablePasses(@Param("eventId") Long eventId, @Param("available") int available);
+
+    @Modifying
+    @Query(value = "UPDATE events SET sold_passes = :sold - " +
+                   "COALESCE((SELECT SUM(c.sold_passes) FROM event_pass_counters c WHERE c.event_id = :eventId), 0) " +
+                   "WHERE id = :eventId",
+           nativeQuery = true)
+    int overrideSoldPasses(@Param("eventId") Long eventId, @Param("sold") int sold);
+
     // ========== QUERIES MULTI-TENANT (NUEVAS) ==========
     /**
      * 🔒 Encuentra un evento por ID y createdBy (validación de ownership)
@@ -72,10 +106,14 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT COALESCE(SUM(e.maxCapacity), 0) FROM Event e WHERE e.createdBy = :createdBy")
     Long sumMaxCapacityByCreatedBy(@Param("createdBy") Long createdBy);
     
-    @Query("SELECT COALESCE(SUM(e.availablePasses), 0) FROM Event e WHERE e.createdBy = :createdBy")
+    @Query("SELECT COALESCE(SUM(e.availablePasses), 0) - " +
+           "COALESCE((SELECT SUM(c.soldPasses) FROM EventPassCounter c, Event ce WHERE ce.id = c.eventId AND ce.createdBy = :createdBy), 0) " +
+           "FROM Event e WHERE e.createdBy = :createdBy")
     Long sumAvailablePassesByCreatedBy(@Param("createdBy") Long createdBy);
     
-    @Query("SELECT COALESCE(SUM(e.soldPasses), 0) FROM Event e WHERE e.createdBy = :createdBy")
+    @Query("SELECT COALESCE(SUM(e.soldPasses), 0) + " +
+           "COALESCE((SELECT SUM(c.soldPasses) FROM EventPassCounter c, Event ce WHERE ce.id = c.eventId AND ce.createdBy = :createdBy), 0) " +
+           "FROM Event e WHERE e.createdBy = :createdBy")
     Long sumSoldPassesByCreatedBy(@Param("createdBy") Long createdBy);
 
 }
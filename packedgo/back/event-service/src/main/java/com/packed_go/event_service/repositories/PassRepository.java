@@ -44,11 +44,6 @@ public interface PassRepository extends JpaRepository<Pass, Long> {
     @Query("SELECT COUNT(p) FROM Pass p WHERE p.event.id = :eventId AND p.sold = true")
     Long countSoldPassesByEventId(@Param("eventId") Long eventId);
 
-    // Buscar un pass disponible de un evento específico con bloqueo pesimista
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT p FROM Pass p WHERE p.event.id = :eventId AND p.available = true ORDER BY p.id ASC")
-    List<Pass> findAvailablePassesByEventIdWithLock(@Param("eventId") Long eventId);
-
     // Buscar pass por ID con bloqueo pesimista
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Pass p WHERE p.id = :id")
@@ -1,5 +1,6 @@
 package com.packed_go.event_service.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.packed_go.event_service.dtos.ticket.TicketQRDTO;
 import com.packed_go.event_service.entities.Ticket;
 
 import jakarta.persistence.LockModeType;
@@ -24,6 +26,17 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     @Query("SELECT t FROM Ticket t LEFT JOIN FETCH t.pass WHERE t.userId = :userId AND t.active = true")
     List<Ticket> findByUserIdAndActiveTrue(@Param("userId") Long userId);
 
+    // Datos para renderizar la imagen QR (sin cargar pass ni consumiciones)
+    @Query("SELECT new com.packed_go.event_service.dtos.ticket.TicketQRDTO(t.id, t.userId, t.qrText) " +
+           "FROM Ticket t WHERE t.id = :id")
+    Optional<TicketQRDTO> findQrDataById(@Param("id") Long id);
+
+    // Tickets emitidos por un lote anterior con las mismas claves de idempotencia (con pass, evento y consumiciones)
+    @Query("SELECT DISTINCT t FROM Ticket t JOIN FETCH t.pass p JOIN FETCH p.event " +
+           "JOIN FETCH t.ticketConsumption tc LEFT JOIN FETCH tc.consumptionDetails d LEFT JOIN FETCH d.consumption " +
+           "WHERE t.idempotencyKey IN :keys ORDER BY t.id")
+    List<Ticket> findIssuedByIdempotencyKeys(@Param("keys") Collection<String> keys);
+
     // Buscar ticket por pass
     Optional<Ticket> findByPass_Id(Long passId);
 
@@ -68,6 +81,11 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     @Query("SELECT t FROM Ticket t LEFT JOIN FETCH t.pass p LEFT JOIN FETCH p.event WHERE t.id = :id")
     Optional<Ticket> findByIdWithPass(@Param("id") Long id);
 
+    // Filas compactas para el índice de modo puerta: [ticketId, userId, passCode, redeemed]
+    @Query("SELECT t.id, t.userId, p.code, t.redeemed FROM Ticket t JOIN t.pass p " +
+           "WHERE p.event.id = :eventId AND t.active = true ORDER BY t.id ASC")
+    List<Object[]> findGateEntriesByEventId(@Param("eventId") Long eventId);
+
     // Buscar ticket por TicketConsumption
     @Query("SELECT t FROM Ticket t WHERE t.ticketConsumption = :ticketConsumption")
     Optional<Ticket> findByTicketConsumption(@Param("ticketConsumption") com.packed_go.event_service.entities.TicketConsumption ticketConsumption);
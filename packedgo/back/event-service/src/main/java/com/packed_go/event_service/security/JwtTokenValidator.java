@@ -1,20 +1,18 @@
 package com.packed_go.event_service.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import com.packed_go.security.GatewayIdentity;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.TokenVerifier;
+
 import java.util.List;
 
 /**
  * JWT Utility compartida entre microservicios
- * Permite validar tokens generados por auth-service
+ * Permite validar tokens generados por auth-service (sobre el TokenVerifier de packedgo-security-commons)
+ * Si el api-gateway ya verificó este mismo token (GatewayIdentity), userId y rol salen de ahí
  */
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,66 +21,47 @@ import org.slf4j.LoggerFactory;
 public class JwtTokenValidator {
     private static final Logger log = LoggerFactory.getLogger(JwtTokenValidator.class);
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final TokenVerifier tokenVerifier;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtTokenValidator(TokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
     }
 
     public boolean validateToken(String token) {
+        if (GatewayIdentity.forToken(token) != null) {
+            return true;
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            tokenVerifier.verify(token);
             return true;
-        } catch (JwtException | IllegalArgumentException ex) {
+        } catch (InvalidTokenException ex) {
             log.error("Invalid JWT token: {}", ex.getMessage());
             return false;
         }
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
+        return tokenVerifier.verify(token).subject();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("userId", Long.class);
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.userId();
+        }
+        return tokenVerifier.verify(token).userId();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("role", String.class);
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.role();
+        }
+        return tokenVerifier.verify(token).role();
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getAuthoritiesFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("authorities", List.class);
+        return tokenVerifier.verify(token).authorities();
     }
 
     /**
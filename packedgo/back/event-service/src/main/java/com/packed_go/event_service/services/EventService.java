@@ -6,6 +6,7 @@ import java.util.List;
 import com.packed_go.event_service.dtos.consumption.ConsumptionDTO;
 import com.packed_go.event_service.dtos.event.CreateEventDTO;
 import com.packed_go.event_service.dtos.event.EventDTO;
+import com.packed_go.event_service.dtos.event.EventPassCountsDTO;
 
 import jakarta.transaction.Transactional;
 
@@ -15,6 +16,9 @@ public interface EventService {
     List<EventDTO> findAllByIds(List<Long> ids);
     List<EventDTO> findByCreatedBy(Long createdBy);
 
+    // Disponibilidad real del evento (una consulta, sin cargar la entidad)
+    EventPassCountsDTO getPassCounts(Long id);
+
     List<EventDTO> findAllByStatus(String status);
 
     List<EventDTO> findAllByEventDate(LocalDateTime eventDate);
@@ -0,0 +1,39 @@
+package com.packed_go.event_service.services;
+
+import java.util.Optional;
+
+import com.packed_go.event_service.dtos.gate.GateStatusDTO;
+import com.packed_go.event_service.dtos.qr.ValidateEntryQRResponse;
+import com.packed_go.security.qr.QRPayload;
+
+/**
+ * Modo puerta: validación de entradas en memoria para eventos abiertos.
+ */
+public interface GateModeService {
+
+    /**
+     * Precarga los tickets activos del evento en un índice en memoria
+     */
+    GateStatusDTO openGate(Long eventId);
+
+    /**
+     * Libera el índice del evento
+     */
+    GateStatusDTO closeGate(Long eventId);
+
+    boolean isGateOpen(Long eventId);
+
+    GateStatusDTO getGateStatus(Long eventId);
+
+    /**
+     * Valida una entrada desde memoria y la canjea en la base antes de autorizarla.
+     * Retorna vacío si el evento no tiene la puerta abierta, el ticket no está en el índice
+     * o la base rechazó el canje, en cuyo caso se debe usar la validación contra la base de datos.
+     */
+    Optional<ValidateEntryQRResponse> validateEntry(Long eventId, QRPayload qrData);
+
+    /**
+     * Actualiza la versión de clave QR del índice tras una rotación (los QR anteriores quedan revocados)
+     */
+    void onQrKeyRotated(Long eventId, int qrKeyVersion);
+}
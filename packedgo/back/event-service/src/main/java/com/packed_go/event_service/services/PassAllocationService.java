@@ -0,0 +1,32 @@
+package com.packed_go.event_service.services;
+
+import java.util.List;
+
+import com.packed_go.event_service.entities.Pass;
+
+/**
+ * Asignación de passes disponibles a compradores concurrentes sin bloquear el evento.
+ */
+public interface PassAllocationService {
+
+    /**
+     * Reserva un pass disponible del evento y lo marca como vendido al usuario.
+     * Debe llamarse dentro de la transacción de la compra: si ésta hace rollback el pass vuelve a estar disponible.
+     *
+     * @throws com.packed_go.event_service.exceptions.NoPassesAvailableException si el evento no tiene passes libres
+     */
+    Pass allocate(Long eventId, Long userId);
+
+    /**
+     * Reserva varios passes del evento con un único UPDATE por lote de candidatos.
+     * Mismas reglas transaccionales que {@link #allocate(Long, Long)}: o se obtienen todos o se lanza la excepción.
+     *
+     * @throws com.packed_go.event_service.exceptions.NoPassesAvailableException si no alcanzan los passes libres
+     */
+    List<Pass> allocate(Long eventId, Long userId, int quantity);
+
+    /**
+     * Descarta los ids precargados del evento (p. ej. al desactivarlo o regenerar sus passes)
+     */
+    void evict(Long eventId);
+}
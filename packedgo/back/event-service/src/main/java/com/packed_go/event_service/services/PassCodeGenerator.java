@@ -0,0 +1,58 @@
+package com.packed_go.event_service.services;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Códigos de pass sin colisiones y sin consultar la base por cada código.
+ *
+ * Formato: PKG-{eventId}-{XXXXXXXX}. Los 8 caracteres finales (los que se muestran en el email
+ * y se usan para buscar la entrada a mano) son una permutación biyectiva de 40 bits de un número
+ * de la secuencia de passes, en base 36: dos números distintos nunca dan el mismo sufijo, y los
+ * sufijos consecutivos no se parecen entre sí.
+ */
+@Component
+@RequiredArgsConstructor
+public class PassCodeGenerator {
+
+    private static final String RESERVE_SERIALS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('passes', 'id')) FROM generate_series(1, ?)";
+
+    private static final long MASK_40 = (1L << 40) - 1;
+    private static final long MULTIPLIER_1 = 0x9E3779B97L;   // impares: multiplicar mod 2^40 es biyectivo
+    private static final long MULTIPLIER_2 = 0xC2B2AE3D27L;
+    private static final int SUFFIX_LENGTH = 8;               // 36^8 > 2^40
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva números de la secuencia de ids de passes. En la generación masiva se usan
+     * como id del pass y como base del código.
+     */
+    public List<Long> reserveSerials(int count) {
+        return jdbcTemplate.queryForList(RESERVE_SERIALS_SQL, Long.class, count);
+    }
+
+    public String nextCode(Long eventId) {
+        return codeFor(eventId, reserveSerials(1).get(0));
+    }
+
+    public String codeFor(Long eventId, long serial) {
+        return "PKG-" + eventId + "-" + suffixFor(serial);
+    }
+
+    static String suffixFor(long serial) {
+        long x = serial & MASK_40;
+        x = (x * MULTIPLIER_1) & MASK_40;
+        x ^= x >>> 21;
+        x = (x * MULTIPLIER_2) & MASK_40;
+        x ^= x >>> 19;
+
+        String base36 = Long.toString(x, 36).toUpperCase();
+        return "0".repeat(SUFFIX_LENGTH - base36.length()) + base36;
+    }
+}
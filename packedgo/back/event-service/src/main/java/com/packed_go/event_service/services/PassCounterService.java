@@ -0,0 +1,17 @@
+package com.packed_go.event_service.services;
+
+/**
+ * Contadores de ventas por evento repartidos en shards para evitar la fila caliente del evento.
+ */
+public interface PassCounterService {
+
+    /**
+     * Registra passes vendidos en uno de los shards del evento, dentro de la transacción actual
+     */
+    void recordSold(Long eventId, int count);
+
+    /**
+     * Consolida los shards en las columnas soldPasses/availablePasses del evento
+     */
+    void foldCounters();
+}
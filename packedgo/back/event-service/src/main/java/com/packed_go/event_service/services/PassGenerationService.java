@@ -1,56 +1,69 @@
-
 package com.packed_go.event_service.services;
 
-import com.packed_go.event_service.entities.Event;
-import com.packed_go.event_service.entities.Pass;
 import com.packed_go.event_service.repositories.EventRepository;
-import com.packed_go.event_service.repositories.PassRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
+/**
+ * Generación masiva de passes.
+ *
+ * Los ids se reservan en bloque de la secuencia de passes y el mismo número da el código
+ * (ver PassCodeGenerator), así que no hay consultas por código ni INSERTs de a uno:
+ * las filas se insertan con JDBC batch (reWriteBatchedInserts los convierte en INSERTs multi-fila).
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PassGenerationService {
 
-    private final PassRepository passRepository;
+    private static final String INSERT_PASS_SQL =
+            "INSERT INTO passes (id, code, event_id, active, available, sold, created_at, version) " +
+            "VALUES (?, ?, ?, true, true, false, ?, 0)";
+
     private final EventRepository eventRepository;
+    private final PassCodeGenerator passCodeGenerator;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.passes.generation-chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${app.passes.generation-batch-size:1000}")
+    private int batchSize;
 
+    /**
+     * @return cantidad de passes generados
+     */
     @Transactional
-    public List<Pass> generatePassesForEvent(Long eventId, Integer quantity) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + eventId));
-
-        List<Pass> newPasses = new ArrayList<>();
-        for (int i = 0; i < quantity; i++) {
-            String code = generateUniqueCode(eventId);
-            Pass pass = new Pass();
-            pass.setCode(code);
-            pass.setEvent(event);
-            pass.setAvailable(true);
-            pass.setSold(false);
-            newPasses.add(pass);
+    public int generatePassesForEvent(Long eventId, Integer quantity) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Event not found with id: " + eventId);
         }
 
-        List<Pass> savedPasses = passRepository.saveAll(newPasses);
-
-        event.setTotalPasses(event.getTotalPasses() + quantity);
-        event.setAvailablePasses(event.getAvailablePasses() + quantity);
-        eventRepository.save(event);
+        long start = System.currentTimeMillis();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int generated = 0; generated < quantity; ) {
+            int count = Math.min(chunkSize, quantity - generated);
+            List<Long> ids = passCodeGenerator.reserveSerials(count);
+            jdbcTemplate.batchUpdate(INSERT_PASS_SQL, ids, batchSize, (ps, id) -> {
+                ps.setLong(1, id);
+                ps.setString(2, passCodeGenerator.codeFor(eventId, id));
+                ps.setLong(3, eventId);
+                ps.setTimestamp(4, createdAt);
+            });
+            generated += count;
+        }
 
-        log.info("✅ Generated {} passes for event {}", quantity, eventId);
-        return savedPasses;
-    }
+        eventRepository.addPasses(eventId, quantity);
 
-    private String generateUniqueCode(Long eventId) {
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return String.format("PKG-%d-%s-%s", eventId, timestamp, random);
+        log.info("✅ Generated {} passes for event {} in {} ms", quantity, eventId, System.currentTimeMillis() - start);
+        return quantity;
     }
 }
@@ -0,0 +1,16 @@
+package com.packed_go.event_service.services;
+
+import java.math.BigDecimal;
+
+/**
+ * Avisa a order-service los cambios de precio para que reprecie los carritos activos.
+ * El aviso sale después del commit (si hay transacción) y en segundo plano: un fallo solo se loguea.
+ * order-service relee el precio vigente en cada aviso y reconcilia periódicamente los carritos
+ * activos, así que un aviso perdido o fuera de orden no deja precios viejos.
+ */
+public interface PriceChangeNotifier {
+
+    void eventPriceChanged(Long eventId, BigDecimal newPrice);
+
+    void consumptionPriceChanged(Long consumptionId, BigDecimal newPrice);
+}
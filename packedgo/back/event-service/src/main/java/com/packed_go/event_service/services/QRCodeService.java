@@ -20,4 +20,11 @@ public interface QRCodeService {
      * @return Base64-encoded PNG image string
      */
     String generateQRCodeBase64(String data);
+
+    /**
+     * Generates a QR code with default dimensions (300x300) as raw PNG bytes
+     * @param data The data to encode in the QR code
+     * @return PNG image bytes
+     */
+    byte[] generateQRCodePng(String data);
 }
@@ -0,0 +1,23 @@
+package com.packed_go.event_service.services;
+
+/**
+ * Imágenes QR de los tickets generadas bajo demanda a partir de qrText (no se persisten).
+ */
+public interface TicketQRImageService {
+
+    /**
+     * PNG del QR del ticket, servido desde caché si el qrText no cambió
+     */
+    byte[] getPng(Long ticketId, String qrText);
+
+    /**
+     * ETag fuerte del PNG, calculado del qrText sin renderizar (cambia solo si cambia el qrText,
+     * p. ej. al rotar la clave del evento)
+     */
+    String getETag(Long ticketId, String qrText);
+
+    /**
+     * PNG como data URI, solo para la respuesta de compra (los listados traen qrImageUrl)
+     */
+    String getDataUri(Long ticketId, String qrText);
+}
@@ -2,9 +2,11 @@ package com.packed_go.event_service.services;
 
 import java.util.List;
 
+import com.packed_go.event_service.dtos.ticket.CreateTicketBatchRequest;
 import com.packed_go.event_service.dtos.ticket.CreateTicketDTO;
 import com.packed_go.event_service.dtos.ticket.CreateTicketWithConsumptionsRequest;
 import com.packed_go.event_service.dtos.ticket.TicketDTO;
+import com.packed_go.event_service.dtos.ticket.TicketQRDTO;
 import com.packed_go.event_service.dtos.ticket.TicketWithConsumptionsResponse;
 
 import jakarta.transaction.Transactional;
@@ -20,11 +22,22 @@ public interface TicketService {
     @Transactional
     TicketWithConsumptionsResponse createTicketWithConsumptions(CreateTicketWithConsumptionsRequest request);
 
+    /**
+     * Emite todos los tickets de una orden en una sola transacción: passes reservados en bloque
+     * por evento y tickets, consumiciones y detalles insertados con JDBC batch.
+     * Las respuestas traen el payload del QR (qrText) y su qrImageUrl, sin la imagen.
+     * Los items con idempotencyKey ya emitidos devuelven sus tickets existentes en lugar de emitir otros.
+     */
+    @Transactional
+    List<TicketWithConsumptionsResponse> createTicketsBatch(CreateTicketBatchRequest request);
+
     @Transactional
     TicketDTO redeemTicket(Long ticketId);
 
     TicketDTO findById(Long id);
 
+    TicketQRDTO findQrDataById(Long id);
+
     TicketDTO findByPassCode(String passCode);
 
     List<TicketDTO> findByUserId(Long userId);
@@ -42,5 +55,13 @@ public interface TicketService {
     @Transactional
     boolean isTicketRedeemed(Long ticketId);
 
+    /**
+     * Rota la clave de firma QR del evento y vuelve a firmar los QR de sus tickets.
+     * Los QR firmados con la clave anterior dejan de ser válidos.
+     * @return cantidad de tickets re-firmados
+     */
+    @Transactional
+    int rotateEventQrKey(Long eventId);
+
     java.util.Map<String, Long> getTicketRedemptionStatsByOrganizer(Long organizerId);
 }
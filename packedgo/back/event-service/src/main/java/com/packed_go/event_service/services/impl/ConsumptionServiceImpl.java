@@ -1,5 +1,6 @@
 package com.packed_go.event_service.services.impl;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.modelmapper.ModelMapper;
@@ -12,6 +13,7 @@ import com.packed_go.event_service.entities.ConsumptionCategory;
 import com.packed_go.event_service.repositories.ConsumptionCategoryRepository;
 import com.packed_go.event_service.repositories.ConsumptionRepository;
 import com.packed_go.event_service.services.ConsumptionService;
+import com.packed_go.event_service.services.PriceChangeNotifier;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,7 @@ public class ConsumptionServiceImpl implements ConsumptionService {
     private final ConsumptionRepository consumptionRepository;
     private final ConsumptionCategoryRepository consumptionCategoryRepository;
     private final ModelMapper modelMapper;
+    private final PriceChangeNotifier priceChangeNotifier;
 
     @Override
     public ConsumptionDTO findById(Long id) {
@@ -166,10 +169,13 @@ public class ConsumptionServiceImpl implements ConsumptionService {
             existingConsumption.setCategory(category);
         }
 
+        BigDecimal previousPrice = existingConsumption.getPrice();
+
         // Mapear campos actualizables del DTO a la entidad existente
         modelMapper.map(dto, existingConsumption);
 
         Consumption updatedConsumption = consumptionRepository.save(existingConsumption);
+        notifyIfPriceChanged(updatedConsumption, previousPrice);
         return mapToDTO(updatedConsumption);
     }
     
@@ -188,6 +194,8 @@ public class ConsumptionServiceImpl implements ConsumptionService {
             existingConsumption.setCategory(category);
         }
 
+        BigDecimal previousPrice = existingConsumption.getPrice();
+
         // Mapear campos actualizables (excepto createdBy que no debe cambiar)
         existingConsumption.setName(dto.getName());
         existingConsumption.setDescription(dto.getDescription());
@@ -214,6 +222,7 @@ public class ConsumptionServiceImpl implements ConsumptionService {
         }
 
         Consumption updatedConsumption = consumptionRepository.save(existingConsumption);
+        notifyIfPriceChanged(updatedConsumption, previousPrice);
         return mapToDTO(updatedConsumption);
     }
 
@@ -268,4 +277,14 @@ public class ConsumptionServiceImpl implements ConsumptionService {
 
         return mapToDTO(updatedConsumption);
     }
+
+    /**
+     * Avisa a order-service para repreciar los carritos activos con esta consumición
+     */
+    private void notifyIfPriceChanged(Consumption consumption, BigDecimal previousPrice) {
+        if (consumption.getPrice() != null
+                && (previousPrice == null || previousPrice.compareTo(consumption.getPrice()) != 0)) {
+            priceChangeNotifier.consumptionPriceChanged(consumption.getId(), consumption.getPrice());
+        }
+    }
 }
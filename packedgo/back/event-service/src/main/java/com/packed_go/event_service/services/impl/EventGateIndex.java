@@ -0,0 +1,154 @@
+package com.packed_go.event_service.services.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Índice compacto en memoria de los tickets activos de un evento (modo puerta).
+ * Los ticketIds se guardan ordenados para buscar por búsqueda binaria y el estado
+ * "canjeado" vive en un bitset concurrente, de modo que un escaneo repetido se rechaza
+ * sin tocar la base de datos. Un segundo bitset marca los tickets cuyo estado en memoria
+ * dejó de ser confiable (la base rechazó el canje): esos se resuelven siempre contra la base.
+ */
+final class EventGateIndex {
+
+    private final Long eventId;
+    private final String eventName;
+    private volatile int qrKeyVersion;
+    private final long[] ticketIds;
+    private final long[] userIds;
+    private final String[] passSuffixes;
+    private final AtomicLongArray redeemedBits;
+    private final AtomicLongArray invalidBits;
+
+    private EventGateIndex(Long eventId, String eventName, int qrKeyVersion, int size) {
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.qrKeyVersion = qrKeyVersion;
+        this.ticketIds = new long[size];
+        this.userIds = new long[size];
+        this.passSuffixes = new String[size];
+        this.redeemedBits = new AtomicLongArray((size + 63) >>> 6);
+        this.invalidBits = new AtomicLongArray((size + 63) >>> 6);
+    }
+
+    /**
+     * Construye el índice a partir de filas [ticketId, userId, passCode, redeemed]
+     * ordenadas por ticketId ascendente.
+     */
+    static EventGateIndex build(Long eventId, String eventName, int qrKeyVersion, List<Object[]> rows) {
+        EventGateIndex index = new EventGateIndex(eventId, eventName, qrKeyVersion, rows.size());
+        for (int slot = 0; slot < rows.size(); slot++) {
+            Object[] row = rows.get(slot);
+            index.ticketIds[slot] = (Long) row[0];
+            index.userIds[slot] = (Long) row[1];
+            index.passSuffixes[slot] = passCodeSuffix((String) row[2]);
+            if (Boolean.TRUE.equals(row[3])) {
+                setBit(index.redeemedBits, slot);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @return la posición del ticket en el índice, o un valor negativo si no está cargado
+     */
+    int slotOf(long ticketId) {
+        return Arrays.binarySearch(ticketIds, ticketId);
+    }
+
+    /**
+     * Marca el ticket como canjeado de forma atómica.
+     * @return true si este llamado fue el que lo canjeó, false si ya estaba canjeado
+     */
+    boolean tryRedeem(int slot) {
+        return setBit(redeemedBits, slot);
+    }
+
+    boolean isRedeemed(int slot) {
+        return isSet(redeemedBits, slot);
+    }
+
+    /**
+     * Saca el ticket de la validación en memoria: los próximos escaneos van a la base
+     */
+    void invalidate(int slot) {
+        setBit(invalidBits, slot);
+    }
+
+    boolean isInvalidated(int slot) {
+        return isSet(invalidBits, slot);
+    }
+
+    long ticketIdAt(int slot) {
+        return ticketIds[slot];
+    }
+
+    long userIdAt(int slot) {
+        return userIds[slot];
+    }
+
+    String passSuffixAt(int slot) {
+        return passSuffixes[slot];
+    }
+
+    Long getEventId() {
+        return eventId;
+    }
+
+    String getEventName() {
+        return eventName;
+    }
+
+    int getQrKeyVersion() {
+        return qrKeyVersion;
+    }
+
+    void updateQrKeyVersion(int qrKeyVersion) {
+        this.qrKeyVersion = qrKeyVersion;
+    }
+
+    int size() {
+        return ticketIds.length;
+    }
+
+    int redeemedCount() {
+        int count = 0;
+        for (int i = 0; i < redeemedBits.length(); i++) {
+            count += Long.bitCount(redeemedBits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * @return true si este llamado fue el que encendió el bit
+     */
+    private static boolean setBit(AtomicLongArray bits, int slot) {
+        int word = slot >>> 6;
+        long mask = 1L << (slot & 63);
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static boolean isSet(AtomicLongArray bits, int slot) {
+        return (bits.get(slot >>> 6) & (1L << (slot & 63))) != 0;
+    }
+
+    private static String passCodeSuffix(String passCode) {
+        if (passCode == null) {
+            return "N/A";
+        }
+        if (passCode.length() <= 8) {
+            return passCode;
+        }
+        return passCode.substring(passCode.length() - 8);
+    }
+}
@@ -1,8 +1,12 @@
 package com.packed_go.event_service.services.impl;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +15,7 @@ import org.springframework.stereotype.Service;
 import com.packed_go.event_service.dtos.consumption.ConsumptionDTO;
 import com.packed_go.event_service.dtos.event.CreateEventDTO;
 import com.packed_go.event_service.dtos.event.EventDTO;
+import com.packed_go.event_service.dtos.event.EventPassCountsDTO;
 import com.packed_go.event_service.dtos.eventCategory.EventCategoryDTO;
 import com.packed_go.event_service.entities.Consumption;
 import com.packed_go.event_service.entities.Event;
@@ -25,7 +30,10 @@ import com.packed_go.event_service.repositories.PassRepository;
 import com.packed_go.event_service.repositories.TicketRepository;
 import com.packed_go.event_service.services.ConsumptionService;
 import com.packed_go.event_service.services.EventService;
+import com.packed_go.event_service.services.GateModeService;
+import com.packed_go.event_service.services.PassAllocationService;
 import com.packed_go.event_service.services.PassGenerationService;
+import com.packed_go.event_service.services.PriceChangeNotifier;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -57,6 +65,10 @@ public class EventServiceImpl implements EventService {
     
     private final PassGenerationService passGenerationService;
 
+    private final GateModeService gateModeService;
+    private final PassAllocationService passAllocationService;
+    private final PriceChangeNotifier priceChangeNotifier;
+
     private EventDTO mapEventToDTO(Event event) {
         EventDTO eventDTO = modelMapper.map(event, EventDTO.class);
         
@@ -85,23 +97,57 @@ public class EventServiceImpl implements EventService {
         return eventDTO;
     }
 
+    /**
+     * Completa los totales de passes con la disponibilidad real (una sola consulta para toda la lista):
+     * las columnas del evento no incluyen las ventas que todavía están en event_pass_counters
+     */
+    private List<EventDTO> withPassCounts(List<EventDTO> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        Map<Long, EventPassCountsDTO> counts = eventRepository.findPassCounts(events.stream().map(EventDTO::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(EventPassCountsDTO::getEventId, Function.identity()));
+        for (EventDTO event : events) {
+            EventPassCountsDTO eventCounts = counts.get(event.getId());
+            if (eventCounts != null) {
+                event.setTotalPasses(eventCounts.getTotalPasses());
+                event.setAvailablePasses(eventCounts.getAvailablePasses().intValue());
+                event.setSoldPasses(eventCounts.getSoldPasses().intValue());
+            }
+        }
+        return events;
+    }
+
+    private EventDTO withPassCounts(EventDTO event) {
+        withPassCounts(List.of(event));
+        return event;
+    }
+
     @Override
     public EventDTO findById(Long id) {
         Optional<Event> eventExist = eventRepository.findById(id);
         if (eventExist.isPresent()) {
-            return mapEventToDTO(eventExist.get());
+            return withPassCounts(mapEventToDTO(eventExist.get()));
         } else {
             throw new RuntimeException("Event with id" + id + " not found");
         }
 
     }
 
+    @Override
+    public EventPassCountsDTO getPassCounts(Long id) {
+        return eventRepository.findPassCounts(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Event with id " + id + " not found"));
+    }
+
     @Override
     public List<EventDTO> findAll() {
         List<Event> eventEntities = eventRepository.findAll();
         return eventEntities.stream()
                 .map(this::mapEventToDTO)
-                .toList();
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::withPassCounts));
     }
 
     @Override
@@ -109,7 +155,7 @@ public class EventServiceImpl implements EventService {
         List<Event> eventEntities = eventRepository.findByCreatedBy(createdBy);
         return eventEntities.stream()
                 .map(this::mapEventToDTO)
-                .toList();
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::withPassCounts));
     }
 
     @Override
@@ -120,7 +166,7 @@ public class EventServiceImpl implements EventService {
         List<Event> events = eventRepository.findAllById(ids);
         return events.stream()
                 .map(this::mapEventToDTO)
-                .toList();
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::withPassCounts));
     }
 
 
@@ -128,21 +174,24 @@ public class EventServiceImpl implements EventService {
     public List<EventDTO> findAllByStatus(String status) {
         List<Event> eventEntities = eventRepository.findAll();
         return eventEntities.stream().filter(entity -> entity.getStatus().equalsIgnoreCase(status)) // filtramos por status
-                .map(entity -> modelMapper.map(entity, EventDTO.class)).toList();
+                .map(entity -> modelMapper.map(entity, EventDTO.class))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::withPassCounts));
     }
 
     @Override
     public List<EventDTO> findAllByEventDate(LocalDateTime eventDate) {
         List<Event> eventEntities = eventRepository.findAll();
         return eventEntities.stream().filter(entity -> entity.getEventDate().equals(eventDate)) // filtramos por status
-                .map(entity -> modelMapper.map(entity, EventDTO.class)).toList();
+                .map(entity -> modelMapper.map(entity, EventDTO.class))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::withPassCounts));
     }
 
     @Override
     public List<EventDTO> findAllByEventDateAndStatus(LocalDateTime eventDate, String status) {
         List<Event> eventEntities = eventRepository.findAll();
         return eventEntities.stream().filter(entity -> entity.getStatus().equalsIgnoreCase(status) && entity.getEventDate().equals(eventDate)) // filtramos por status
-                .map(entity -> modelMapper.map(entity, EventDTO.class)).toList();
+                .map(entity -> modelMapper.map(entity, EventDTO.class))
+                .collect(Collectors.collectingAndThen(Collectors.toList(), this::withPassCounts));
     }
 
     /*
@@ -217,11 +266,12 @@ public class EventServiceImpl implements EventService {
             passGenerationService.generatePassesForEvent(savedEvent.getId(), savedEvent.getMaxCapacity());
         }
 
-        return modelMapper.map(savedEvent, EventDTO.class);
+        return withPassCounts(modelMapper.map(savedEvent, EventDTO.class));
     }
 
 
     @Override
+    @Transactional
     public EventDTO updateEvent(Long id, EventDTO eventDto) {
         Event entity = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event con id " + id + " no encontrado"));
@@ -240,6 +290,8 @@ public class EventServiceImpl implements EventService {
             entity.setCategory(category);
         }
 
+        BigDecimal previousBasePrice = entity.getBasePrice();
+
         // Actualizamos los campos relevantes desde el DTO
         if (eventDto.getName() != null) entity.setName(eventDto.getName());
         if (eventDto.getDescription() != null) entity.setDescription(eventDto.getDescription());
@@ -265,8 +317,6 @@ public class EventServiceImpl implements EventService {
 
         // Campos de Pass (si vienen en el DTO)
         if (eventDto.getTotalPasses() != null) entity.setTotalPasses(eventDto.getTotalPasses());
-        if (eventDto.getAvailablePasses() != null) entity.setAvailablePasses(eventDto.getAvailablePasses());
-        if (eventDto.getSoldPasses() != null) entity.setSoldPasses(eventDto.getSoldPasses());
 
         // Actualizar consumiciones asociadas si vienen en el DTO
         // SEGURIDAD MULTI-TENANT: Solo permitir consumiciones del mismo admin que creó el evento
@@ -288,7 +338,15 @@ public class EventServiceImpl implements EventService {
         }
 
         Event updatedEntity = eventRepository.save(entity);
-        return mapEventToDTO(updatedEntity);
+        if (eventDto.getAvailablePasses() != null) eventRepository.overrideAvailablePasses(id, eventDto.getAvailablePasses());
+        if (eventDto.getSoldPasses() != null) eventRepository.overrideSoldPasses(id, eventDto.getSoldPasses());
+
+        // Los carritos con entradas de este evento se reprecian en order-service
+        if (updatedEntity.getBasePrice() != null
+                && (previousBasePrice == null || previousBasePrice.compareTo(updatedEntity.getBasePrice()) != 0)) {
+            priceChangeNotifier.eventPriceChanged(updatedEntity.getId(), updatedEntity.getBasePrice());
+        }
+        return withPassCounts(mapEventToDTO(updatedEntity));
     }
 
     @Override
@@ -315,6 +373,7 @@ public class EventServiceImpl implements EventService {
                 pass.setAvailable(false);
             }
             passRepository.saveAll(passes);
+            passAllocationService.evict(id);
             
             // Desactivar todos los tickets asociados al evento
             List<Ticket> tickets = ticketRepository.findByEventId(id);
@@ -324,7 +383,12 @@ public class EventServiceImpl implements EventService {
             ticketRepository.saveAll(tickets);
             
             Event updatedentity = eventRepository.save(entity);
-            return modelMapper.map(updatedentity, EventDTO.class);
+
+            // Un evento desactivado no debe seguir validando entradas desde memoria
+            if (gateModeService.isGateOpen(id)) {
+                gateModeService.closeGate(id);
+            }
+            return withPassCounts(modelMapper.map(updatedentity, EventDTO.class));
         } else {
             throw new RuntimeException("Event con id" + id + " no encontrado");
         }
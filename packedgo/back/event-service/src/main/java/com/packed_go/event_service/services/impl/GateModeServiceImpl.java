@@ -0,0 +1,305 @@
+package com.packed_go.event_service.services.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.packed_go.event_service.dtos.gate.GateStatusDTO;
+import com.packed_go.event_service.dtos.qr.ValidateEntryQRResponse;
+import com.packed_go.event_service.entities.Event;
+import com.packed_go.event_service.exceptions.ResourceNotFoundException;
+import com.packed_go.event_service.repositories.EventRepository;
+import com.packed_go.event_service.repositories.TicketRepository;
+import com.packed_go.event_service.services.GateModeService;
+import com.packed_go.security.qr.QRPayload;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Modo puerta con group commit: el índice en memoria rechaza al instante los escaneos repetidos,
+ * y cada canje nuevo se escribe en la base antes de responder "válido". Un único hilo escritor
+ * junta los canjes que llegan mientras se escribe el lote anterior y los confirma en un solo
+ * UPDATE, así que la latencia por escaneo es la de un commit compartido y no la de una transacción
+ * JPA por ticket. La base sigue siendo la fuente de verdad: el UPDATE es condicional (no canjeado,
+ * ticket y evento activos, clave QR vigente), lo que cubre canjes hechos por otra instancia y
+ * desactivaciones o rotaciones posteriores a la carga del índice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GateModeServiceImpl implements GateModeService {
+
+    private static final String MARK_REDEEMED_SQL =
+            "UPDATE tickets t SET redeemed = true, redeemed_at = ?, version = t.version + 1 " +
+            "FROM unnest(?::bigint[], ?::int[]) AS s(ticket_id, key_version), passes p, events e " +
+            "WHERE t.id = s.ticket_id AND p.id = t.pass_id AND e.id = p.event_id " +
+            "AND t.redeemed = false AND t.active = true AND e.active = true " +
+            "AND (s.key_version < 0 OR s.key_version = e.qr_key_version) " +
+            "RETURNING t.id";
+
+    private static final int UNSIGNED = -1;
+
+    private final TicketRepository ticketRepository;
+    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.gate.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${app.gate.write-timeout-ms:2000}")
+    private long writeTimeoutMs;
+
+    private final Map<Long, EventGateIndex> openGates = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingRedemption> pendingRedemptions = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    private record PendingRedemption(Long eventId, long ticketId, int keyVersion, CompletableFuture<Boolean> written) {}
+
+    @PostConstruct
+    public void startWriter() {
+        running = true;
+        writer = new Thread(this::writeLoop, "gate-redemption-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public GateStatusDTO openGate(Long eventId) {
+        EventGateIndex index = openGates.computeIfAbsent(eventId, this::loadIndex);
+        log.info("🚪 Gate open for event {} ({} tickets loaded)", eventId, index.size());
+        return buildStatus(eventId, index);
+    }
+
+    @Override
+    public GateStatusDTO closeGate(Long eventId) {
+        EventGateIndex index = openGates.remove(eventId);
+        if (index != null) {
+            log.info("🚪 Gate closed for event {} ({} redeemed)", eventId, index.redeemedCount());
+        }
+        return buildStatus(eventId, null);
+    }
+
+    @Override
+    public boolean isGateOpen(Long eventId) {
+        return openGates.containsKey(eventId);
+    }
+
+    @Override
+    public GateStatusDTO getGateStatus(Long eventId) {
+        return buildStatus(eventId, openGates.get(eventId));
+    }
+
+    @Override
+    public void onQrKeyRotated(Long eventId, int qrKeyVersion) {
+        EventGateIndex index = openGates.get(eventId);
+        if (index != null) {
+            index.updateQrKeyVersion(qrKeyVersion);
+        }
+    }
+
+    @Override
+    public Optional<ValidateEntryQRResponse> validateEntry(Long eventId, QRPayload qrData) {
+        EventGateIndex index = openGates.get(eventId);
+        if (index == null) {
+            return Optional.empty();
+        }
+
+        long ticketId = qrData.ticketId();
+        int keyVersion = UNSIGNED;
+        if (qrData.isSigned()) {
+            int currentVersion = index.getQrKeyVersion();
+            if (qrData.keyVersion() < currentVersion) {
+                log.warn("❌ QR signed with revoked key version {} (gate): {}", qrData.keyVersion(), ticketId);
+                return Optional.of(ValidateEntryQRResponse.builder()
+                        .valid(false)
+                        .message("❌ Código QR revocado. Solicite nuevamente su entrada")
+                        .build());
+            }
+            if (qrData.keyVersion() > currentVersion) {
+                // La clave se rotó en otra instancia: la base conoce la versión vigente
+                return Optional.empty();
+            }
+            keyVersion = qrData.keyVersion();
+        }
+
+        int slot = index.slotOf(ticketId);
+        if (slot < 0 || index.isInvalidated(slot)) {
+            // Ticket comprado después de abrir la puerta, inactivo o rechazado antes por la base
+            return Optional.empty();
+        }
+
+        boolean redeemedNow = index.tryRedeem(slot);
+        ValidateEntryQRResponse.TicketEntryInfo ticketInfo = ValidateEntryQRResponse.TicketEntryInfo.builder()
+                .ticketId(index.ticketIdAt(slot))
+                .userId(index.userIdAt(slot))
+                .customerName("Usuario " + qrData.userId())
+                .eventName(index.getEventName())
+                .passType(index.passSuffixAt(slot))
+                .alreadyUsed(!redeemedNow)
+                .build();
+
+        if (!redeemedNow) {
+            log.warn("❌ Ticket already redeemed (gate): {}", ticketId);
+            return Optional.of(ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Entrada ya utilizada")
+                    .ticketInfo(ticketInfo)
+                    .build());
+        }
+
+        Boolean written = persistRedemption(eventId, ticketId, keyVersion);
+        if (written == null) {
+            // No se sabe si el canje llegó a la base: que el próximo escaneo lo resuelva contra ella
+            index.invalidate(slot);
+            return Optional.of(ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ No se pudo registrar la entrada. Escanee nuevamente")
+                    .build());
+        }
+        if (!written) {
+            // Canjeado por otra instancia, ticket o evento desactivado, o clave rotada
+            index.invalidate(slot);
+            return Optional.empty();
+        }
+
+        log.info("✅ Ticket valid and redeemed (gate): {}", ticketId);
+        return Optional.of(ValidateEntryQRResponse.builder()
+                .valid(true)
+                .message("✅ Entrada autorizada")
+                .ticketInfo(ticketInfo)
+                .build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(writeTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingRedemption pending;
+        while ((pending = pendingRedemptions.poll()) != null) {
+            pending.written().completeExceptionally(new IllegalStateException("Gate writer stopped"));
+        }
+    }
+
+    /**
+     * Encola el canje y espera a que el hilo escritor lo confirme.
+     * @return true si quedó escrito, false si la base lo rechazó, null si falló o se agotó la espera
+     */
+    private Boolean persistRedemption(Long eventId, long ticketId, int keyVersion) {
+        if (!running) {
+            return null;
+        }
+        PendingRedemption redemption = new PendingRedemption(eventId, ticketId, keyVersion, new CompletableFuture<>());
+        pendingRedemptions.add(redemption);
+        try {
+            return redemption.written().get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("❌ Gate redemption of ticket {} not confirmed: {}", ticketId, e.toString());
+            return null;
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingRedemption> batch = new ArrayList<>(flushBatchSize);
+        while (running || !pendingRedemptions.isEmpty()) {
+            try {
+                PendingRedemption first = pendingRedemptions.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // Todo lo que llegó mientras se escribía el lote anterior viaja en este commit
+                batch.add(first);
+                pendingRedemptions.drainTo(batch, flushBatchSize - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // shutdown(): se sigue hasta vaciar la cola
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRedemption> batch) {
+        try {
+            Set<Long> redeemed = transactionTemplate.execute(status -> markRedeemed(batch));
+            for (PendingRedemption redemption : batch) {
+                redemption.written().complete(redeemed.contains(redemption.ticketId()));
+            }
+            log.debug("💾 Committed {} gate redemptions ({} accepted)", batch.size(), redeemed.size());
+        } catch (RuntimeException e) {
+            log.error("❌ Error writing {} gate redemptions: {}", batch.size(), e.getMessage());
+            batch.forEach(redemption -> redemption.written().completeExceptionally(e));
+        }
+    }
+
+    private Set<Long> markRedeemed(List<PendingRedemption> batch) {
+        Long[] ticketIds = new Long[batch.size()];
+        Integer[] keyVersions = new Integer[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            ticketIds[i] = batch.get(i).ticketId();
+            keyVersions[i] = batch.get(i).keyVersion();
+        }
+        List<Long> redeemed = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MARK_REDEEMED_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, con.createArrayOf("bigint", ticketIds));
+            ps.setArray(3, con.createArrayOf("integer", keyVersions));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        return new HashSet<>(redeemed);
+    }
+
+    private EventGateIndex loadIndex(Long eventId) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event with id " + eventId + " not found"));
+        if (!event.isActive()) {
+            throw new IllegalStateException("Event " + eventId + " is not active");
+        }
+        List<Object[]> rows = ticketRepository.findGateEntriesByEventId(eventId);
+        return EventGateIndex.build(eventId, event.getName(), event.getQrKeyVersion(), rows);
+    }
+
+    private GateStatusDTO buildStatus(Long eventId, EventGateIndex index) {
+        int pending = (int) pendingRedemptions.stream()
+                .filter(redemption -> redemption.eventId().equals(eventId))
+                .count();
+        return GateStatusDTO.builder()
+                .eventId(eventId)
+                .open(index != null)
+                .loadedTickets(index != null ? index.size() : 0)
+                .redeemedTickets(index != null ? index.redeemedCount() : 0)
+                .pendingWrites(pending)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package com.packed_go.event_service.services.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.packed_go.event_service.entities.Pass;
+import com.packed_go.event_service.exceptions.NoPassesAvailableException;
+import com.packed_go.event_service.repositories.PassRepository;
+import com.packed_go.event_service.services.PassAllocationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pool de ids de passes disponibles por evento.
+ *
+ * Cada evento tiene una cola de candidatos que se recarga en lotes reservando filas con un único
+ * UPDATE ... RETURNING sobre un SELECT ... FOR UPDATE SKIP LOCKED, dentro de la transacción del
+ * comprador que la recarga (sin una segunda conexión). La reserva (reserved_by/reserved_until)
+ * queda visible para las demás instancias al confirmarse esa compra, y hasta entonces las filas
+ * siguen bloqueadas, así que cada instancia trabaja sobre un rango distinto de passes.
+ *
+ * Cada comprador toma ids de la cola y los vende con un UPDATE condicional que salta las filas
+ * bloqueadas por otra transacción (la recarga en curso u otra venta): nunca espera un lock.
+ * Los ids saltados se descartan de la cola y vuelven en la próxima recarga, que también
+ * reclama las reservas propias y las vencidas de otras instancias.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PassAllocationServiceImpl implements PassAllocationService {
+
+    private static final String CLAIM_SQL =
+            "UPDATE passes SET reserved_by = ?, reserved_until = now() + (? * interval '1 second') " +
+            "WHERE id IN (SELECT id FROM passes WHERE event_id = ? AND available = true " +
+            "AND (reserved_until IS NULL OR reserved_until < now() OR reserved_by = ?) " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING id";
+
+    private static final String MARK_SOLD_IF_AVAILABLE_SQL =
+            "UPDATE passes SET available = false, sold = true, sold_to_user_id = ?, sold_at = ?, " +
+            "reserved_by = NULL, reserved_until = NULL, version = version + 1 " +
+            "WHERE id IN (SELECT id FROM passes WHERE id = ANY(?) AND available = true " +
+            "AND (reserved_by = ? OR reserved_until IS NULL OR reserved_until < now()) " +
+            "FOR UPDATE SKIP LOCKED) RETURNING id";
+
+    private final PassRepository passRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.passes.allocation-batch-size:64}")
+    private int batchSize;
+
+    @Value("${app.passes.allocation-max-refills:3}")
+    private int maxRefills;
+
+    @Value("${app.passes.reservation-ttl-seconds:120}")
+    private int reservationTtlSeconds;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<Long, Queue<Long>> candidatesByEvent = new ConcurrentHashMap<>();
+
+    @Override
+    public Pass allocate(Long eventId, Long userId) {
+        Long passId = allocateIds(eventId, userId, 1).get(0);
+        return passRepository.findById(passId)
+                .orElseThrow(() -> new IllegalStateException("Pass " + passId + " disappeared after allocation"));
+    }
+
+    @Override
+    public List<Pass> allocate(Long eventId, Long userId, int quantity) {
+        if (quantity == 1) {
+            return List.of(allocate(eventId, userId));
+        }
+        return passRepository.findAllById(allocateIds(eventId, userId, quantity));
+    }
+
+    @Override
+    public void evict(Long eventId) {
+        candidatesByEvent.remove(eventId);
+    }
+
+    private List<Long> allocateIds(Long eventId, Long userId, int quantity) {
+        Queue<Long> candidates = candidatesByEvent.computeIfAbsent(eventId, id -> new ConcurrentLinkedQueue<>());
+        LocalDateTime soldAt = LocalDateTime.now();
+        List<Long> allocated = new ArrayList<>(quantity);
+
+        for (int refills = 0; allocated.size() < quantity && refills <= maxRefills; ) {
+            int missing = quantity - allocated.size();
+            List<Long> batch = new ArrayList<>(missing);
+            Long passId;
+            while (batch.size() < missing && (passId = candidates.poll()) != null) {
+                batch.add(passId);
+            }
+            if (batch.isEmpty()) {
+                // La recarga deja los ids que este comprador necesita fuera de la cola compartida
+                batch = refill(eventId, candidates, missing);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                refills++;
+            }
+
+            // Los vendidos o bloqueados por otra transacción no vuelven en el RETURNING: se completan en la siguiente vuelta
+            allocated.addAll(markAsSoldIfAvailable(batch, userId, soldAt));
+        }
+
+        if (allocated.size() < quantity) {
+            if (quantity == 1) {
+                throw new NoPassesAvailableException(eventId);
+            }
+            throw new NoPassesAvailableException("Only " + allocated.size() + " of " + quantity
+                    + " passes available for event with id: " + eventId);
+        }
+        return allocated;
+    }
+
+    private List<Long> markAsSoldIfAvailable(List<Long> passIds, Long userId, LocalDateTime soldAt) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(MARK_SOLD_IF_AVAILABLE_SQL);
+            ps.setLong(1, userId);
+            ps.setTimestamp(2, Timestamp.valueOf(soldAt));
+            ps.setArray(3, con.createArrayOf("bigint", passIds.toArray()));
+            ps.setString(4, instanceId);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    /**
+     * Reserva un lote de passes del evento en la transacción del comprador; un solo hilo por evento
+     * recarga a la vez. Los primeros needed ids se devuelven al comprador y el resto va a la cola.
+     * @return los ids para el comprador que recargó, vacío si el evento no tiene passes libres
+     */
+    private List<Long> refill(Long eventId, Queue<Long> candidates, int needed) {
+        synchronized (candidates) {
+            List<Long> claimed = new ArrayList<>(needed);
+            Long passId;
+            while (claimed.size() < needed && (passId = candidates.poll()) != null) {
+                // Otro hilo la recargó mientras esperábamos
+                claimed.add(passId);
+            }
+            if (!claimed.isEmpty()) {
+                return claimed;
+            }
+
+            claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> rs.getLong(1),
+                    instanceId, reservationTtlSeconds, eventId, instanceId, batchSize + needed);
+            Collections.sort(claimed);
+            int own = Math.min(needed, claimed.size());
+            candidates.addAll(claimed.subList(own, claimed.size()));
+            log.debug("🎟️ Refilled pass pool for event {} with {} candidates", eventId, candidates.size());
+            return new ArrayList<>(claimed.subList(0, own));
+        }
+    }
+}
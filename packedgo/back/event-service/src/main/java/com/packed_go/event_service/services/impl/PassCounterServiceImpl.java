@@ -0,0 +1,45 @@
+package com.packed_go.event_service.services.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.packed_go.event_service.repositories.EventPassCounterRepository;
+import com.packed_go.event_service.services.PassCounterService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PassCounterServiceImpl implements PassCounterService {
+
+    private final EventPassCounterRepository counterRepository;
+
+    @Value("${app.passes.counter-shards:16}")
+    private int shards;
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    @Override
+    @Transactional
+    public void recordSold(Long eventId, int count) {
+        // Round-robin: compras concurrentes del mismo evento escriben filas distintas
+        int shard = Math.floorMod(nextShard.getAndIncrement(), shards);
+        counterRepository.addSoldPasses(eventId, shard, count);
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${app.passes.counter-fold-interval-ms:5000}")
+    public void foldCounters() {
+        int folded = counterRepository.foldIntoEvents();
+        if (folded > 0) {
+            log.debug("🔢 Folded pass counters into {} events", folded);
+        }
+    }
+}
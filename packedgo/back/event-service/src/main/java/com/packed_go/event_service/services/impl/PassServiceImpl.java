@@ -6,6 +6,8 @@ import com.packed_go.event_service.entities.Event;
 import com.packed_go.event_service.entities.Pass;
 import com.packed_go.event_service.repositories.EventRepository;
 import com.packed_go.event_service.repositories.PassRepository;
+import com.packed_go.event_service.services.PassCodeGenerator;
+import com.packed_go.event_service.services.PassCounterService;
 import com.packed_go.event_service.services.PassService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +19,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +26,8 @@ public class PassServiceImpl implements PassService {
 
     private final PassRepository passRepository;
     private final EventRepository eventRepository;
+    private final PassCounterService passCounterService;
+    private final PassCodeGenerator passCodeGenerator;
     private final ModelMapper modelMapper;
 
     @Override
@@ -47,10 +50,11 @@ public class PassServiceImpl implements PassService {
         }
 
         // Generar código único si no se proporciona
-        String passCode = (code != null && !code.trim().isEmpty()) ? code : generateUniqueCode();
+        boolean customCode = code != null && !code.trim().isEmpty();
+        String passCode = customCode ? code : passCodeGenerator.nextCode(eventId);
 
-        // Verificar que el código sea único
-        if (passRepository.findByCode(passCode).isPresent()) {
+        // Verificar que el código sea único (los generados no colisionan por construcción)
+        if (customCode && passRepository.findByCode(passCode).isPresent()) {
             throw new RuntimeException("Pass code already exists: " + passCode);
         }
 
@@ -58,9 +62,9 @@ public class PassServiceImpl implements PassService {
         Pass pass = new Pass(passCode, event);
         Pass savedPass = passRepository.save(pass);
 
-        // Actualizar el evento
+        // Actualizar los totales del evento
         event.addPass(savedPass);
-        eventRepository.save(event);
+        eventRepository.addPasses(eventId, 1);
 
         return modelMapper.map(savedPass, PassDTO.class);
     }
@@ -90,10 +94,8 @@ public class PassServiceImpl implements PassService {
 
         Pass savedPass = passRepository.save(pass);
 
-        // Actualizar el evento
-        Event event = pass.getEvent();
-        event.markPassAsSold();
-        eventRepository.save(event);
+        // Registrar la venta en los contadores del evento (sin tocar la fila del evento)
+        passCounterService.recordSold(pass.getEvent().getId(), 1);
 
         return modelMapper.map(savedPass, PassDTO.class);
     }
@@ -172,14 +174,6 @@ public class PassServiceImpl implements PassService {
         return count > 0;
     }
 
-    private String generateUniqueCode() {
-        String code;
-        do {
-            code = "PASS-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        } while (passRepository.findByCode(code).isPresent());
-        return code;
-    }
-
     @Recover
     public PassDTO recoverCreatePass(Exception ex, Long eventId, String code) {
         throw new RuntimeException("No se pudo crear el pass después de varios intentos debido a concurrencia: " + ex.getMessage(), ex);
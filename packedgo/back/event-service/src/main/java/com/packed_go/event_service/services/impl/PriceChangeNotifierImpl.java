@@ -0,0 +1,88 @@
+package com.packed_go.event_service.services.impl;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestTemplate;
+
+import com.packed_go.event_service.services.PriceChangeNotifier;
+import com.packed_go.security.InternalCallSigner;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class PriceChangeNotifierImpl implements PriceChangeNotifier {
+
+    private final RestTemplate restTemplate;
+    private final String orderServiceBaseUrl;
+    private final InternalCallSigner internalCallSigner;
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "price-change-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PriceChangeNotifierImpl(RestTemplateBuilder restTemplateBuilder,
+                                   @Value("${app.services.order-service.base-url:http://localhost:8084/api}") String orderServiceBaseUrl,
+                                   InternalCallSigner internalCallSigner) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(2))
+                .readTimeout(Duration.ofSeconds(10))
+                .build();
+        this.orderServiceBaseUrl = orderServiceBaseUrl;
+        this.internalCallSigner = internalCallSigner;
+    }
+
+    @Override
+    public void eventPriceChanged(Long eventId, BigDecimal newPrice) {
+        afterCommit(orderServiceBaseUrl + "/pricing/events/" + eventId, newPrice);
+    }
+
+    @Override
+    public void consumptionPriceChanged(Long consumptionId, BigDecimal newPrice) {
+        afterCommit(orderServiceBaseUrl + "/pricing/consumptions/" + consumptionId, newPrice);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdown();
+    }
+
+    private void afterCommit(String url, BigDecimal newPrice) {
+        Runnable send = () -> sender.execute(() -> {
+            try {
+                // Se firma al enviar, no al encolar: la firma vence (packedgo.security.internal.max-skew-ms)
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(InternalCallSigner.HEADER, internalCallSigner.sign(URI.create(url).getPath()));
+                restTemplate.postForObject(url, new HttpEntity<>(Map.of("price", newPrice), headers), Map.class);
+                log.info("💲 Price change sent to order-service: {} -> {}", url, newPrice);
+            } catch (Exception e) {
+                log.warn("⚠️ Could not notify price change to order-service ({}): {}", url, e.getMessage());
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+}
@@ -1,12 +1,11 @@
 package com.packed_go.event_service.services.impl;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.packed_go.event_service.dtos.qr.FindTicketByCodeRequest;
 import com.packed_go.event_service.dtos.qr.FindTicketByCodeResponse;
@@ -25,8 +24,11 @@ import com.packed_go.event_service.repositories.PassRepository;
 import com.packed_go.event_service.repositories.TicketConsumptionDetailRepository;
 import com.packed_go.event_service.repositories.TicketConsumptionRepository;
 import com.packed_go.event_service.repositories.TicketRepository;
+import com.packed_go.event_service.services.GateModeService;
 import com.packed_go.event_service.services.QRValidationService;
 import com.packed_go.event_service.services.TicketConsumptionDetailService;
+import com.packed_go.security.qr.QRPayload;
+import com.packed_go.security.qr.QRPayloadCodec;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,37 +44,22 @@ public class QRValidationServiceImpl implements QRValidationService {
     private final TicketConsumptionDetailRepository detailRepository;
     private final TicketConsumptionDetailService detailService;
     private final TicketConsumptionRepository ticketConsumptionRepository;
+    private final GateModeService gateModeService;
+    private final TransactionTemplate transactionTemplate;
 
-    // Formato QR único: PACKEDGO|T:ticketId|TC:ticketConsumptionId|E:eventId|U:userId|TS:timestamp
-    // TC es opcional para entradas
-    
-    private Map<String, String> parseQR(String qrCode) {
-        if (qrCode == null || !qrCode.startsWith("PACKEDGO|")) {
-            return null;
-        }
-        Map<String, String> values = new HashMap<>();
-        String[] parts = qrCode.split("\\|");
-        for (String part : parts) {
-            if (part.equals("PACKEDGO")) continue;
-            int idx = part.indexOf(':');
-            if (idx > 0) {
-                String key = part.substring(0, idx);
-                String value = part.substring(idx + 1);
-                values.put(key, value);
-            }
-        }
-        return values;
-    }
+    // Formatos QR soportados (ver QRPayloadCodec):
+    // v1: PACKEDGO|T:ticketId|TC:ticketConsumptionId|E:eventId|U:userId|TS:timestamp (TC es opcional para entradas)
+    // v2: PG2:<Base45>
+    private final QRPayloadCodec qrPayloadCodec;
 
     @Override
-    @Transactional
     public ValidateEntryQRResponse validateEntryQR(ValidateEntryQRRequest request) {
         try {
             log.info("🎫 Validating entry QR: {}", request.getQrCode());
 
             // 1. Parsear QR code
-            Map<String, String> qrData = parseQR(request.getQrCode());
-            if (qrData == null || !qrData.containsKey("T") || !qrData.containsKey("E") || !qrData.containsKey("U")) {
+            QRPayload qrData = qrPayloadCodec.decode(request.getQrCode());
+            if (qrData == null || !qrData.hasTicketId() || !qrData.hasEventId() || !qrData.hasUserId()) {
                 log.warn("❌ QR parsing failed or missing keys");
                 return ValidateEntryQRResponse.builder()
                         .valid(false)
@@ -80,9 +67,9 @@ public class QRValidationServiceImpl implements QRValidationService {
                         .build();
             }
 
-            Long ticketId = Long.parseLong(qrData.get("T"));
-            Long eventIdFromQR = Long.parseLong(qrData.get("E"));
-            Long userId = Long.parseLong(qrData.get("U"));
+            Long ticketId = qrData.ticketId();
+            Long eventIdFromQR = qrData.eventId();
+            Long userId = qrData.userId();
 
             // 2. Validar que el evento del QR coincide con el evento solicitado
             if (!eventIdFromQR.equals(request.getEventId())) {
@@ -93,92 +80,114 @@ public class QRValidationServiceImpl implements QRValidationService {
                         .build();
             }
 
-            // 3. Buscar el ticket con pass eager loaded
-            Optional<Ticket> ticketOpt = ticketRepository.findByIdWithPass(ticketId);
-            if (ticketOpt.isEmpty()) {
-                log.warn("❌ Ticket not found: {}", ticketId);
-                return ValidateEntryQRResponse.builder()
-                        .valid(false)
-                        .message("❌ Ticket no encontrado")
-                        .build();
+            // 3. Modo puerta: si el evento está abierto se resuelve desde memoria sin abrir transacción
+            Optional<ValidateEntryQRResponse> gateResponse = gateModeService.validateEntry(request.getEventId(), qrData);
+            if (gateResponse.isPresent()) {
+                return gateResponse.get();
             }
 
-            Ticket ticket = ticketOpt.get();
+            return transactionTemplate.execute(status -> validateEntryFromDatabase(request, qrData));
 
-            // 4. Verificar que el ticket esté activo
-            if (!ticket.isActive()) {
-                log.warn("❌ Ticket inactive: {}", ticketId);
-                return ValidateEntryQRResponse.builder()
-                        .valid(false)
-                        .message("❌ Ticket inactivo")
-                        .build();
-            }
+        } catch (Exception e) {
+            log.error("❌ Error validating entry QR", e);
+            return ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Error al validar el código QR: " + e.getMessage())
+                    .build();
+        }
+    }
 
-            // 5. Verificar que el ticket pertenece al evento
-            if (!ticket.getPass().getEvent().getId().equals(request.getEventId())) {
-                log.warn("❌ Ticket event mismatch: Ticket Event={} vs Request Event={}", ticket.getPass().getEvent().getId(), request.getEventId());
-                return ValidateEntryQRResponse.builder()
-                        .valid(false)
-                        .message("❌ Ticket no válido para este evento")
-                        .build();
-            }
+    private ValidateEntryQRResponse validateEntryFromDatabase(ValidateEntryQRRequest request, QRPayload qrData) {
+        Long ticketId = qrData.ticketId();
+        Long userId = qrData.userId();
 
-            Event event = ticket.getPass().getEvent();
+        // 4. Buscar el ticket con pass eager loaded
+        Optional<Ticket> ticketOpt = ticketRepository.findByIdWithPass(ticketId);
+        if (ticketOpt.isEmpty()) {
+            log.warn("❌ Ticket not found: {}", ticketId);
+            return ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Ticket no encontrado")
+                    .build();
+        }
 
-            // 6. Verificar que el evento esté activo (no desactivado)
-            if (!event.isActive()) {
-                log.warn("❌ Event is inactive (deactivated): {}", event.getId());
-                return ValidateEntryQRResponse.builder()
-                        .valid(false)
-                        .message("❌ Este evento ha sido desactivado. Las entradas ya no son válidas.")
-                        .build();
-            }
+        Ticket ticket = ticketOpt.get();
 
-            // 7. Verificar si ya fue usado (Single Entry)
-            if (ticket.isRedeemed()) {
-                log.warn("❌ Ticket already redeemed: {}", ticketId);
-                return ValidateEntryQRResponse.builder()
-                        .valid(false)
-                        .message("❌ Entrada ya utilizada")
-                        .ticketInfo(ValidateEntryQRResponse.TicketEntryInfo.builder()
-                                .ticketId(ticket.getId())
-                                .userId(ticket.getUserId())
-                                .customerName("Usuario " + userId)
-                                .eventName(event.getName())
-                                .passType(getPassCodeSuffix(ticket.getPass().getCode()))
-                                .alreadyUsed(true)
-                                .build())
-                        .build();
-            }
+        // 5. Verificar que el ticket esté activo
+        if (!ticket.isActive()) {
+            log.warn("❌ Ticket inactive: {}", ticketId);
+            return ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Ticket inactivo")
+                    .build();
+        }
 
-            // 8. Marcar como usado
-            ticket.setRedeemed(true);
-            ticket.setRedeemedAt(java.time.LocalDateTime.now());
-            ticketRepository.save(ticket);
+        // 6. Verificar que el ticket pertenece al evento
+        if (!ticket.getPass().getEvent().getId().equals(request.getEventId())) {
+            log.warn("❌ Ticket event mismatch: Ticket Event={} vs Request Event={}", ticket.getPass().getEvent().getId(), request.getEventId());
+            return ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Ticket no válido para este evento")
+                    .build();
+        }
 
-            // 9. Construir respuesta exitosa
-            log.info("✅ Ticket valid and redeemed: {}", ticketId);
+        Event event = ticket.getPass().getEvent();
 
+        // 7. Verificar que el evento esté activo (no desactivado)
+        if (!event.isActive()) {
+            log.warn("❌ Event is inactive (deactivated): {}", event.getId());
             return ValidateEntryQRResponse.builder()
-                    .valid(true)
-                    .message("✅ Entrada autorizada")
+                    .valid(false)
+                    .message("❌ Este evento ha sido desactivado. Las entradas ya no son válidas.")
+                    .build();
+        }
+
+        // 8. Verificar que el QR no esté firmado con una clave ya rotada
+        if (isRevoked(qrData, event)) {
+            log.warn("❌ QR signed with revoked key version {}: {}", qrData.keyVersion(), ticketId);
+            return ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Código QR revocado. Solicite nuevamente su entrada")
+                    .build();
+        }
+
+        // 9. Verificar si ya fue usado (Single Entry)
+        if (ticket.isRedeemed()) {
+            log.warn("❌ Ticket already redeemed: {}", ticketId);
+            return ValidateEntryQRResponse.builder()
+                    .valid(false)
+                    .message("❌ Entrada ya utilizada")
                     .ticketInfo(ValidateEntryQRResponse.TicketEntryInfo.builder()
                             .ticketId(ticket.getId())
                             .userId(ticket.getUserId())
-                            .customerName("Usuario " + userId) // TODO: Integrar con users-service
+                            .customerName("Usuario " + userId)
                             .eventName(event.getName())
-                            .passType(getPassCodeSuffix(ticket.getPass().getCode())) // Last 8 characters
-                            .alreadyUsed(false)
+                            .passType(getPassCodeSuffix(ticket.getPass().getCode()))
+                            .alreadyUsed(true)
                             .build())
                     .build();
-
-        } catch (Exception e) {
-            log.error("❌ Error validating entry QR", e);
-            return ValidateEntryQRResponse.builder()
-                    .valid(false)
-                    .message("❌ Error al validar el código QR: " + e.getMessage())
-                    .build();
         }
+
+        // 10. Marcar como usado
+        ticket.setRedeemed(true);
+        ticket.setRedeemedAt(java.time.LocalDateTime.now());
+        ticketRepository.save(ticket);
+
+        // 11. Construir respuesta exitosa
+        log.info("✅ Ticket valid and redeemed: {}", ticketId);
+
+        return ValidateEntryQRResponse.builder()
+                .valid(true)
+                .message("✅ Entrada autorizada")
+                .ticketInfo(ValidateEntryQRResponse.TicketEntryInfo.builder()
+                        .ticketId(ticket.getId())
+                        .userId(ticket.getUserId())
+                        .customerName("Usuario " + userId) // TODO: Integrar con users-service
+                        .eventName(event.getName())
+                        .passType(getPassCodeSuffix(ticket.getPass().getCode())) // Last 8 characters
+                        .alreadyUsed(false)
+                        .build())
+                .build();
     }
 
     @Override
@@ -188,16 +197,15 @@ public class QRValidationServiceImpl implements QRValidationService {
             log.info("🍺 Validating consumption QR: {}", request.getQrCode());
 
             // 1. Parsear QR code para obtener ticketConsumptionId
-            Map<String, String> qrData = parseQR(request.getQrCode());
-            if (qrData == null || !qrData.containsKey("T") || !qrData.containsKey("E")) {
+            QRPayload qrData = qrPayloadCodec.decode(request.getQrCode());
+            if (qrData == null || !qrData.hasTicketId() || !qrData.hasEventId()) {
                 return ValidateConsumptionQRResponse.builder()
                         .success(false)
                         .message("❌ Código QR inválido")
                         .build();
             }
 
-            Long ticketId = Long.parseLong(qrData.get("T"));
-            Long eventIdFromQR = Long.parseLong(qrData.get("E"));
+            Long eventIdFromQR = qrData.eventId();
 
             // 2. Validar que el evento del QR coincide
             if (!eventIdFromQR.equals(request.getEventId())) {
@@ -240,6 +248,14 @@ public class QRValidationServiceImpl implements QRValidationService {
                         .build();
             }
 
+            // 4.5. Verificar que el QR no esté firmado con una clave ya rotada
+            if (event != null && isRevoked(qrData, event)) {
+                return ValidateConsumptionQRResponse.builder()
+                        .success(false)
+                        .message("❌ Código QR revocado. Solicite nuevamente su entrada")
+                        .build();
+            }
+
             // 5. Verificar que el detalle esté activo
             if (!detail.isActive()) {
                 return ValidateConsumptionQRResponse.builder()
@@ -351,6 +367,10 @@ public class QRValidationServiceImpl implements QRValidationService {
         }
     }
 
+    private boolean isRevoked(QRPayload qrData, Event event) {
+        return qrData.isSigned() && qrData.keyVersion() != event.getQrKeyVersion();
+    }
+
     private String getEventNameFromDetail(TicketConsumptionDetail detail) {
         try {
             // Obtener el ticket padre para llegar al evento
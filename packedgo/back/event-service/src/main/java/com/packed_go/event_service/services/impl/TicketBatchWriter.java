@@ -0,0 +1,120 @@
+package com.packed_go.event_service.services.impl;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Escritura en lote (JDBC batch) de tickets, consumption_tickets y sus detalles.
+ *
+ * Las tablas usan ids IDENTITY, con los que Hibernate no puede agrupar INSERTs; por eso
+ * los ids se reservan antes de la secuencia de cada tabla y las filas se insertan con id
+ * explícito. Así el QR (que incluye el id del ticket) se escribe en el mismo INSERT.
+ * También re-firma en lote los QR de un evento al rotar su clave.
+ * Debe usarse dentro de la transacción de la emisión (o de la rotación).
+ */
+@Component
+@RequiredArgsConstructor
+class TicketBatchWriter {
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_TICKET_CONSUMPTION_SQL =
+            "INSERT INTO consumption_tickets (id, created_at, active, redeem, version) VALUES (?, ?, true, false, 0)";
+
+    private static final String INSERT_TICKET_SQL =
+            "INSERT INTO tickets (id, user_id, pass_id, ticket_consumption_id, active, redeemed, qr_text, " +
+            "idempotency_key, created_at, purchased_at, version) VALUES (?, ?, ?, ?, true, false, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO ticket_consumption_details (id, consumption_id, consumption_ticket_id, quantity, " +
+            "price_at_purchase, active, redeem, version) VALUES (?, ?, ?, ?, ?, true, false, 0)";
+
+    private static final String SELECT_EVENT_TICKETS_SQL =
+            "SELECT t.id, t.ticket_consumption_id, t.user_id FROM tickets t JOIN passes p ON p.id = t.pass_id " +
+            "WHERE p.event_id = ? ORDER BY t.id";
+
+    private static final String UPDATE_QR_TEXT_SQL =
+            "UPDATE tickets SET qr_text = ?, version = version + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.tickets.batch-insert-size:500}")
+    private int batchInsertSize;
+
+    record TicketRow(long id, Long userId, Long passId, long ticketConsumptionId, String qrText,
+                     String idempotencyKey, LocalDateTime createdAt, LocalDateTime purchasedAt) {}
+
+    record DetailRow(long id, Long consumptionId, long ticketConsumptionId, Integer quantity, BigDecimal priceAtPurchase) {}
+
+    record TicketQrRow(long id, long ticketConsumptionId, long userId) {}
+
+    /**
+     * @param table tabla con columna id IDENTITY
+     * @return count ids consecutivos en el orden en que los entregó la secuencia
+     */
+    List<Long> reserveIds(String table, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, table, count);
+    }
+
+    void insertTicketConsumptions(List<Long> ids, LocalDateTime createdAt) {
+        Timestamp created = Timestamp.valueOf(createdAt);
+        jdbcTemplate.batchUpdate(INSERT_TICKET_CONSUMPTION_SQL, ids, batchInsertSize, (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setTimestamp(2, created);
+        });
+    }
+
+    void insertTickets(List<TicketRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_TICKET_SQL, rows, batchInsertSize, (ps, row) -> {
+            ps.setLong(1, row.id());
+            ps.setLong(2, row.userId());
+            ps.setLong(3, row.passId());
+            ps.setLong(4, row.ticketConsumptionId());
+            ps.setString(5, row.qrText());
+            ps.setString(6, row.idempotencyKey());
+            ps.setTimestamp(7, Timestamp.valueOf(row.createdAt()));
+            ps.setTimestamp(8, Timestamp.valueOf(row.purchasedAt()));
+        });
+    }
+
+    void insertDetails(List<DetailRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, rows, batchInsertSize, (ps, row) -> {
+            ps.setLong(1, row.id());
+            ps.setLong(2, row.consumptionId());
+            ps.setLong(3, row.ticketConsumptionId());
+            ps.setInt(4, row.quantity());
+            ps.setBigDecimal(5, row.priceAtPurchase());
+        });
+    }
+
+    /**
+     * Campos que entran en el QR de cada ticket del evento, sin cargar entidades
+     */
+    List<TicketQrRow> findTicketQrRows(Long eventId) {
+        return jdbcTemplate.query(SELECT_EVENT_TICKETS_SQL,
+                (rs, rowNum) -> new TicketQrRow(rs.getLong(1), rs.getLong(2), rs.getLong(3)), eventId);
+    }
+
+    void updateQrTexts(List<TicketQrRow> rows, Function<TicketQrRow, String> qrText) {
+        jdbcTemplate.batchUpdate(UPDATE_QR_TEXT_SQL, rows, batchInsertSize, (ps, row) -> {
+            ps.setString(1, qrText.apply(row));
+            ps.setLong(2, row.id());
+        });
+    }
+}
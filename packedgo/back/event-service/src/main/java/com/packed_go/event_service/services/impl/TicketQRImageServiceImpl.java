@@ -0,0 +1,98 @@
+package com.packed_go.event_service.services.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.packed_go.event_service.services.QRCodeService;
+import com.packed_go.event_service.services.TicketQRImageService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Render perezoso de los QR de tickets con caché LRU en memoria.
+ * La entrada se invalida sola cuando cambia el qrText del ticket.
+ */
+@Service
+@Slf4j
+public class TicketQRImageServiceImpl implements TicketQRImageService {
+
+    private static final String DATA_URI_PREFIX = "data:image/png;base64,";
+
+    private final QRCodeService qrCodeService;
+    private final Map<Long, CachedImage> cache;
+
+    private record CachedImage(String qrText, byte[] png, String etag) {}
+
+    public TicketQRImageServiceImpl(QRCodeService qrCodeService,
+                                    @Value("${app.qr.image-cache-size:5000}") int cacheSize) {
+        this.qrCodeService = qrCodeService;
+        this.cache = new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedImage> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public byte[] getPng(Long ticketId, String qrText) {
+        return resolve(ticketId, qrText).png();
+    }
+
+    @Override
+    public String getETag(Long ticketId, String qrText) {
+        // Se deriva solo del qrText: una revalidación con 304 no necesita renderizar la imagen
+        requireQrText(ticketId, qrText);
+        return etagOf(qrText);
+    }
+
+    @Override
+    public String getDataUri(Long ticketId, String qrText) {
+        if (qrText == null || qrText.isEmpty()) {
+            return null;
+        }
+        return DATA_URI_PREFIX + Base64.getEncoder().encodeToString(getPng(ticketId, qrText));
+    }
+
+    private CachedImage resolve(Long ticketId, String qrText) {
+        requireQrText(ticketId, qrText);
+        CachedImage cached;
+        synchronized (cache) {
+            cached = cache.get(ticketId);
+        }
+        if (cached != null && cached.qrText().equals(qrText)) {
+            return cached;
+        }
+
+        // Render fuera del lock: dos requests simultáneos del mismo ticket generan la misma imagen
+        CachedImage rendered = new CachedImage(qrText, qrCodeService.generateQRCodePng(qrText), etagOf(qrText));
+        synchronized (cache) {
+            cache.put(ticketId, rendered);
+        }
+        log.debug("🖼️ Rendered QR image for ticket {}", ticketId);
+        return rendered;
+    }
+
+    private static void requireQrText(Long ticketId, String qrText) {
+        if (qrText == null || qrText.isEmpty()) {
+            throw new IllegalArgumentException("Ticket " + ticketId + " has no QR data");
+        }
+    }
+
+    private static String etagOf(String qrText) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(qrText.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
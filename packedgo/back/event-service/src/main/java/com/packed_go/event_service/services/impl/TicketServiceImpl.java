@@ -2,21 +2,31 @@ package com.packed_go.event_service.services.impl;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
+import com.packed_go.event_service.dtos.event.EventPassCountsDTO;
 import com.packed_go.event_service.dtos.pass.PassDTO;
 import com.packed_go.event_service.dtos.ticket.ConsumptionItemDTO;
+import com.packed_go.event_service.dtos.ticket.CreateTicketBatchRequest;
 import com.packed_go.event_service.dtos.ticket.CreateTicketDTO;
 import com.packed_go.event_service.dtos.ticket.CreateTicketWithConsumptionsRequest;
+import com.packed_go.event_service.dtos.ticket.TicketBatchItemDTO;
 import com.packed_go.event_service.dtos.ticket.TicketDTO;
+import com.packed_go.event_service.dtos.ticket.TicketQRDTO;
 import com.packed_go.event_service.dtos.ticket.TicketWithConsumptionsResponse;
 import com.packed_go.event_service.dtos.ticketConsumption.TicketConsumptionDTO;
 import com.packed_go.event_service.dtos.ticketConsumptionDetail.TicketConsumptionDetailDTO;
@@ -32,9 +42,12 @@ import com.packed_go.event_service.repositories.PassRepository;
 import com.packed_go.event_service.repositories.TicketConsumptionDetailRepository;
 import com.packed_go.event_service.repositories.TicketConsumptionRepository;
 import com.packed_go.event_service.repositories.TicketRepository;
-import com.packed_go.event_service.services.QRCodeService;
+import com.packed_go.event_service.services.GateModeService;
+import com.packed_go.event_service.services.PassAllocationService;
+import com.packed_go.event_service.services.PassCounterService;
 import com.packed_go.event_service.services.TicketConsumptionService;
 import com.packed_go.event_service.services.TicketService;
+import com.packed_go.security.qr.QRPayloadCodec;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -52,9 +65,16 @@ public class TicketServiceImpl implements TicketService {
     private final ConsumptionRepository consumptionRepository;
     private final EventRepository eventRepository;
     private final TicketConsumptionService ticketConsumptionService;
-    private final QRCodeService qrCodeService;
+    private final QRPayloadCodec qrPayloadCodec;
+    private final GateModeService gateModeService;
+    private final PassAllocationService passAllocationService;
+    private final PassCounterService passCounterService;
+    private final TicketBatchWriter ticketBatchWriter;
     private final ModelMapper modelMapper;
 
+    @Value("${app.tickets.max-batch-size:200}")
+    private int maxBatchSize;
+
     @Override
     @Transactional
     @Retryable(value = {Exception.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
@@ -147,7 +167,15 @@ public class TicketServiceImpl implements TicketService {
     public TicketDTO findById(Long id) {
         Ticket ticket = ticketRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Ticket with id " + id + " not found"));
-        return modelMapper.map(ticket, TicketDTO.class);
+        TicketDTO dto = modelMapper.map(ticket, TicketDTO.class);
+        dto.setQrImageUrl(qrImageUrl(ticket.getId()));
+        return dto;
+    }
+
+    @Override
+    public TicketQRDTO findQrDataById(Long id) {
+        return ticketRepository.findQrDataById(id)
+                .orElseThrow(() -> new com.packed_go.event_service.exceptions.ResourceNotFoundException("Ticket with id " + id + " not found"));
     }
 
     @Override
@@ -167,8 +195,8 @@ public class TicketServiceImpl implements TicketService {
     }
 
     private TicketDTO convertToDTO(Ticket ticket) {
-        log.info("Converting ticket ID {} to DTO. QR Code from entity: {}", 
-                ticket.getId(), ticket.getQrCode() != null && !ticket.getQrCode().isEmpty());
+        log.info("Converting ticket ID {} to DTO. QR text present: {}", 
+                ticket.getId(), ticket.getQrText() != null && !ticket.getQrText().isEmpty());
         
         TicketDTO dto = new TicketDTO();
         dto.setId(ticket.getId());
@@ -179,10 +207,8 @@ public class TicketServiceImpl implements TicketService {
         dto.setPurchasedAt(ticket.getPurchasedAt());
         dto.setRedeemedAt(ticket.getRedeemedAt());
         
-        // Mapear el QR code
-        String qrCodeValue = ticket.getQrCode();
-        log.info("QR Code value from ticket {}: {}", ticket.getId(), qrCodeValue != null ? "present (length: " + qrCodeValue.length() + ")" : "null");
-        dto.setQrCode(qrCodeValue);
+        // Solo la URL del QR: el cliente pide la imagen (cacheable con ETag) al mostrarla
+        dto.setQrImageUrl(qrImageUrl(ticket.getId()));
         
         // Mapear el pass y detalles del evento
         if (ticket.getPass() != null) {
@@ -233,7 +259,7 @@ public class TicketServiceImpl implements TicketService {
             dto.setTicketConsumption(consumptionDTO);
         }
         
-        log.info("DTO created for ticket {}. QR Code in DTO: {}", ticket.getId(), dto.getQrCode() != null && !dto.getQrCode().isEmpty());
+        log.info("DTO created for ticket {}. QR image: {}", ticket.getId(), dto.getQrImageUrl());
         return dto;
     }
 
@@ -282,20 +308,16 @@ public class TicketServiceImpl implements TicketService {
     @Transactional
     @Retryable(value = {Exception.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
     public TicketWithConsumptionsResponse createTicketWithConsumptions(CreateTicketWithConsumptionsRequest request) {
-        // 1. Buscar el evento y validar que tenga passes disponibles
-    Event event = eventRepository.findByIdWithLock(request.getEventId())
-        .orElseThrow(() -> new com.packed_go.event_service.exceptions.ResourceNotFoundException("Event with id " + request.getEventId() + " not found"));
+        // 1. Buscar el evento (sin bloqueo) y validar que tenga passes disponibles
+        Event event = eventRepository.findById(request.getEventId())
+                .orElseThrow(() -> new com.packed_go.event_service.exceptions.ResourceNotFoundException("Event with id " + request.getEventId() + " not found"));
 
-    if (!event.hasAvailablePasses()) {
-        throw new com.packed_go.event_service.exceptions.NoPassesAvailableException(request.getEventId());
-    }
-
-        // 2. Buscar Pass disponible con bloqueo pesimista
-        List<Pass> availablePasses = passRepository.findAvailablePassesByEventIdWithLock(request.getEventId());
-        if (availablePasses.isEmpty()) {
+        if (eventRepository.hasAvailablePasses(event.getId()) == 0) {
             throw new com.packed_go.event_service.exceptions.NoPassesAvailableException(request.getEventId());
         }
-        Pass pass = availablePasses.get(0);
+
+        // 2. Reservar un Pass del pool del evento (queda marcado como vendido en esta transacción)
+        Pass pass = passAllocationService.allocate(request.getEventId(), request.getUserId());
 
         // 3. Crear TicketConsumption
         TicketConsumption ticketConsumption = new TicketConsumption();
@@ -307,11 +329,9 @@ public class TicketServiceImpl implements TicketService {
         Ticket ticket = new Ticket(request.getUserId(), pass, ticketConsumption, request.getPurchasedAt());
         ticket = ticketRepository.save(ticket);
 
-        // 5. Generar QR Code (texto y imagen)
+        // 5. Generar el payload del QR (la imagen se genera bajo demanda en /tickets/{id}/qr.png)
         String qrData = generateQRData(ticket, event);
-        String qrCodeBase64 = qrCodeService.generateQRCodeBase64(qrData);
-        ticket.setQrText(qrData);        // Guardar formato texto para validación manual
-        ticket.setQrCode(qrCodeBase64);  // Guardar imagen base64 para escaneo
+        ticket.setQrText(qrData);
         ticket = ticketRepository.save(ticket);
 
         // 6. Crear TicketConsumptionDetails (si existen consumptions)
@@ -337,18 +357,253 @@ public class TicketServiceImpl implements TicketService {
             }
         }
 
-        // 7. Marcar el Pass como vendido
-        pass.setSold(true);
-        pass.setAvailable(false);
-        pass.setSoldToUserId(request.getUserId());
-        pass.setSoldAt(LocalDateTime.now());
-        passRepository.save(pass);
+        // 7. Registrar la venta en los contadores del evento (shards, sin tocar la fila del evento)
+        passCounterService.recordSold(event.getId(), 1);
 
-        // 8. Actualizar Event
-        event.markPassAsSold();
-        eventRepository.save(event);
+        // 8. Construir respuesta
+        TicketConsumptionDTO ticketConsumptionDTO = new TicketConsumptionDTO();
+        ticketConsumptionDTO.setId(ticketConsumption.getId());
+        ticketConsumptionDTO.setRedeem(ticketConsumption.isRedeem());
+        ticketConsumptionDTO.setTicketDetails(detailDTOs);
+
+        return TicketWithConsumptionsResponse.builder()
+                .ticketId(ticket.getId())
+                .userId(ticket.getUserId())
+                .passCode(pass.getCode())
+                .passId(pass.getId())
+                .qrText(ticket.getQrText())
+                .qrImageUrl(qrImageUrl(ticket.getId()))
+                .eventId(event.getId())
+                .eventName(event.getName())
+                .eventDate(event.getEventDate())
+                .eventLocation(event.getLat() + "," + event.getLng())
+                .active(ticket.isActive())
+                .redeemed(ticket.isRedeemed())
+                .createdAt(ticket.getCreatedAt())
+                .purchasedAt(ticket.getPurchasedAt())
+                .redeemedAt(ticket.getRedeemedAt())
+                .ticketConsumption(ticketConsumptionDTO)
+                .build();
+    }
+
+    @Override
+    @Transactional
+    @Retryable(value = {Exception.class}, maxAttempts = 3, backoff = @Backoff(delay = 100))
+    public List<TicketWithConsumptionsResponse> createTicketsBatch(CreateTicketBatchRequest request) {
+        int requestedTickets = request.getItems().stream().mapToInt(TicketBatchItemDTO::getQuantity).sum();
+        if (requestedTickets > maxBatchSize) {
+            throw new com.packed_go.event_service.exceptions.InvalidQuantityException(
+                    "Batch of " + requestedTickets + " tickets exceeds the maximum of " + maxBatchSize);
+        }
+
+        // 0. Items ya emitidos por un intento anterior (misma idempotencyKey): se devuelven sin volver a emitir
+        Map<String, List<TicketWithConsumptionsResponse>> alreadyIssued = findIssuedItems(request.getItems());
+        List<TicketBatchItemDTO> pendingItems = request.getItems().stream()
+                .filter(item -> item.getIdempotencyKey() == null || !alreadyIssued.containsKey(item.getIdempotencyKey()))
+                .toList();
+        int totalTickets = pendingItems.stream().mapToInt(TicketBatchItemDTO::getQuantity).sum();
+
+        // 1. Eventos y consumiciones de toda la orden en una consulta cada uno
+        Map<Long, Event> events = eventRepository.findAllById(pendingItems.stream()
+                        .map(TicketBatchItemDTO::getEventId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        Map<Long, Long> availablePasses = eventRepository.findPassCounts(events.keySet()).stream()
+                .collect(Collectors.toMap(EventPassCountsDTO::getEventId, EventPassCountsDTO::getAvailablePasses));
+        for (TicketBatchItemDTO item : pendingItems) {
+            Event event = events.get(item.getEventId());
+            if (event == null) {
+                throw new com.packed_go.event_service.exceptions.ResourceNotFoundException("Event with id " + item.getEventId() + " not found");
+            }
+            if (availablePasses.getOrDefault(event.getId(), 0L) <= 0) {
+                throw new com.packed_go.event_service.exceptions.NoPassesAvailableException(item.getEventId());
+            }
+        }
+
+        Map<Long, Consumption> consumptions = consumptionRepository.findAllById(pendingItems.stream()
+                        .filter(item -> item.getConsumptions() != null)
+                        .flatMap(item -> item.getConsumptions().stream())
+                        .map(ConsumptionItemDTO::getConsumptionId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Consumption::getId, Function.identity()));
+
+        int totalDetails = 0;
+        for (TicketBatchItemDTO item : pendingItems) {
+            if (item.getConsumptions() == null) {
+                continue;
+            }
+            for (ConsumptionItemDTO consumptionItem : item.getConsumptions()) {
+                if (!consumptions.containsKey(consumptionItem.getConsumptionId())) {
+                    throw new com.packed_go.event_service.exceptions.ResourceNotFoundException("Consumption with id " + consumptionItem.getConsumptionId() + " not found");
+                }
+            }
+            totalDetails += item.getQuantity() * item.getConsumptions().size();
+        }
+
+        // 2. Reservar los passes de cada evento en bloque (quedan vendidos en esta transacción)
+        List<List<Pass>> passesByItem = new ArrayList<>(pendingItems.size());
+        for (TicketBatchItemDTO item : pendingItems) {
+            passesByItem.add(passAllocationService.allocate(item.getEventId(), request.getUserId(), item.getQuantity()));
+        }
+
+        // 3. Reservar ids para poder armar los QR antes de insertar
+        List<Long> ticketConsumptionIds = ticketBatchWriter.reserveIds("consumption_tickets", totalTickets);
+        List<Long> ticketIds = ticketBatchWriter.reserveIds("tickets", totalTickets);
+        List<Long> detailIds = ticketBatchWriter.reserveIds("ticket_consumption_details", totalDetails);
+
+        // 4. Armar filas y respuestas
+        LocalDateTime createdAt = LocalDateTime.now();
+        LocalDateTime purchasedAt = request.getPurchasedAt() != null ? request.getPurchasedAt() : createdAt;
+        long timestamp = System.currentTimeMillis();
+
+        List<TicketBatchWriter.TicketRow> ticketRows = new ArrayList<>(totalTickets);
+        List<TicketBatchWriter.DetailRow> detailRows = new ArrayList<>(totalDetails);
+        List<List<TicketWithConsumptionsResponse>> responsesByItem = new ArrayList<>(pendingItems.size());
+        Map<Long, Integer> soldByEvent = new LinkedHashMap<>();
+        int ticketIndex = 0;
+        int detailIndex = 0;
+
+        for (int i = 0; i < pendingItems.size(); i++) {
+            TicketBatchItemDTO item = pendingItems.get(i);
+            Event event = events.get(item.getEventId());
+            List<ConsumptionItemDTO> items = Objects.requireNonNullElse(item.getConsumptions(), List.of());
+            List<Pass> passes = passesByItem.get(i);
+            List<TicketWithConsumptionsResponse> itemResponses = new ArrayList<>(passes.size());
+
+            for (int unit = 0; unit < passes.size(); unit++) {
+                Pass pass = passes.get(unit);
+                long ticketId = ticketIds.get(ticketIndex);
+                long ticketConsumptionId = ticketConsumptionIds.get(ticketIndex);
+                ticketIndex++;
+
+                String qrText = qrPayloadCodec.encode(ticketId, ticketConsumptionId, event.getId(),
+                        request.getUserId(), timestamp, event.getQrKeyVersion());
+                ticketRows.add(new TicketBatchWriter.TicketRow(ticketId, request.getUserId(), pass.getId(),
+                        ticketConsumptionId, qrText, ticketIdempotencyKey(item.getIdempotencyKey(), unit),
+                        createdAt, purchasedAt));
+
+                List<TicketConsumptionDetailDTO> detailDTOs = new ArrayList<>(items.size());
+                for (ConsumptionItemDTO consumptionItem : items) {
+                    long detailId = detailIds.get(detailIndex++);
+                    detailRows.add(new TicketBatchWriter.DetailRow(detailId, consumptionItem.getConsumptionId(),
+                            ticketConsumptionId, consumptionItem.getQuantity(), consumptionItem.getPriceAtPurchase()));
+
+                    TicketConsumptionDetailDTO detailDTO = new TicketConsumptionDetailDTO();
+                    detailDTO.setId(detailId);
+                    detailDTO.setConsumptionId(consumptionItem.getConsumptionId());
+                    detailDTO.setQuantity(consumptionItem.getQuantity());
+                    detailDTO.setPriceAtPurchase(consumptionItem.getPriceAtPurchase());
+                    detailDTO.setActive(true);
+                    detailDTO.setRedeem(false);
+                    detailDTO.setConsumptionName(consumptions.get(consumptionItem.getConsumptionId()).getName());
+                    detailDTOs.add(detailDTO);
+                }
+
+                TicketConsumptionDTO ticketConsumptionDTO = new TicketConsumptionDTO();
+                ticketConsumptionDTO.setId(ticketConsumptionId);
+                ticketConsumptionDTO.setRedeem(false);
+                ticketConsumptionDTO.setTicketDetails(detailDTOs);
+
+                itemResponses.add(TicketWithConsumptionsResponse.builder()
+                        .ticketId(ticketId)
+                        .userId(request.getUserId())
+                        .passCode(pass.getCode())
+                        .passId(pass.getId())
+                        .qrText(qrText)
+                        .qrImageUrl(qrImageUrl(ticketId))
+                        .eventId(event.getId())
+                        .eventName(event.getName())
+                        .eventDate(event.getEventDate())
+                        .eventLocation(event.getLat() + "," + event.getLng())
+                        .active(true)
+                        .redeemed(false)
+                        .createdAt(createdAt)
+                        .purchasedAt(purchasedAt)
+                        .ticketConsumption(ticketConsumptionDTO)
+                        .build());
+            }
+            responsesByItem.add(itemResponses);
+            soldByEvent.merge(event.getId(), item.getQuantity(), Integer::sum);
+        }
+
+        // 5. Insertar todo en lotes JDBC
+        ticketBatchWriter.insertTicketConsumptions(ticketConsumptionIds, createdAt);
+        ticketBatchWriter.insertTickets(ticketRows);
+        ticketBatchWriter.insertDetails(detailRows);
+
+        // 6. Registrar las ventas en los contadores (una vez por evento)
+        soldByEvent.forEach(passCounterService::recordSold);
+
+        // 7. Respuesta en el orden de los items del request, mezclando reutilizados y nuevos
+        List<TicketWithConsumptionsResponse> responses = new ArrayList<>(requestedTickets);
+        int pendingIndex = 0;
+        for (TicketBatchItemDTO item : request.getItems()) {
+            if (item.getIdempotencyKey() != null && alreadyIssued.containsKey(item.getIdempotencyKey())) {
+                responses.addAll(alreadyIssued.get(item.getIdempotencyKey()));
+            } else {
+                responses.addAll(responsesByItem.get(pendingIndex++));
+            }
+        }
+
+        log.info("🎟️ Issued {} tickets ({} consumption details) for user {} across {} events, {} reused from previous attempts",
+                totalTickets, totalDetails, request.getUserId(), soldByEvent.size(), requestedTickets - totalTickets);
+        return responses;
+    }
+
+    /**
+     * Busca los tickets ya emitidos para los items con idempotencyKey.
+     * Un lote es atómico, así que un item está completo o no tiene ningún ticket.
+     * @return respuestas por idempotencyKey del item, solo para los items ya emitidos
+     */
+    private Map<String, List<TicketWithConsumptionsResponse>> findIssuedItems(List<TicketBatchItemDTO> items) {
+        Map<String, TicketBatchItemDTO> keyedItems = new LinkedHashMap<>();
+        List<String> ticketKeys = new ArrayList<>();
+        for (TicketBatchItemDTO item : items) {
+            if (item.getIdempotencyKey() == null) {
+                continue;
+            }
+            if (keyedItems.put(item.getIdempotencyKey(), item) != null) {
+                throw new IllegalArgumentException("Duplicate idempotency key in batch: " + item.getIdempotencyKey());
+            }
+            for (int unit = 0; unit < item.getQuantity(); unit++) {
+                ticketKeys.add(ticketIdempotencyKey(item.getIdempotencyKey(), unit));
+            }
+        }
+        if (ticketKeys.isEmpty()) {
+            return Map.of();
+        }
 
-        // 9. Construir respuesta
+        Map<String, List<TicketWithConsumptionsResponse>> issued = new LinkedHashMap<>();
+        for (Ticket ticket : ticketRepository.findIssuedByIdempotencyKeys(ticketKeys)) {
+            String itemKey = ticket.getIdempotencyKey().substring(0, ticket.getIdempotencyKey().lastIndexOf('#'));
+            issued.computeIfAbsent(itemKey, key -> new ArrayList<>()).add(toIssuedTicketResponse(ticket));
+        }
+        issued.forEach((itemKey, tickets) -> {
+            if (tickets.size() != keyedItems.get(itemKey).getQuantity()) {
+                throw new IllegalStateException("Item " + itemKey + " was already issued with " + tickets.size()
+                        + " tickets, but " + keyedItems.get(itemKey).getQuantity() + " were requested");
+            }
+        });
+        return issued;
+    }
+
+    private static String ticketIdempotencyKey(String itemKey, int unit) {
+        return itemKey != null ? itemKey + "#" + unit : null;
+    }
+
+    private TicketWithConsumptionsResponse toIssuedTicketResponse(Ticket ticket) {
+        Pass pass = ticket.getPass();
+        Event event = pass.getEvent();
+        TicketConsumption ticketConsumption = ticket.getTicketConsumption();
+
+        List<TicketConsumptionDetailDTO> detailDTOs = new ArrayList<>();
+        for (TicketConsumptionDetail detail : ticketConsumption.getConsumptionDetails()) {
+            TicketConsumptionDetailDTO detailDTO = modelMapper.map(detail, TicketConsumptionDetailDTO.class);
+            detailDTO.setConsumptionName(detail.getConsumption().getName());
+            detailDTOs.add(detailDTO);
+        }
         TicketConsumptionDTO ticketConsumptionDTO = new TicketConsumptionDTO();
         ticketConsumptionDTO.setId(ticketConsumption.getId());
         ticketConsumptionDTO.setRedeem(ticketConsumption.isRedeem());
@@ -359,7 +614,8 @@ public class TicketServiceImpl implements TicketService {
                 .userId(ticket.getUserId())
                 .passCode(pass.getCode())
                 .passId(pass.getId())
-                .qrCode(ticket.getQrCode())
+                .qrText(ticket.getQrText())
+                .qrImageUrl(qrImageUrl(ticket.getId()))
                 .eventId(event.getId())
                 .eventName(event.getName())
                 .eventDate(event.getEventDate())
@@ -373,20 +629,49 @@ public class TicketServiceImpl implements TicketService {
                 .build();
     }
 
+    private static String qrImageUrl(Long ticketId) {
+        return "/api/event-service/tickets/" + ticketId + "/qr.png";
+    }
+
     /**
      * Generates QR code data for a ticket
-     * Format: PACKEDGO|T:ticketId|TC:ticketConsumptionId|E:eventId|U:userId|TS:timestamp
+     * Format v1: PACKEDGO|T:ticketId|TC:ticketConsumptionId|E:eventId|U:userId|TS:timestamp
+     * Format v2 (app.qr.payload-version=2): PG2:<Base45>, see QRPayloadCodec
      */
     private String generateQRData(Ticket ticket, Event event) {
-        return String.format("PACKEDGO|T:%d|TC:%d|E:%d|U:%d|TS:%d",
+        return qrPayloadCodec.encode(
                 ticket.getId(),
                 ticket.getTicketConsumption().getId(),
                 event.getId(),
                 ticket.getUserId(),
-                System.currentTimeMillis()
+                System.currentTimeMillis(),
+                event.getQrKeyVersion()
         );
     }
 
+    @Override
+    @Transactional
+    public int rotateEventQrKey(Long eventId) {
+        Event event = eventRepository.findByIdWithLock(eventId)
+                .orElseThrow(() -> new com.packed_go.event_service.exceptions.ResourceNotFoundException("Event with id " + eventId + " not found"));
+
+        event.rotateQrKey();
+        eventRepository.save(event);
+
+        // Re-firmar los QR de todos los tickets del evento con la nueva clave, en lotes JDBC
+        List<TicketBatchWriter.TicketQrRow> tickets = ticketBatchWriter.findTicketQrRows(eventId);
+        long issuedAt = System.currentTimeMillis();
+        int keyVersion = event.getQrKeyVersion();
+        ticketBatchWriter.updateQrTexts(tickets, ticket -> qrPayloadCodec.encode(
+                ticket.id(), ticket.ticketConsumptionId(), eventId, ticket.userId(), issuedAt, keyVersion));
+
+        // El índice en memoria guarda la versión de clave: los QR anteriores dejan de validar al instante
+        gateModeService.onQrKeyRotated(eventId, event.getQrKeyVersion());
+
+        log.info("🔑 QR key rotated for event {} (version {}, {} tickets re-signed)", eventId, event.getQrKeyVersion(), tickets.size());
+        return tickets.size();
+    }
+
     @Override
     @Transactional
     public boolean isTicketRedeemed(Long ticketId) {
@@ -405,6 +690,11 @@ public class TicketServiceImpl implements TicketService {
         throw new RuntimeException("No se pudo comprar el ticket después de varios intentos debido a concurrencia: " + ex.getMessage(), ex);
     }
 
+    @Recover
+    public List<TicketWithConsumptionsResponse> recoverCreateTicketsBatch(Exception ex, CreateTicketBatchRequest request) {
+        throw new RuntimeException("No se pudieron emitir los tickets después de varios intentos: " + ex.getMessage(), ex);
+    }
+
     @Recover
     public TicketDTO recoverRedeemTicket(Exception ex, Long ticketId) {
         throw new RuntimeException("No se pudo canjear el ticket después de varios intentos debido a concurrencia: " + ex.getMessage(), ex);
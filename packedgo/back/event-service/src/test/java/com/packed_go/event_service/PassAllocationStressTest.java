@@ -0,0 +1,146 @@
+package com.packed_go.event_service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.packed_go.event_service.entities.Pass;
+import com.packed_go.event_service.exceptions.NoPassesAvailableException;
+import com.packed_go.event_service.services.PassAllocationService;
+
+/**
+ * Compradores concurrentes contra el pool de passes sobre Postgres real.
+ * El pool de conexiones tiene exactamente una conexión por comprador: si la asignación
+ * necesitara una segunda conexión dentro de la compra, la prueba se quedaría sin conexiones.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@TestPropertySource(properties = {
+        "spring.datasource.hikari.maximum-pool-size=8",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "spring.jpa.show-sql=false"
+})
+class PassAllocationStressTest {
+
+    private static final int PASSES = 4_000;
+    private static final int[] BUYER_THREADS = {1, 2, 4, 8};
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private PassAllocationService passAllocationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyPassIsSoldOnceAndThroughputScalesWithBuyers() throws Exception {
+        Map<Integer, Double> throughput = new LinkedHashMap<>();
+        for (int threads : BUYER_THREADS) {
+            Long eventId = createEvent(threads);
+            passAllocationService.evict(eventId);
+
+            Set<Long> sold = ConcurrentHashMap.newKeySet();
+            long elapsed = runBuyers(eventId, threads, sold);
+
+            assertEquals(PASSES, sold.size(), "passes sold with " + threads + " buyers");
+            assertEquals(PASSES, (int) jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM passes WHERE event_id = ? AND sold = true AND available = false",
+                    Integer.class, eventId));
+            throughput.put(threads, PASSES / (elapsed / 1e9));
+        }
+
+        throughput.forEach((threads, perSecond) ->
+                System.out.printf("🎟️ %d buyers: %.0f passes/s%n", threads, perSecond));
+        assertTrue(throughput.get(8) > throughput.get(1),
+                "8 buyers should allocate faster than 1 buyer: " + throughput);
+    }
+
+    @Test
+    void multiPassAllocationIsAllOrNothing() {
+        Long eventId = createEvent(0);
+        passAllocationService.evict(eventId);
+
+        List<Pass> passes = transactionTemplate.execute(status -> passAllocationService.allocate(eventId, 1L, 5));
+        assertEquals(5, passes.size());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> passAllocationService.allocate(eventId, 2L, PASSES));
+        } catch (NoPassesAvailableException expected) {
+            // La compra hace rollback: los passes que llegó a marcar vuelven a estar disponibles
+        }
+        assertEquals(PASSES - 5, (int) jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM passes WHERE event_id = ? AND available = true", Integer.class, eventId));
+    }
+
+    private long runBuyers(Long eventId, int threads, Set<Long> sold) throws Exception {
+        ExecutorService buyers = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long userId = t + 1;
+            results.add(buyers.submit(() -> {
+                start.await();
+                while (true) {
+                    try {
+                        Pass pass = transactionTemplate.execute(status -> passAllocationService.allocate(eventId, userId));
+                        assertTrue(sold.add(pass.getId()), "pass " + pass.getId() + " sold twice");
+                    } catch (NoPassesAvailableException soldOut) {
+                        return null;
+                    }
+                }
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        buyers.shutdown();
+        return elapsed;
+    }
+
+    private Long createEvent(int run) {
+        return transactionTemplate.execute(status -> {
+            Long eventId = jdbcTemplate.queryForObject(
+                    "INSERT INTO events (name, status, active, total_passes, available_passes, sold_passes, version, " +
+                    "qr_key_version, created_by, created_at) " +
+                    "VALUES (?, 'ACTIVE', true, ?, ?, 0, 0, 1, 1, now()) RETURNING id",
+                    Long.class, "Stress " + run, PASSES, PASSES);
+            jdbcTemplate.update(
+                    "INSERT INTO passes (code, event_id, active, available, sold, created_at, version) " +
+                    "SELECT ? || '-' || g, ?, true, true, false, now(), 0 FROM generate_series(1, ?) g",
+                    "STRESS-" + eventId, eventId, PASSES);
+            return eventId;
+        });
+    }
+}
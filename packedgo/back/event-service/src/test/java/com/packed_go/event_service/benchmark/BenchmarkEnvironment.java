@@ -0,0 +1,77 @@
+package com.packed_go.event_service.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.packed_go.event_service.EventServiceApplication;
+
+/**
+ * event-service completo (sin web) sobre un Postgres descartable para los benchmarks JMH.
+ * Requiere Docker. Como el pool usa auto-commit=false, toda escritura directa va dentro de
+ * {@link #inTransaction(Runnable)}.
+ */
+final class BenchmarkEnvironment implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start() {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EventServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        return new BenchmarkEnvironment(postgres, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    void inTransaction(Runnable work) {
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> work.run());
+    }
+
+    /**
+     * Crea un evento activo con sus passes; devuelve el id del evento
+     */
+    Long createEvent(String name, int passes, boolean sold) {
+        return context.getBean(TransactionTemplate.class).execute(status -> {
+            Long eventId = jdbc().queryForObject(
+                    "INSERT INTO events (name, status, active, total_passes, available_passes, sold_passes, version, " +
+                    "qr_key_version, created_by, created_at) " +
+                    "VALUES (?, 'ACTIVE', true, ?, ?, ?, 0, 1, 1, now()) RETURNING id",
+                    Long.class, name, passes, sold ? 0 : passes, sold ? passes : 0);
+            jdbc().update(
+                    "INSERT INTO passes (code, event_id, active, available, sold, created_at, version) " +
+                    "SELECT ? || '-' || g, ?, true, ?, ?, now(), 0 FROM generate_series(1, ?) g",
+                    "BENCH-" + eventId, eventId, !sold, sold, passes);
+            return eventId;
+        });
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        postgres.stop();
+    }
+}
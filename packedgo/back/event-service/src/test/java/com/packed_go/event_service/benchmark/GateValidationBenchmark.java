@@ -0,0 +1,116 @@
+package com.packed_go.event_service.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.packed_go.event_service.dtos.qr.ValidateEntryQRRequest;
+import com.packed_go.event_service.dtos.qr.ValidateEntryQRResponse;
+import com.packed_go.event_service.services.GateModeService;
+import com.packed_go.event_service.services.QRValidationService;
+import com.packed_go.security.qr.QRPayloadCodec;
+
+/**
+ * Escaneos de entrada por segundo con la puerta abierta (índice en memoria + group commit)
+ * frente a la validación JPA por ticket, con 16 lectores en paralelo sobre Postgres real.
+ * Cada escaneo es un ticket distinto todavía sin canjear: se mide la ruta que escribe.
+ *
+ * Ejecutar con: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.packed_go.event_service.benchmark.GateValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(16)
+public class GateValidationBenchmark {
+
+    @Param({"gate", "database"})
+    private String mode;
+
+    @Param("200000")
+    private int tickets;
+
+    private BenchmarkEnvironment environment;
+    private QRValidationService qrValidationService;
+    private GateModeService gateModeService;
+    private Long eventId;
+    private String[] qrCodes;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        qrValidationService = environment.bean(QRValidationService.class);
+        gateModeService = environment.bean(GateModeService.class);
+        eventId = environment.createEvent("Gate benchmark", tickets, true);
+
+        environment.inTransaction(() -> {
+            environment.jdbc().update(
+                    "INSERT INTO consumption_tickets (created_at, active, redeem, version) " +
+                    "SELECT now(), true, false, 0 FROM generate_series(1, ?)", tickets);
+            environment.jdbc().update(
+                    "INSERT INTO tickets (user_id, pass_id, ticket_consumption_id, active, redeemed, created_at, version) " +
+                    "SELECT 1000 + p.rn, p.id, c.id, true, false, now(), 0 " +
+                    "FROM (SELECT id, row_number() OVER (ORDER BY id) rn FROM passes WHERE event_id = ?) p " +
+                    "JOIN (SELECT id, row_number() OVER (ORDER BY id) rn FROM consumption_tickets) c ON c.rn = p.rn",
+                    eventId);
+        });
+
+        QRPayloadCodec codec = environment.bean(QRPayloadCodec.class);
+        List<String> codes = environment.jdbc().query(
+                "SELECT id, ticket_consumption_id, user_id FROM tickets ORDER BY id",
+                (rs, rowNum) -> codec.encode(rs.getLong(1), rs.getLong(2), eventId, rs.getLong(3),
+                        System.currentTimeMillis(), 1));
+        qrCodes = codes.toArray(String[]::new);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetRedemptions() {
+        gateModeService.closeGate(eventId);
+        environment.inTransaction(() -> environment.jdbc().update(
+                "UPDATE tickets SET redeemed = false, redeemed_at = NULL WHERE redeemed = true"));
+        cursor.set(0);
+        if ("gate".equals(mode)) {
+            gateModeService.openGate(eventId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public ValidateEntryQRResponse validateEntry() {
+        // Si una iteración da la vuelta al arreglo, el resto se mide como reingresos rechazados
+        String qrCode = qrCodes[Math.floorMod(cursor.getAndIncrement(), qrCodes.length)];
+        return qrValidationService.validateEntryQR(new ValidateEntryQRRequest(qrCode, eventId));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(GateValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.packed_go.event_service.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.packed_go.event_service.entities.Event;
+import com.packed_go.event_service.entities.Pass;
+import com.packed_go.event_service.repositories.EventRepository;
+import com.packed_go.event_service.repositories.PassRepository;
+import com.packed_go.event_service.services.PassGenerationService;
+
+/**
+ * Tiempo de alta de los passes de un evento nuevo: la generación masiva (ids reservados de la
+ * secuencia + JDBC batch) frente al saveAll de entidades con código UUID que se usaba antes,
+ * que con ids IDENTITY termina en un INSERT por pass. Cada medición crea su propio evento.
+ *
+ * Ejecutar con: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.packed_go.event_service.benchmark.PassProvisioningBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PassProvisioningBenchmark {
+
+    @Param({"bulk", "saveAll"})
+    private String mode;
+
+    @Param({"1000", "10000", "100000"})
+    private int passes;
+
+    private BenchmarkEnvironment environment;
+    private PassGenerationService passGenerationService;
+    private EventRepository eventRepository;
+    private PassRepository passRepository;
+    private Long eventId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start();
+        passGenerationService = environment.bean(PassGenerationService.class);
+        eventRepository = environment.bean(EventRepository.class);
+        passRepository = environment.bean(PassRepository.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void createEvent() {
+        eventId = environment.createEvent("Provisioning benchmark", 0, false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deletePasses() {
+        // La tabla vuelve a quedar vacía: cada medición inserta sobre el mismo tamaño de índice
+        environment.inTransaction(() -> environment.jdbc().update("DELETE FROM passes"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public int provision() {
+        if ("bulk".equals(mode)) {
+            return passGenerationService.generatePassesForEvent(eventId, passes);
+        }
+        environment.inTransaction(() -> {
+            Event event = eventRepository.findById(eventId).orElseThrow();
+            List<Pass> entities = new ArrayList<>(passes);
+            for (int i = 0; i < passes; i++) {
+                entities.add(new Pass("PASS-" + System.currentTimeMillis() + "-" + UUID.randomUUID(), event));
+            }
+            passRepository.saveAll(entities);
+        });
+        return passes;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PassProvisioningBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
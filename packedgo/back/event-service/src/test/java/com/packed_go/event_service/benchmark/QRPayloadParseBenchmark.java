@@ -0,0 +1,118 @@
+package com.packed_go.event_service.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.packed_go.security.qr.QRPayload;
+import com.packed_go.security.qr.QRPayloadCodec;
+import com.packed_go.security.qr.QRSigner;
+
+/**
+ * Parseo de un QR de ticket: el split/HashMap/parseLong que usaba QRValidationServiceImpl
+ * frente al parser de un solo recorrido de QRPayloadCodec, en v1 (texto) y v2 (Base45),
+ * con y sin verificación de firma.
+ *
+ * Ejecutar con: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.packed_go.event_service.benchmark.QRPayloadParseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QRPayloadParseBenchmark {
+
+    private QRPayloadCodec codec;
+    private String textQr;
+    private String compactQr;
+    private String signedTextQr;
+    private String signedCompactQr;
+
+    @Setup
+    public void setUp() {
+        QRSigner unsigned = new QRSigner("");
+        QRSigner signer = new QRSigner("benchmark-secret");
+        long timestamp = 1_760_000_000_000L;
+        textQr = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, false, unsigned)
+                .encode(123_456, 654_321, 42, 98_765, timestamp, 1);
+        compactQr = new QRPayloadCodec(QRPayloadCodec.VERSION_COMPACT, false, unsigned)
+                .encode(123_456, 654_321, 42, 98_765, timestamp, 1);
+        signedTextQr = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, false, signer)
+                .encode(123_456, 654_321, 42, 98_765, timestamp, 1);
+        signedCompactQr = new QRPayloadCodec(QRPayloadCodec.VERSION_COMPACT, false, signer)
+                .encode(123_456, 654_321, 42, 98_765, timestamp, 1);
+        codec = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, false, signer);
+    }
+
+    @Benchmark
+    public void legacySplitText(Blackhole blackhole) {
+        Map<String, String> values = legacyParse(textQr);
+        blackhole.consume(Long.parseLong(values.get("T")));
+        blackhole.consume(Long.parseLong(values.get("E")));
+        blackhole.consume(Long.parseLong(values.get("U")));
+    }
+
+    @Benchmark
+    public QRPayload codecText() {
+        return codec.decode(textQr);
+    }
+
+    @Benchmark
+    public QRPayload codecCompact() {
+        return codec.decode(compactQr);
+    }
+
+    @Benchmark
+    public QRPayload codecSignedText() {
+        return codec.decode(signedTextQr);
+    }
+
+    @Benchmark
+    public QRPayload codecSignedCompact() {
+        return codec.decode(signedCompactQr);
+    }
+
+    /**
+     * Copia del parseQR original, como línea de base
+     */
+    private static Map<String, String> legacyParse(String qrCode) {
+        if (qrCode == null || !qrCode.startsWith("PACKEDGO|")) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        String[] parts = qrCode.split("\\|");
+        for (String part : parts) {
+            if (part.equals("PACKEDGO")) continue;
+            int idx = part.indexOf(':');
+            if (idx > 0) {
+                String key = part.substring(0, idx);
+                String value = part.substring(idx + 1);
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QRPayloadParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,43 @@
+-- Maintenance script for compact cart lines (run manually, once: see ORDER_SERVICE_README.md)
+-- Created: 2026-10-18
+-- Description: Merges cart_items cloned per ticket (quantity = 1, same event, price and
+--              consumptions) into a single line with quantity = N. Only ACTIVE carts are
+--              touched; order_items keep their rows because their ids back the ticket
+--              idempotency keys of orders already in fulfillment.
+
+BEGIN;
+
+CREATE TEMP TABLE cart_line_groups ON COMMIT DROP AS
+SELECT ci.id,
+       FIRST_VALUE(ci.id) OVER w AS keep_id,
+       SUM(ci.quantity) OVER w AS total_quantity
+FROM cart_items ci
+JOIN shopping_carts sc ON sc.id = ci.cart_id AND sc.status = 'ACTIVE'
+CROSS JOIN LATERAL (
+    SELECT COALESCE(STRING_AGG(cic.consumption_id || 'x' || cic.quantity || '@' || cic.unit_price, ','
+                               ORDER BY cic.consumption_id), '') AS signature
+    FROM cart_item_consumptions cic
+    WHERE cic.cart_item_id = ci.id
+) sig
+WINDOW w AS (PARTITION BY ci.cart_id, ci.event_id, ci.unit_price, sig.signature
+             ORDER BY ci.id ROWS BETWEEN UNBOUNDED PRECEDING AND UNBOUNDED FOLLOWING);
+
+-- Line that is kept: summed quantity, subtotal = (unit price + per-ticket consumptions) * quantity
+UPDATE cart_items ci
+SET quantity = g.total_quantity,
+    subtotal = (ci.unit_price + COALESCE((SELECT SUM(cic.subtotal)
+                                          FROM cart_item_consumptions cic
+                                          WHERE cic.cart_item_id = ci.id), 0)) * g.total_quantity
+FROM cart_line_groups g
+WHERE g.id = ci.id AND g.id = g.keep_id AND g.total_quantity <> ci.quantity;
+
+-- Merged clones
+DELETE FROM cart_item_consumptions cic
+USING cart_line_groups g
+WHERE cic.cart_item_id = g.id AND g.id <> g.keep_id;
+
+DELETE FROM cart_items ci
+USING cart_line_groups g
+WHERE ci.id = g.id AND g.id <> g.keep_id;
+
+COMMIT;
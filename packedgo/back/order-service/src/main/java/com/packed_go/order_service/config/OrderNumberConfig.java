@@ -0,0 +1,39 @@
+package com.packed_go.order_service.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.packed_go.order_service.util.OrderNumberGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Configuration
+public class OrderNumberConfig {
+
+    /**
+     * Generador de números de orden del nodo. Con varias instancias cada una necesita
+     * su propio app.orders.node-id (0-1023): con app.orders.multi-instance=true el servicio no
+     * arranca sin él. Con una sola instancia, si no se define se deriva del hostname.
+     */
+    @Bean
+    public OrderNumberGenerator orderNumberGenerator(@Value("${app.orders.node-id:-1}") int nodeId,
+                                                     @Value("${app.orders.multi-instance:false}") boolean multiInstance) {
+        if (nodeId >= 0) {
+            OrderNumberGenerator.configure(nodeId);
+            log.info("🔢 Order number generator using node id {}", nodeId);
+            return OrderNumberGenerator.getInstance();
+        }
+        if (multiInstance) {
+            // El hash del hostname cae en 1024 nodos: con varias réplicas dos pueden coincidir
+            // y generar números de orden duplicados
+            throw new IllegalStateException("app.orders.node-id (ORDER_NODE_ID) must be set to a unique value "
+                    + "between 0 and " + OrderNumberGenerator.MAX_NODE_ID + " when app.orders.multi-instance=true");
+        }
+        log.warn("⚠️ app.orders.node-id is not set: order number node id {} was derived from the hostname. "
+                + "Set ORDER_NODE_ID to a unique value per instance before running more than one order-service",
+                OrderNumberGenerator.getInstance().nodeId());
+        return OrderNumberGenerator.getInstance();
+    }
+}
@@ -1,10 +1,18 @@
 package com.packed_go.order_service.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
@@ -15,13 +23,47 @@ public class WebClientConfig {
     @Value("${app.services.auth-service.base-url:http://localhost:8081/api}")
     private String authServiceBaseUrl;
 
+    /**
+     * Pool de conexiones propio de EVENT-SERVICE (no el global de Reactor Netty)
+     * Acotado en conexiones y en peticiones en espera: si event-service se degrada se falla rápido
+     * en lugar de encolar sin límite. Las conexiones ociosas o viejas se cierran en segundo plano.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider eventServiceConnectionProvider(
+            @Value("${app.services.event-service.pool.max-connections:100}") int maxConnections,
+            @Value("${app.services.event-service.pool.pending-acquire-max:500}") int pendingAcquireMax,
+            @Value("${app.services.event-service.pool.pending-acquire-timeout-ms:2000}") long pendingAcquireTimeoutMs,
+            @Value("${app.services.event-service.pool.max-idle-ms:30000}") long maxIdleMs,
+            @Value("${app.services.event-service.pool.max-life-ms:300000}") long maxLifeMs) {
+        return ConnectionProvider.builder("event-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+    }
+
     /**
      * WebClient para comunicarse con EVENT-SERVICE
+     * El timeout de respuesta por defecto es un tope: cada ruta fija el suyo en EventServiceClient
      */
     @Bean
-    public WebClient eventServiceWebClient() {
+    public WebClient eventServiceWebClient(
+            @Qualifier("eventServiceConnectionProvider") ConnectionProvider connectionProvider,
+            @Value("${app.services.event-service.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${app.services.event-service.response-timeout-ms:30000}") long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .compress(true);
+
         return WebClient.builder()
                 .baseUrl(eventServiceBaseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader("Content-Type", "application/json")
                 .codecs(configurer -> configurer
                         .defaultCodecs()
@@ -55,9 +97,15 @@ public class WebClientConfig {
 
     /**
      * RestTemplate para comunicación con payment-service
+     * Con timeouts para que una llamada colgada no retenga un hilo del checkout indefinidamente
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(
+            @Value("${app.services.payment-service.connect-timeout-ms:3000}") int connectTimeoutMs,
+            @Value("${app.services.payment-service.read-timeout-ms:10000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return new RestTemplate(requestFactory);
     }
 }
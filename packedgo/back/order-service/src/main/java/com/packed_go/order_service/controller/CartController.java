@@ -18,6 +18,7 @@ import com.packed_go.order_service.dto.request.UpdateCartItemRequest;
 import com.packed_go.order_service.dto.response.CartDTO;
 import com.packed_go.order_service.security.JwtTokenValidator;
 import com.packed_go.order_service.service.CartService;
+import com.packed_go.order_service.service.WaitingRoomService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +31,7 @@ import lombok.extern.slf4j.Slf4j;
 public class CartController {
     
     private final CartService cartService;
+    private final WaitingRoomService waitingRoomService;
     private final JwtTokenValidator jwtTokenValidator;
     
     /**
@@ -38,17 +40,21 @@ public class CartController {
      * POST /api/cart/add
      * Headers: Authorization: Bearer {token}
      * Body: { "eventId": 1, "consumptions": [{ "consumptionId": 1, "quantity": 2 }] }
+     * Opcional: X-Queue-Token con el token de la sala de espera del evento
      * 
-     * @return 201 CREATED con el carrito actualizado
+     * @return 201 CREATED con el carrito actualizado o 429 con la posición en la sala de espera
      */
     @PostMapping("/add")
     public ResponseEntity<CartDTO> addToCart(
             @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = "X-Queue-Token", required = false) String queueToken,
             @Valid @RequestBody AddToCartRequest request) {
         
         log.info("POST /api/cart/add - Adding event {} to cart", request.getEventId());
         
         Long userId = extractUserId(authHeader);
+        waitingRoomService.admit(userId, request.getEventId(), queueToken);
+        
         CartDTO cart = cartService.addToCart(userId, request);
         
         return ResponseEntity.status(HttpStatus.CREATED).body(cart);
@@ -1,8 +1,11 @@
 package com.packed_go.order_service.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -10,11 +13,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.packed_go.order_service.dto.MultiOrderCheckoutRequest;
+import com.packed_go.order_service.dto.MultiOrderCheckoutResponse;
 import com.packed_go.order_service.dto.request.CheckoutRequest;
 import com.packed_go.order_service.dto.request.PaymentCallbackRequest;
 import com.packed_go.order_service.dto.response.CheckoutResponse;
+import com.packed_go.order_service.dto.response.OrderPageDTO;
 import com.packed_go.order_service.entity.Order;
 import com.packed_go.order_service.security.JwtTokenValidator;
 import com.packed_go.order_service.service.OrderService;
@@ -31,6 +40,7 @@ public class OrderController {
     
     private final OrderService orderService;
     private final JwtTokenValidator jwtTokenValidator;
+    private final ObjectMapper objectMapper;
     
     /**
      * Procesar checkout del carrito
@@ -94,6 +104,26 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    /**
+     * Obtener el historial de órdenes del usuario, paginado por cursor
+     * 
+     * GET /api/orders/page?cursor={nextCursor}&size=20
+     * Headers: Authorization: Bearer {token}
+     * 
+     * @return 200 OK con la página (órdenes resumidas con sus items) y el cursor de la siguiente
+     */
+    @GetMapping("/page")
+    public ResponseEntity<OrderPageDTO> getUserOrdersPage(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        
+        log.info("GET /api/orders/page - Retrieving user orders page");
+        
+        Long userId = extractUserId(authHeader);
+        return ResponseEntity.ok(orderService.getUserOrdersPage(userId, cursor, size));
+    }
+    
     /**
      * Obtener una orden específica por número
      * 
@@ -137,6 +167,47 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
     
+    /**
+     * Obtener las órdenes de un organizador, paginadas por cursor
+     * 
+     * GET /api/orders/organizer/{organizerId}/page?cursor={nextCursor}&size=20
+     * 
+     * @return 200 OK con la página y el cursor de la siguiente
+     */
+    @GetMapping("/organizer/{organizerId}/page")
+    public ResponseEntity<OrderPageDTO> getOrdersByOrganizerPage(
+            @PathVariable Long organizerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        log.info("GET /api/orders/organizer/{}/page - Retrieving orders page for organizer", organizerId);
+        return ResponseEntity.ok(orderService.getOrganizerOrdersPage(organizerId, cursor, size));
+    }
+    
+    /**
+     * Exportar todas las órdenes de un organizador como NDJSON (una orden por línea)
+     * Se escriben a medida que se leen, página por página, sin cargar el historial en memoria
+     * 
+     * GET /api/orders/organizer/{organizerId}/export
+     * 
+     * @return 200 OK con application/x-ndjson
+     */
+    @GetMapping(value = "/organizer/{organizerId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrdersByOrganizer(@PathVariable Long organizerId) {
+        log.info("GET /api/orders/organizer/{}/export - Exporting orders for organizer", organizerId);
+        
+        StreamingResponseBody body = out -> orderService.forEachOrganizerOrder(organizerId, order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     /**
      * Extrae el userId del token JWT
      */
@@ -177,6 +248,28 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Procesar checkout de todo el carrito (una orden y un pago por admin)
+     * 
+     * POST /api/orders/checkout/multi
+     * Headers: Authorization: Bearer {token}
+     * Body: { "cartId": 45, "timezone": "America/Argentina/Buenos_Aires" } (userId se toma del token)
+     * 
+     * @return 201 CREATED con un grupo de pago por admin
+     */
+    @PostMapping("/checkout/multi")
+    public ResponseEntity<MultiOrderCheckoutResponse> checkoutMultiAdmin(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestBody MultiOrderCheckoutRequest request) {
+        
+        log.info("POST /api/orders/checkout/multi - Processing checkout for cartId: {} with timezone: {}", request.getCartId(), request.getTimezone());
+        
+        Long userId = extractUserId(authHeader);
+        MultiOrderCheckoutResponse response = orderService.checkoutMultiAdmin(userId, request);
+        
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
 
 
     // DEPRECATED: Este endpoint ha sido reemplazado por /payment-callback
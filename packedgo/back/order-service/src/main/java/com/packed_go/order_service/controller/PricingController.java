@@ -0,0 +1,94 @@
+package com.packed_go.order_service.controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.packed_go.order_service.dto.request.PriceChangeRequest;
+import com.packed_go.order_service.security.InternalCallGuard;
+import com.packed_go.order_service.service.CartPricingService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Avisos de cambio de precio que envía event-service (llamada interna, no expuesta en el api-gateway).
+ * El precio del cuerpo es solo informativo: se reprecia con el vigente, leído de event-service.
+ * Sin firma X-Internal-Signature válida responde 401; con el límite agotado, 429.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/pricing")
+@RequiredArgsConstructor
+public class PricingController {
+
+    private final CartPricingService cartPricingService;
+    private final InternalCallGuard internalCallGuard;
+
+    /**
+     * POST /api/pricing/events/{eventId}
+     * Body (opcional): { "price": 15000.00 }
+     *
+     * @return 200 OK con la cantidad de carritos activos repreciados
+     */
+    @PostMapping("/events/{eventId}")
+    public ResponseEntity<Map<String, Integer>> eventPriceChanged(
+            @PathVariable Long eventId,
+            @Valid @RequestBody(required = false) PriceChangeRequest request,
+            HttpServletRequest httpRequest) {
+
+        ResponseEntity<Map<String, Integer>> rejected = rejectUnlessAllowed(httpRequest);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        log.info("POST /api/pricing/events/{} - Base price changed (notified: {})", eventId,
+                request != null ? request.getPrice() : null);
+        int repriced = cartPricingService.repriceEvent(eventId);
+        return ResponseEntity.ok(Map.of("repricedCarts", repriced));
+    }
+
+    /**
+     * POST /api/pricing/consumptions/{consumptionId}
+     * Body (opcional): { "price": 2500.00 }
+     *
+     * @return 200 OK con la cantidad de carritos activos repreciados
+     */
+    @PostMapping("/consumptions/{consumptionId}")
+    public ResponseEntity<Map<String, Integer>> consumptionPriceChanged(
+            @PathVariable Long consumptionId,
+            @Valid @RequestBody(required = false) PriceChangeRequest request,
+            HttpServletRequest httpRequest) {
+
+        ResponseEntity<Map<String, Integer>> rejected = rejectUnlessAllowed(httpRequest);
+        if (rejected != null) {
+            return rejected;
+        }
+
+        log.info("POST /api/pricing/consumptions/{} - Price changed (notified: {})", consumptionId,
+                request != null ? request.getPrice() : null);
+        int repriced = cartPricingService.repriceConsumption(consumptionId);
+        return ResponseEntity.ok(Map.of("repricedCarts", repriced));
+    }
+
+    private ResponseEntity<Map<String, Integer>> rejectUnlessAllowed(HttpServletRequest httpRequest) {
+        if (!internalCallGuard.isSigned(httpRequest)) {
+            log.warn("❌ Rejected unsigned price change call: {} from {}", httpRequest.getRequestURI(), httpRequest.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!internalCallGuard.tryAcquire()) {
+            log.warn("⚠️ Price change rate limit reached, rejecting {}", httpRequest.getRequestURI());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.packed_go.order_service.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.packed_go.order_service.dto.response.QueueStatusDTO;
+import com.packed_go.order_service.security.JwtTokenValidator;
+import com.packed_go.order_service.service.WaitingRoomService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestController
+@RequestMapping("/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+    private final JwtTokenValidator jwtTokenValidator;
+
+    /**
+     * Entrar a la sala de espera de un evento
+     *
+     * POST /api/waiting-room/events/{eventId}/join
+     * Headers: Authorization: Bearer {token}
+     *
+     * @return 200 OK con el token de la cola, la posición y si ya fue admitido
+     */
+    @PostMapping("/events/{eventId}/join")
+    public ResponseEntity<QueueStatusDTO> join(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable Long eventId) {
+
+        log.info("POST /api/waiting-room/events/{}/join - Joining waiting room", eventId);
+
+        Long userId = extractUserId(authHeader);
+        return withPollHint(waitingRoomService.join(userId, eventId));
+    }
+
+    /**
+     * Consultar posición y espera estimada
+     *
+     * GET /api/waiting-room/status
+     * Headers: Authorization: Bearer {token}, X-Queue-Token: {queueToken}
+     *
+     * @return 200 OK con el estado; Retry-After indica cuándo volver a consultar
+     */
+    @GetMapping("/status")
+    public ResponseEntity<QueueStatusDTO> getStatus(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader("X-Queue-Token") String queueToken) {
+
+        Long userId = extractUserId(authHeader);
+        return withPollHint(waitingRoomService.getStatus(userId, queueToken));
+    }
+
+    private ResponseEntity<QueueStatusDTO> withPollHint(QueueStatusDTO status) {
+        if (Boolean.TRUE.equals(status.getAdmitted())) {
+            return ResponseEntity.ok(status);
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(status.getPollAfterSeconds()))
+                .body(status);
+    }
+
+    /**
+     * Extrae el userId del token JWT
+     */
+    private Long extractUserId(String authHeader) {
+        String token = authHeader.replace("Bearer ", "");
+
+        if (!jwtTokenValidator.validateToken(token)) {
+            throw new RuntimeException("Invalid token");
+        }
+
+        return jwtTokenValidator.getUserIdFromToken(token);
+    }
+}
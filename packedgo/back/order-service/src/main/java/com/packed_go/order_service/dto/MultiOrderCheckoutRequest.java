@@ -15,4 +15,5 @@ import lombok.NoArgsConstructor;
 public class MultiOrderCheckoutRequest {
     private Long cartId;
     private Long userId;
+    private String timezone; // Zona horaria del cliente (opcional)
 }
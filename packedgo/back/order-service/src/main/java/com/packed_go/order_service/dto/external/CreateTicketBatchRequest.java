@@ -0,0 +1,19 @@
+package com.packed_go.order_service.dto.external;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateTicketBatchRequest {
+    private Long userId;
+    private List<TicketBatchItem> items;
+    private LocalDateTime purchasedAt; // Fecha de compra desde la orden
+}
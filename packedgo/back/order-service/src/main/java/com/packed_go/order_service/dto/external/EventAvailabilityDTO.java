@@ -0,0 +1,20 @@
+package com.packed_go.order_service.dto.external;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Disponibilidad al momento de un evento (GET /event/{id}/availability de event-service)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventAvailabilityDTO {
+    private Long eventId;
+    private Integer totalPasses;
+    private Long availablePasses;
+    private Long soldPasses;
+}
@@ -0,0 +1,19 @@
+package com.packed_go.order_service.dto.external;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketBatchItem {
+    private Long eventId;
+    private Integer quantity; // Cantidad de entradas; todas con las mismas consumiciones
+    private List<TicketConsumptionDTO> consumptions;
+    private String idempotencyKey; // orden:item, event-service no vuelve a emitir si ya existe
+}
@@ -12,6 +12,7 @@ import lombok.NoArgsConstructor;
 public class TicketWithConsumptionsResponse {
     private Long ticketId;
     private String qrCode;
+    private String qrText;
     private String passCode;
     private String message;
     private Boolean success;
@@ -0,0 +1,25 @@
+package com.packed_go.order_service.dto.request;
+
+import java.math.BigDecimal;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aviso de event-service: cambió el precio de un evento o de una consumición.
+ * El precio informado solo se loguea; order-service reprecia con el vigente en event-service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceChangeRequest {
+
+    @NotNull(message = "Price is required")
+    @DecimalMin(value = "0.0", message = "Price cannot be negative")
+    private BigDecimal price;
+}
@@ -0,0 +1,21 @@
+package com.packed_go.order_service.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página de órdenes paginada por cursor (keyset): para la siguiente página se envía nextCursor
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDTO {
+    private List<OrderSummaryDTO> orders;
+    private String nextCursor;  // null si no hay más páginas
+    private boolean hasMore;
+}
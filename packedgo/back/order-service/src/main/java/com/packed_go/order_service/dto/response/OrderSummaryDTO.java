@@ -0,0 +1,48 @@
+package com.packed_go.order_service.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.packed_go.order_service.dto.OrderItemDTO;
+import com.packed_go.order_service.entity.Order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vista liviana de una orden para los historiales paginados y la exportación.
+ * Se proyecta directo desde la consulta (sin cargar la entidad) y los items se agregan aparte.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+
+    private Long id;
+    private String orderNumber;
+    private Long userId;
+    private Long adminId;
+    private String sessionId;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDateTime createdAt;
+    private LocalDateTime paidAt;
+    private LocalDateTime cancelledAt;
+
+    @Builder.Default
+    private List<OrderItemDTO> items = new ArrayList<>();
+
+    /**
+     * Constructor para la proyección JPQL (SELECT new ...)
+     */
+    public OrderSummaryDTO(Long id, String orderNumber, Long userId, Long adminId, String sessionId,
+                           Order.OrderStatus status, BigDecimal totalAmount, LocalDateTime createdAt,
+                           LocalDateTime paidAt, LocalDateTime cancelledAt) {
+        this(id, orderNumber, userId, adminId, sessionId, status, totalAmount, createdAt, paidAt, cancelledAt, new ArrayList<>());
+    }
+}
@@ -0,0 +1,32 @@
+package com.packed_go.order_service.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de un comprador en la sala de espera de un evento
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueStatusDTO {
+
+    private Long eventId;
+
+    // Token firmado: se envía en X-Queue-Token al consultar el estado y al agregar al carrito
+    private String queueToken;
+
+    private Long position;
+    private Long positionsAhead;
+    private Boolean admitted;
+
+    // Estimación según el ritmo de admisión actual del evento
+    private Long estimatedWaitSeconds;
+    private Double admissionRatePerSecond;
+
+    // Cada cuántos segundos conviene volver a consultar
+    private Integer pollAfterSeconds;
+}
@@ -9,8 +9,14 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Línea del carrito: quantity entradas de un evento que comparten precio y consumiciones.
+ * Las consumiciones son POR ENTRADA; una entrada con otras consumiciones va en su propia línea.
+ * Recién al emitir los tickets la línea se expande a un ticket (y un QR) por unidad.
+ */
 @Entity
 @Table(name = "cart_items")
 @Data
@@ -36,6 +42,7 @@ public class CartItem {
     @Column(name = "admin_id", nullable = false)
     private Long adminId; // ID del admin dueño del evento (para multitenant)
 
+    @Builder.Default
     @Column(nullable = false)
     private Integer quantity = 1;
 
@@ -73,7 +80,8 @@ public class CartItem {
     // ============================================
 
     /**
-     * Calcula el subtotal del item (precio base + consumiciones)
+     * Calcula el subtotal de la línea: (precio base + consumiciones por entrada) x cantidad.
+     * Si la línea ya está en un carrito, le traslada la diferencia al total del carrito.
      */
     public void calculateSubtotal() {
         BigDecimal consumptionsTotal = consumptions.stream()
@@ -81,8 +89,38 @@ public class CartItem {
                 .filter(subtotal -> subtotal != null) // Filtrar nulos por seguridad
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity))
-                .add(consumptionsTotal);
+        BigDecimal previous = subtotal;
+        this.subtotal = unitPrice.add(consumptionsTotal)
+                .multiply(BigDecimal.valueOf(quantity));
+
+        if (cart != null && previous != null && cart.containsItem(this)) {
+            cart.applySubtotalDelta(subtotal.subtract(previous));
+        }
+    }
+
+    /**
+     * Aplica un nuevo precio de entrada (cambio de precio en event-service)
+     */
+    public void updateUnitPrice(BigDecimal newUnitPrice) {
+        this.unitPrice = newUnitPrice;
+        calculateSubtotal();
+    }
+
+    /**
+     * Indica si una entrada con este precio y consumiciones (id -> cantidad por entrada)
+     * puede sumarse a esta línea en lugar de crear una nueva
+     */
+    public boolean hasSameContent(Long otherEventId, BigDecimal otherUnitPrice, List<CartItemConsumption> otherConsumptions) {
+        return eventId.equals(otherEventId)
+                && unitPrice.compareTo(otherUnitPrice) == 0
+                && consumptionKey(consumptions).equals(consumptionKey(otherConsumptions));
+    }
+
+    private static List<String> consumptionKey(List<CartItemConsumption> items) {
+        return items.stream()
+                .sorted(Comparator.comparing(CartItemConsumption::getConsumptionId))
+                .map(c -> c.getConsumptionId() + "x" + c.getQuantity() + "@" + c.getUnitPrice().stripTrailingZeros().toPlainString())
+                .toList();
     }
 
     /**
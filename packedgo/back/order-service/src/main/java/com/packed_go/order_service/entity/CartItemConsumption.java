@@ -8,6 +8,9 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
+/**
+ * Consumición de una línea del carrito; quantity es por entrada, no por línea
+ */
 @Entity
 @Table(name = "cart_item_consumptions")
 @Data
@@ -30,6 +33,7 @@ public class CartItemConsumption {
     @Column(name = "consumption_name", nullable = false)
     private String consumptionName;
 
+    @Builder.Default
     @Column(nullable = false)
     private Integer quantity = 1;
 
@@ -63,4 +67,13 @@ public class CartItemConsumption {
         this.quantity = newQuantity;
         calculateSubtotal();
     }
+
+    /**
+     * Aplica un nuevo precio unitario (cambio de precio en event-service).
+     * El llamador debe recalcular el subtotal de la línea.
+     */
+    public void updateUnitPrice(BigDecimal newUnitPrice) {
+        this.unitPrice = newUnitPrice;
+        calculateSubtotal();
+    }
 }
@@ -0,0 +1,32 @@
+package com.packed_go.order_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Total de passes retenidos por carritos para un evento (suma de las reservas ACTIVE).
+ * Se reserva con un UPDATE condicional sobre esta fila, de modo que dos carritos no puedan
+ * retener en conjunto más passes que los disponibles.
+ */
+@Entity
+@Table(name = "event_hold_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventHoldCounter {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Builder.Default
+    @Column(name = "held_quantity", nullable = false)
+    private int heldQuantity = 0;
+}
@@ -0,0 +1,102 @@
+package com.packed_go.order_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila del outbox de cumplimiento: se escribe en la misma transacción que marca la orden
+ * como PAID y un worker la procesa después en pasos independientes (emitir tickets, limpiar
+ * carrito y reserva, enviar email). Cada paso deja su marca de tiempo para no repetirse.
+ */
+@Entity
+@Table(name = "fulfillment_outbox", indexes = {
+    @Index(name = "idx_fulfillment_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FulfillmentTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Column(name = "order_number", nullable = false, length = 50)
+    private String orderNumber;
+
+    @Column(name = "customer_email")
+    private String customerEmail;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil; // Lease del worker: si vence sin terminar, otro worker la retoma
+
+    @Column(name = "tickets_issued_at")
+    private LocalDateTime ticketsIssuedAt;
+
+    @Column(name = "cart_updated_at")
+    private LocalDateTime cartUpdatedAt; // Items comprados quitados del carrito y reserva de passes consumida
+
+    @Column(name = "email_sent_at")
+    private LocalDateTime emailSentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Cada claim la incrementa: un worker cuyo lease venció y fue retomado no puede pisar al nuevo
+    @Version
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
+    public enum Status {
+        PENDING,      // Esperando worker (o próximo reintento)
+        IN_PROGRESS,  // Tomada por un worker
+        COMPLETED,    // Tickets emitidos, carrito actualizado y email enviado
+        FAILED        // Se agotaron los reintentos: requiere intervención manual
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.packed_go.order_service.util.DateTimeUtils;
+import com.packed_go.order_service.util.OrderNumberGenerator;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
@@ -31,7 +32,10 @@ import lombok.NoArgsConstructor;
 @Table(name = "orders", indexes = {
     @Index(name = "idx_order_user_id", columnList = "user_id"),
     @Index(name = "idx_order_number", columnList = "order_number"),
-    @Index(name = "idx_order_status", columnList = "status")
+    @Index(name = "idx_order_status", columnList = "status"),
+    // Historiales paginados por cursor: (dueño, createdAt DESC, id DESC)
+    @Index(name = "idx_order_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_order_admin_created", columnList = "admin_id, created_at, id")
 })
 @Data
 @Builder
@@ -132,13 +136,10 @@ public class Order {
     // ============================================
 
     /**
-     * Genera un número de orden único
+     * Genera un número de orden único ("ORD-YYYYMM-" + id del OrderNumberGenerator del nodo)
      */
     public static String generateOrderNumber() {
-        LocalDateTime now = DateTimeUtils.now();
-        return "ORD-" + now.getYear() + 
-               String.format("%02d", now.getMonthValue()) + "-" +
-               System.currentTimeMillis();
+        return OrderNumberGenerator.getInstance().nextOrderNumber();
     }
 
     /**
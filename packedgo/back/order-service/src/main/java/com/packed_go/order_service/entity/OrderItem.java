@@ -77,7 +77,7 @@ public class OrderItem {
     // ============================================
 
     /**
-     * Calcula el subtotal del item (precio base + consumiciones)
+     * Calcula el subtotal del item: (precio base + consumiciones por entrada) x cantidad
      */
     public void calculateSubtotal() {
         BigDecimal consumptionsTotal = consumptions.stream()
@@ -85,8 +85,8 @@ public class OrderItem {
                 .filter(s -> s != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        this.subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity))
-                .add(consumptionsTotal);
+        this.subtotal = unitPrice.add(consumptionsTotal)
+                .multiply(BigDecimal.valueOf(quantity));
     }
 
     /**
@@ -98,7 +98,8 @@ public class OrderItem {
     }
 
     /**
-     * Crea un OrderItem desde un CartItem
+     * Crea un OrderItem desde una línea del carrito (misma cantidad y consumiciones por entrada).
+     * Event-service emite un ticket por unidad, cada uno con esas consumiciones.
      */
     public static OrderItem fromCartItem(CartItem cartItem) {
         OrderItem orderItem = OrderItem.builder()
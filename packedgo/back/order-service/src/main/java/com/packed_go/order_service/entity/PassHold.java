@@ -0,0 +1,77 @@
+package com.packed_go.order_service.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Reserva temporal de passes de un evento para un carrito.
+ * Hay a lo sumo una reserva ACTIVE por (carrito, evento); su cantidad acompaña a los items del carrito
+ * y vence junto con el carrito.
+ */
+@Entity
+@Table(name = "pass_holds", indexes = {
+    @Index(name = "idx_pass_holds_status_expires", columnList = "status, expires_at"),
+    @Index(name = "idx_pass_holds_cart_event", columnList = "cart_id, event_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PassHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+
+    public enum Status {
+        ACTIVE,    // Descuenta disponibilidad mientras el carrito está vigente
+        RELEASED,  // El usuario quitó los items o vació el carrito
+        CONSUMED,  // Los items se compraron: el stock ya lo descontó event-service
+        EXPIRED    // Venció junto con el carrito
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
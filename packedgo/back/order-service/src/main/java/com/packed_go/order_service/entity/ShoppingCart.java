@@ -19,6 +19,9 @@ import java.util.List;
 @AllArgsConstructor
 public class ShoppingCart {
 
+    /** Vigencia de un carrito nuevo si no se indica expiresAt */
+    public static final int DEFAULT_EXPIRATION_MINUTES = 30; // 30 minutos para dar tiempo suficiente
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -39,11 +42,26 @@ public class ShoppingCart {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Suma corriente de los subtotales de las líneas: se ajusta por deltas al agregar, quitar o
+     * recalcular una línea, y en bloque cuando cambia un precio. Null = no calculado (carritos previos).
+     */
+    @Builder.Default
+    @Column(name = "total_amount", precision = 12, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
     @Builder.Default
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("id ASC")
     private List<CartItem> items = new ArrayList<>();
 
+    /**
+     * Versión del CartStore en memoria con la que se leyó esta copia (no se persiste).
+     * Al guardar, una versión distinta de la actual indica que el carrito cambió mientras tanto.
+     */
+    @Transient
+    private Long storeVersion;
+
     // ============================================
     // Lifecycle Callbacks
     // ============================================
@@ -53,7 +71,7 @@ public class ShoppingCart {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (expiresAt == null) {
-            expiresAt = LocalDateTime.now().plusMinutes(30); // 30 minutos para dar tiempo suficiente
+            expiresAt = LocalDateTime.now().plusMinutes(DEFAULT_EXPIRATION_MINUTES);
         }
     }
 
@@ -81,27 +99,62 @@ public class ShoppingCart {
     }
 
     /**
-     * Calcula el monto total del carrito sumando todos los items
+     * Monto total del carrito (suma corriente; se recalcula solo si nunca se calculó)
      */
     public BigDecimal getTotalAmount() {
-        return items.stream()
+        if (totalAmount == null) {
+            recalculateTotal();
+        }
+        return totalAmount;
+    }
+
+    /**
+     * Recalcula el total sumando todos los items
+     */
+    public void recalculateTotal() {
+        totalAmount = items.stream()
                 .map(CartItem::getSubtotal)
+                .filter(subtotal -> subtotal != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
+    /**
+     * Ajusta el total por la variación del subtotal de una de sus líneas
+     */
+    public void applySubtotalDelta(BigDecimal delta) {
+        if (totalAmount == null) {
+            recalculateTotal();
+        } else {
+            totalAmount = totalAmount.add(delta);
+        }
+    }
+
+    /**
+     * Indica si la línea (por identidad) pertenece a este carrito
+     */
+    public boolean containsItem(CartItem item) {
+        return items.stream().anyMatch(existing -> existing == item);
+    }
+
     /**
      * Agrega un item al carrito
      */
     public void addItem(CartItem item) {
+        if (item.getSubtotal() == null) {
+            item.calculateSubtotal();
+        }
         items.add(item);
         item.setCart(this);
+        applySubtotalDelta(item.getSubtotal());
     }
 
     /**
      * Elimina un item del carrito
      */
     public void removeItem(CartItem item) {
-        items.remove(item);
+        if (items.removeIf(existing -> existing == item)) {
+            applySubtotalDelta(item.getSubtotal().negate());
+        }
         item.setCart(null);
     }
 
@@ -120,9 +173,11 @@ public class ShoppingCart {
     }
 
     /**
-     * Obtiene la cantidad total de items en el carrito
+     * Obtiene la cantidad total de entradas en el carrito (suma de las líneas)
      */
     public int getTotalItems() {
-        return items.size();
+        return items.stream()
+                .mapToInt(CartItem::getQuantity)
+                .sum();
     }
 }
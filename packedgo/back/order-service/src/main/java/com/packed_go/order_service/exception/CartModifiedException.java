@@ -0,0 +1,8 @@
+package com.packed_go.order_service.exception;
+
+public class CartModifiedException extends RuntimeException {
+    
+    public CartModifiedException(Long cartId) {
+        super("Shopping cart with id " + cartId + " was modified concurrently, please retry");
+    }
+}
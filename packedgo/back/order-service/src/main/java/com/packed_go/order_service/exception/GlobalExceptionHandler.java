@@ -1,6 +1,7 @@
 package com.packed_go.order_service.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -8,6 +9,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.packed_go.order_service.dto.response.QueueStatusDTO;
+
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -88,6 +91,37 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
     
+    /**
+     * Maneja carritos modificados por otra operación entre la lectura y el guardado
+     * HTTP 409 Conflict - el cliente vuelve a leer el carrito y reintenta
+     */
+    @ExceptionHandler(CartModifiedException.class)
+    public ResponseEntity<ErrorResponse> handleCartModifiedException(CartModifiedException ex) {
+        log.warn("Cart modified: {}", ex.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .error("Cart Modified")
+                .message(ex.getMessage())
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+    
+    /**
+     * Maneja compradores que todavía esperan en la sala de espera del evento
+     * HTTP 429 Too Many Requests - el cuerpo trae el token de la cola y la posición
+     */
+    @ExceptionHandler(WaitingRoomException.class)
+    public ResponseEntity<QueueStatusDTO> handleWaitingRoomException(WaitingRoomException ex) {
+        log.info("Waiting room: {}", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getStatus().getPollAfterSeconds()))
+                .body(ex.getStatus());
+    }
+    
     /**
      * Maneja errores de comunicación con otros servicios
      * HTTP 503 Service Unavailable
@@ -130,6 +164,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    /**
+     * Maneja argumentos inválidos (p. ej. cursor de paginación o cantidad fuera de rango)
+     * HTTP 400 Bad Request
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        log.error("Invalid argument: {}", ex.getMessage());
+        
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .error("Bad Request")
+                .message(ex.getMessage())
+                .build();
+        
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+    
     /**
      * Maneja errores genéricos
      * HTTP 500 Internal Server Error
@@ -0,0 +1,21 @@
+package com.packed_go.order_service.exception;
+
+import com.packed_go.order_service.dto.response.QueueStatusDTO;
+
+/**
+ * El evento tiene sala de espera activa y el comprador todavía no fue admitido
+ */
+public class WaitingRoomException extends RuntimeException {
+
+    private final QueueStatusDTO status;
+
+    public WaitingRoomException(QueueStatusDTO status) {
+        super("Event with id " + status.getEventId() + " is in high demand: position "
+                + status.getPosition() + " in the waiting room");
+        this.status = status;
+    }
+
+    public QueueStatusDTO getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,215 @@
+package com.packed_go.order_service.external;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caché read-through en memoria para datos de catálogo de event-service, indexada por eventId.
+ *
+ * - TTL: una entrada vencida se vuelve a cargar de forma síncrona.
+ * - Refresh-ahead: pasado refreshAfter se sigue sirviendo el valor vigente y se recarga en segundo plano.
+ * - Single-flight: los misses concurrentes de la misma clave esperan a una única carga.
+ * - Acotada: al superar maxSize se descartan primero las entradas vencidas y luego las más antiguas.
+ *
+ * Los errores de carga no se cachean. Métricas: catalog.cache.requests{cache,result},
+ * catalog.cache.load{cache} y catalog.cache.size{cache}.
+ */
+@Slf4j
+class CatalogCache<V> {
+
+    private final String name;
+    private final Function<Long, V> loader;
+    private final Executor refreshExecutor;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final int maxSize;
+    private final Map<Long, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loadTimer;
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> value = new CompletableFuture<>();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long loadedAt;
+    }
+
+    CatalogCache(String name, Function<Long, V> loader, Executor refreshExecutor,
+                 long ttlMillis, long refreshAfterMillis, int maxSize, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.loader = loader;
+        this.refreshExecutor = refreshExecutor;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.refreshAfterNanos = Math.min(refreshAfterMillis, ttlMillis) * 1_000_000L;
+        this.maxSize = maxSize;
+
+        this.hits = meterRegistry.counter("catalog.cache.requests", "cache", name, "result", "hit");
+        this.misses = meterRegistry.counter("catalog.cache.requests", "cache", name, "result", "miss");
+        this.loadTimer = Timer.builder("catalog.cache.load")
+                .tag("cache", name)
+                .description("Tiempo de carga desde event-service ante un miss o un refresh")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.size", entries, Map::size)
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    V get(Long key) {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.value.isDone() && !entry.value.isCompletedExceptionally()) {
+            long age = now - entry.loadedAt;
+            if (age < ttlNanos) {
+                hits.increment();
+                if (age >= refreshAfterNanos) {
+                    refreshAsync(key, entry);
+                }
+                return entry.value.join();
+            }
+        } else if (entry != null && !entry.value.isDone()) {
+            // Otra petición ya está cargando esta clave: esperar su resultado
+            hits.increment();
+            return await(entry);
+        }
+
+        Entry<V> fresh = new Entry<>();
+        Entry<V> current = entries.compute(key, (k, existing) -> isUsable(existing, now) ? existing : fresh);
+        if (current != fresh) {
+            hits.increment();
+            return await(current);
+        }
+
+        misses.increment();
+        evictIfNeeded();
+        try {
+            V value = load(key);
+            fresh.loadedAt = System.nanoTime();
+            fresh.value.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, fresh);
+            fresh.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Valor vigente sin cargar ni esperar (null si no está o venció); lo usan los caminos no bloqueantes
+     */
+    V getIfPresent(Long key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || !entry.value.isDone() || entry.value.isCompletedExceptionally()
+                || System.nanoTime() - entry.loadedAt >= ttlNanos) {
+            return null;
+        }
+        hits.increment();
+        return entry.value.join();
+    }
+
+    /**
+     * Siembra un valor obtenido por otra vía (p. ej. el evento leído para otra caché)
+     */
+    void put(Long key, V value) {
+        Entry<V> entry = new Entry<>();
+        entry.loadedAt = System.nanoTime();
+        entry.value.complete(value);
+        entries.put(key, entry);
+        evictIfNeeded();
+    }
+
+    void invalidate(Long key) {
+        entries.remove(key);
+    }
+
+    void invalidateAll() {
+        entries.clear();
+    }
+
+    private boolean isUsable(Entry<V> entry, long now) {
+        if (entry == null || entry.value.isCompletedExceptionally()) {
+            return false;
+        }
+        return !entry.value.isDone() || now - entry.loadedAt < ttlNanos;
+    }
+
+    private V await(Entry<V> entry) {
+        try {
+            return entry.value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void refreshAsync(Long key, Entry<V> entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    V value = load(key);
+                    // Solo reemplaza si la entrada no fue invalidada o recargada mientras tanto
+                    Entry<V> replacement = new Entry<>();
+                    replacement.loadedAt = System.nanoTime();
+                    replacement.value.complete(value);
+                    entries.replace(key, entry, replacement);
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ Background refresh of {} cache failed for eventId {}: {}", name, key, e.getMessage());
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool de refresco saturado: la entrada se recargará al vencer
+            entry.refreshing.set(false);
+        }
+    }
+
+    private V load(Long key) {
+        long start = System.nanoTime();
+        try {
+            return loader.apply(key);
+        } finally {
+            loadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.entrySet().removeIf(e -> e.getValue().value.isDone() && now - e.getValue().loadedAt >= ttlNanos);
+        while (entries.size() > maxSize) {
+            Long oldestKey = null;
+            long oldestLoadedAt = 0;
+            for (Map.Entry<Long, Entry<V>> e : entries.entrySet()) {
+                Entry<V> candidate = e.getValue();
+                if (candidate.value.isDone() && (oldestKey == null || candidate.loadedAt - oldestLoadedAt < 0)) {
+                    oldestKey = e.getKey();
+                    oldestLoadedAt = candidate.loadedAt;
+                }
+            }
+            if (oldestKey == null) {
+                return;
+            }
+            entries.remove(oldestKey);
+        }
+    }
+}
@@ -1,104 +1,293 @@
 package com.packed_go.order_service.external;
 
 import com.packed_go.order_service.dto.external.ConsumptionDTO;
+import com.packed_go.order_service.dto.external.CreateTicketBatchRequest;
 import com.packed_go.order_service.dto.external.CreateTicketWithConsumptionsRequest;
+import com.packed_go.order_service.dto.external.EventAvailabilityDTO;
 import com.packed_go.order_service.dto.external.EventDTO;
 import com.packed_go.order_service.dto.external.TicketWithConsumptionsResponse;
 import com.packed_go.order_service.exception.EventNotFoundException;
 import com.packed_go.order_service.exception.ServiceCommunicationException;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ClientHttpRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Cliente de EVENT-SERVICE.
+ *
+ * La API base es no bloqueante (métodos *Async que devuelven Mono) para poder componer varias
+ * llamadas en paralelo; los métodos síncronos son adaptadores para los servicios servlet y
+ * bloquean una sola vez sobre la versión reactiva. Cada ruta tiene su propio timeout de respuesta
+ * sobre el pool de conexiones dedicado (ver WebClientConfig).
+ */
 @Service
 @Slf4j
 public class EventServiceClient {
 
     private final WebClient webClient;
-    
-    public EventServiceClient(@Qualifier("eventServiceWebClient") WebClient webClient) {
+    private final ThreadPoolExecutor refreshExecutor;
+
+    // Catálogo (evento y consumiciones) con TTL largo; disponibilidad con un snapshot de TTL corto,
+    // solo para mostrar: las reservas de passes usan getLiveAvailablePassesCount
+    private final CatalogCache<EventDTO> eventCache;
+    private final CatalogCache<List<ConsumptionDTO>> consumptionCache;
+    private final CatalogCache<Integer> availabilityCache;
+
+    // Lecturas reactivas en curso por evento: los misses concurrentes comparten una sola llamada
+    private final Map<Long, Mono<EventDTO>> inFlightEvents = new ConcurrentHashMap<>();
+
+    private final Duration eventTimeout;
+    private final Duration eventsBulkTimeout;
+    private final Duration consumptionsTimeout;
+    private final Duration ticketTimeout;
+    private final Duration ticketBatchTimeout;
+
+    public EventServiceClient(@Qualifier("eventServiceWebClient") WebClient webClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.catalog-cache.ttl-ms:60000}") long catalogTtlMs,
+                              @Value("${app.catalog-cache.refresh-after-ms:45000}") long catalogRefreshAfterMs,
+                              @Value("${app.catalog-cache.availability-ttl-ms:5000}") long availabilityTtlMs,
+                              @Value("${app.catalog-cache.max-size:1000}") int maxSize,
+                              @Value("${app.catalog-cache.refresh-threads:2}") int refreshThreads,
+                              @Value("${app.services.event-service.timeout.event-ms:3000}") long eventTimeoutMs,
+                              @Value("${app.services.event-service.timeout.events-bulk-ms:5000}") long eventsBulkTimeoutMs,
+                              @Value("${app.services.event-service.timeout.consumptions-ms:3000}") long consumptionsTimeoutMs,
+                              @Value("${app.services.event-service.timeout.ticket-ms:15000}") long ticketTimeoutMs,
+                              @Value("${app.services.event-service.timeout.ticket-batch-ms:30000}") long ticketBatchTimeoutMs) {
         this.webClient = webClient;
+        this.eventTimeout = Duration.ofMillis(eventTimeoutMs);
+        this.eventsBulkTimeout = Duration.ofMillis(eventsBulkTimeoutMs);
+        this.consumptionsTimeout = Duration.ofMillis(consumptionsTimeoutMs);
+        this.ticketTimeout = Duration.ofMillis(ticketTimeoutMs);
+        this.ticketBatchTimeout = Duration.ofMillis(ticketBatchTimeoutMs);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "catalog-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.availabilityCache = new CatalogCache<>("availability", this::fetchAvailablePasses, refreshExecutor,
+                availabilityTtlMs, availabilityTtlMs, maxSize, meterRegistry);
+        this.eventCache = new CatalogCache<>("event", this::fetchEventAndSnapshot, refreshExecutor,
+                catalogTtlMs, catalogRefreshAfterMs, maxSize, meterRegistry);
+        this.consumptionCache = new CatalogCache<>("consumptions", this::fetchEventConsumptions, refreshExecutor,
+                catalogTtlMs, catalogRefreshAfterMs, maxSize, meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
 
     /**
-     * Obtiene los detalles de un evento por su ID
+     * Obtiene los detalles de un evento por su ID (desde la caché de catálogo)
      */
     public EventDTO getEventById(Long eventId) {
-        try {
-            log.info("Fetching event details for eventId: {}", eventId);
-            
-            EventDTO event = webClient.get()
-                    .uri("/event-service/event/{id}", eventId)
-                    .retrieve()
-                    .bodyToMono(EventDTO.class)
-                    .timeout(Duration.ofSeconds(10))
-                    .block(); // Bloquea y convierte a síncrono
-            
-            if (event == null) {
-                throw new EventNotFoundException(eventId);
+        return eventCache.get(eventId);
+    }
+
+    /**
+     * Versión no bloqueante de getEventById: responde desde la caché si está vigente
+     */
+    public Mono<EventDTO> getEventByIdAsync(Long eventId) {
+        EventDTO cached = eventCache.getIfPresent(eventId);
+        return cached != null ? Mono.just(cached) : loadEventAsync(eventId);
+    }
+
+    /**
+     * Obtiene varios eventos en una sola llamada (POST /event/by-ids) para los que no estén en caché
+     * Los ids inexistentes simplemente no aparecen en el mapa resultante
+     */
+    public Map<Long, EventDTO> getEventsByIds(Collection<Long> eventIds) {
+        return block(getEventsByIdsAsync(eventIds));
+    }
+
+    public Mono<Map<Long, EventDTO>> getEventsByIdsAsync(Collection<Long> eventIds) {
+        Map<Long, EventDTO> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long eventId : new LinkedHashSet<>(eventIds)) {
+            EventDTO cached = eventCache.getIfPresent(eventId);
+            if (cached != null) {
+                found.put(eventId, cached);
+            } else {
+                missing.add(eventId);
             }
-            
-            log.info("Successfully fetched event: {} (ID: {})", event.getName(), eventId);
-            return event;
-            
-        } catch (WebClientResponseException.NotFound e) {
-            log.error("Event not found with id: {}", eventId);
-            throw new EventNotFoundException(eventId);
-        } catch (Exception e) {
-            log.error("Error communicating with EVENT-SERVICE for eventId: {}", eventId, e);
-            throw new ServiceCommunicationException("Failed to fetch event from EVENT-SERVICE", e);
         }
+        if (missing.isEmpty()) {
+            return Mono.just(found);
+        }
+
+        log.info("Fetching {} events by ids ({} cached)", missing.size(), found.size());
+        return fetchEventsByIdsAsync(missing, found);
+    }
+
+    /**
+     * Varios eventos leídos de event-service en una sola llamada, sin pasar por la caché
+     * (precios vigentes para reconciliar carritos); de paso refresca la caché
+     */
+    public Mono<Map<Long, EventDTO>> getLiveEventsByIdsAsync(Collection<Long> eventIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(eventIds));
+        if (ids.isEmpty()) {
+            return Mono.just(new LinkedHashMap<>());
+        }
+        log.info("Fetching {} live events by ids", ids.size());
+        return fetchEventsByIdsAsync(ids, new LinkedHashMap<>());
+    }
+
+    private Mono<Map<Long, EventDTO>> fetchEventsByIdsAsync(List<Long> eventIds, Map<Long, EventDTO> found) {
+        return webClient.post()
+                .uri("/event-service/event/by-ids")
+                .httpRequest(responseTimeout(eventsBulkTimeout))
+                .bodyValue(eventIds)
+                .retrieve()
+                .bodyToFlux(EventDTO.class)
+                .collectList()
+                .map(events -> {
+                    for (EventDTO event : events) {
+                        cacheEvent(event);
+                        found.put(event.getId(), event);
+                    }
+                    return found;
+                })
+                .onErrorMap(e -> translate(e, null, "Failed to fetch events from EVENT-SERVICE"));
+    }
+
+    /**
+     * Descarta lo cacheado de un evento (p. ej. tras un cambio conocido de precio o stock)
+     */
+    public void evictEvent(Long eventId) {
+        eventCache.invalidate(eventId);
+        consumptionCache.invalidate(eventId);
+        availabilityCache.invalidate(eventId);
+    }
+
+    /**
+     * Descarta todas las consumiciones cacheadas (una consumición puede estar en varios eventos)
+     */
+    public void evictConsumptions() {
+        consumptionCache.invalidateAll();
+    }
+
+    private EventDTO fetchEventAndSnapshot(Long eventId) {
+        EventDTO event = block(fetchEventAsync(eventId));
+        // El evento recién leído trae el stock actual: sirve también como snapshot de disponibilidad
+        availabilityCache.put(eventId, availablePasses(event));
+        return event;
+    }
+
+    private Integer fetchAvailablePasses(Long eventId) {
+        return availablePasses(block(fetchEventAsync(eventId)));
+    }
+
+    /**
+     * Lectura reactiva compartida: siembra ambas cachés con el resultado
+     */
+    private Mono<EventDTO> loadEventAsync(Long eventId) {
+        return inFlightEvents.computeIfAbsent(eventId, id -> fetchEventAsync(id)
+                .doOnNext(this::cacheEvent)
+                .doFinally(signal -> inFlightEvents.remove(id))
+                .cache());
+    }
+
+    private Mono<EventDTO> fetchEventAsync(Long eventId) {
+        log.info("Fetching event details for eventId: {}", eventId);
+
+        return webClient.get()
+                .uri("/event-service/event/{id}", eventId)
+                .httpRequest(responseTimeout(eventTimeout))
+                .retrieve()
+                .bodyToMono(EventDTO.class)
+                .switchIfEmpty(Mono.error(() -> new EventNotFoundException(eventId)))
+                .doOnNext(event -> log.info("Successfully fetched event: {} (ID: {})", event.getName(), eventId))
+                .onErrorMap(e -> translate(e, eventId, "Failed to fetch event from EVENT-SERVICE"));
+    }
+
+    private void cacheEvent(EventDTO event) {
+        eventCache.put(event.getId(), event);
+        availabilityCache.put(event.getId(), availablePasses(event));
+    }
+
+    private static Integer availablePasses(EventDTO event) {
+        return event.getAvailablePasses() != null ? event.getAvailablePasses() : 0;
     }
 
     /**
-     * Obtiene las consumiciones disponibles para un evento
+     * Obtiene las consumiciones disponibles para un evento (desde la caché de catálogo)
      */
     public List<ConsumptionDTO> getEventConsumptions(Long eventId) {
-        try {
-            log.info("Fetching consumptions for eventId: {}", eventId);
-            
-            List<ConsumptionDTO> consumptions = webClient.get()
-                    .uri("/event-service/event/{eventId}/consumptions", eventId)
-                    .retrieve()
-                    .bodyToFlux(ConsumptionDTO.class)
-                    .collectList()
-                    .timeout(Duration.ofSeconds(10))
-                    .block();
-            
-            log.info("Successfully fetched {} consumptions for event: {}", 
-                    consumptions != null ? consumptions.size() : 0, eventId);
-            return consumptions;
-            
-        } catch (WebClientResponseException.NotFound e) {
-            log.error("Consumptions not found for eventId: {}", eventId);
-            throw new EventNotFoundException(eventId);
-        } catch (Exception e) {
-            log.error("Error fetching consumptions for eventId: {}", eventId, e);
-            throw new ServiceCommunicationException("Failed to fetch consumptions from EVENT-SERVICE", e);
+        return consumptionCache.get(eventId);
+    }
+
+    /**
+     * Versión no bloqueante de getEventConsumptions
+     */
+    public Mono<List<ConsumptionDTO>> getEventConsumptionsAsync(Long eventId) {
+        List<ConsumptionDTO> cached = consumptionCache.getIfPresent(eventId);
+        if (cached != null) {
+            return Mono.just(cached);
         }
+        return fetchEventConsumptionsAsync(eventId)
+                .doOnNext(consumptions -> consumptionCache.put(eventId, consumptions));
+    }
+
+    private List<ConsumptionDTO> fetchEventConsumptions(Long eventId) {
+        return block(fetchEventConsumptionsAsync(eventId));
+    }
+
+    private Mono<List<ConsumptionDTO>> fetchEventConsumptionsAsync(Long eventId) {
+        log.info("Fetching consumptions for eventId: {}", eventId);
+
+        return webClient.get()
+                .uri("/event-service/event/{eventId}/consumptions", eventId)
+                .httpRequest(responseTimeout(consumptionsTimeout))
+                .retrieve()
+                .bodyToFlux(ConsumptionDTO.class)
+                .collectList()
+                .<List<ConsumptionDTO>>map(List::copyOf)
+                .doOnNext(consumptions -> log.info("Successfully fetched {} consumptions for event: {}",
+                        consumptions.size(), eventId))
+                .onErrorMap(e -> translate(e, eventId, "Failed to fetch consumptions from EVENT-SERVICE"));
     }
 
     /**
-     * Verifica si hay passes disponibles para un evento
+     * Verifica si hay passes disponibles para un evento, para mostrar
+     * Usa el snapshot de disponibilidad (TTL corto): no sirve para decidir una reserva
      */
     public boolean checkPassAvailability(Long eventId) {
         try {
-            log.info("Checking pass availability for eventId: {}", eventId);
-            
-            EventDTO event = getEventById(eventId);
-            boolean available = event.getAvailablePasses() != null && event.getAvailablePasses() > 0;
-            
-            log.info("Pass availability for event {}: {} (available: {})", 
-                    eventId, available, event.getAvailablePasses());
+            Integer availablePasses = availabilityCache.get(eventId);
+            boolean available = availablePasses > 0;
+
+            log.info("Pass availability for event {}: {} (available: {})",
+                    eventId, available, availablePasses);
             return available;
-            
+
         } catch (Exception e) {
             log.error("Error checking pass availability for eventId: {}", eventId, e);
             throw new ServiceCommunicationException("Failed to check pass availability", e);
@@ -106,12 +295,11 @@ public class EventServiceClient {
     }
 
     /**
-     * Obtiene la cantidad de passes disponibles para un evento
+     * Obtiene la cantidad de passes disponibles para un evento desde el snapshot, para mostrar
      */
     public Integer getAvailablePassesCount(Long eventId) {
         try {
-            EventDTO event = getEventById(eventId);
-            return event.getAvailablePasses() != null ? event.getAvailablePasses() : 0;
+            return availabilityCache.get(eventId);
         } catch (Exception e) {
             log.error("Error getting available passes count for eventId: {}", eventId, e);
             return 0;
@@ -119,18 +307,44 @@ public class EventServiceClient {
     }
 
     /**
-     * Versión reactiva de getEventById (para uso futuro)
+     * Passes disponibles al momento, leídos de event-service sin pasar por la caché
+     * Es el valor con el que se decide una reserva; de paso refresca el snapshot de disponibilidad
+     * @throws ServiceCommunicationException si event-service no responde (la reserva no se hace)
      */
-    public Mono<EventDTO> getEventByIdAsync(Long eventId) {
-        log.info("Fetching event details asynchronously for eventId: {}", eventId);
-        
-        return webClient.get()
-                .uri("/event-service/event/{id}", eventId)
+    public int getLiveAvailablePassesCount(Long eventId) {
+        EventAvailabilityDTO availability = block(webClient.get()
+                .uri("/event-service/event/{id}/availability", eventId)
+                .httpRequest(responseTimeout(eventTimeout))
                 .retrieve()
-                .bodyToMono(EventDTO.class)
-                .timeout(Duration.ofSeconds(10))
-                .doOnSuccess(event -> log.info("Successfully fetched event: {}", event.getName()))
-                .doOnError(error -> log.error("Error fetching event: {}", eventId, error));
+                .bodyToMono(EventAvailabilityDTO.class)
+                .switchIfEmpty(Mono.error(() -> new EventNotFoundException(eventId)))
+                .onErrorMap(e -> translate(e, eventId, "Failed to fetch availability from EVENT-SERVICE")));
+        int available = availability.getAvailablePasses() != null
+                ? (int) Math.max(0, availability.getAvailablePasses())
+                : 0;
+        availabilityCache.put(eventId, available);
+        return available;
+    }
+
+    /**
+     * Evento leído de event-service sin pasar por la caché (precio vigente para repreciar carritos);
+     * de paso refresca la caché
+     * @throws ServiceCommunicationException si event-service no responde
+     */
+    public EventDTO getLiveEvent(Long eventId) {
+        EventDTO event = block(fetchEventAsync(eventId));
+        cacheEvent(event);
+        return event;
+    }
+
+    /**
+     * Consumiciones de un evento leídas de event-service sin pasar por la caché (precios vigentes para
+     * repreciar carritos); de paso refrescan la caché. Se usa el endpoint público por evento:
+     * /consumption/{id} exige el JWT del organizador dueño.
+     */
+    public Mono<List<ConsumptionDTO>> getLiveEventConsumptionsAsync(Long eventId) {
+        return fetchEventConsumptionsAsync(eventId)
+                .doOnNext(consumptions -> consumptionCache.put(eventId, consumptions));
     }
 
     /**
@@ -138,31 +352,84 @@ public class EventServiceClient {
      * Este método es llamado cuando una orden es pagada exitosamente
      */
     public TicketWithConsumptionsResponse createTicketWithConsumptions(CreateTicketWithConsumptionsRequest request) {
-        try {
-            log.info("Creating ticket with consumptions for userId: {}, eventId: {}", 
-                    request.getUserId(), request.getEventId());
-            
-            TicketWithConsumptionsResponse response = webClient.post()
-                    .uri("/event-service/tickets/create-with-consumptions")
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(TicketWithConsumptionsResponse.class)
-                    .timeout(Duration.ofSeconds(15))
-                    .block();
-            
-            log.info("Successfully created ticket with ID: {} for userId: {}", 
-                    response.getTicketId(), request.getUserId());
-            return response;
-            
-        } catch (WebClientResponseException e) {
-            log.error("Error creating ticket with consumptions. Status: {}, Body: {}", 
-                    e.getStatusCode(), e.getResponseBodyAsString());
-            throw new ServiceCommunicationException("Failed to create ticket in EVENT-SERVICE: " + e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("Error creating ticket with consumptions for userId: {}, eventId: {}", 
-                    request.getUserId(), request.getEventId(), e);
-            throw new ServiceCommunicationException("Failed to create ticket with consumptions", e);
+        return block(createTicketWithConsumptionsAsync(request));
+    }
+
+    public Mono<TicketWithConsumptionsResponse> createTicketWithConsumptionsAsync(CreateTicketWithConsumptionsRequest request) {
+        log.info("Creating ticket with consumptions for userId: {}, eventId: {}",
+                request.getUserId(), request.getEventId());
+
+        return webClient.post()
+                .uri("/event-service/tickets/create-with-consumptions")
+                .httpRequest(responseTimeout(ticketTimeout))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(TicketWithConsumptionsResponse.class)
+                .doOnNext(response -> log.info("Successfully created ticket with ID: {} for userId: {}",
+                        response.getTicketId(), request.getUserId()))
+                .onErrorMap(e -> translate(e, null, "Failed to create ticket with consumptions"));
+    }
+
+    /**
+     * Crea en una sola llamada todos los tickets de una orden pagada
+     * Event-service los emite en una única transacción: o se crean todos o ninguno
+     */
+    public List<TicketWithConsumptionsResponse> createTicketsBatch(CreateTicketBatchRequest request) {
+        return block(createTicketsBatchAsync(request));
+    }
+
+    public Mono<List<TicketWithConsumptionsResponse>> createTicketsBatchAsync(CreateTicketBatchRequest request) {
+        log.info("Creating ticket batch for userId: {} ({} items)", request.getUserId(), request.getItems().size());
+
+        return webClient.post()
+                .uri("/event-service/tickets/create-batch")
+                .httpRequest(responseTimeout(ticketBatchTimeout))
+                .bodyValue(request)
+                .retrieve()
+                .bodyToFlux(TicketWithConsumptionsResponse.class)
+                .collectList()
+                .doOnNext(response -> log.info("Successfully created {} tickets for userId: {}",
+                        response.size(), request.getUserId()))
+                .onErrorMap(e -> translate(e, null, "Failed to create ticket batch in EVENT-SERVICE"));
+    }
+
+    /**
+     * Timeout de respuesta propio de la ruta (reemplaza al del HttpClient compartido)
+     * A diferencia de Mono.timeout, vence dentro de Reactor Netty y la conexión vuelve al pool
+     */
+    private static Consumer<ClientHttpRequest> responseTimeout(Duration timeout) {
+        return request -> {
+            Object nativeRequest = request.getNativeRequest();
+            if (nativeRequest instanceof HttpClientRequest httpClientRequest) {
+                httpClientRequest.responseTimeout(timeout);
+            }
+        };
+    }
+
+    /**
+     * Traduce los errores de WebClient a las excepciones del dominio (una sola vez por llamada)
+     */
+    private static Throwable translate(Throwable error, Long eventId, String message) {
+        if (error instanceof EventNotFoundException || error instanceof ServiceCommunicationException) {
+            return error;
+        }
+        if (eventId != null && error instanceof WebClientResponseException.NotFound) {
+            log.error("Event not found with id: {}", eventId);
+            return new EventNotFoundException(eventId);
+        }
+        if (error instanceof WebClientResponseException responseError) {
+            log.error("{}. Status: {}, Body: {}", message, responseError.getStatusCode(),
+                    responseError.getResponseBodyAsString());
+            return new ServiceCommunicationException(message + ": " + responseError.getMessage(), error);
         }
+        log.error("{}{}", message, eventId != null ? " for eventId: " + eventId : "", error);
+        return new ServiceCommunicationException(message, error);
     }
-}
 
+    /**
+     * Adaptador síncrono: los errores ya vienen traducidos a excepciones de runtime del dominio
+     */
+    private static <T> T block(Mono<T> mono) {
+        return mono.block();
+    }
+}
@@ -0,0 +1,34 @@
+package com.packed_go.order_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.packed_go.order_service.entity.EventHoldCounter;
+
+@Repository
+public interface EventHoldCounterRepository extends JpaRepository<EventHoldCounter, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO event_hold_counters (event_id, held_quantity) VALUES (:eventId, 0) " +
+                   "ON CONFLICT (event_id) DO NOTHING", nativeQuery = true)
+    void ensureExists(@Param("eventId") Long eventId);
+
+    /**
+     * Suma quantity a lo retenido solo si el total no supera los passes disponibles.
+     * @return 1 si se reservó, 0 si no hay stock suficiente
+     */
+    @Modifying
+    @Query(value = "UPDATE event_hold_counters SET held_quantity = held_quantity + :quantity " +
+                   "WHERE event_id = :eventId AND held_quantity + :quantity <= :available", nativeQuery = true)
+    int tryReserve(@Param("eventId") Long eventId,
+                   @Param("quantity") int quantity,
+                   @Param("available") int available);
+
+    @Modifying
+    @Query(value = "UPDATE event_hold_counters SET held_quantity = GREATEST(held_quantity - :quantity, 0) " +
+                   "WHERE event_id = :eventId", nativeQuery = true)
+    int release(@Param("eventId") Long eventId, @Param("quantity") int quantity);
+}
@@ -0,0 +1,41 @@
+package com.packed_go.order_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.packed_go.order_service.entity.FulfillmentTask;
+
+@Repository
+public interface FulfillmentTaskRepository extends JpaRepository<FulfillmentTask, Long> {
+
+    boolean existsByOrderId(Long orderId);
+
+    long countByStatus(FulfillmentTask.Status status);
+
+    /**
+     * Tareas listas para procesar: pendientes cuyo reintento ya venció, o tomadas por un worker
+     * cuyo lease expiró. SKIP LOCKED evita que dos instancias tomen la misma tarea.
+     */
+    @Query(value = "SELECT f.id FROM fulfillment_outbox f " +
+                   "WHERE (f.status = 'PENDING' AND f.next_attempt_at <= :now) " +
+                   "OR (f.status = 'IN_PROGRESS' AND f.locked_until < :now) " +
+                   "ORDER BY f.next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> findDueTaskIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Asigna el lease e incrementa la versión: el worker anterior de una tarea retomada
+     * falla con OptimisticLockingFailureException en su próximo save
+     */
+    @Modifying
+    @Query("UPDATE FulfillmentTask f SET f.status = :status, f.lockedUntil = :lockedUntil, " +
+           "f.attempts = f.attempts + 1, f.version = f.version + 1 WHERE f.id IN :ids")
+    int claim(@Param("ids") List<Long> ids,
+              @Param("status") FulfillmentTask.Status status,
+              @Param("lockedUntil") LocalDateTime lockedUntil);
+}
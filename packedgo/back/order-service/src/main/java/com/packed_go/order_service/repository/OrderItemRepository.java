@@ -0,0 +1,24 @@
+package com.packed_go.order_service.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.packed_go.order_service.entity.OrderItem;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Items de varias órdenes con sus consumiciones, en una sola consulta (para armar una página)
+     */
+    @Query("SELECT DISTINCT i FROM OrderItem i " +
+           "LEFT JOIN FETCH i.consumptions " +
+           "WHERE i.order.id IN :orderIds " +
+           "ORDER BY i.id")
+    List<OrderItem> findWithConsumptionsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,11 +1,16 @@
 package com.packed_go.order_service.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.packed_go.order_service.dto.response.OrderSummaryDTO;
 import com.packed_go.order_service.entity.Order;
 
 @Repository
@@ -18,6 +23,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     /**
      * Busca todas las órdenes de un usuario
+     * (carga entidades completas: para historiales usar la versión paginada)
      */
     List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
     
@@ -43,6 +49,47 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     /**
      * Busca todas las órdenes de un organizador (adminId)
+     * (carga entidades completas: para historiales usar la versión paginada)
      */
     List<Order> findByAdminIdOrderByCreatedAtDesc(Long adminId);
+
+    // ============================================
+    // Historial paginado por cursor (createdAt DESC, id DESC)
+    // ============================================
+
+    String SUMMARY_SELECT = "SELECT new com.packed_go.order_service.dto.response.OrderSummaryDTO(" +
+            "o.id, o.orderNumber, o.userId, o.adminId, o.sessionId, o.status, o.totalAmount, " +
+            "o.createdAt, o.paidAt, o.cancelledAt) FROM Order o ";
+    String BEFORE_CURSOR = "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) ";
+    String NEWEST_FIRST = "ORDER BY o.createdAt DESC, o.id DESC";
+
+    /**
+     * Primera página del historial de un usuario
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.userId = :userId " + NEWEST_FIRST)
+    List<OrderSummaryDTO> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Página siguiente del historial de un usuario, a partir del cursor (createdAt, id)
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.userId = :userId " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderSummaryDTO> findSummariesByUserIdBefore(@Param("userId") Long userId,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id,
+                                                      Limit limit);
+
+    /**
+     * Primera página de las órdenes de un organizador
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.adminId = :adminId " + NEWEST_FIRST)
+    List<OrderSummaryDTO> findSummariesByAdminId(@Param("adminId") Long adminId, Limit limit);
+
+    /**
+     * Página siguiente de las órdenes de un organizador, a partir del cursor (createdAt, id)
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.adminId = :adminId " + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OrderSummaryDTO> findSummariesByAdminIdBefore(@Param("adminId") Long adminId,
+                                                       @Param("createdAt") LocalDateTime createdAt,
+                                                       @Param("id") Long id,
+                                                       Limit limit);
 }
@@ -0,0 +1,16 @@
+package com.packed_go.order_service.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.packed_go.order_service.entity.PassHold;
+
+@Repository
+public interface PassHoldRepository extends JpaRepository<PassHold, Long> {
+
+    Optional<PassHold> findByCartIdAndEventIdAndStatus(Long cartId, Long eventId, PassHold.Status status);
+
+    long countByStatus(PassHold.Status status);
+}
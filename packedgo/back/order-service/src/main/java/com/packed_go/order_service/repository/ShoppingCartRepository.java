@@ -35,11 +35,6 @@ public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long
      */
     List<ShoppingCart> findByUserId(Long userId);
 
-    /**
-     * Busca carritos expirados que aún están con status ACTIVE
-     */
-    List<ShoppingCart> findByStatusAndExpiresAtBefore(String status, LocalDateTime dateTime);
-
     /**
      * Busca carritos activos que están por expirar (para notificaciones)
      */
@@ -54,9 +49,4 @@ public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long
      * Verifica si existe un carrito activo para un usuario
      */
     boolean existsByUserIdAndStatus(Long userId, String status);
-
-    /**
-     * Elimina carritos expirados más antiguos que una fecha
-     */
-    void deleteByStatusAndCreatedAtBefore(String status, LocalDateTime dateTime);
 }
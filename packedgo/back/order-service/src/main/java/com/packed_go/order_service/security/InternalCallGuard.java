@@ -0,0 +1,55 @@
+package com.packed_go.order_service.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.packed_go.security.InternalCallSigner;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Control de acceso de los endpoints internos que no pasan por el api-gateway (p. ej. /pricing/**):
+ * la llamada debe traer la firma X-Internal-Signature de la ruta pedida, y un token bucket limita
+ * cuántas se atienden por segundo (cada una relee precios en event-service y actualiza carritos).
+ */
+@Component
+public class InternalCallGuard {
+
+    private final InternalCallSigner internalCallSigner;
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public InternalCallGuard(InternalCallSigner internalCallSigner,
+                             @Value("${app.cart.pricing.rate-limit-per-second:20}") double permitsPerSecond,
+                             @Value("${app.cart.pricing.rate-limit-burst:40}") int burst) {
+        this.internalCallSigner = internalCallSigner;
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * true si la firma corresponde a la ruta del request (con context-path) y no venció
+     */
+    public boolean isSigned(HttpServletRequest request) {
+        return internalCallSigner.verify(request.getHeader(InternalCallSigner.HEADER), request.getRequestURI());
+    }
+
+    /**
+     * Consume un permiso del bucket; false si no queda ninguno
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -1,38 +1,35 @@
 package com.packed_go.order_service.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.packed_go.security.GatewayIdentity;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.TokenVerifier;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-
+/**
+ * Adaptador sobre el TokenVerifier de packedgo-security-commons.
+ * Si el api-gateway ya verificó este mismo token (GatewayIdentity), userId y rol salen de ahí
+ * sin volver a parsear el JWT.
+ */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtTokenValidator {
 
-    private final SecretKey secretKey;
-
-    public JwtTokenValidator(@Value("${app.jwt.secret}") String secret) {
-        log.info("JWT Secret loaded with length: {}", secret.length());
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        this.secretKey = Keys.hmacShaKeyFor(keyBytes);
-    }
+    private final TokenVerifier tokenVerifier;
 
     /**
      * Valida si el token JWT es válido
      */
     public boolean validateToken(String token) {
+        if (GatewayIdentity.forToken(token) != null) {
+            return true;
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
+            tokenVerifier.verify(token);
             return true;
-        } catch (Exception e) {
+        } catch (InvalidTokenException e) {
             log.error("Token validation failed: {}", e.getMessage());
             return false;
         }
@@ -42,35 +39,22 @@ public class JwtTokenValidator {
      * Extrae el userId del token JWT
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("userId", Long.class);
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        return identity != null ? identity.userId() : tokenVerifier.verify(token).userId();
     }
 
     /**
      * Extrae el rol del usuario del token JWT
      */
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        return identity != null ? identity.role() : tokenVerifier.verify(token).role();
     }
 
     /**
      * Extrae el username del token JWT
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return tokenVerifier.verify(token).subject();
     }
 }
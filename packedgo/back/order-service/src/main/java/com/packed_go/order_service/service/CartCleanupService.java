@@ -1,92 +1,194 @@
 package com.packed_go.order_service.service;
 
-import com.packed_go.order_service.entity.ShoppingCart;
-import com.packed_go.order_service.repository.ShoppingCartRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Servicio para limpiar automáticamente carritos expirados
  * Se ejecuta cada 5 minutos (configurable)
+ *
+ * Ambas tareas trabajan por lotes con UPDATE/DELETE en bloque y un cursor por id:
+ * cada lote es una transacción corta, de modo que nunca se retienen locks sobre
+ * muchas filas ni se cargan entidades en memoria.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CartCleanupService {
-    
-    private final ShoppingCartRepository cartRepository;
-    
+
+    private static final String MARK_EXPIRED_SQL =
+            "WITH batch AS (SELECT id FROM shopping_carts " +
+            "WHERE status = 'ACTIVE' AND expires_at < ? AND id > ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE shopping_carts c SET status = 'EXPIRED', updated_at = ? " +
+            "FROM batch WHERE c.id = batch.id RETURNING c.id";
+
+    private static final String SELECT_PURGEABLE_SQL =
+            "SELECT id FROM shopping_carts " +
+            "WHERE status IN ('EXPIRED', 'COMPLETED') AND created_at < ? AND id > ? " +
+            "ORDER BY id LIMIT ?";
+
+    private static final String DELETE_CONSUMPTIONS_SQL =
+            "DELETE FROM cart_item_consumptions WHERE cart_item_id IN " +
+            "(SELECT id FROM cart_items WHERE cart_id = ANY(?))";
+
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id = ANY(?)";
+
+    private static final String DELETE_CLOSED_HOLDS_SQL =
+            "DELETE FROM pass_holds WHERE cart_id = ANY(?) AND status <> 'ACTIVE'";
+
+    private static final String DELETE_CARTS_SQL = "DELETE FROM shopping_carts WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.cart.cleanup.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.cart.cleanup.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${app.cart.cleanup.pause-between-batches-ms:0}")
+    private long pauseBetweenBatchesMs;
+
+    private record PurgeResult(long carts, long items, long consumptions) {}
+
     /**
      * Tarea programada para marcar carritos expirados
      * Cron: cada 5 minutos
      * - Se ejecuta en: 00:00, 00:05, 00:10, ..., 23:55
      */
     @Scheduled(cron = "0 */5 * * * *") // Cada 5 minutos
-    @Transactional
     public void markExpiredCarts() {
         log.info("Starting scheduled cart cleanup task");
-        
+
         try {
             LocalDateTime now = LocalDateTime.now();
-            
-            // Buscar carritos activos que ya expiraron
-            List<ShoppingCart> expiredCarts = cartRepository
-                    .findByStatusAndExpiresAtBefore("ACTIVE", now);
-            
-            if (expiredCarts.isEmpty()) {
+            long start = System.nanoTime();
+            long cursor = 0;
+            long total = 0;
+            int batches = 0;
+
+            while (true) {
+                long fromId = cursor;
+                List<Long> expiredIds = transactionTemplate.execute(status -> jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(MARK_EXPIRED_SQL);
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setLong(2, fromId);
+                    ps.setInt(3, batchSize);
+                    ps.setTimestamp(4, Timestamp.valueOf(now));
+                    return ps;
+                }, (rs, rowNum) -> rs.getLong(1)));
+
+                if (expiredIds == null || expiredIds.isEmpty()) {
+                    break;
+                }
+                total += expiredIds.size();
+                batches++;
+                cursor = expiredIds.stream().mapToLong(Long::longValue).max().getAsLong();
+                if (expiredIds.size() < batchSize) {
+                    break;
+                }
+                pauseBetweenBatches();
+            }
+
+            if (total == 0) {
                 log.info("No expired carts found");
                 return;
             }
-            
-            log.info("Found {} expired carts", expiredCarts.size());
-            
-            // Marcar cada carrito como expirado
-            for (ShoppingCart cart : expiredCarts) {
-                cart.markAsExpired();
-                log.debug("Cart {} marked as expired for user {}", cart.getId(), cart.getUserId());
-            }
-            
-            // Guardar cambios
-            cartRepository.saveAll(expiredCarts);
-            
-            log.info("Successfully marked {} carts as expired", expiredCarts.size());
-            
+            log.info("Successfully marked {} carts as expired in {} batches ({})", total, batches, throughput(total, start));
+
         } catch (Exception e) {
             log.error("Error during cart cleanup task: {}", e.getMessage(), e);
         }
     }
-    
+
     /**
      * Tarea programada para eliminar carritos muy antiguos
      * Cron: cada día a las 3:00 AM
-     * Elimina carritos con status EXPIRED o COMPLETED de más de 30 días
+     * Elimina carritos con status EXPIRED o COMPLETED de más de 30 días (configurable),
+     * junto con sus items, consumiciones y reservas cerradas
      */
     @Scheduled(cron = "0 0 3 * * *") // Diario a las 3 AM
-    @Transactional
     public void deleteOldCarts() {
         log.info("Starting old cart deletion task");
-        
+
         try {
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            
-            // Eliminar carritos expirados de hace más de 30 días
-            cartRepository.deleteByStatusAndCreatedAtBefore("EXPIRED", thirtyDaysAgo);
-            log.info("Deleted old EXPIRED carts from before {}", thirtyDaysAgo);
-            
-            // Eliminar carritos completados de hace más de 30 días
-            cartRepository.deleteByStatusAndCreatedAtBefore("COMPLETED", thirtyDaysAgo);
-            log.info("Deleted old COMPLETED carts from before {}", thirtyDaysAgo);
-            
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            long start = System.nanoTime();
+            long cursor = 0;
+            long carts = 0;
+            long items = 0;
+            long consumptions = 0;
+
+            while (true) {
+                long fromId = cursor;
+                List<Long> cartIds = jdbcTemplate.queryForList(SELECT_PURGEABLE_SQL, Long.class,
+                        Timestamp.valueOf(cutoff), fromId, batchSize);
+                if (cartIds.isEmpty()) {
+                    break;
+                }
+
+                PurgeResult result = transactionTemplate.execute(status -> purgeBatch(cartIds));
+                if (result != null) {
+                    carts += result.carts();
+                    items += result.items();
+                    consumptions += result.consumptions();
+                }
+                cursor = cartIds.get(cartIds.size() - 1);
+                if (cartIds.size() < batchSize) {
+                    break;
+                }
+                pauseBetweenBatches();
+            }
+
+            log.info("Deleted {} old carts ({} items, {} consumptions) created before {} ({})",
+                    carts, items, consumptions, cutoff, throughput(carts + items + consumptions, start));
             log.info("Old cart deletion task completed");
-            
+
         } catch (Exception e) {
             log.error("Error during old cart deletion task: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Borra un lote de carritos de abajo hacia arriba (consumiciones, items, reservas, carritos)
+     */
+    private PurgeResult purgeBatch(List<Long> cartIds) {
+        Object[] ids = cartIds.toArray();
+        int consumptions = updateWithIds(DELETE_CONSUMPTIONS_SQL, ids);
+        int items = updateWithIds(DELETE_ITEMS_SQL, ids);
+        updateWithIds(DELETE_CLOSED_HOLDS_SQL, ids);
+        int carts = updateWithIds(DELETE_CARTS_SQL, ids);
+        return new PurgeResult(carts, items, consumptions);
+    }
+
+    private int updateWithIds(String sql, Object[] ids) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+    }
+
+    private void pauseBetweenBatches() throws InterruptedException {
+        if (pauseBetweenBatchesMs > 0) {
+            Thread.sleep(pauseBetweenBatchesMs);
+        }
+    }
+
+    private static String throughput(long rows, long startNanos) {
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        return String.format("%d ms, %.0f rows/s", elapsedMs, rows * 1000.0 / elapsedMs);
+    }
 }
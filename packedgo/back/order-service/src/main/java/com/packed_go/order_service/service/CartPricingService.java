@@ -0,0 +1,31 @@
+package com.packed_go.order_service.service;
+
+/**
+ * Repreciado de carritos ACTIVE cuando cambia un precio en event-service.
+ *
+ * El precio vigente se lee siempre de event-service (el aviso solo indica qué cambió), así que
+ * avisos repetidos o desordenados convergen al último precio. Los avisos perdidos los corrige
+ * la reconciliación periódica. Las líneas afectadas se actualizan en bloque con SQL y el total
+ * de cada carrito se ajusta por la diferencia, sin cargar ni recalcular los carritos completos.
+ */
+public interface CartPricingService {
+
+    /**
+     * Aplica el precio base vigente de un evento a las líneas de ese evento
+     * @return cantidad de carritos repreciados
+     */
+    int repriceEvent(Long eventId);
+
+    /**
+     * Aplica el precio vigente de una consumición a las líneas que la incluyen (leído de las
+     * consumiciones del evento; si ningún carrito activo la incluye no consulta event-service)
+     * @return cantidad de carritos repreciados
+     */
+    int repriceConsumption(Long consumptionId);
+
+    /**
+     * Reprecia todos los eventos y consumiciones presentes en carritos activos
+     * @return cantidad de carritos repreciados
+     */
+    int reconcileActiveCarts();
+}
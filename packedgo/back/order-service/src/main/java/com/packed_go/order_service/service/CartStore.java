@@ -0,0 +1,45 @@
+package com.packed_go.order_service.service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import com.packed_go.order_service.entity.ShoppingCart;
+
+/**
+ * Almacenamiento de los carritos ACTIVE.
+ *
+ * La implementación por defecto (app.cart.store=jpa) lee y escribe directo en Postgres.
+ * Con app.cart.store=memory los carritos activos viven en memoria y se persisten en
+ * diferido: en el checkout, cuando dejan de estar ACTIVE y periódicamente.
+ */
+public interface CartStore {
+
+    /**
+     * Carrito ACTIVE más reciente del usuario, con items y consumiciones cargados
+     */
+    Optional<ShoppingCart> findActiveCart(Long userId);
+
+    /**
+     * Registra el estado del carrito (asigna ids a lo nuevo) y lo devuelve.
+     * Un carrito que deja de estar ACTIVE se persiste en el momento.
+     */
+    ShoppingCart save(ShoppingCart cart);
+
+    void delete(ShoppingCart cart);
+
+    /**
+     * Persiste ya el carrito activo del usuario (p. ej. antes de crear la orden)
+     */
+    void flush(Long userId);
+
+    /**
+     * Aplica un nuevo precio de entrada a los carritos que el store mantiene fuera de Postgres
+     * (los persistidos los reprecia CartPricingService en bloque)
+     */
+    void repriceEvent(Long eventId, BigDecimal unitPrice);
+
+    /**
+     * Aplica un nuevo precio de consumición a los carritos que el store mantiene fuera de Postgres
+     */
+    void repriceConsumption(Long consumptionId, BigDecimal unitPrice);
+}
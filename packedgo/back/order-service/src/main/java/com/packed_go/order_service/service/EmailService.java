@@ -8,6 +8,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.imageio.ImageIO;
 
@@ -15,20 +17,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
 import com.packed_go.order_service.dto.external.EventDTO;
 import com.packed_go.order_service.dto.external.TicketWithConsumptionsResponse;
 import com.packed_go.order_service.entity.Order;
 import com.packed_go.order_service.entity.OrderItem;
 import com.packed_go.order_service.entity.OrderItemConsumption;
 import com.packed_go.order_service.external.EventServiceClient;
+import com.packed_go.security.qr.QRImageRenderer;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -49,7 +46,9 @@ public class EmailService {
     @Value("${event-service.url:http://event-service:8086}")
     private String eventServiceUrl;
 
-    @Async
+    /**
+     * Lo invoca el worker de cumplimiento: si falla lanza excepción para que la tarea se reintente
+     */
     public void sendOrderConfirmation(Order order, String toEmail, List<TicketWithConsumptionsResponse> generatedTickets) {
         if (toEmail == null || toEmail.isEmpty()) {
             log.warn("⚠️ Cannot send order confirmation: No email provided for order {}", order.getOrderNumber());
@@ -66,10 +65,13 @@ public class EmailService {
             helper.setTo(toEmail);
             helper.setSubject("✅ Confirmación de Compra - PackedGo - " + order.getOrderNumber());
 
+            // Nombres de todos los eventos de la orden en una sola llamada (o desde la caché)
+            Map<Long, String> eventNames = resolveEventNames(order);
+
             // Convertir tickets generados a TicketInfo
-            List<TicketInfo> ticketsInfo = convertToTicketInfo(generatedTickets, order);
+            List<TicketInfo> ticketsInfo = convertToTicketInfo(generatedTickets, order, eventNames);
 
-            String htmlContent = buildOrderConfirmationHtml(order, ticketsInfo);
+            String htmlContent = buildOrderConfirmationHtml(order, ticketsInfo, eventNames);
             helper.setText(htmlContent, true);
 
             // Adjuntar QR codes como imágenes inline
@@ -80,6 +82,7 @@ public class EmailService {
 
         } catch (Exception e) {
             log.error("❌ Failed to send order confirmation email: {}", e.getMessage(), e);
+            throw new IllegalStateException("Failed to send order confirmation email: " + e.getMessage(), e);
         }
     }
 
@@ -87,36 +90,25 @@ public class EmailService {
      * Convierte la lista de tickets generados a TicketInfo para el email
      * Obtiene los nombres de eventos desde el EventServiceClient
      */
-    private List<TicketInfo> convertToTicketInfo(List<TicketWithConsumptionsResponse> tickets, Order order) {
+    private List<TicketInfo> convertToTicketInfo(List<TicketWithConsumptionsResponse> tickets, Order order,
+                                                 Map<Long, String> eventNames) {
         log.info("🔄 Converting {} tickets to TicketInfo for order {}", tickets.size(), order.getOrderNumber());
 
         List<TicketInfo> ticketsInfo = new ArrayList<>();
         int ticketCounter = 1;
         
-        // Crear un mapa de eventId -> eventName para evitar múltiples llamadas
-        Map<Long, String> eventNamesCache = new HashMap<>();
-        
         for (TicketWithConsumptionsResponse ticket : tickets) {
             try {
-                String qrCode = ticket.getQrCode();
+                // Preferir el texto del QR: se renderiza acá en lugar de re-decodificar el PNG
+                String qrCode = ticket.getQrText() != null && !ticket.getQrText().isEmpty()
+                        ? ticket.getQrText()
+                        : ticket.getQrCode();
                 
                 if (qrCode != null && !qrCode.isEmpty()) {
                     // Obtener nombre del evento desde los OrderItems
                     String eventName = "Evento";
                     for (OrderItem item : order.getItems()) {
-                        // Intentar obtener el evento desde el EventServiceClient
-                        if (!eventNamesCache.containsKey(item.getEventId())) {
-                            try {
-                                EventDTO eventDTO = eventServiceClient.getEventById(item.getEventId());
-                                if (eventDTO != null && eventDTO.getName() != null) {
-                                    eventNamesCache.put(item.getEventId(), eventDTO.getName());
-                                }
-                            } catch (Exception e) {
-                                log.warn("⚠️ Could not fetch event name for ID {}: {}", item.getEventId(), e.getMessage());
-                                eventNamesCache.put(item.getEventId(), "Evento ID: " + item.getEventId());
-                            }
-                        }
-                        eventName = eventNamesCache.getOrDefault(item.getEventId(), "Evento ID: " + item.getEventId());
+                        eventName = eventNameOf(eventNames, item.getEventId());
                         break; // Solo tomar el primer item por ahora
                     }
                     
@@ -141,20 +133,62 @@ public class EmailService {
     }
 
     private void attachQRCodes(MimeMessageHelper helper, List<TicketInfo> tickets) throws MessagingException {
+        // Los QR en texto se renderizan todos juntos; los que ya vienen como imagen usan el camino legacy
+        List<TicketInfo> textTickets = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        List<String> captions = new ArrayList<>();
         for (TicketInfo ticket : tickets) {
-            try {
-                byte[] qrImage = generateQRCodeImageWithCode(ticket.getQrCode(), ticket.getPassCode());
-                String cid = "qr" + ticket.getTicketNumber();
-                helper.addInline(cid, new ByteArrayResource(qrImage), "image/png");
-            } catch (Exception e) {
-                log.error("Error attaching QR code for ticket {}: {}", ticket.getTicketNumber(), e.getMessage());
+            if (isImageDataUri(ticket.getQrCode())) {
+                attachQRCode(helper, ticket);
+            } else {
+                textTickets.add(ticket);
+                texts.add(ticket.getQrCode());
+                captions.add(passCodeCaption(ticket.getPassCode()));
             }
         }
+        if (textTickets.isEmpty()) {
+            return;
+        }
+
+        List<byte[]> images;
+        try {
+            images = QRImageRenderer.renderAll(texts, captions);
+        } catch (Exception e) {
+            log.error("Error rendering {} QR codes in batch, falling back to one by one: {}", texts.size(), e.getMessage());
+            textTickets.forEach(ticket -> attachQRCode(helper, ticket));
+            return;
+        }
+        for (int i = 0; i < textTickets.size(); i++) {
+            String cid = "qr" + textTickets.get(i).getTicketNumber();
+            helper.addInline(cid, new ByteArrayResource(images.get(i)), "image/png");
+        }
+    }
+
+    private void attachQRCode(MimeMessageHelper helper, TicketInfo ticket) {
+        try {
+            byte[] qrImage = generateQRCodeImageWithCode(ticket.getQrCode(), ticket.getPassCode());
+            String cid = "qr" + ticket.getTicketNumber();
+            helper.addInline(cid, new ByteArrayResource(qrImage), "image/png");
+        } catch (Exception e) {
+            log.error("Error attaching QR code for ticket {}: {}", ticket.getTicketNumber(), e.getMessage());
+        }
+    }
+
+    private static boolean isImageDataUri(String qrCode) {
+        return qrCode != null && qrCode.startsWith("data:image/");
+    }
+
+    private static String passCodeCaption(String passCode) {
+        // Últimos 8 caracteres del código de pase
+        String last8Digits = passCode != null && passCode.length() >= 8
+            ? passCode.substring(passCode.length() - 8)
+            : passCode;
+        return "Código: " + last8Digits;
     }
 
     private byte[] generateQRCodeImage(String qrText) throws Exception {
         // Si el QR code ya es una imagen base64 (data:image/png;base64,...)
-        if (qrText != null && qrText.startsWith("data:image/")) {
+        if (isImageDataUri(qrText)) {
             log.debug("🖼️ QR code is already a base64 image, decoding it");
             String base64Data = qrText.substring(qrText.indexOf(",") + 1);
             return java.util.Base64.getDecoder().decode(base64Data);
@@ -164,34 +198,22 @@ public class EmailService {
         if (qrText != null && !qrText.isEmpty()) {
             log.debug("📝 Generating QR code from text: {}", qrText.substring(0, Math.min(qrText.length(), 30)) + "...");
         }
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        Map<EncodeHintType, Object> hints = new HashMap<>();
-        hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-        hints.put(EncodeHintType.MARGIN, 1);
-
-        BitMatrix bitMatrix = qrCodeWriter.encode(qrText, BarcodeFormat.QR_CODE, 300, 300, hints);
-        BufferedImage qrImage = MatrixToImageWriter.toBufferedImage(bitMatrix);
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(qrImage, "PNG", baos);
-        return baos.toByteArray();
+        return QRImageRenderer.render(qrText);
     }
 
     /**
      * Genera una imagen QR con el código de pase (últimos 8 dígitos) debajo
      */
     private byte[] generateQRCodeImageWithCode(String qrText, String passCode) throws Exception {
-        // Primero generar el QR base
+        String codeText = passCodeCaption(passCode);
+        if (!isImageDataUri(qrText)) {
+            return QRImageRenderer.render(qrText, codeText);
+        }
+
+        // QR ya rasterizado (data URI): hay que decodificarlo para componer el texto debajo
         byte[] baseQRImage = generateQRCodeImage(qrText);
-        
-        // Cargar la imagen QR base
         BufferedImage qrImage = ImageIO.read(new java.io.ByteArrayInputStream(baseQRImage));
         
-        // Obtener los últimos 8 caracteres del código
-        String last8Digits = passCode != null && passCode.length() >= 8 
-            ? passCode.substring(passCode.length() - 8) 
-            : passCode;
-        
         // Crear una nueva imagen más grande para incluir el texto
         int margin = 40;
         int textHeight = 50;
@@ -218,7 +240,6 @@ public class EmailService {
         g2d.setColor(java.awt.Color.BLACK);
         g2d.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 20));
         
-        String codeText = "Código: " + last8Digits;
         java.awt.FontMetrics fm = g2d.getFontMetrics();
         int textWidth = fm.stringWidth(codeText);
         int textX = (newWidth - textWidth) / 2;
@@ -232,11 +253,11 @@ public class EmailService {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ImageIO.write(finalImage, "PNG", baos);
         
-        log.debug("✅ Generated QR image with code: {}", last8Digits);
+        log.debug("✅ Generated QR image with code: {}", codeText);
         return baos.toByteArray();
     }
 
-    private String buildOrderConfirmationHtml(Order order, List<TicketInfo> tickets) {
+    private String buildOrderConfirmationHtml(Order order, List<TicketInfo> tickets, Map<Long, String> eventNames) {
         StringBuilder sb = new StringBuilder();
         
         // Colores de la landing page
@@ -293,7 +314,7 @@ public class EmailService {
         BigDecimal totalGeneral = BigDecimal.ZERO;
         
         for (OrderItem item : order.getItems()) {
-            String eventName = getEventName(item.getEventId());
+            String eventName = eventNameOf(eventNames, item.getEventId());
             
             // Tabla para cada entrada
             sb.append("<table style='width: 100%; border-collapse: collapse; margin-bottom: 25px; border: 1px solid #e5e7eb; border-radius: 8px; overflow: hidden;'>");
@@ -329,9 +350,12 @@ public class EmailService {
                 for (OrderItemConsumption consumption : item.getConsumptions()) {
                     sb.append("<tr style='background: #fff; border-bottom: 1px solid #f3f4f6;'>");
                     sb.append("<td style='padding: 8px 15px 8px 35px; color: #666; font-size: 13px;'>").append(consumption.getConsumptionName()).append("</td>");
-                    sb.append("<td style='padding: 8px 15px; text-align: center; color: #888; font-size: 13px;'>").append(consumption.getQuantity()).append("</td>");
+                    // Las consumiciones son por entrada: se muestran multiplicadas por la cantidad de entradas
+                    int consumptionQuantity = consumption.getQuantity() * item.getQuantity();
+                    BigDecimal consumptionSubtotal = consumption.getSubtotal().multiply(BigDecimal.valueOf(item.getQuantity()));
+                    sb.append("<td style='padding: 8px 15px; text-align: center; color: #888; font-size: 13px;'>").append(consumptionQuantity).append("</td>");
                     sb.append("<td style='padding: 8px 15px; text-align: right; color: #888; font-size: 13px;'>$").append(String.format("%,.2f", consumption.getUnitPrice())).append("</td>");
-                    sb.append("<td style='padding: 8px 15px; text-align: right; color: #666; font-size: 13px;'>$").append(String.format("%,.2f", consumption.getSubtotal())).append("</td>");
+                    sb.append("<td style='padding: 8px 15px; text-align: right; color: #666; font-size: 13px;'>$").append(String.format("%,.2f", consumptionSubtotal)).append("</td>");
                     sb.append("</tr>");
                 }
             }
@@ -399,14 +423,29 @@ public class EmailService {
         return sb.toString();
     }
 
-    private String getEventName(Long eventId) {
+    /**
+     * Obtiene los nombres de los eventos de la orden con una única llamada bulk a event-service
+     * Si falla, el email sale igual con "Evento ID: n" como nombre
+     */
+    private Map<Long, String> resolveEventNames(Order order) {
+        Set<Long> eventIds = order.getItems().stream()
+                .map(OrderItem::getEventId)
+                .collect(Collectors.toSet());
+        Map<Long, String> names = new HashMap<>();
         try {
-            EventDTO event = eventServiceClient.getEventById(eventId);
-            return event != null ? event.getName() : "Evento ID: " + eventId;
+            for (EventDTO event : eventServiceClient.getEventsByIds(eventIds).values()) {
+                if (event.getName() != null) {
+                    names.put(event.getId(), event.getName());
+                }
+            }
         } catch (Exception e) {
-            log.warn("Could not fetch event name for eventId {}: {}", eventId, e.getMessage());
-            return "Evento ID: " + eventId;
+            log.warn("⚠️ Could not fetch event names for order {}: {}", order.getOrderNumber(), e.getMessage());
         }
+        return names;
+    }
+
+    private static String eventNameOf(Map<Long, String> eventNames, Long eventId) {
+        return eventNames.getOrDefault(eventId, "Evento ID: " + eventId);
     }
 
     // Inner class para almacenar información de tickets
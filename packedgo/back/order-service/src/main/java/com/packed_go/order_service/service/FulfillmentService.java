@@ -0,0 +1,20 @@
+package com.packed_go.order_service.service;
+
+import com.packed_go.order_service.entity.Order;
+
+/**
+ * Cumplimiento asíncrono de órdenes pagadas (outbox transaccional).
+ */
+public interface FulfillmentService {
+
+    /**
+     * Registra la orden en el outbox. Debe llamarse dentro de la transacción que la marca
+     * como PAID; si la orden ya tiene tarea no hace nada.
+     */
+    void enqueue(Order order, String customerEmail);
+
+    /**
+     * Toma las tareas vencidas del outbox y las entrega al pool de workers
+     */
+    void dispatchDueTasks();
+}
@@ -1,10 +1,15 @@
 package com.packed_go.order_service.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.packed_go.order_service.dto.MultiOrderCheckoutRequest;
+import com.packed_go.order_service.dto.MultiOrderCheckoutResponse;
 import com.packed_go.order_service.dto.request.CheckoutRequest;
 import com.packed_go.order_service.dto.request.PaymentCallbackRequest;
 import com.packed_go.order_service.dto.response.CheckoutResponse;
+import com.packed_go.order_service.dto.response.OrderPageDTO;
+import com.packed_go.order_service.dto.response.OrderSummaryDTO;
 import com.packed_go.order_service.entity.Order;
 
 public interface OrderService {
@@ -39,9 +44,32 @@ public interface OrderService {
      * @param timezone Zona horaria del cliente (opcional)
      */
     CheckoutResponse checkoutSingleAdmin(Long userId, Long adminId, String timezone);
+
+    /**
+     * Procesa el checkout de todo el carrito: una orden por admin, creadas en una transacción,
+     * y sus sesiones de pago en paralelo. Las órdenes cuyo pago no se pudo crear quedan canceladas.
+     */
+    MultiOrderCheckoutResponse checkoutMultiAdmin(Long userId, MultiOrderCheckoutRequest request);
     
     /**
      * Obtiene todas las órdenes de un organizador (adminId)
      */
     List<Order> getOrdersByOrganizerId(Long adminId);
+
+    /**
+     * Historial del usuario paginado por cursor, más reciente primero
+     * @param cursor nextCursor de la página anterior (null para la primera)
+     * @param size tamaño de página (null = por defecto, acotado al máximo configurado)
+     */
+    OrderPageDTO getUserOrdersPage(Long userId, String cursor, Integer size);
+
+    /**
+     * Órdenes de un organizador paginadas por cursor, más reciente primero
+     */
+    OrderPageDTO getOrganizerOrdersPage(Long adminId, String cursor, Integer size);
+
+    /**
+     * Recorre todas las órdenes de un organizador página por página (para exportar sin cargarlas todas)
+     */
+    void forEachOrganizerOrder(Long adminId, Consumer<OrderSummaryDTO> consumer);
 }
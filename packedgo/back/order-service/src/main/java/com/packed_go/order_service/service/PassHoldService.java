@@ -0,0 +1,51 @@
+package com.packed_go.order_service.service;
+
+import java.util.Collection;
+
+import com.packed_go.order_service.entity.ShoppingCart;
+
+/**
+ * Reservas temporales de passes para los items de un carrito.
+ * Mientras el carrito está vigente sus passes no se ofrecen a otros compradores;
+ * al vencer el carrito la reserva se libera sola.
+ */
+public interface PassHoldService {
+
+    /**
+     * Reserva quantity passes del evento para el carrito, hasta que el carrito venza.
+     * Debe llamarse dentro de la transacción que agrega los items.
+     * @throws com.packed_go.order_service.exception.StockNotAvailableException si no alcanza el stock no reservado
+     */
+    void hold(ShoppingCart cart, Long eventId, int quantity);
+
+    /**
+     * Devuelve quantity passes de la reserva del carrito para el evento (el usuario quitó items)
+     */
+    void release(Long cartId, Long eventId, int quantity);
+
+    /**
+     * Libera todas las reservas del carrito (carrito vaciado o eliminado)
+     */
+    void releaseCart(Long cartId);
+
+    /**
+     * Cierra las reservas de un carrito que venció
+     */
+    void expireCart(Long cartId);
+
+    /**
+     * Cierra las reservas de los eventos comprados: el stock ya lo descontó event-service al emitir
+     */
+    void consume(Long cartId, Collection<Long> eventIds);
+
+    /**
+     * Vence las reservas (y carritos) cuyo plazo cumplió según el timer wheel en memoria
+     */
+    void processDueExpirations();
+
+    /**
+     * Respaldo: vence en bloque las reservas vencidas que el timer wheel no procesó
+     * (p. ej. programadas por otra instancia o antes de un reinicio)
+     */
+    void expireOverdueHolds();
+}
@@ -0,0 +1,37 @@
+package com.packed_go.order_service.service;
+
+import com.packed_go.order_service.dto.response.QueueStatusDTO;
+
+/**
+ * Sala de espera virtual para salidas a la venta con alta demanda.
+ *
+ * Cada evento admite compradores a un ritmo (posiciones por segundo) que se ajusta según cuánto
+ * tarda realmente event-service en emitir sus tickets. Mientras la demanda no supera ese ritmo nadie espera; cuando
+ * lo supera, los compradores reciben un token firmado con su posición y se admiten en orden.
+ */
+public interface WaitingRoomService {
+
+    /**
+     * Entra a la sala de espera del evento (o devuelve la posición que el usuario ya tenía)
+     */
+    QueueStatusDTO join(Long userId, Long eventId);
+
+    /**
+     * Posición, espera estimada y si ya fue admitido, a partir del token de la cola
+     * @throws IllegalArgumentException si el token es inválido, venció o es de otro usuario
+     */
+    QueueStatusDTO getStatus(Long userId, String queueToken);
+
+    /**
+     * Verifica que el usuario pueda agregar passes del evento al carrito.
+     * Sin token (o con uno inválido) se le asigna una posición, que se admite en el acto si hay cupo.
+     * @throws com.packed_go.order_service.exception.WaitingRoomException si todavía no fue admitido
+     */
+    void admit(Long userId, Long eventId, String queueToken);
+
+    /**
+     * Registra cuánto tardó la emisión de tickets del evento; el ritmo de admisión se ajusta con esto
+     * @param overloaded true si falló por saturación (timeout o error 5xx de event-service)
+     */
+    void recordOutcome(Long eventId, long latencyNanos, boolean overloaded);
+}
@@ -0,0 +1,240 @@
+package com.packed_go.order_service.service.impl;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.packed_go.order_service.dto.external.ConsumptionDTO;
+import com.packed_go.order_service.dto.external.EventDTO;
+import com.packed_go.order_service.external.EventServiceClient;
+import com.packed_go.order_service.service.CartPricingService;
+import com.packed_go.order_service.service.CartStore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * El precio se lee de event-service sin caché y se aplica con un único statement: el CTE "old" bloquea las filas afectadas y guarda
+ * su precio anterior, los UPDATE devuelven la diferencia por línea y el total de cada carrito se
+ * ajusta con la suma de esas diferencias. Un total en null (carrito previo) queda en null y se
+ * recalcula al leerlo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CartPricingServiceImpl implements CartPricingService {
+
+    private static final String REPRICE_EVENT_SQL =
+            "WITH old AS (" +
+            "  SELECT ci.id, ci.unit_price AS old_price FROM cart_items ci " +
+            "  JOIN shopping_carts c ON c.id = ci.cart_id " +
+            "  WHERE c.status = 'ACTIVE' AND ci.event_id = ? AND ci.unit_price <> ? " +
+            "  FOR UPDATE OF ci" +
+            "), repriced AS (" +
+            "  UPDATE cart_items ci SET unit_price = ?, subtotal = ci.subtotal + (? - old.old_price) * ci.quantity " +
+            "  FROM old WHERE ci.id = old.id " +
+            "  RETURNING ci.cart_id, (ci.unit_price - old.old_price) * ci.quantity AS delta" +
+            "), totals AS (" +
+            "  SELECT cart_id, SUM(delta) AS delta FROM repriced GROUP BY cart_id" +
+            ") " +
+            "UPDATE shopping_carts c SET total_amount = c.total_amount + totals.delta, updated_at = ? " +
+            "FROM totals WHERE c.id = totals.cart_id";
+
+    private static final String REPRICE_CONSUMPTION_SQL =
+            "WITH old AS (" +
+            "  SELECT cc.id, cc.unit_price AS old_price FROM cart_item_consumptions cc " +
+            "  JOIN cart_items ci ON ci.id = cc.cart_item_id " +
+            "  JOIN shopping_carts c ON c.id = ci.cart_id " +
+            "  WHERE c.status = 'ACTIVE' AND cc.consumption_id = ? AND cc.unit_price <> ? " +
+            "  FOR UPDATE OF cc" +
+            "), repriced AS (" +
+            "  UPDATE cart_item_consumptions cc SET unit_price = ?, subtotal = ? * cc.quantity " +
+            "  FROM old WHERE cc.id = old.id " +
+            "  RETURNING cc.cart_item_id, (cc.unit_price - old.old_price) * cc.quantity AS delta" +
+            "), item_deltas AS (" +
+            "  SELECT cart_item_id, SUM(delta) AS delta FROM repriced GROUP BY cart_item_id" +
+            "), items AS (" +
+            // Las consumiciones son por entrada: la línea cambia delta x cantidad de entradas
+            "  UPDATE cart_items ci SET subtotal = ci.subtotal + d.delta * ci.quantity " +
+            "  FROM item_deltas d WHERE ci.id = d.cart_item_id " +
+            "  RETURNING ci.cart_id, d.delta * ci.quantity AS delta" +
+            "), totals AS (" +
+            "  SELECT cart_id, SUM(delta) AS delta FROM items GROUP BY cart_id" +
+            ") " +
+            "UPDATE shopping_carts c SET total_amount = c.total_amount + totals.delta, updated_at = ? " +
+            "FROM totals WHERE c.id = totals.cart_id";
+
+    private static final String ACTIVE_EVENT_IDS_SQL =
+            "SELECT DISTINCT ci.event_id FROM cart_items ci " +
+            "JOIN shopping_carts c ON c.id = ci.cart_id WHERE c.status = 'ACTIVE'";
+
+    private static final String ACTIVE_CONSUMPTION_EVENTS_SQL =
+            "SELECT DISTINCT ci.event_id, cc.consumption_id FROM cart_item_consumptions cc " +
+            "JOIN cart_items ci ON ci.id = cc.cart_item_id " +
+            "JOIN shopping_carts c ON c.id = ci.cart_id WHERE c.status = 'ACTIVE'";
+
+    private static final String CONSUMPTION_EVENT_IDS_SQL =
+            "SELECT DISTINCT ci.event_id FROM cart_item_consumptions cc " +
+            "JOIN cart_items ci ON ci.id = cc.cart_item_id " +
+            "JOIN shopping_carts c ON c.id = ci.cart_id WHERE c.status = 'ACTIVE' AND cc.consumption_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartStore cartStore;
+    private final EventServiceClient eventServiceClient;
+
+    @Value("${app.cart.pricing.reconcile-concurrency:4}")
+    private int reconcileConcurrency;
+
+    @Override
+    public int repriceEvent(Long eventId) {
+        // Lectura sin caché: también deja el precio nuevo para las próximas altas al carrito
+        return applyEventPrice(eventId, eventServiceClient.getLiveEvent(eventId).getBasePrice());
+    }
+
+    @Override
+    public int repriceConsumption(Long consumptionId) {
+        // El precio se lee de las consumiciones del evento (endpoint público); sin carritos activos que la incluyan no hay nada que leer
+        List<Long> eventIds = jdbcTemplate.queryForList(CONSUMPTION_EVENT_IDS_SQL, Long.class, consumptionId);
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+        List<ConsumptionDTO> consumptions = eventServiceClient.getLiveEventConsumptionsAsync(eventIds.get(0)).block();
+        return applyConsumptionPrice(consumptionId, priceOf(consumptions, consumptionId));
+    }
+
+    /**
+     * Red de seguridad para avisos de precio perdidos (event-service los envía una sola vez):
+     * vuelve a leer el precio de cada evento y consumición que hay en carritos activos. Los eventos
+     * se leen en una sola llamada y las consumiciones por evento en paralelo (como mucho
+     * reconcile-concurrency a la vez), con un único bloqueo al final.
+     * Con app.cart.store=memory toma los ids de lo ya volcado a Postgres.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${app.cart.pricing.reconcile-interval-ms:300000}",
+               fixedDelayString = "${app.cart.pricing.reconcile-interval-ms:300000}")
+    public int reconcileActiveCarts() {
+        List<Long> eventIds = jdbcTemplate.queryForList(ACTIVE_EVENT_IDS_SQL, Long.class);
+        Map<Long, Set<Long>> consumptionIdsByEvent = new LinkedHashMap<>();
+        jdbcTemplate.query(ACTIVE_CONSUMPTION_EVENTS_SQL, rs -> {
+            consumptionIdsByEvent.computeIfAbsent(rs.getLong(1), id -> new LinkedHashSet<>()).add(rs.getLong(2));
+        });
+
+        AtomicInteger failed = new AtomicInteger();
+        Mono<Map<Long, EventDTO>> events = eventServiceClient.getLiveEventsByIdsAsync(eventIds)
+                .onErrorResume(e -> {
+                    failed.addAndGet(eventIds.size());
+                    log.warn("⚠️ Could not reconcile price of {} events: {}", eventIds.size(), e.getMessage());
+                    return Mono.just(Map.of());
+                });
+        Map<Long, List<ConsumptionDTO>> consumptionsByEvent = new ConcurrentHashMap<>();
+        Map<Long, EventDTO> liveEvents = Mono.zip(events,
+                Flux.fromIterable(consumptionIdsByEvent.keySet())
+                        .flatMap(eventId -> eventServiceClient.getLiveEventConsumptionsAsync(eventId)
+                                .doOnNext(consumptions -> consumptionsByEvent.put(eventId, consumptions))
+                                .onErrorResume(e -> {
+                                    failed.incrementAndGet();
+                                    log.warn("⚠️ Could not reconcile consumption prices of event {}: {}", eventId, e.getMessage());
+                                    return Mono.empty();
+                                }), Math.max(1, reconcileConcurrency))
+                        .then(Mono.just(true)))
+                .map(Tuple2::getT1)
+                .block();
+
+        int repriced = 0;
+        for (Long eventId : eventIds) {
+            EventDTO event = liveEvents != null ? liveEvents.get(eventId) : null;
+            if (event == null) {
+                continue;
+            }
+            try {
+                repriced += applyEventPrice(eventId, event.getBasePrice());
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("⚠️ Could not reconcile price of event {}: {}", eventId, e.getMessage());
+            }
+        }
+        Set<Long> consumptionIds = new HashSet<>();
+        for (Map.Entry<Long, List<ConsumptionDTO>> entry : consumptionsByEvent.entrySet()) {
+            for (Long consumptionId : consumptionIdsByEvent.get(entry.getKey())) {
+                // Una consumición en carritos de varios eventos tiene un único precio: se aplica una vez
+                if (!consumptionIds.add(consumptionId)) {
+                    continue;
+                }
+                try {
+                    repriced += applyConsumptionPrice(consumptionId, priceOf(entry.getValue(), consumptionId));
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.warn("⚠️ Could not reconcile price of consumption {}: {}", consumptionId, e.getMessage());
+                }
+            }
+        }
+
+        log.info("💲 Price reconciliation: {} events and {} consumptions checked, {} carts repriced, {} failures",
+                eventIds.size(), consumptionIds.size(), repriced, failed.get());
+        return repriced;
+    }
+
+    private int applyEventPrice(Long eventId, BigDecimal basePrice) {
+        if (basePrice == null) {
+            log.warn("⚠️ Event {} has no base price, skipping reprice", eventId);
+            return 0;
+        }
+
+        Integer repriced = transactionTemplate.execute(status -> jdbcTemplate.update(REPRICE_EVENT_SQL,
+                eventId, basePrice, basePrice, basePrice, Timestamp.valueOf(LocalDateTime.now())));
+        cartStore.repriceEvent(eventId, basePrice);
+
+        int count = repriced != null ? repriced : 0;
+        if (count > 0) {
+            log.info("💲 Event {} base price is {}: repriced {} active carts", eventId, basePrice, count);
+        }
+        return count;
+    }
+
+    private int applyConsumptionPrice(Long consumptionId, BigDecimal price) {
+        if (price == null) {
+            log.warn("⚠️ Consumption {} not found or without price, skipping reprice", consumptionId);
+            return 0;
+        }
+
+        Integer repriced = transactionTemplate.execute(status -> jdbcTemplate.update(REPRICE_CONSUMPTION_SQL,
+                consumptionId, price, price, price, Timestamp.valueOf(LocalDateTime.now())));
+        cartStore.repriceConsumption(consumptionId, price);
+
+        int count = repriced != null ? repriced : 0;
+        if (count > 0) {
+            log.info("💲 Consumption {} price is {}: repriced {} active carts", consumptionId, price, count);
+        }
+        return count;
+    }
+
+    private static BigDecimal priceOf(List<ConsumptionDTO> consumptions, Long consumptionId) {
+        if (consumptions == null) {
+            return null;
+        }
+        for (ConsumptionDTO consumption : consumptions) {
+            if (consumptionId.equals(consumption.getId())) {
+                return consumption.getPrice();
+            }
+        }
+        return null;
+    }
+}
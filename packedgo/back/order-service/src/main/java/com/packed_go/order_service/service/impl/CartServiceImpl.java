@@ -12,16 +12,18 @@ import com.packed_go.order_service.entity.CartItemConsumption;
 import com.packed_go.order_service.entity.ShoppingCart;
 import com.packed_go.order_service.exception.CartExpiredException;
 import com.packed_go.order_service.exception.CartNotFoundException;
-import com.packed_go.order_service.exception.StockNotAvailableException;
 import com.packed_go.order_service.external.EventServiceClient;
 import com.packed_go.order_service.repository.CartItemRepository;
-import com.packed_go.order_service.repository.ShoppingCartRepository;
 import com.packed_go.order_service.service.CartService;
+import com.packed_go.order_service.service.CartStore;
+import com.packed_go.order_service.service.PassHoldService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -42,9 +44,10 @@ public class CartServiceImpl implements CartService {
      */
     private static final int MAX_TOTAL_CONSUMPTIONS_PER_TICKET = 20;
     
-    private final ShoppingCartRepository cartRepository;
+    private final CartStore cartStore;
     private final CartItemRepository cartItemRepository;
     private final EventServiceClient eventServiceClient;
+    private final PassHoldService passHoldService;
     private final ModelMapper modelMapper;
     
     @Override
@@ -52,23 +55,28 @@ public class CartServiceImpl implements CartService {
     public CartDTO addToCart(Long userId, AddToCartRequest request) {
         log.info("Adding event {} to cart for user {}", request.getEventId(), userId);
         
-        // 1. Validar que el evento existe y tiene stock disponible
-        EventDTO event = eventServiceClient.getEventById(request.getEventId());
-        if (!eventServiceClient.checkPassAvailability(request.getEventId())) {
-            log.warn("Event {} has no available passes", request.getEventId());
-            throw new StockNotAvailableException(request.getEventId());
-        }
+        // 1. Validar que el evento existe
+        // Evento y consumiciones se piden a event-service en paralelo (o salen de la caché); el stock
+        // se verifica al momento en passHoldService.hold, no con el snapshot cacheado
+        boolean withConsumptions = request.getConsumptions() != null && !request.getConsumptions().isEmpty();
+        Tuple2<EventDTO, List<ConsumptionDTO>> catalog = Mono.zip(
+                eventServiceClient.getEventByIdAsync(request.getEventId()),
+                withConsumptions
+                        ? eventServiceClient.getEventConsumptionsAsync(request.getEventId())
+                        : Mono.just(List.<ConsumptionDTO>of()))
+                .block();
+        EventDTO event = catalog.getT1();
         
         // 2. Obtener o crear carrito activo para el usuario (con items cargados)
         // Toma el más reciente si hay múltiples (por updatedAt DESC)
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        ShoppingCart cart = activeCarts.isEmpty() ? null : activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId).orElse(null);
         
         // 3. Verificar si el carrito existe y si expiró
         if (cart != null && cart.isExpired()) {
             log.warn("Cart {} expired for user {}, creating new cart", cart.getId(), userId);
             cart.markAsExpired();
-            cartRepository.save(cart);
+            cartStore.save(cart);
+            passHoldService.expireCart(cart.getId());
             // Crear un nuevo carrito después de marcar el anterior como expirado
             cart = createNewCart(userId);
         } else if (cart == null) {
@@ -103,75 +111,82 @@ public class CartServiceImpl implements CartService {
             );
         }
         
-        // 6. OPCIÓN A: Crear N items separados, cada uno con quantity=1
-        // Esto permite que cada entrada sea independiente y tenga su propio QR
-        // Usuario verá exactamente cuántos QR recibirá (1 QR por item)
-        log.info("Creating {} separate cart items (quantity=1 each) for event {}", quantityToAdd, request.getEventId());
-        
-        for (int i = 0; i < quantityToAdd; i++) {
-            // Crear un CartItem individual con quantity=1
-            CartItem cartItem = CartItem.builder()
-                    .cart(cart)
-                    .eventId(request.getEventId())
-                    .eventName(event.getName())
-                    .adminId(event.getCreatedBy()) // IMPORTANTE: AdminId para multitenant
-                    .quantity(1)  // SIEMPRE 1 - cada item = 1 entrada = 1 QR
-                    .unitPrice(event.getBasePrice())
-                    .consumptions(new ArrayList<>())
-                    .build();
+        // 6. Reservar los passes hasta que venza el carrito (falla si no alcanza el stock no reservado)
+        passHoldService.hold(cart, request.getEventId(), quantityToAdd);
+        
+        // Las consumiciones del evento se resuelven una sola vez para toda la línea
+        List<ConsumptionDTO> consumptionsInfo = catalog.getT2();
+        
+        if (withConsumptions) {
+            // Calcular total de consumiciones por entrada
+            int totalConsumptions = request.getConsumptions().stream()
+                    .mapToInt(AddToCartRequest.ConsumptionRequest::getQuantity)
+                    .sum();
             
-            // 7. Agregar consumos al item (si hay)
-            if (request.getConsumptions() != null && !request.getConsumptions().isEmpty()) {
-                List<ConsumptionDTO> consumptionsInfo = eventServiceClient.getEventConsumptions(request.getEventId());
+            // Validar límite TOTAL de consumiciones (no por consumición individual, sino la suma total)
+            if (totalConsumptions > MAX_TOTAL_CONSUMPTIONS_PER_TICKET) {
+                log.warn("Cannot add consumptions: total quantity {} exceeds limit {}", 
+                        totalConsumptions, MAX_TOTAL_CONSUMPTIONS_PER_TICKET);
+                throw new IllegalArgumentException(
+                    String.format("Cannot add more than %d consumptions in total per ticket (requested total: %d)", 
+                        MAX_TOTAL_CONSUMPTIONS_PER_TICKET, totalConsumptions)
+                );
+            }
+        }
+        
+        // 7. Armar la línea: quantityToAdd entradas con las mismas consumiciones por entrada
+        // (un QR por entrada se genera recién al emitir los tickets)
+        CartItem cartItem = CartItem.builder()
+                .cart(cart)
+                .eventId(request.getEventId())
+                .eventName(event.getName())
+                .adminId(event.getCreatedBy()) // IMPORTANTE: AdminId para multitenant
+                .quantity(quantityToAdd)
+                .unitPrice(event.getBasePrice())
+                .consumptions(new ArrayList<>())
+                .build();
+        
+        // 8. Agregar consumos por entrada a la línea (si hay)
+        if (withConsumptions) {
+            for (AddToCartRequest.ConsumptionRequest consumptionReq : request.getConsumptions()) {
+                ConsumptionDTO consumptionInfo = consumptionsInfo.stream()
+                        .filter(c -> c.getId().equals(consumptionReq.getConsumptionId()))
+                        .findFirst()
+                        .orElseThrow(() -> new RuntimeException("Consumption " + consumptionReq.getConsumptionId() + " not found"));
                 
-                // Calcular total de consumiciones para este item
-                int totalConsumptions = request.getConsumptions().stream()
-                        .mapToInt(AddToCartRequest.ConsumptionRequest::getQuantity)
-                        .sum();
+                CartItemConsumption newConsumption = CartItemConsumption.builder()
+                        .cartItem(cartItem)
+                        .consumptionId(consumptionReq.getConsumptionId())
+                        .consumptionName(consumptionInfo.getName())
+                        .quantity(consumptionReq.getQuantity())
+                        .unitPrice(consumptionInfo.getPrice())
+                        .build();
                 
-                // Validar límite TOTAL de consumiciones (no por consumición individual, sino la suma total)
-                if (totalConsumptions > MAX_TOTAL_CONSUMPTIONS_PER_TICKET) {
-                    log.warn("Cannot add consumptions: total quantity {} exceeds limit {}", 
-                            totalConsumptions, MAX_TOTAL_CONSUMPTIONS_PER_TICKET);
-                    throw new IllegalArgumentException(
-                        String.format("Cannot add more than %d consumptions in total per ticket (requested total: %d)", 
-                            MAX_TOTAL_CONSUMPTIONS_PER_TICKET, totalConsumptions)
-                    );
-                }
+                // Calcular subtotal de la consumición
+                newConsumption.updateQuantity(consumptionReq.getQuantity());
                 
-                for (AddToCartRequest.ConsumptionRequest consumptionReq : request.getConsumptions()) {
-                    ConsumptionDTO consumptionInfo = consumptionsInfo.stream()
-                            .filter(c -> c.getId().equals(consumptionReq.getConsumptionId()))
-                            .findFirst()
-                            .orElseThrow(() -> new RuntimeException("Consumption " + consumptionReq.getConsumptionId() + " not found"));
-                    
-                    // Crear consumo para este item específico
-                    CartItemConsumption newConsumption = CartItemConsumption.builder()
-                            .cartItem(cartItem)
-                            .consumptionId(consumptionReq.getConsumptionId())
-                            .consumptionName(consumptionInfo.getName())
-                            .quantity(consumptionReq.getQuantity())
-                            .unitPrice(consumptionInfo.getPrice())
-                            .build();
-                    
-                    // Calcular subtotal de la consumición
-                    newConsumption.updateQuantity(consumptionReq.getQuantity());
-                    
-                    cartItem.getConsumptions().add(newConsumption);
-                }
+                cartItem.getConsumptions().add(newConsumption);
             }
-            
-            // 8. Calcular subtotal del item (entrada + consumiciones)
-            cartItem.calculateSubtotal();
-            
-            // 9. Agregar item al carrito
-            cart.getItems().add(cartItem);
         }
         
-        log.info("Created {} cart items for event {}", quantityToAdd, request.getEventId());
+        // 9. Si ya hay una línea idéntica (mismo evento, precio y consumiciones) se suma la cantidad;
+        // si no, se agrega la nueva línea
+        CartItem existingLine = cart.getItems().stream()
+                .filter(item -> item.hasSameContent(cartItem.getEventId(), cartItem.getUnitPrice(), cartItem.getConsumptions()))
+                .findFirst()
+                .orElse(null);
+        
+        if (existingLine != null) {
+            existingLine.updateQuantity(existingLine.getQuantity() + quantityToAdd);
+            log.info("Added {} tickets to existing cart line {} for event {}", quantityToAdd, existingLine.getId(), request.getEventId());
+        } else {
+            cartItem.calculateSubtotal();
+            cart.addItem(cartItem);
+            log.info("Created cart line with {} tickets for event {}", quantityToAdd, request.getEventId());
+        }
         
-        // 10. Guardar carrito (esto persiste todos los CartItems con sus subtotales calculados)
-        ShoppingCart savedCart = cartRepository.save(cart);
+        // 10. Guardar carrito (esto persiste las líneas con sus subtotales calculados)
+        ShoppingCart savedCart = cartStore.save(cart);
         log.info("{} items for event {} added to cart {} successfully", quantityToAdd, request.getEventId(), savedCart.getId());
         
         return convertToDTO(savedCart);
@@ -182,8 +197,7 @@ public class CartServiceImpl implements CartService {
     public CartDTO getActiveCart(Long userId) {
         log.info("Retrieving active cart for user {}", userId);
         
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        ShoppingCart cart = activeCarts.isEmpty() ? null : activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId).orElse(null);
         
         // Si no hay carrito o expiró, crear uno nuevo
         if (cart == null) {
@@ -192,7 +206,8 @@ public class CartServiceImpl implements CartService {
         } else if (cart.isExpired()) {
             log.info("Cart {} expired for user {}, marking as expired and creating new cart", cart.getId(), userId);
             cart.setStatus("EXPIRED");
-            cartRepository.save(cart);
+            cartStore.save(cart);
+            passHoldService.expireCart(cart.getId());
             cart = createNewCart(userId);
         }
         
@@ -204,36 +219,38 @@ public class CartServiceImpl implements CartService {
     public CartDTO removeCartItem(Long userId, Long itemId) {
         log.info("Removing item {} from cart for user {}", itemId, userId);
         
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException(userId);
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException(userId));
         
         // Verificar si expiró
         if (cart.isExpired()) {
             log.warn("Cart {} expired for user {}", cart.getId(), userId);
             cart.markAsExpired();
-            cartRepository.save(cart);
+            cartStore.save(cart);
             throw new CartExpiredException(cart.getId());
         }
         
         // Eliminar el item
-        boolean removed = cart.getItems().removeIf(item -> item.getId().equals(itemId));
+        CartItem removedItem = cart.getItems().stream()
+                .filter(item -> item.getId().equals(itemId))
+                .findFirst()
+                .orElse(null);
         
-        if (!removed) {
+        if (removedItem == null) {
             log.warn("Item {} not found in cart {}", itemId, cart.getId());
             throw new RuntimeException("Item not found in cart");
         }
+        cart.removeItem(removedItem);
+        passHoldService.release(cart.getId(), removedItem.getEventId(), removedItem.getQuantity());
         
         // Si el carrito quedó vacío, eliminarlo
         if (cart.getItems().isEmpty()) {
             log.info("Cart {} is now empty, deleting it", cart.getId());
-            cartRepository.delete(cart);
+            cartStore.delete(cart);
             return null;
         }
         
-        ShoppingCart savedCart = cartRepository.save(cart);
+        ShoppingCart savedCart = cartStore.save(cart);
         log.info("Item {} removed from cart {} successfully", itemId, savedCart.getId());
         
         return convertToDTO(savedCart);
@@ -244,13 +261,11 @@ public class CartServiceImpl implements CartService {
     public void clearCart(Long userId) {
         log.info("Clearing cart for user {}", userId);
         
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException(userId);
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException(userId));
         
-        cartRepository.delete(cart);
+        passHoldService.releaseCart(cart.getId());
+        cartStore.delete(cart);
         log.info("Cart {} cleared successfully", cart.getId());
     }
     
@@ -259,24 +274,18 @@ public class CartServiceImpl implements CartService {
     public CartDTO updateCartItemQuantity(Long userId, Long itemId, UpdateCartItemRequest request) {
         log.info("Updating item {} quantity to {} for user {}", itemId, request.getQuantity(), userId);
         
-        // OPCIÓN A: Cada item tiene quantity=1 siempre
-        // Este método ya NO se usa para incrementar/decrementar
-        // Los botones +/- del frontend ahora crean/eliminan items completos
-        if (request.getQuantity() != 1) {
-            throw new IllegalArgumentException("Quantity must be 1. Use add/remove methods to manage cart items.");
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than 0. Use remove to delete the item.");
         }
         
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException(userId);
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException(userId));
         
         // Verificar si expiró
         if (cart.isExpired()) {
             log.warn("Cart {} expired for user {}", cart.getId(), userId);
             cart.markAsExpired();
-            cartRepository.save(cart);
+            cartStore.save(cart);
             throw new CartExpiredException(cart.getId());
         }
         
@@ -286,10 +295,26 @@ public class CartServiceImpl implements CartService {
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Item not found in cart"));
         
-        // No hacer nada, quantity ya es 1
-        log.info("Item {} already has quantity=1, no changes needed", itemId);
+        int delta = request.getQuantity() - item.getQuantity();
+        if (delta > 0) {
+            // Validar el límite por persona sobre todas las líneas del evento
+            int totalEventTicketsInCart = cart.getItems().stream()
+                    .filter(i -> i.getEventId().equals(item.getEventId()))
+                    .mapToInt(CartItem::getQuantity)
+                    .sum();
+            if (totalEventTicketsInCart + delta > MAX_TICKETS_PER_PERSON) {
+                throw new IllegalArgumentException(
+                    String.format("Cannot add more than %d tickets per person for this event (current: %d, adding: %d)", 
+                        MAX_TICKETS_PER_PERSON, totalEventTicketsInCart, delta)
+                );
+            }
+            passHoldService.hold(cart, item.getEventId(), delta);
+        } else if (delta < 0) {
+            passHoldService.release(cart.getId(), item.getEventId(), -delta);
+        }
+        item.updateQuantity(request.getQuantity());
         
-        ShoppingCart savedCart = cartRepository.save(cart);
+        ShoppingCart savedCart = cartStore.save(cart);
         log.info("Item {} quantity updated successfully", itemId);
         
         return convertToDTO(savedCart);
@@ -301,17 +326,14 @@ public class CartServiceImpl implements CartService {
         log.info("Updating consumption {} quantity to {} in item {} for user {}", 
                 consumptionId, newQuantity, itemId, userId);
         
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException(userId);
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException(userId));
         
         // Verificar si expiró
         if (cart.isExpired()) {
             log.warn("Cart {} expired for user {}", cart.getId(), userId);
             cart.markAsExpired();
-            cartRepository.save(cart);
+            cartStore.save(cart);
             throw new CartExpiredException(cart.getId());
         }
         
@@ -347,7 +369,7 @@ public class CartServiceImpl implements CartService {
         // Recalcular subtotal del item
         item.calculateSubtotal();
         
-        ShoppingCart savedCart = cartRepository.save(cart);
+        ShoppingCart savedCart = cartStore.save(cart);
         log.info("Consumption {} quantity updated successfully", consumptionId);
         
         return convertToDTO(savedCart);
@@ -361,17 +383,14 @@ public class CartServiceImpl implements CartService {
                 request.getConsumptionId(), request.getQuantity(), itemId, userId);
         
         // 1. Obtener carrito activo
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException(userId);
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException(userId));
         
         // Verificar si expiró
         if (cart.isExpired()) {
             log.warn("Cart {} expired for user {}", cart.getId(), userId);
             cart.markAsExpired();
-            cartRepository.save(cart);
+            cartStore.save(cart);
             throw new CartExpiredException(cart.getId());
         }
         
@@ -453,7 +472,7 @@ public class CartServiceImpl implements CartService {
         item.calculateSubtotal();
         
         // 6. Guardar y retornar
-        ShoppingCart savedCart = cartRepository.save(cart);
+        ShoppingCart savedCart = cartStore.save(cart);
         log.info("Consumption {} added successfully to item {}", request.getConsumptionId(), itemId);
         
         return convertToDTO(savedCart);
@@ -465,17 +484,14 @@ public class CartServiceImpl implements CartService {
         log.info("Removing consumption {} from item {} for user {}", consumptionId, itemId, userId);
         
         // 1. Obtener carrito activo
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException(userId);
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException(userId));
         
         // Verificar si expiró
         if (cart.isExpired()) {
             log.warn("Cart {} expired for user {}", cart.getId(), userId);
             cart.markAsExpired();
-            cartRepository.save(cart);
+            cartStore.save(cart);
             throw new CartExpiredException(cart.getId());
         }
         
@@ -499,7 +515,7 @@ public class CartServiceImpl implements CartService {
         item.calculateSubtotal();
         
         // 6. Guardar y retornar
-        ShoppingCart savedCart = cartRepository.save(cart);
+        ShoppingCart savedCart = cartStore.save(cart);
         log.info("Cart updated after removing consumption {}", consumptionId);
         
         return convertToDTO(savedCart);
@@ -517,7 +533,7 @@ public class CartServiceImpl implements CartService {
                 .items(new ArrayList<>())
                 .build();
         
-        return cartRepository.save(cart);
+        return cartStore.save(cart);
     }
     
     /**
@@ -539,7 +555,7 @@ public class CartServiceImpl implements CartService {
                 .updatedAt(cart.getUpdatedAt())
                 .expired(cart.isExpired())
                 .totalAmount(cart.getTotalAmount())
-                .itemCount(cart.getItems().size())
+                .itemCount(cart.getTotalItems())
                 .items(sortedItems)
                 .build();
         
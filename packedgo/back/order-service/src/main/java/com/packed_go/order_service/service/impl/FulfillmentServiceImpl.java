@@ -0,0 +1,402 @@
+package com.packed_go.order_service.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.packed_go.order_service.dto.external.CreateTicketBatchRequest;
+import com.packed_go.order_service.dto.external.TicketBatchItem;
+import com.packed_go.order_service.dto.external.TicketConsumptionDTO;
+import com.packed_go.order_service.dto.external.TicketWithConsumptionsResponse;
+import com.packed_go.order_service.entity.CartItem;
+import com.packed_go.order_service.entity.FulfillmentTask;
+import com.packed_go.order_service.entity.Order;
+import com.packed_go.order_service.entity.OrderItem;
+import com.packed_go.order_service.exception.ServiceCommunicationException;
+import com.packed_go.order_service.external.EventServiceClient;
+import com.packed_go.order_service.repository.FulfillmentTaskRepository;
+import com.packed_go.order_service.repository.OrderRepository;
+import com.packed_go.order_service.repository.ShoppingCartRepository;
+import com.packed_go.order_service.service.CartStore;
+import com.packed_go.order_service.service.EmailService;
+import com.packed_go.order_service.service.FulfillmentService;
+import com.packed_go.order_service.service.PassHoldService;
+import com.packed_go.order_service.service.WaitingRoomService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Worker del outbox de cumplimiento.
+ *
+ * Un poller toma las tareas vencidas con SELECT ... FOR UPDATE SKIP LOCKED, les asigna un lease
+ * y las entrega a un pool acotado. Cada tarea emite los tickets de la orden (idempotente en
+ * event-service por clave orden:item), limpia el carrito y consume la reserva de passes, y
+ * recién después envía el email: un SMTP caído no retiene el carrito ni los passes. Cada paso
+ * queda marcado en la tarea y los errores se reintentan con backoff exponencial hasta
+ * app.fulfillment.max-attempts, retomando desde el primer paso pendiente.
+ *
+ * La tarea tiene @Version y cada claim la incrementa: si el lease vence y otro worker la retoma,
+ * el worker anterior falla en su próximo save y abandona la tarea en vez de completarla dos veces.
+ */
+@Service
+@Slf4j
+public class FulfillmentServiceImpl implements FulfillmentService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final FulfillmentTaskRepository taskRepository;
+    private final OrderRepository orderRepository;
+    private final ShoppingCartRepository cartRepository;
+    private final CartStore cartStore;
+    private final EventServiceClient eventServiceClient;
+    private final EmailService emailService;
+    private final PassHoldService passHoldService;
+    private final WaitingRoomService waitingRoomService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+
+    private final AtomicLong pendingTasks = new AtomicLong();
+    private final Timer fulfillmentLatency;
+    private final Counter completedTasks;
+    private final Counter retriedTasks;
+    private final Counter failedTasks;
+
+    @Value("${app.fulfillment.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.fulfillment.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.fulfillment.retry-base-delay-ms:5000}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.fulfillment.retry-max-delay-ms:600000}")
+    private long retryMaxDelayMs;
+
+    @Value("${app.fulfillment.lease-minutes:10}")
+    private long leaseMinutes;
+
+    public FulfillmentServiceImpl(FulfillmentTaskRepository taskRepository,
+                                  OrderRepository orderRepository,
+                                  ShoppingCartRepository cartRepository,
+                                  CartStore cartStore,
+                                  EventServiceClient eventServiceClient,
+                                  EmailService emailService,
+                                  PassHoldService passHoldService,
+                                  WaitingRoomService waitingRoomService,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.fulfillment.workers:4}") int workerCount,
+                                  @Value("${app.fulfillment.queue-capacity:100}") int queueCapacity) {
+        this.taskRepository = taskRepository;
+        this.orderRepository = orderRepository;
+        this.cartRepository = cartRepository;
+        this.cartStore = cartStore;
+        this.eventServiceClient = eventServiceClient;
+        this.emailService = emailService;
+        this.passHoldService = passHoldService;
+        this.waitingRoomService = waitingRoomService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fulfillment-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("fulfillment.outbox.pending", pendingTasks, AtomicLong::get)
+                .description("Tareas de cumplimiento pendientes en el outbox")
+                .register(meterRegistry);
+        Gauge.builder("fulfillment.workers.active", workers, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("fulfillment.workers.queued", workers, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+        this.fulfillmentLatency = Timer.builder("fulfillment.latency")
+                .description("Tiempo desde el pago hasta completar el cumplimiento de la orden")
+                .register(meterRegistry);
+        this.completedTasks = meterRegistry.counter("fulfillment.tasks", "outcome", "completed");
+        this.retriedTasks = meterRegistry.counter("fulfillment.tasks", "outcome", "retried");
+        this.failedTasks = meterRegistry.counter("fulfillment.tasks", "outcome", "failed");
+    }
+
+    @Override
+    public void enqueue(Order order, String customerEmail) {
+        if (taskRepository.existsByOrderId(order.getId())) {
+            log.info("📦 Fulfillment already enqueued for order {}", order.getOrderNumber());
+            return;
+        }
+        taskRepository.save(FulfillmentTask.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .customerEmail(customerEmail)
+                .build());
+        log.info("📦 Fulfillment enqueued for order {}", order.getOrderNumber());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.fulfillment.poll-interval-ms:1000}")
+    public void dispatchDueTasks() {
+        try {
+            pendingTasks.set(taskRepository.countByStatus(FulfillmentTask.Status.PENDING));
+
+            int capacity = Math.min(batchSize, workers.getQueue().remainingCapacity());
+            if (capacity <= 0) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> taskIds = transactionTemplate.execute(status -> {
+                List<Long> due = taskRepository.findDueTaskIds(now, capacity);
+                if (!due.isEmpty()) {
+                    taskRepository.claim(due, FulfillmentTask.Status.IN_PROGRESS, now.plusMinutes(leaseMinutes));
+                }
+                return due;
+            });
+
+            for (Long taskId : taskIds) {
+                try {
+                    workers.execute(() -> process(taskId));
+                } catch (RejectedExecutionException e) {
+                    // Queda IN_PROGRESS hasta que vence el lease y se vuelve a tomar
+                    log.warn("⚠️ Fulfillment pool full, task {} will be retried after its lease expires", taskId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ Error dispatching fulfillment tasks: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("⚠️ Fulfillment workers did not finish in time; pending tasks will be resumed after their lease");
+        }
+    }
+
+    private void process(Long taskId) {
+        FulfillmentTask task = taskRepository.findById(taskId).orElse(null);
+        if (task == null || task.getStatus() != FulfillmentTask.Status.IN_PROGRESS) {
+            return;
+        }
+        log.info("🎟️ Fulfilling order {} (attempt {})", task.getOrderNumber(), task.getAttempts());
+        Long orderId = task.getOrderId();
+
+        try {
+            List<TicketWithConsumptionsResponse> tickets = null;
+            if (task.getTicketsIssuedAt() == null) {
+                tickets = issueTickets(task);
+                task.setTicketsIssuedAt(LocalDateTime.now());
+                task = taskRepository.save(task);
+            }
+
+            // 🛒 LIMPIAR CARRITO (Solo los items comprados) y liberar la reserva, sin esperar al email
+            if (task.getCartUpdatedAt() == null) {
+                transactionTemplate.executeWithoutResult(status -> removePurchasedItemsFromCart(findOrder(orderId)));
+                task.setCartUpdatedAt(LocalDateTime.now());
+                task = taskRepository.save(task);
+            }
+
+            // 📧 ENVIAR EMAIL DE CONFIRMACIÓN con los tickets generados
+            if (task.getEmailSentAt() == null) {
+                sendConfirmation(task, tickets);
+                task.setEmailSentAt(LocalDateTime.now());
+                task = taskRepository.save(task);
+            }
+
+            task.setStatus(FulfillmentTask.Status.COMPLETED);
+            task.setCompletedAt(LocalDateTime.now());
+            task.setLockedUntil(null);
+            task.setLastError(null);
+            task = taskRepository.save(task);
+
+            fulfillmentLatency.record(Duration.between(task.getCreatedAt(), task.getCompletedAt()));
+            completedTasks.increment();
+            log.info("✅ Order {} fulfilled", task.getOrderNumber());
+        } catch (OptimisticLockingFailureException e) {
+            // El lease venció y otro worker retomó la tarea: sigue él desde el último paso registrado
+            log.warn("⚠️ Lease lost on fulfillment of order {}; another worker took it over", task.getOrderNumber());
+        } catch (Exception e) {
+            handleFailure(task, e);
+        }
+    }
+
+    /**
+     * Reintentar la emisión es seguro: event-service devuelve los tickets ya emitidos por clave
+     */
+    private List<TicketWithConsumptionsResponse> issueTickets(FulfillmentTask task) {
+        CreateTicketBatchRequest batchRequest = transactionTemplate.execute(status ->
+                buildTicketBatchRequest(findOrder(task.getOrderId())));
+        List<TicketWithConsumptionsResponse> tickets = createTicketsBatch(batchRequest);
+        log.info("🎟️ {} tickets issued for order {}", tickets != null ? tickets.size() : 0, task.getOrderNumber());
+        return tickets;
+    }
+
+    /**
+     * La emisión es la operación que compite por el lock de cada evento en event-service: su latencia
+     * y sus errores de saturación regulan el ritmo de admisión de la sala de espera de esos eventos
+     */
+    private List<TicketWithConsumptionsResponse> createTicketsBatch(CreateTicketBatchRequest batchRequest) {
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            return eventServiceClient.createTicketsBatch(batchRequest);
+        } catch (ServiceCommunicationException e) {
+            // Un 4xx es un rechazo de event-service (p. ej. sin passes), no una señal de saturación
+            overloaded = !(e.getCause() instanceof WebClientResponseException responseError
+                    && responseError.getStatusCode().is4xxClientError());
+            throw e;
+        } finally {
+            long latencyNanos = System.nanoTime() - start;
+            Set<Long> eventIds = batchRequest.getItems().stream()
+                    .map(TicketBatchItem::getEventId)
+                    .collect(Collectors.toSet());
+            for (Long eventId : eventIds) {
+                waitingRoomService.recordOutcome(eventId, latencyNanos, overloaded);
+            }
+        }
+    }
+
+    /**
+     * @param tickets los emitidos en este intento, o null si se emitieron en uno anterior
+     *                (se vuelven a pedir por clave de idempotencia, sin duplicarlos)
+     */
+    private void sendConfirmation(FulfillmentTask task, List<TicketWithConsumptionsResponse> tickets) {
+        if (task.getCustomerEmail() == null || task.getCustomerEmail().isEmpty()) {
+            log.warn("⚠️ No customer email provided in callback. Skipping email confirmation.");
+            return;
+        }
+        List<TicketWithConsumptionsResponse> issued = tickets != null ? tickets : issueTickets(task);
+        transactionTemplate.executeWithoutResult(status -> emailService.sendOrderConfirmation(
+                findOrder(task.getOrderId()), task.getCustomerEmail(), issued));
+    }
+
+    private void handleFailure(FulfillmentTask task, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        task.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        task.setLockedUntil(null);
+
+        if (task.getAttempts() >= maxAttempts) {
+            task.setStatus(FulfillmentTask.Status.FAILED);
+            failedTasks.increment();
+            log.error("❌ Fulfillment of order {} failed after {} attempts. Manual intervention required: {}",
+                    task.getOrderNumber(), task.getAttempts(), error, e);
+        } else {
+            long delayMs = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(task.getAttempts() - 1, 20));
+            task.setStatus(FulfillmentTask.Status.PENDING);
+            task.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(delayMs)));
+            retriedTasks.increment();
+            log.warn("⚠️ Fulfillment of order {} failed (attempt {}), retrying in {} ms: {}",
+                    task.getOrderNumber(), task.getAttempts(), delayMs, error);
+        }
+
+        try {
+            taskRepository.save(task);
+        } catch (Exception saveError) {
+            log.error("❌ Could not record failure for order {}; it will be retried after its lease: {}",
+                    task.getOrderNumber(), saveError.getMessage());
+        }
+    }
+
+    private Order findOrder(Long orderId) {
+        return orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalStateException("Order not found with id: " + orderId));
+    }
+
+    /**
+     * Todas las entradas de la orden en una sola llamada; cada item lleva una clave de
+     * idempotencia estable (orden:item) para que los reintentos no dupliquen tickets
+     */
+    private CreateTicketBatchRequest buildTicketBatchRequest(Order order) {
+        return CreateTicketBatchRequest.builder()
+                .userId(order.getUserId())
+                .purchasedAt(order.getPaidAt()) // Usar fecha de pago de la orden
+                .items(order.getItems().stream()
+                        .map(orderItem -> TicketBatchItem.builder()
+                                .eventId(orderItem.getEventId())
+                                .quantity(orderItem.getQuantity())
+                                .consumptions(toTicketConsumptions(orderItem))
+                                .idempotencyKey(order.getOrderNumber() + ":" + orderItem.getId())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private List<TicketConsumptionDTO> toTicketConsumptions(OrderItem orderItem) {
+        if (orderItem.getConsumptions() == null || orderItem.getConsumptions().isEmpty()) {
+            return new ArrayList<>();
+        }
+        return orderItem.getConsumptions().stream()
+                .map(cons -> TicketConsumptionDTO.builder()
+                        .consumptionId(cons.getConsumptionId())
+                        .consumptionName(cons.getConsumptionName())
+                        .priceAtPurchase(cons.getUnitPrice())
+                        .quantity(cons.getQuantity())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private void removePurchasedItemsFromCart(Order order) {
+        if (order.getCartId() == null) {
+            return;
+        }
+        // El carrito activo sale del CartStore (puede estar solo en memoria); si ya no está activo, de la base
+        cartStore.findActiveCart(order.getUserId())
+                .filter(activeCart -> activeCart.getId().equals(order.getCartId()))
+                .or(() -> cartRepository.findById(order.getCartId()))
+                .ifPresent(cart -> {
+            log.info("🛒 Updating cart {} for user {}", cart.getId(), cart.getUserId());
+
+            // Eliminar solo los items que están en la orden pagada
+            // (removeItem los saca de la colección, para que OrphanRemoval haga su trabajo, y descuenta el total)
+            List<CartItem> purchased = cart.getItems().stream()
+                    .filter(cartItem -> order.getItems().stream()
+                            .anyMatch(orderItem -> orderItem.getEventId().equals(cartItem.getEventId())))
+                    .collect(Collectors.toList());
+            purchased.forEach(cart::removeItem);
+
+            if (!purchased.isEmpty()) {
+                log.info("✅ Removed purchased items from cart");
+            }
+
+            // Los passes ya se vendieron: la reserva deja de descontar disponibilidad
+            passHoldService.consume(cart.getId(), order.getItems().stream()
+                    .map(OrderItem::getEventId)
+                    .collect(Collectors.toSet()));
+
+            // Si el carrito queda vacío, marcarlo como completado
+            if (cart.getItems().isEmpty()) {
+                cart.setStatus("COMPLETED");
+                log.info("🛒 Cart is empty, marking as COMPLETED");
+            } else {
+                log.info("🛒 Cart still has items, keeping as ACTIVE");
+            }
+
+            cartStore.save(cart);
+        });
+    }
+}
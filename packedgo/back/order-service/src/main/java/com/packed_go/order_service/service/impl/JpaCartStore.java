@@ -0,0 +1,56 @@
+package com.packed_go.order_service.service.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.packed_go.order_service.entity.ShoppingCart;
+import com.packed_go.order_service.repository.ShoppingCartRepository;
+import com.packed_go.order_service.service.CartStore;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * CartStore directo sobre JPA: cada operación va a Postgres dentro de la transacción del llamador
+ */
+@Service
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaCartStore implements CartStore {
+
+    private final ShoppingCartRepository cartRepository;
+
+    @Override
+    public Optional<ShoppingCart> findActiveCart(Long userId) {
+        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
+        return activeCarts.isEmpty() ? Optional.empty() : Optional.of(activeCarts.get(0));
+    }
+
+    @Override
+    public ShoppingCart save(ShoppingCart cart) {
+        return cartRepository.save(cart);
+    }
+
+    @Override
+    public void delete(ShoppingCart cart) {
+        cartRepository.delete(cart);
+    }
+
+    @Override
+    public void flush(Long userId) {
+        // Nada que hacer: los cambios ya están en la transacción
+    }
+
+    @Override
+    public void repriceEvent(Long eventId, BigDecimal unitPrice) {
+        // Nada que hacer: todos los carritos están en Postgres
+    }
+
+    @Override
+    public void repriceConsumption(Long consumptionId, BigDecimal unitPrice) {
+        // Nada que hacer: todos los carritos están en Postgres
+    }
+}
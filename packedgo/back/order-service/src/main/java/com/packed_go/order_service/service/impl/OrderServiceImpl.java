@@ -2,46 +2,119 @@ package com.packed_go.order_service.service.impl;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.packed_go.order_service.client.PaymentServiceClient;
-import com.packed_go.order_service.dto.external.CreateTicketWithConsumptionsRequest;
+import com.packed_go.order_service.dto.ConsumptionDTO;
+import com.packed_go.order_service.dto.MultiOrderCheckoutRequest;
+import com.packed_go.order_service.dto.MultiOrderCheckoutResponse;
+import com.packed_go.order_service.dto.OrderItemDTO;
+import com.packed_go.order_service.dto.PaymentGroupDTO;
 import com.packed_go.order_service.dto.external.PaymentServiceRequest;
 import com.packed_go.order_service.dto.external.PaymentServiceResponse;
-import com.packed_go.order_service.dto.external.TicketConsumptionDTO;
-import com.packed_go.order_service.dto.external.TicketWithConsumptionsResponse;
 import com.packed_go.order_service.dto.request.CheckoutRequest;
 import com.packed_go.order_service.dto.request.PaymentCallbackRequest;
 import com.packed_go.order_service.dto.response.CheckoutResponse;
+import com.packed_go.order_service.dto.response.OrderPageDTO;
+import com.packed_go.order_service.dto.response.OrderSummaryDTO;
 import com.packed_go.order_service.entity.CartItem;
 import com.packed_go.order_service.entity.Order;
 import com.packed_go.order_service.entity.OrderItem;
 import com.packed_go.order_service.entity.ShoppingCart;
 import com.packed_go.order_service.exception.CartExpiredException;
 import com.packed_go.order_service.exception.CartNotFoundException;
-import com.packed_go.order_service.external.EventServiceClient;
+import com.packed_go.order_service.repository.OrderItemRepository;
 import com.packed_go.order_service.repository.OrderRepository;
-import com.packed_go.order_service.repository.ShoppingCartRepository;
-import com.packed_go.order_service.service.EmailService;
+import com.packed_go.order_service.service.CartStore;
+import com.packed_go.order_service.service.FulfillmentService;
 import com.packed_go.order_service.service.OrderService;
+import com.packed_go.order_service.util.OrderCursor;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OrderServiceImpl implements OrderService {
     
+    private static final String PAYMENT_ERROR_STATUS = "PAYMENT_ERROR";
+
     private final OrderRepository orderRepository;
-    private final ShoppingCartRepository cartRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final CartStore cartStore;
     private final PaymentServiceClient paymentServiceClient;
-    private final EventServiceClient eventServiceClient;
-    private final EmailService emailService;
+    private final FulfillmentService fulfillmentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor paymentExecutor;
+    private final long paymentTimeoutMs;
+
+    @Value("${app.orders.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${app.orders.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.orders.export.batch-size:500}")
+    private int exportBatchSize;
+
+    /**
+     * Resultado de crear el pago de una orden: response o error, nunca ambos
+     */
+    private record PaymentOutcome(Order order, PaymentServiceResponse response, Throwable error) {}
+
+    public OrderServiceImpl(OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository,
+                            CartStore cartStore,
+                            PaymentServiceClient paymentServiceClient,
+                            FulfillmentService fulfillmentService,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.checkout.payment-threads:8}") int paymentThreads,
+                            @Value("${app.checkout.payment-queue-capacity:100}") int paymentQueueCapacity,
+                            @Value("${app.checkout.payment-timeout-ms:12000}") long paymentTimeoutMs) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.cartStore = cartStore;
+        this.paymentServiceClient = paymentServiceClient;
+        this.fulfillmentService = fulfillmentService;
+        this.transactionTemplate = transactionTemplate;
+        this.paymentTimeoutMs = paymentTimeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.paymentExecutor = new ThreadPoolExecutor(paymentThreads, paymentThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(paymentQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "checkout-payment-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Pool saturado: el hilo del request hace la llamada él mismo (se degrada a secuencial)
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.paymentExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        paymentExecutor.shutdown();
+    }
     
     @Override
     @Transactional
@@ -51,77 +124,73 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Transactional
     public CheckoutResponse checkoutSingleAdmin(Long userId, Long adminId, String timezone) {
         log.info("Processing SINGLE ADMIN checkout for user: {} and admin: {} with timezone: {}", userId, adminId, timezone);
 
-        // 1. Obtener carrito activo
-        List<ShoppingCart> activeCarts = cartRepository.findByUserIdAndStatusWithItems(userId, "ACTIVE");
-        if (activeCarts.isEmpty()) {
-            throw new CartNotFoundException("No active cart found for user");
-        }
-        ShoppingCart cart = activeCarts.get(0);
+        // 1-3. Crear la orden en una transacción corta (el pago se crea fuera de ella)
+        Order order = transactionTemplate.execute(status ->
+                createOrdersFromActiveCart(userId, null, adminId, null, timezone)).get(0);
+        log.info("Created Order {} for Admin {}", order.getOrderNumber(), adminId);
 
-        if (cart.isExpired()) {
-            cart.markAsExpired();
-            cartRepository.save(cart);
-            throw new CartExpiredException("Cart has expired");
-        }
+        // 4. Crear Pago en Stripe
+        PaymentOutcome outcome = createPayments(List.of(order)).get(0);
+        applyPaymentOutcomes(List.of(outcome));
 
-        if (cart.getItems().isEmpty()) {
-            throw new IllegalStateException("Cart is empty");
+        if (outcome.error() != null) {
+            log.error("Error creating payment for admin {}: {}", adminId, outcome.error().getMessage());
+            throw new RuntimeException("Error creating payment: " + outcome.error().getMessage());
         }
 
-        // 2. Filtrar items del admin seleccionado
-        List<CartItem> adminItems = cart.getItems().stream()
-                .filter(item -> item.getAdminId().equals(adminId))
-                .collect(Collectors.toList());
+        // Los items quedan en el carrito: el worker de cumplimiento los quita cuando el webhook confirma el pago
+        return CheckoutResponse.builder()
+                .paymentUrl(outcome.response().getCheckoutUrl())
+                .preferenceId(outcome.response().getSessionId())
+                .build();
+    }
 
-        if (adminItems.isEmpty()) {
-            throw new IllegalStateException("No items found for admin " + adminId + " in the cart");
-        }
+    @Override
+    public MultiOrderCheckoutResponse checkoutMultiAdmin(Long userId, MultiOrderCheckoutRequest request) {
+        String sessionId = UUID.randomUUID().toString();
+        log.info("Processing MULTI ADMIN checkout for user: {} (session {})", userId, sessionId);
 
-        // 3. Crear Orden Única
-        Order order = createOrderFromCartItems(cart, adminId, adminItems, null, timezone); // sessionId es null, timezone del cliente
-        order = orderRepository.save(order);
-        
-        log.info("Created Order {} for Admin {}", order.getOrderNumber(), adminId);
+        // 1. Todas las órdenes (una por admin) en una sola transacción
+        List<Order> orders = transactionTemplate.execute(status ->
+                createOrdersFromActiveCart(userId, request.getCartId(), null, sessionId, request.getTimezone()));
+        log.info("Created {} orders for session {}", orders.size(), sessionId);
 
-        // 4. Crear Pago en Stripe
-        try {
-            PaymentServiceRequest paymentRequest = PaymentServiceRequest.builder()
-                    .adminId(adminId)
-                    .orderId(order.getOrderNumber())
-                    .amount(order.getTotalAmount())
-                    .description("Orden " + order.getOrderNumber() + " - PackedGo Events")
-                    // URLs simples, sin sessionId
-                    .successUrl("http://localhost:3000/customer/orders/success?orderId=" + order.getOrderNumber())
-                    .failureUrl("http://localhost:3000/customer/dashboard?paymentStatus=failure&orderId=" + order.getOrderNumber())
-                    .pendingUrl("http://localhost:3000/customer/dashboard?paymentStatus=pending&orderId=" + order.getOrderNumber())
-                    .build();
-
-            PaymentServiceResponse paymentResponse = paymentServiceClient.createPaymentStripe(paymentRequest);
-
-            order.setPaymentId(paymentResponse.getPaymentId());
-            order.setPaymentPreferenceId(paymentResponse.getSessionId());
-            order.setCheckoutUrl(paymentResponse.getCheckoutUrl());
-            orderRepository.save(order);
-            
-            // Opcional: Podríamos remover los items del carrito aquí, o esperar al webhook de pago exitoso.
-            // Por ahora, los dejamos en el carrito. Si el usuario paga, el webhook marcará la orden como PAID.
-            // La limpieza del carrito se puede hacer en el webhook o el frontend puede refrescar.
-
-            return CheckoutResponse.builder()
-                    .paymentUrl(paymentResponse.getCheckoutUrl())
-                    .preferenceId(paymentResponse.getSessionId())
-                    .build();
-
-        } catch (Exception e) {
-            log.error("Error creating payment for admin {}: {}", adminId, e.getMessage());
-            throw new RuntimeException("Error creating payment: " + e.getMessage());
+        // 2. Sesiones de pago en paralelo, fuera de la transacción
+        List<PaymentOutcome> outcomes = createPayments(orders);
+        applyPaymentOutcomes(outcomes);
+
+        List<PaymentGroupDTO> paymentGroups = outcomes.stream()
+                .map(this::toPaymentGroup)
+                .collect(Collectors.toList());
+        long failed = outcomes.stream().filter(outcome -> outcome.error() != null).count();
+        if (failed == outcomes.size()) {
+            throw new RuntimeException("Error creating payments for session " + sessionId + ": "
+                    + outcomes.get(0).error().getMessage());
         }
+
+        BigDecimal totalPending = outcomes.stream()
+                .filter(outcome -> outcome.error() == null)
+                .map(outcome -> outcome.order().getTotalAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return MultiOrderCheckoutResponse.builder()
+                .sessionId(sessionId)
+                .totalAmount(orders.stream().map(Order::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .sessionStatus(failed == 0 ? Order.OrderStatus.PENDING_PAYMENT.name() : "PARTIAL")
+                .totalOrders(orders.size())
+                .paidOrders(0)
+                .totalPaid(BigDecimal.ZERO)
+                .totalPending(totalPending)
+                .paymentGroups(paymentGroups)
+                .message(failed == 0
+                        ? "Payment sessions created for " + orders.size() + " organizers"
+                        : failed + " of " + orders.size() + " payment sessions could not be created")
+                .build();
     }
-    
+
     @Override
     @Transactional
     public void updateOrderFromPaymentCallback(PaymentCallbackRequest request) {
@@ -133,53 +202,23 @@ public class OrderServiceImpl implements OrderService {
         // Actualizar estado según el resultado del pago
         switch (request.getPaymentStatus().toUpperCase()) {
             case "APPROVED":
+                if (order.isPaid()) {
+                    // Webhook repetido: el cumplimiento ya está en el outbox
+                    log.info("Order {} already PAID, ignoring duplicate callback", order.getOrderNumber());
+                    break;
+                }
+                if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+                    // Sesión de Stripe creada después de que el checkout cortara por timeout (ver createPayments):
+                    // la orden ya se informó como fallida, no se emiten tickets y el pago queda para reembolso
+                    log.error("❌ Payment {} approved for CANCELLED order {}: not fulfilling, refund required",
+                            request.getMpPaymentId(), order.getOrderNumber());
+                    break;
+                }
                 order.markAsPaid();
                 log.info("Order {} marked as PAID", order.getOrderNumber());
-                
-                // 🎟️ GENERAR TICKETS cuando el pago es aprobado
-                try {
-                    List<TicketWithConsumptionsResponse> generatedTickets = generateTicketsForOrder(order);
-                    
-                    // 📧 ENVIAR EMAIL DE CONFIRMACIÓN con los tickets generados
-                    if (request.getCustomerEmail() != null && !request.getCustomerEmail().isEmpty()) {
-                        emailService.sendOrderConfirmation(order, request.getCustomerEmail(), generatedTickets);
-                    } else {
-                        log.warn("⚠️ No customer email provided in callback. Skipping email confirmation.");
-                    }
-
-                    // 🛒 LIMPIAR CARRITO (Solo los items comprados)
-                    if (order.getCartId() != null) {
-                        cartRepository.findById(order.getCartId()).ifPresent(cart -> {
-                            log.info("🛒 Updating cart {} for user {}", cart.getId(), cart.getUserId());
-                            
-                            // Eliminar solo los items que están en la orden pagada
-                            // Usamos removeIf para eliminar de la colección y que OrphanRemoval haga su trabajo
-                            boolean removed = cart.getItems().removeIf(cartItem -> 
-                                order.getItems().stream()
-                                    .anyMatch(orderItem -> orderItem.getEventId().equals(cartItem.getEventId()))
-                            );
-                            
-                            if (removed) {
-                                log.info("✅ Removed purchased items from cart");
-                            }
-
-                            // Si el carrito queda vacío, marcarlo como completado
-                            if (cart.getItems().isEmpty()) {
-                                cart.setStatus("COMPLETED");
-                                log.info("🛒 Cart is empty, marking as COMPLETED");
-                            } else {
-                                log.info("🛒 Cart still has items, keeping as ACTIVE");
-                            }
-                            
-                            cartRepository.save(cart);
-                        });
-                    }
-
-                } catch (Exception e) {
-                    log.error("Failed to generate tickets or send email for order {}: {}", order.getOrderNumber(), e.getMessage(), e);
-                    // No lanzamos excepción para no revertir la transacción de la orden
-                    // Los tickets se pueden generar manualmente después si es necesario
-                }
+
+                // 🎟️ Tickets, email y carrito los procesa el worker de cumplimiento después del commit
+                fulfillmentService.enqueue(order, request.getCustomerEmail());
                 break;
             case "REJECTED":
             case "CANCELLED":
@@ -215,10 +254,233 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageDTO getUserOrdersPage(Long userId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        OrderCursor after = OrderCursor.decode(cursor);
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrderSummaryDTO> rows = after == null
+                ? orderRepository.findSummariesByUserId(userId, limit)
+                : orderRepository.findSummariesByUserIdBefore(userId, after.createdAt(), after.id(), limit);
+        return toPage(rows, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageDTO getOrganizerOrdersPage(Long adminId, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        return toPage(findOrganizerSummaries(adminId, OrderCursor.decode(cursor), pageSize + 1), pageSize);
+    }
+
+    @Override
+    public void forEachOrganizerOrder(Long adminId, Consumer<OrderSummaryDTO> consumer) {
+        // Cada página es una consulta corta e independiente: no se retiene una transacción durante la exportación
+        OrderCursor after = null;
+        long exported = 0;
+        while (true) {
+            OrderPageDTO page = toPage(findOrganizerSummaries(adminId, after, exportBatchSize + 1), exportBatchSize);
+            page.getOrders().forEach(consumer);
+            exported += page.getOrders().size();
+            if (!page.isHasMore()) {
+                break;
+            }
+            after = OrderCursor.decode(page.getNextCursor());
+        }
+        log.info("Exported {} orders for organizer {}", exported, adminId);
+    }
+
     // ============================================
     // Helper Methods
     // ============================================
+
+    private List<OrderSummaryDTO> findOrganizerSummaries(Long adminId, OrderCursor after, int limit) {
+        return after == null
+                ? orderRepository.findSummariesByAdminId(adminId, Limit.of(limit))
+                : orderRepository.findSummariesByAdminIdBefore(adminId, after.createdAt(), after.id(), Limit.of(limit));
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null) {
+            return defaultPageSize;
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than 0");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    /**
+     * Arma la página a partir de pageSize + 1 filas (la extra solo indica si hay más)
+     * y le agrega los items con una única consulta adicional
+     */
+    private OrderPageDTO toPage(List<OrderSummaryDTO> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummaryDTO> orders = hasMore ? rows.subList(0, pageSize) : rows;
+        attachItems(orders);
+
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummaryDTO last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return OrderPageDTO.builder()
+                .orders(orders)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private void attachItems(List<OrderSummaryDTO> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, List<OrderItemDTO>> itemsByOrder = orderItemRepository
+                .findWithConsumptionsByOrderIds(orders.stream().map(OrderSummaryDTO::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getOrder().getId(),
+                        Collectors.mapping(this::toOrderItemDTO, Collectors.toList())));
+        orders.forEach(order -> order.setItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>())));
+    }
     
+    /**
+     * Crea y guarda una orden por admin con los items del carrito activo (adminId null = todos).
+     * Debe ejecutarse dentro de una transacción.
+     */
+    private List<Order> createOrdersFromActiveCart(Long userId, Long cartId, Long adminId, String sessionId, String timezone) {
+        ShoppingCart cart = cartStore.findActiveCart(userId)
+                .orElseThrow(() -> new CartNotFoundException("No active cart found for user"));
+
+        if (cartId != null && !cartId.equals(cart.getId())) {
+            throw new IllegalStateException("Cart " + cartId + " is no longer the active cart");
+        }
+
+        if (cart.isExpired()) {
+            cart.markAsExpired();
+            cartStore.save(cart);
+            throw new CartExpiredException("Cart has expired");
+        }
+
+        if (cart.getItems().isEmpty()) {
+            throw new IllegalStateException("Cart is empty");
+        }
+
+        // Filtrar y agrupar items por admin, en el orden del carrito
+        Map<Long, List<CartItem>> itemsByAdmin = cart.getItems().stream()
+                .filter(item -> adminId == null || item.getAdminId().equals(adminId))
+                .collect(Collectors.groupingBy(CartItem::getAdminId, LinkedHashMap::new, Collectors.toList()));
+
+        if (itemsByAdmin.isEmpty()) {
+            throw new IllegalStateException("No items found for admin " + adminId + " in the cart");
+        }
+
+        // Las órdenes referencian al carrito: debe estar persistido antes de crearlas
+        cartStore.flush(userId);
+
+        List<Order> orders = new ArrayList<>(itemsByAdmin.size());
+        itemsByAdmin.forEach((itemsAdminId, items) ->
+                orders.add(createOrderFromCartItems(cart, itemsAdminId, items, sessionId, timezone)));
+        return orderRepository.saveAll(orders);
+    }
+
+    /**
+     * Crea las sesiones de pago de todas las órdenes en paralelo, cada una con su deadline.
+     * Un fallo o timeout queda en su PaymentOutcome sin afectar a las demás.
+     *
+     * orTimeout solo deja de esperar: la llamada HTTP sigue en curso y payment-service puede
+     * terminar creando la sesión de Stripe de una orden que applyPaymentOutcomes ya canceló.
+     * Esa URL nunca llega al cliente, y si igual se aprobara un pago el callback no cumple la orden.
+     */
+    private List<PaymentOutcome> createPayments(List<Order> orders) {
+        List<CompletableFuture<PaymentOutcome>> calls = orders.stream()
+                .map(order -> CompletableFuture
+                        .supplyAsync(() -> paymentServiceClient.createPaymentStripe(buildPaymentRequest(order)), paymentExecutor)
+                        .orTimeout(paymentTimeoutMs, TimeUnit.MILLISECONDS)
+                        .handle((response, error) -> new PaymentOutcome(order, response, unwrap(error))))
+                .collect(Collectors.toList());
+        return calls.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    /**
+     * Guarda los datos de pago en cada orden; las que no obtuvieron sesión quedan canceladas
+     */
+    private void applyPaymentOutcomes(List<PaymentOutcome> outcomes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Order> managed = orderRepository.findAllById(outcomes.stream().map(outcome -> outcome.order().getId()).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+            for (PaymentOutcome outcome : outcomes) {
+                Order order = managed.get(outcome.order().getId());
+                if (outcome.error() == null) {
+                    order.setPaymentId(outcome.response().getPaymentId());
+                    order.setPaymentPreferenceId(outcome.response().getSessionId());
+                    order.setCheckoutUrl(outcome.response().getCheckoutUrl());
+                } else {
+                    log.warn("⚠️ Cancelling order {}: payment session failed ({})", order.getOrderNumber(), outcome.error().getMessage());
+                    order.markAsCancelled();
+                }
+                outcome.order().setStatus(order.getStatus());
+            }
+            orderRepository.saveAll(managed.values());
+        });
+    }
+
+    private PaymentServiceRequest buildPaymentRequest(Order order) {
+        return PaymentServiceRequest.builder()
+                .adminId(order.getAdminId())
+                .orderId(order.getOrderNumber())
+                .amount(order.getTotalAmount())
+                .description("Orden " + order.getOrderNumber() + " - PackedGo Events")
+                // URLs simples, sin sessionId
+                .successUrl("http://localhost:3000/customer/orders/success?orderId=" + order.getOrderNumber())
+                .failureUrl("http://localhost:3000/customer/dashboard?paymentStatus=failure&orderId=" + order.getOrderNumber())
+                .pendingUrl("http://localhost:3000/customer/dashboard?paymentStatus=pending&orderId=" + order.getOrderNumber())
+                .build();
+    }
+
+    private Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof TimeoutException) {
+            return new RuntimeException("Payment service did not respond within " + paymentTimeoutMs + " ms");
+        }
+        return error;
+    }
+
+    private PaymentGroupDTO toPaymentGroup(PaymentOutcome outcome) {
+        Order order = outcome.order();
+        return PaymentGroupDTO.builder()
+                .adminId(order.getAdminId())
+                .orderNumber(order.getOrderNumber())
+                .orderId(order.getId())
+                .amount(order.getTotalAmount())
+                .status(outcome.error() == null ? order.getStatus().name() : PAYMENT_ERROR_STATUS)
+                .paymentPreferenceId(outcome.response() != null ? outcome.response().getSessionId() : null)
+                .initPoint(outcome.response() != null ? outcome.response().getCheckoutUrl() : null)
+                .items(order.getItems().stream().map(this::toOrderItemDTO).collect(Collectors.toList()))
+                .build();
+    }
+
+    private OrderItemDTO toOrderItemDTO(OrderItem item) {
+        return OrderItemDTO.builder()
+                .eventId(item.getEventId())
+                .eventName(item.getEventName())
+                .quantity(item.getQuantity())
+                .price(item.getUnitPrice())
+                .totalPrice(item.getSubtotal())
+                .consumptions(item.getConsumptions().stream()
+                        .map(consumption -> ConsumptionDTO.builder()
+                                .consumptionId(consumption.getConsumptionId())
+                                .name(consumption.getConsumptionName())
+                                .quantity(consumption.getQuantity())
+                                .price(consumption.getUnitPrice())
+                                .subtotal(consumption.getSubtotal())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     private Order createOrderFromCartItems(ShoppingCart cart, Long adminId, List<CartItem> items, String sessionId, String timezone) {
         BigDecimal totalAmount = items.stream()
                 .map(CartItem::getSubtotal)
@@ -242,80 +504,6 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
-    /**
-     * Genera tickets en event-service para cada entrada de la orden
-     * Se ejecuta automáticamente cuando una orden es marcada como PAID
-     * @return Lista de tickets generados con sus códigos QR
-     */
-    private List<TicketWithConsumptionsResponse> generateTicketsForOrder(Order order) {
-        log.info("🎟️ Generating tickets for order: {}", order.getOrderNumber());
-        
-        List<TicketWithConsumptionsResponse> generatedTickets = new ArrayList<>();
-        int ticketsGenerated = 0;
-        int ticketsFailed = 0;
-        
-        // Por cada OrderItem (que representa entradas de un evento)
-        for (OrderItem orderItem : order.getItems()) {
-            Long eventId = orderItem.getEventId();
-            Integer quantity = orderItem.getQuantity();
-            
-            log.info("Generating {} ticket(s) for event: {}", quantity, eventId);
-            
-            // Generar un ticket por cada entrada
-            for (int i = 0; i < quantity; i++) {
-                try {
-                    // Preparar las consumiciones si existen
-                    List<TicketConsumptionDTO> consumptions = new ArrayList<>();
-                    if (orderItem.getConsumptions() != null && !orderItem.getConsumptions().isEmpty()) {
-                        consumptions = orderItem.getConsumptions().stream()
-                                .map(cons -> TicketConsumptionDTO.builder()
-                                        .consumptionId(cons.getConsumptionId())
-                                        .consumptionName(cons.getConsumptionName())
-                                        .priceAtPurchase(cons.getUnitPrice())
-                                        .quantity(cons.getQuantity())
-                                        .build())
-                                .collect(Collectors.toList());
-                    }
-                    
-                    // Crear ticket con consumiciones
-                    CreateTicketWithConsumptionsRequest ticketRequest = CreateTicketWithConsumptionsRequest.builder()
-                            .userId(order.getUserId())
-                            .eventId(eventId)
-                            .consumptions(consumptions)
-                            .purchasedAt(order.getPaidAt()) // Usar fecha de pago de la orden
-                            .build();
-                    
-                    TicketWithConsumptionsResponse response = eventServiceClient.createTicketWithConsumptions(ticketRequest);
-                    
-                    // Check if ticket was created successfully (ticketId present)
-                    if (response != null && response.getTicketId() != null) {
-                        ticketsGenerated++;
-                        generatedTickets.add(response);
-                        log.info("✅ Ticket #{} generated: ID={}, QR={}", 
-                                (i + 1), response.getTicketId(), response.getQrCode());
-                    } else {
-                        ticketsFailed++;
-                        log.error("❌ Failed to generate ticket #{}: Response was null or missing ID", (i + 1));
-                    }
-                    
-                } catch (Exception e) {
-                    ticketsFailed++;
-                    log.error("❌ Error generating ticket #{} for event {}: {}", 
-                            (i + 1), eventId, e.getMessage(), e);
-                }
-            }
-        }
-        
-        log.info("🎟️ Ticket generation completed for order {}: {} successful, {} failed",
-                order.getOrderNumber(), ticketsGenerated, ticketsFailed);
-        
-        if (ticketsFailed > 0) {
-            log.warn("⚠️ Some tickets failed to generate. Manual intervention may be required.");
-        }
-        
-        return generatedTickets;
-    }
-    
     @Override
     public List<Order> getOrdersByOrganizerId(Long adminId) {
         log.info("Fetching all orders for organizer: {}", adminId);
@@ -0,0 +1,310 @@
+package com.packed_go.order_service.service.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.packed_go.order_service.entity.PassHold;
+import com.packed_go.order_service.entity.ShoppingCart;
+import com.packed_go.order_service.exception.StockNotAvailableException;
+import com.packed_go.order_service.external.EventServiceClient;
+import com.packed_go.order_service.repository.EventHoldCounterRepository;
+import com.packed_go.order_service.repository.PassHoldRepository;
+import com.packed_go.order_service.service.PassHoldService;
+import com.packed_go.order_service.util.HierarchicalTimerWheel;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reservas de passes por carrito.
+ *
+ * Cada evento tiene una fila en event_hold_counters con el total retenido; reservar es un UPDATE
+ * condicional contra el snapshot de disponibilidad de event-service, así que nunca se retiene más
+ * de lo disponible. El vencimiento lo dispara un timer wheel jerárquico en memoria (al segundo) y,
+ * como respaldo, un UPDATE en bloque de las reservas vencidas que ninguna instancia procesó.
+ */
+@Service
+@Slf4j
+public class PassHoldServiceImpl implements PassHoldService {
+
+    private static final String CLOSE_CART_HOLDS_SQL =
+            "UPDATE pass_holds SET status = ?, released_at = ? " +
+            "WHERE cart_id = ? AND status = 'ACTIVE' RETURNING event_id, quantity";
+
+    private static final String CONSUME_CART_EVENT_HOLDS_SQL =
+            "UPDATE pass_holds SET status = 'CONSUMED', released_at = ? " +
+            "WHERE cart_id = ? AND event_id = ANY(?) AND status = 'ACTIVE' RETURNING event_id, quantity";
+
+    private static final String EXPIRE_DUE_CART_HOLDS_SQL =
+            "UPDATE pass_holds SET status = 'EXPIRED', released_at = ? " +
+            "WHERE cart_id = ANY(?) AND status = 'ACTIVE' AND expires_at <= ? RETURNING event_id, quantity";
+
+    private static final String EXPIRE_DUE_CARTS_SQL =
+            "UPDATE shopping_carts SET status = 'EXPIRED', updated_at = ? " +
+            "WHERE id = ANY(?) AND status = 'ACTIVE' AND expires_at <= ?";
+
+    private static final String EXPIRE_OVERDUE_HOLDS_SQL =
+            "UPDATE pass_holds SET status = 'EXPIRED', released_at = ? WHERE id IN (" +
+            "SELECT id FROM pass_holds WHERE status = 'ACTIVE' AND expires_at < ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING event_id, quantity";
+
+    private static final String RELEASE_COUNTER_SQL =
+            "UPDATE event_hold_counters SET held_quantity = GREATEST(held_quantity - ?, 0) WHERE event_id = ?";
+
+    private static final String ACTIVE_CART_DEADLINES_SQL =
+            "SELECT cart_id, MIN(expires_at) FROM pass_holds WHERE status = 'ACTIVE' GROUP BY cart_id";
+
+    private record ClosedHold(Long eventId, int quantity) {}
+
+    private final PassHoldRepository holdRepository;
+    private final EventHoldCounterRepository counterRepository;
+    private final EventServiceClient eventServiceClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final HierarchicalTimerWheel<Long> expiryWheel;
+    private final Set<Long> scheduledCarts = ConcurrentHashMap.newKeySet();
+
+    private final Counter reservedPasses;
+    private final Counter rejectedHolds;
+    private final Counter expiredByWheel;
+    private final Counter expiredByBackstop;
+
+    @Value("${app.cart.holds.backstop-batch-size:500}")
+    private int backstopBatchSize;
+
+    public PassHoldServiceImpl(PassHoldRepository holdRepository,
+                               EventHoldCounterRepository counterRepository,
+                               EventServiceClient eventServiceClient,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.cart.holds.tick-ms:1000}") long tickMillis) {
+        this.holdRepository = holdRepository;
+        this.counterRepository = counterRepository;
+        this.eventServiceClient = eventServiceClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiryWheel = new HierarchicalTimerWheel<>(tickMillis, System.currentTimeMillis());
+
+        Gauge.builder("cart.holds.timers", expiryWheel, HierarchicalTimerWheel::size)
+                .description("Vencimientos de carritos programados en el timer wheel")
+                .register(meterRegistry);
+        this.reservedPasses = meterRegistry.counter("cart.holds.passes", "outcome", "reserved");
+        this.rejectedHolds = meterRegistry.counter("cart.holds.passes", "outcome", "rejected");
+        this.expiredByWheel = meterRegistry.counter("cart.holds.expired", "source", "wheel");
+        this.expiredByBackstop = meterRegistry.counter("cart.holds.expired", "source", "backstop");
+    }
+
+    @Override
+    @Transactional
+    public void hold(ShoppingCart cart, Long eventId, int quantity) {
+        // Disponibilidad al momento: un snapshot cacheado podría reservar passes ya vendidos
+        int available = eventServiceClient.getLiveAvailablePassesCount(eventId);
+        counterRepository.ensureExists(eventId);
+        if (counterRepository.tryReserve(eventId, quantity, available) == 0) {
+            rejectedHolds.increment(quantity);
+            log.warn("Cannot hold {} passes of event {} for cart {}: not enough unreserved stock",
+                    quantity, eventId, cart.getId());
+            throw new StockNotAvailableException(eventId);
+        }
+
+        PassHold hold = holdRepository.findByCartIdAndEventIdAndStatus(cart.getId(), eventId, PassHold.Status.ACTIVE)
+                .orElseGet(() -> PassHold.builder()
+                        .cartId(cart.getId())
+                        .userId(cart.getUserId())
+                        .eventId(eventId)
+                        .quantity(0)
+                        .build());
+        hold.setQuantity(hold.getQuantity() + quantity);
+        hold.setExpiresAt(cart.getExpiresAt());
+        holdRepository.save(hold);
+        reservedPasses.increment(quantity);
+
+        if (scheduledCarts.add(cart.getId())) {
+            expiryWheel.schedule(cart.getId(), toEpochMillis(cart.getExpiresAt()));
+        }
+        log.info("🔒 Held {} passes of event {} for cart {} until {}", quantity, eventId, cart.getId(), cart.getExpiresAt());
+    }
+
+    @Override
+    @Transactional
+    public void release(Long cartId, Long eventId, int quantity) {
+        holdRepository.findByCartIdAndEventIdAndStatus(cartId, eventId, PassHold.Status.ACTIVE).ifPresent(hold -> {
+            int released = Math.min(quantity, hold.getQuantity());
+            hold.setQuantity(hold.getQuantity() - released);
+            if (hold.getQuantity() == 0) {
+                hold.setStatus(PassHold.Status.RELEASED);
+                hold.setReleasedAt(LocalDateTime.now());
+            }
+            holdRepository.save(hold);
+            counterRepository.release(eventId, released);
+            log.info("🔓 Released {} passes of event {} from cart {}", released, eventId, cartId);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void releaseCart(Long cartId) {
+        closeCartHolds(cartId, PassHold.Status.RELEASED);
+    }
+
+    @Override
+    @Transactional
+    public void expireCart(Long cartId) {
+        closeCartHolds(cartId, PassHold.Status.EXPIRED);
+    }
+
+    @Override
+    @Transactional
+    public void consume(Long cartId, Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        List<ClosedHold> closed = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CONSUME_CART_EVENT_HOLDS_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setLong(2, cartId);
+            ps.setArray(3, con.createArrayOf("bigint", eventIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new ClosedHold(rs.getLong(1), rs.getInt(2)));
+        releaseCounters(closed);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.cart.holds.tick-ms:1000}")
+    public void processDueExpirations() {
+        List<Long> due = expiryWheel.advanceTo(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        Set<Long> cartIds = new LinkedHashSet<>(due);
+        cartIds.forEach(scheduledCarts::remove);
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Integer expired = transactionTemplate.execute(status -> {
+                List<ClosedHold> closed = jdbcTemplate.query(con -> {
+                    PreparedStatement ps = con.prepareStatement(EXPIRE_DUE_CART_HOLDS_SQL);
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setArray(2, con.createArrayOf("bigint", cartIds.toArray()));
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    return ps;
+                }, (rs, rowNum) -> new ClosedHold(rs.getLong(1), rs.getInt(2)));
+                releaseCounters(closed);
+                jdbcTemplate.update(con -> {
+                    PreparedStatement ps = con.prepareStatement(EXPIRE_DUE_CARTS_SQL);
+                    ps.setTimestamp(1, Timestamp.valueOf(now));
+                    ps.setArray(2, con.createArrayOf("bigint", cartIds.toArray()));
+                    ps.setTimestamp(3, Timestamp.valueOf(now));
+                    return ps;
+                });
+                return closed.size();
+            });
+            if (expired != null && expired > 0) {
+                expiredByWheel.increment(expired);
+                log.info("⏰ Expired {} pass holds from {} carts", expired, cartIds.size());
+            }
+        } catch (Exception e) {
+            // Las que queden ACTIVE las vence el respaldo en bloque
+            log.error("❌ Error expiring holds for {} carts: {}", cartIds.size(), e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.cart.holds.backstop-interval-ms:30000}")
+    public void expireOverdueHolds() {
+        try {
+            int total = 0;
+            int expired;
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                Integer count = transactionTemplate.execute(status -> {
+                    List<ClosedHold> closed = jdbcTemplate.query(EXPIRE_OVERDUE_HOLDS_SQL,
+                            (rs, rowNum) -> new ClosedHold(rs.getLong(1), rs.getInt(2)),
+                            Timestamp.valueOf(now), Timestamp.valueOf(now), backstopBatchSize);
+                    releaseCounters(closed);
+                    return closed.size();
+                });
+                expired = count != null ? count : 0;
+                total += expired;
+            } while (expired == backstopBatchSize);
+
+            if (total > 0) {
+                expiredByBackstop.increment(total);
+                log.info("⏰ Backstop expired {} overdue pass holds", total);
+            }
+        } catch (Exception e) {
+            log.error("❌ Error during pass hold backstop expiry: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tras un reinicio el wheel está vacío: se reprograman los carritos con reservas activas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleActiveHolds() {
+        try {
+            jdbcTemplate.query(ACTIVE_CART_DEADLINES_SQL, rs -> {
+                long cartId = rs.getLong(1);
+                if (scheduledCarts.add(cartId)) {
+                    expiryWheel.schedule(cartId, toEpochMillis(rs.getTimestamp(2).toLocalDateTime()));
+                }
+            });
+            log.info("⏰ Scheduled {} carts with active pass holds", scheduledCarts.size());
+        } catch (Exception e) {
+            log.error("❌ Could not schedule active pass holds, relying on backstop: {}", e.getMessage());
+        }
+    }
+
+    private void closeCartHolds(Long cartId, PassHold.Status status) {
+        List<ClosedHold> closed = jdbcTemplate.query(CLOSE_CART_HOLDS_SQL,
+                (rs, rowNum) -> new ClosedHold(rs.getLong(1), rs.getInt(2)),
+                status.name(), Timestamp.valueOf(LocalDateTime.now()), cartId);
+        releaseCounters(closed);
+        if (!closed.isEmpty()) {
+            log.info("🔓 Closed {} pass holds of cart {} as {}", closed.size(), cartId, status);
+        }
+    }
+
+    /**
+     * Descuenta lo liberado de los contadores, agrupado por evento y en orden de eventId
+     * para que dos transacciones nunca tomen las filas en orden inverso
+     */
+    private void releaseCounters(List<ClosedHold> closed) {
+        if (closed.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> byEvent = new TreeMap<>();
+        closed.forEach(hold -> byEvent.merge(hold.eventId(), hold.quantity(), Integer::sum));
+        List<Object[]> args = new ArrayList<>(byEvent.size());
+        byEvent.forEach((eventId, quantity) -> args.add(new Object[] {quantity, eventId}));
+        jdbcTemplate.batchUpdate(RELEASE_COUNTER_SQL, args);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
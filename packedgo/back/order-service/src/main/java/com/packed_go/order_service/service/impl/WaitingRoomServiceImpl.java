@@ -0,0 +1,282 @@
+package com.packed_go.order_service.service.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.packed_go.order_service.dto.response.QueueStatusDTO;
+import com.packed_go.order_service.exception.WaitingRoomException;
+import com.packed_go.order_service.service.WaitingRoomService;
+import com.packed_go.order_service.util.QueueTokenCodec;
+import com.packed_go.order_service.util.QueueTokenCodec.QueueToken;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sala de espera en memoria, una cola por evento.
+ *
+ * Cada cola numera a los compradores en orden de llegada y admite hasta la posición
+ * admittedThrough, que avanza de forma perezosa a rate posiciones por segundo con hasta burst
+ * posiciones de crédito acumulado: es un token bucket ordenado, así que sin picos nadie espera.
+ * El ritmo se ajusta con AIMD según la latencia de emitir los tickets de las órdenes pagadas (lo que
+ * tarda event-service en responder bajo su lock de evento): crece mientras hay cola y la latencia está
+ * bajo el objetivo, y se reduce ante timeouts o errores de event-service.
+ *
+ * Las colas viven en cada instancia: con varias instancias de order-service el ruteo debe ser por
+ * evento (o una sola instancia atiende /cart/add), igual que app.cart.store=memory.
+ */
+@Service
+@Slf4j
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final QueueTokenCodec tokenCodec;
+    private final LongSupplier nanoClock;
+    private final Map<Long, EventQueue> queues = new ConcurrentHashMap<>();
+
+    private final Counter admittedDirectly;
+    private final Counter admittedFromQueue;
+    private final Counter queuedRequests;
+
+    @Value("${app.waiting-room.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.waiting-room.initial-rate-per-second:20}")
+    private double initialRate;
+
+    @Value("${app.waiting-room.min-rate-per-second:2}")
+    private double minRate;
+
+    @Value("${app.waiting-room.max-rate-per-second:200}")
+    private double maxRate;
+
+    @Value("${app.waiting-room.burst:20}")
+    private int burst;
+
+    @Value("${app.waiting-room.target-latency-ms:1000}")
+    private long targetLatencyMs;
+
+    @Value("${app.waiting-room.backoff-ratio:0.75}")
+    private double backoffRatio;
+
+    @Value("${app.waiting-room.token-ttl-minutes:30}")
+    private long tokenTtlMinutes;
+
+    @Autowired
+    public WaitingRoomServiceImpl(@Value("${app.waiting-room.secret}") String secret,
+                                  MeterRegistry meterRegistry) {
+        this(secret, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * nanoClock reemplaza a System.nanoTime en el avance de las colas y el ajuste del ritmo (para tests)
+     */
+    WaitingRoomServiceImpl(String secret, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.tokenCodec = new QueueTokenCodec(secret);
+        this.nanoClock = nanoClock;
+
+        Gauge.builder("waiting-room.queued", queues, WaitingRoomServiceImpl::totalBacklog)
+                .description("Compradores esperando admisión en todas las salas de espera")
+                .register(meterRegistry);
+        this.admittedDirectly = meterRegistry.counter("waiting-room.admissions", "outcome", "direct");
+        this.admittedFromQueue = meterRegistry.counter("waiting-room.admissions", "outcome", "queued");
+        this.queuedRequests = meterRegistry.counter("waiting-room.admissions", "outcome", "waiting");
+    }
+
+    @Override
+    public QueueStatusDTO join(Long userId, Long eventId) {
+        if (!enabled) {
+            return admittedWithoutQueue(eventId);
+        }
+        EventQueue queue = queueFor(eventId);
+        QueueToken token = queue.join(userId, nanoClock.getAsLong());
+        return toStatus(tokenCodec.encode(token), token, queue);
+    }
+
+    @Override
+    public QueueStatusDTO getStatus(Long userId, String queueToken) {
+        QueueToken token = tokenCodec.decode(queueToken);
+        if (token == null || !token.userId().equals(userId)) {
+            throw new IllegalArgumentException("Invalid or expired queue token");
+        }
+        EventQueue queue = queues.get(token.eventId());
+        if (!enabled || queue == null) {
+            // La cola se descartó por inactividad: ya no hay nadie por delante
+            return admittedWithoutQueue(token.eventId());
+        }
+        return toStatus(queueToken, token, queue);
+    }
+
+    @Override
+    public void admit(Long userId, Long eventId, String queueToken) {
+        if (!enabled) {
+            return;
+        }
+        EventQueue queue = queueFor(eventId);
+        QueueToken token = tokenCodec.decode(queueToken);
+        boolean presented = token != null && token.eventId().equals(eventId) && token.userId().equals(userId)
+                && queue.knows(token.position());
+        String encoded = queueToken;
+        if (!presented) {
+            token = queue.join(userId, nanoClock.getAsLong());
+            encoded = tokenCodec.encode(token);
+        }
+
+        QueueStatusDTO status = toStatus(encoded, token, queue);
+        if (Boolean.TRUE.equals(status.getAdmitted())) {
+            (presented ? admittedFromQueue : admittedDirectly).increment();
+            return;
+        }
+        queuedRequests.increment();
+        log.debug("User {} waiting for event {}: position {}, {} ahead",
+                userId, eventId, status.getPosition(), status.getPositionsAhead());
+        throw new WaitingRoomException(status);
+    }
+
+    @Override
+    public void recordOutcome(Long eventId, long latencyNanos, boolean overloaded) {
+        EventQueue queue = queues.get(eventId);
+        if (queue != null) {
+            queue.adjustRate(latencyNanos, overloaded, nanoClock.getAsLong());
+        }
+    }
+
+    /**
+     * Descarta posiciones con token vencido y colas vacías
+     */
+    @Scheduled(fixedDelayString = "${app.waiting-room.cleanup-interval-ms:60000}")
+    public void cleanupQueues() {
+        long nowMillis = System.currentTimeMillis();
+        long now = nanoClock.getAsLong();
+        queues.entrySet().removeIf(entry -> entry.getValue().prune(nowMillis, now));
+    }
+
+    private EventQueue queueFor(Long eventId) {
+        return queues.computeIfAbsent(eventId, id -> new EventQueue(id, nanoClock.getAsLong()));
+    }
+
+    private QueueStatusDTO toStatus(String encoded, QueueToken token, EventQueue queue) {
+        return queue.status(encoded, token.position(), nanoClock.getAsLong());
+    }
+
+    private static QueueStatusDTO admittedWithoutQueue(Long eventId) {
+        return QueueStatusDTO.builder()
+                .eventId(eventId)
+                .position(0L)
+                .positionsAhead(0L)
+                .admitted(true)
+                .estimatedWaitSeconds(0L)
+                .pollAfterSeconds(0)
+                .build();
+    }
+
+    private static double totalBacklog(Map<Long, EventQueue> queues) {
+        return queues.values().stream().mapToLong(EventQueue::backlog).sum();
+    }
+
+    /**
+     * Cola de un evento. Todo el estado se modifica bajo el monitor de la instancia;
+     * las secciones críticas son de unas pocas operaciones aritméticas.
+     */
+    private final class EventQueue {
+
+        private record UserPosition(long position, long expiresAtMillis) {}
+
+        private final Long eventId;
+        private final Map<Long, UserPosition> positionsByUser = new HashMap<>();
+
+        private long lastIssued;
+        private double admittedThrough;
+        private double rate;
+        private long lastAdvanceNanos;
+        private long lastDecreaseNanos;
+
+        EventQueue(Long eventId, long now) {
+            this.eventId = eventId;
+            this.rate = Math.max(minRate, Math.min(maxRate, initialRate));
+            this.admittedThrough = burst;
+            this.lastAdvanceNanos = now;
+            this.lastDecreaseNanos = now;
+        }
+
+        synchronized QueueToken join(Long userId, long now) {
+            advance(now);
+            UserPosition existing = positionsByUser.get(userId);
+            if (existing == null || existing.expiresAtMillis() <= System.currentTimeMillis()) {
+                existing = new UserPosition(++lastIssued, System.currentTimeMillis() + tokenTtlMinutes * 60_000L);
+                positionsByUser.put(userId, existing);
+            }
+            return new QueueToken(eventId, userId, existing.position(), existing.expiresAtMillis());
+        }
+
+        /**
+         * false si la posición es de una cola anterior (reinicio o instancia distinta)
+         */
+        synchronized boolean knows(long position) {
+            return position <= lastIssued;
+        }
+
+        synchronized QueueStatusDTO status(String encoded, long position, long now) {
+            advance(now);
+            boolean admitted = position <= admittedThrough;
+            long ahead = Math.max(0, position - 1 - (long) Math.floor(admittedThrough));
+            long etaSeconds = admitted ? 0 : (long) Math.ceil((position - admittedThrough) / rate);
+            return QueueStatusDTO.builder()
+                    .eventId(eventId)
+                    .queueToken(encoded)
+                    .position(position)
+                    .positionsAhead(ahead)
+                    .admitted(admitted)
+                    .estimatedWaitSeconds(etaSeconds)
+                    .admissionRatePerSecond(Math.round(rate * 100) / 100.0)
+                    .pollAfterSeconds(admitted ? 0 : (int) Math.min(30, Math.max(2, etaSeconds / 2)))
+                    .build();
+        }
+
+        synchronized void adjustRate(long latencyNanos, boolean overloaded, long now) {
+            if (overloaded || latencyNanos > targetLatencyMs * 1_000_000L) {
+                // Como mucho una reducción por segundo: una ráfaga de timeouts no debe hundir el ritmo
+                if (now - lastDecreaseNanos >= NANOS_PER_SECOND) {
+                    advance(now);
+                    rate = Math.max(minRate, rate * backoffRatio);
+                    lastDecreaseNanos = now;
+                    log.info("⏳ Waiting room for event {}: admission rate lowered to {}/s", eventId,
+                            Math.round(rate * 100) / 100.0);
+                }
+            } else if (lastIssued > admittedThrough) {
+                // Con cola, cada respuesta rápida suma 1/rate: en torno a +1 posición/s por segundo
+                advance(now);
+                rate = Math.min(maxRate, rate + 1.0 / rate);
+            }
+        }
+
+        synchronized long backlog() {
+            return Math.max(0, lastIssued - (long) Math.floor(admittedThrough));
+        }
+
+        /**
+         * true si la cola quedó vacía y sin nadie esperando, para descartarla
+         */
+        synchronized boolean prune(long nowMillis, long now) {
+            advance(now);
+            positionsByUser.values().removeIf(position -> position.expiresAtMillis() <= nowMillis);
+            return positionsByUser.isEmpty() && lastIssued <= admittedThrough;
+        }
+
+        private void advance(long now) {
+            double elapsedSeconds = (double) (now - lastAdvanceNanos) / NANOS_PER_SECOND;
+            lastAdvanceNanos = now;
+            admittedThrough = Math.min(lastIssued + burst, admittedThrough + elapsedSeconds * rate);
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package com.packed_go.order_service.service.impl;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.packed_go.order_service.entity.CartItem;
+import com.packed_go.order_service.entity.CartItemConsumption;
+import com.packed_go.order_service.entity.ShoppingCart;
+import com.packed_go.order_service.exception.CartModifiedException;
+import com.packed_go.order_service.service.CartStore;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * CartStore en memoria con escritura diferida (app.cart.store=memory).
+ *
+ * Cada carrito ACTIVE se guarda como copia desacoplada de JPA, indexada por usuario: leer y
+ * modificar no toca Postgres. Cada copia lleva la versión con la que se leyó y save la rechaza
+ * (CartModifiedException) si el carrito cambió mientras tanto, igual que un @Version de JPA.
+ * Los ids se toman de bloques reservados de las secuencias de cada tabla, así que son
+ * definitivos desde el primer momento. El carrito se vuelca con upserts JDBC al hacer checkout
+ * y al dejar de estar ACTIVE, dentro de la transacción del llamador, y además cada
+ * app.cart.store.flush-interval-ms y al apagar la instancia.
+ *
+ * El estado vive en una sola instancia: usar solo con un único nodo o ruteo por usuario.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "memory")
+@Slf4j
+public class WriteBehindCartStore implements CartStore {
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private static final String SELECT_ACTIVE_CART_SQL =
+            "SELECT id, user_id, status, expires_at, created_at, updated_at, total_amount FROM shopping_carts " +
+            "WHERE user_id = ? AND status = 'ACTIVE' ORDER BY updated_at DESC LIMIT 1";
+
+    private static final String SELECT_ITEMS_SQL =
+            "SELECT id, event_id, event_name, admin_id, quantity, unit_price, subtotal, created_at " +
+            "FROM cart_items WHERE cart_id = ? ORDER BY id";
+
+    private static final String SELECT_CONSUMPTIONS_SQL =
+            "SELECT c.id, c.cart_item_id, c.consumption_id, c.consumption_name, c.quantity, c.unit_price, c.subtotal " +
+            "FROM cart_item_consumptions c JOIN cart_items i ON i.id = c.cart_item_id " +
+            "WHERE i.cart_id = ? ORDER BY c.id";
+
+    private static final String UPSERT_CART_SQL =
+            "INSERT INTO shopping_carts (id, user_id, status, expires_at, created_at, updated_at, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET " +
+            "status = EXCLUDED.status, expires_at = EXCLUDED.expires_at, updated_at = EXCLUDED.updated_at, " +
+            "total_amount = EXCLUDED.total_amount " +
+            // Un volcado periódico que llega tarde no reabre un carrito ya cerrado
+            "WHERE shopping_carts.status = 'ACTIVE' OR EXCLUDED.status <> 'ACTIVE'";
+
+    private static final String DELETE_STALE_CONSUMPTIONS_SQL =
+            "DELETE FROM cart_item_consumptions WHERE cart_item_id IN " +
+            "(SELECT id FROM cart_items WHERE cart_id = ?) AND NOT (id = ANY(?))";
+
+    private static final String DELETE_STALE_ITEMS_SQL =
+            "DELETE FROM cart_items WHERE cart_id = ? AND NOT (id = ANY(?))";
+
+    private static final String UPSERT_ITEM_SQL =
+            "INSERT INTO cart_items (id, cart_id, event_id, event_name, admin_id, quantity, unit_price, subtotal, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET " +
+            "event_name = EXCLUDED.event_name, quantity = EXCLUDED.quantity, " +
+            "unit_price = EXCLUDED.unit_price, subtotal = EXCLUDED.subtotal";
+
+    private static final String UPSERT_CONSUMPTION_SQL =
+            "INSERT INTO cart_item_consumptions (id, cart_item_id, consumption_id, consumption_name, quantity, unit_price, subtotal) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET " +
+            "consumption_name = EXCLUDED.consumption_name, quantity = EXCLUDED.quantity, " +
+            "unit_price = EXCLUDED.unit_price, subtotal = EXCLUDED.subtotal";
+
+    private static final String DELETE_CART_CONSUMPTIONS_SQL =
+            "DELETE FROM cart_item_consumptions WHERE cart_item_id IN (SELECT id FROM cart_items WHERE cart_id = ?)";
+    private static final String DELETE_CART_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id = ?";
+    private static final String DELETE_CART_SQL = "DELETE FROM shopping_carts WHERE id = ?";
+
+    private static final class Entry {
+        final Object flushLock = new Object();
+        ShoppingCart cart;
+        long version;
+        long flushedVersion;
+        // Volcado hecho dentro de una transacción del llamador que todavía no terminó
+        boolean flushPending;
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate flushTransaction;
+    private final Map<Long, Entry> carts = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Long>> idPools = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+
+    @Value("${app.cart.store.id-block-size:50}")
+    private int idBlockSize;
+
+    public WriteBehindCartStore(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Se une a la transacción del llamador si la hay (checkout, cierre del carrito): no toma
+        // una segunda conexión del pool y el volcado se confirma o se revierte junto con ella
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+
+        Gauge.builder("cart.store.active", carts, Map::size)
+                .description("Carritos activos en memoria")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", carts, map -> map.values().stream().filter(this::isDirty).count())
+                .description("Carritos con cambios aún no volcados a Postgres")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("cart.store.flush")
+                .description("Tiempo de volcado de un carrito a Postgres")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<ShoppingCart> findActiveCart(Long userId) {
+        Entry entry = carts.get(userId);
+        if (entry == null) {
+            ShoppingCart loaded = loadActiveCart(userId);
+            if (loaded == null) {
+                return Optional.empty();
+            }
+            Entry fresh = new Entry();
+            fresh.cart = loaded;
+            Entry existing = carts.putIfAbsent(userId, fresh);
+            entry = existing != null ? existing : fresh;
+        }
+        synchronized (entry) {
+            ShoppingCart copy = copy(entry.cart);
+            copy.setStoreVersion(entry.version);
+            return Optional.of(copy);
+        }
+    }
+
+    @Override
+    public ShoppingCart save(ShoppingCart cart) {
+        boolean isNew = cart.getId() == null;
+        prepare(cart);
+        ShoppingCart snapshot = copy(cart);
+        boolean active = cart.isActive();
+
+        // La comprobación de versión y el reemplazo son atómicos respecto de repriceInMemory y del
+        // vencimiento periódico, que modifican la entrada viva bajo su monitor
+        carts.compute(cart.getUserId(), (userId, entry) -> {
+            if (entry == null || !entry.cart.getId().equals(cart.getId())) {
+                if (active && (!isNew || entry != null)) {
+                    // Lo leído ya no es el carrito activo en memoria (venció, se cerró u otro request creó uno)
+                    throw new CartModifiedException(cart.getId());
+                }
+                if (!active) {
+                    // Cierre de un carrito que no está en memoria (p. ej. leído de la base)
+                    return entry;
+                }
+                Entry created = new Entry();
+                created.cart = snapshot;
+                created.version = 1;
+                cart.setStoreVersion(created.version);
+                return created;
+            }
+            synchronized (entry) {
+                if (cart.getStoreVersion() == null || cart.getStoreVersion() != entry.version) {
+                    throw new CartModifiedException(cart.getId());
+                }
+                if (!active) {
+                    return null;
+                }
+                entry.cart = snapshot;
+                entry.version++;
+                cart.setStoreVersion(entry.version);
+                return entry;
+            }
+        });
+
+        if (!active) {
+            // Carrito cerrado (vencido o completado): se persiste ya, con la transacción del llamador
+            persist(snapshot);
+        }
+        return cart;
+    }
+
+    @Override
+    public void delete(ShoppingCart cart) {
+        carts.computeIfPresent(cart.getUserId(), (userId, entry) -> entry.cart.getId().equals(cart.getId()) ? null : entry);
+        if (cart.getId() == null) {
+            return;
+        }
+        flushTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_CART_CONSUMPTIONS_SQL, cart.getId());
+            jdbcTemplate.update(DELETE_CART_ITEMS_SQL, cart.getId());
+            jdbcTemplate.update(DELETE_CART_SQL, cart.getId());
+        });
+    }
+
+    @Override
+    public void flush(Long userId) {
+        Entry entry = carts.get(userId);
+        if (entry == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flushEntry(entry);
+            return;
+        }
+        // Dentro de la transacción del llamador (checkout): la versión queda volcada recién con el
+        // commit; mientras tanto el volcado periódico no toca este carrito (no espera su lock de fila)
+        synchronized (entry.flushLock) {
+            ShoppingCart snapshot;
+            long version;
+            synchronized (entry) {
+                if (!entry.isDirty() || entry.flushPending) {
+                    return;
+                }
+                snapshot = copy(entry.cart);
+                version = entry.version;
+            }
+            persist(snapshot);
+            synchronized (entry) {
+                entry.flushPending = true;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (entry) {
+                        entry.flushPending = false;
+                        if (status == STATUS_COMMITTED) {
+                            entry.flushedVersion = Math.max(entry.flushedVersion, version);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void repriceEvent(Long eventId, BigDecimal unitPrice) {
+        repriceInMemory(item -> {
+            if (item.getEventId().equals(eventId) && item.getUnitPrice().compareTo(unitPrice) != 0) {
+                item.updateUnitPrice(unitPrice);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    public void repriceConsumption(Long consumptionId, BigDecimal unitPrice) {
+        repriceInMemory(item -> {
+            boolean changed = false;
+            for (CartItemConsumption consumption : item.getConsumptions()) {
+                if (consumption.getConsumptionId().equals(consumptionId) && consumption.getUnitPrice().compareTo(unitPrice) != 0) {
+                    consumption.updateUnitPrice(unitPrice);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                item.calculateSubtotal();
+            }
+            return changed;
+        });
+    }
+
+    /**
+     * Aplica el cambio a cada línea de los carritos en memoria; los modificados quedan pendientes de volcado
+     */
+    private void repriceInMemory(Predicate<CartItem> repriceItem) {
+        int repriced = 0;
+        for (Entry entry : carts.values()) {
+            synchronized (entry) {
+                boolean changed = false;
+                for (CartItem item : entry.cart.getItems()) {
+                    changed |= repriceItem.test(item);
+                }
+                if (changed) {
+                    entry.version++;
+                    repriced++;
+                }
+            }
+        }
+        if (repriced > 0) {
+            log.info("💲 Repriced {} in-memory carts", repriced);
+        }
+    }
+
+    /**
+     * Vuelca los carritos modificados y saca de memoria los que vencieron
+     */
+    @Scheduled(fixedDelayString = "${app.cart.store.flush-interval-ms:30000}")
+    public void flushDirtyCarts() {
+        LocalDateTime now = LocalDateTime.now();
+        int flushed = 0;
+        int expired = 0;
+        for (Map.Entry<Long, Entry> mapEntry : carts.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            try {
+                boolean isExpired;
+                synchronized (entry) {
+                    if (entry.flushPending) {
+                        // Lo está volcando una transacción en curso; se revisa en la próxima pasada
+                        continue;
+                    }
+                    isExpired = entry.cart.getExpiresAt().isBefore(now);
+                    if (isExpired) {
+                        entry.cart.markAsExpired();
+                        entry.cart.setUpdatedAt(now);
+                        entry.version++;
+                    }
+                }
+                if (isExpired || entry.isDirty()) {
+                    flushEntry(entry);
+                    flushed++;
+                }
+                if (isExpired) {
+                    carts.remove(mapEntry.getKey(), entry);
+                    expired++;
+                }
+            } catch (Exception e) {
+                log.error("❌ Error flushing cart of user {}: {}", mapEntry.getKey(), e.getMessage(), e);
+            }
+        }
+        if (flushed > 0) {
+            log.info("💾 Flushed {} carts to Postgres ({} expired and evicted)", flushed, expired);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("💾 Flushing {} in-memory carts before shutdown", carts.size());
+        carts.values().forEach(entry -> {
+            try {
+                flushEntry(entry);
+            } catch (Exception e) {
+                log.error("❌ Error flushing cart {} on shutdown: {}", entry.cart.getId(), e.getMessage());
+            }
+        });
+    }
+
+    private boolean isDirty(Entry entry) {
+        synchronized (entry) {
+            return entry.isDirty();
+        }
+    }
+
+    private void flushEntry(Entry entry) {
+        // Un solo volcado por carrito a la vez, para no escribir una versión vieja sobre una nueva
+        synchronized (entry.flushLock) {
+            ShoppingCart snapshot;
+            long version;
+            synchronized (entry) {
+                if (!entry.isDirty() || entry.flushPending) {
+                    return;
+                }
+                snapshot = copy(entry.cart);
+                version = entry.version;
+            }
+            persist(snapshot);
+            synchronized (entry) {
+                entry.flushedVersion = Math.max(entry.flushedVersion, version);
+            }
+        }
+    }
+
+    private void persist(ShoppingCart cart) {
+        flushTimer.record(() -> flushTransaction.executeWithoutResult(status -> {
+            int updated = jdbcTemplate.update(UPSERT_CART_SQL, cart.getId(), cart.getUserId(), cart.getStatus(),
+                    Timestamp.valueOf(cart.getExpiresAt()), Timestamp.valueOf(cart.getCreatedAt()),
+                    Timestamp.valueOf(cart.getUpdatedAt()), cart.getTotalAmount());
+            if (updated == 0) {
+                log.debug("🛒 Cart {} already closed in Postgres, skipping stale flush", cart.getId());
+                return;
+            }
+
+            List<CartItemConsumption> consumptions = new ArrayList<>();
+            cart.getItems().forEach(item -> consumptions.addAll(item.getConsumptions()));
+            Object[] itemIds = cart.getItems().stream().map(CartItem::getId).toArray();
+            Object[] consumptionIds = consumptions.stream().map(CartItemConsumption::getId).toArray();
+
+            deleteStale(DELETE_STALE_CONSUMPTIONS_SQL, cart.getId(), consumptionIds);
+            deleteStale(DELETE_STALE_ITEMS_SQL, cart.getId(), itemIds);
+
+            jdbcTemplate.batchUpdate(UPSERT_ITEM_SQL, cart.getItems(), cart.getItems().size(), (ps, item) -> {
+                ps.setLong(1, item.getId());
+                ps.setLong(2, cart.getId());
+                ps.setLong(3, item.getEventId());
+                ps.setString(4, item.getEventName());
+                ps.setLong(5, item.getAdminId());
+                ps.setInt(6, item.getQuantity());
+                ps.setBigDecimal(7, item.getUnitPrice());
+                ps.setBigDecimal(8, item.getSubtotal());
+                ps.setTimestamp(9, Timestamp.valueOf(item.getCreatedAt()));
+            });
+            jdbcTemplate.batchUpdate(UPSERT_CONSUMPTION_SQL, consumptions, consumptions.size(), (ps, consumption) -> {
+                ps.setLong(1, consumption.getId());
+                ps.setLong(2, consumption.getCartItem().getId());
+                ps.setLong(3, consumption.getConsumptionId());
+                ps.setString(4, consumption.getConsumptionName());
+                ps.setInt(5, consumption.getQuantity());
+                ps.setBigDecimal(6, consumption.getUnitPrice());
+                ps.setBigDecimal(7, consumption.getSubtotal());
+            });
+        }));
+    }
+
+    private void deleteStale(String sql, Long cartId, Object[] keepIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setLong(1, cartId);
+            ps.setArray(2, con.createArrayOf("bigint", keepIds));
+            return ps;
+        });
+    }
+
+    private ShoppingCart loadActiveCart(Long userId) {
+        List<ShoppingCart> found = jdbcTemplate.query(SELECT_ACTIVE_CART_SQL, (rs, rowNum) -> ShoppingCart.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getLong("user_id"))
+                .status(rs.getString("status"))
+                .expiresAt(rs.getTimestamp("expires_at").toLocalDateTime())
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .totalAmount(rs.getBigDecimal("total_amount"))
+                .items(new ArrayList<>())
+                .build(), userId);
+        if (found.isEmpty()) {
+            return null;
+        }
+        ShoppingCart cart = found.get(0);
+
+        Map<Long, CartItem> itemsById = new ConcurrentHashMap<>();
+        jdbcTemplate.query(SELECT_ITEMS_SQL, rs -> {
+            CartItem item = CartItem.builder()
+                    .id(rs.getLong("id"))
+                    .cart(cart)
+                    .eventId(rs.getLong("event_id"))
+                    .eventName(rs.getString("event_name"))
+                    .adminId(rs.getLong("admin_id"))
+                    .quantity(rs.getInt("quantity"))
+                    .unitPrice(rs.getBigDecimal("unit_price"))
+                    .subtotal(rs.getBigDecimal("subtotal"))
+                    .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                    .consumptions(new ArrayList<>())
+                    .build();
+            cart.getItems().add(item);
+            itemsById.put(item.getId(), item);
+        }, cart.getId());
+        jdbcTemplate.query(SELECT_CONSUMPTIONS_SQL, rs -> {
+            CartItem item = itemsById.get(rs.getLong("cart_item_id"));
+            item.getConsumptions().add(CartItemConsumption.builder()
+                    .id(rs.getLong("id"))
+                    .cartItem(item)
+                    .consumptionId(rs.getLong("consumption_id"))
+                    .consumptionName(rs.getString("consumption_name"))
+                    .quantity(rs.getInt("quantity"))
+                    .unitPrice(rs.getBigDecimal("unit_price"))
+                    .subtotal(rs.getBigDecimal("subtotal"))
+                    .build());
+        }, cart.getId());
+
+        log.debug("🛒 Loaded active cart {} of user {} into memory ({} items)", cart.getId(), userId, cart.getItems().size());
+        return cart;
+    }
+
+    /**
+     * Lo que JPA haría al persistir: ids, timestamps, subtotales y referencias al padre
+     */
+    private void prepare(ShoppingCart cart) {
+        LocalDateTime now = LocalDateTime.now();
+        if (cart.getId() == null) {
+            cart.setId(nextId("shopping_carts"));
+        }
+        if (cart.getCreatedAt() == null) {
+            cart.setCreatedAt(now);
+        }
+        if (cart.getExpiresAt() == null) {
+            cart.setExpiresAt(now.plusMinutes(ShoppingCart.DEFAULT_EXPIRATION_MINUTES));
+        }
+        cart.setUpdatedAt(now);
+
+        for (CartItem item : cart.getItems()) {
+            item.setCart(cart);
+            if (item.getId() == null) {
+                item.setId(nextId("cart_items"));
+            }
+            if (item.getCreatedAt() == null) {
+                item.setCreatedAt(now);
+            }
+            for (CartItemConsumption consumption : item.getConsumptions()) {
+                consumption.setCartItem(item);
+                if (consumption.getId() == null) {
+                    consumption.setId(nextId("cart_item_consumptions"));
+                }
+                if (consumption.getSubtotal() == null) {
+                    consumption.setSubtotal(consumption.getUnitPrice().multiply(BigDecimal.valueOf(consumption.getQuantity())));
+                }
+            }
+        }
+    }
+
+    private Long nextId(String table) {
+        Deque<Long> pool = idPools.computeIfAbsent(table, t -> new ArrayDeque<>());
+        synchronized (pool) {
+            if (pool.isEmpty()) {
+                pool.addAll(jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, table, idBlockSize));
+            }
+            return pool.poll();
+        }
+    }
+
+    private static ShoppingCart copy(ShoppingCart source) {
+        ShoppingCart target = ShoppingCart.builder()
+                .id(source.getId())
+                .userId(source.getUserId())
+                .status(source.getStatus())
+                .expiresAt(source.getExpiresAt())
+                .createdAt(source.getCreatedAt())
+                .updatedAt(source.getUpdatedAt())
+                .totalAmount(source.getTotalAmount())
+                .items(new ArrayList<>(source.getItems().size()))
+                .build();
+        for (CartItem sourceItem : source.getItems()) {
+            CartItem item = CartItem.builder()
+                    .id(sourceItem.getId())
+                    .cart(target)
+                    .eventId(sourceItem.getEventId())
+                    .eventName(sourceItem.getEventName())
+                    .adminId(sourceItem.getAdminId())
+                    .quantity(sourceItem.getQuantity())
+                    .unitPrice(sourceItem.getUnitPrice())
+                    .subtotal(sourceItem.getSubtotal())
+                    .createdAt(sourceItem.getCreatedAt())
+                    .consumptions(new ArrayList<>(sourceItem.getConsumptions().size()))
+                    .build();
+            for (CartItemConsumption sourceConsumption : sourceItem.getConsumptions()) {
+                item.getConsumptions().add(CartItemConsumption.builder()
+                        .id(sourceConsumption.getId())
+                        .cartItem(item)
+                        .consumptionId(sourceConsumption.getConsumptionId())
+                        .consumptionName(sourceConsumption.getConsumptionName())
+                        .quantity(sourceConsumption.getQuantity())
+                        .unitPrice(sourceConsumption.getUnitPrice())
+                        .subtotal(sourceConsumption.getSubtotal())
+                        .build());
+            }
+            target.getItems().add(item);
+        }
+        return target;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.packed_go.order_service.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timer wheel jerárquico (4 niveles de 64 ranuras) para vencimientos masivos.
+ *
+ * El nivel 0 tiene ranuras de un tick; cada nivel superior cubre 64 veces más tiempo y, cuando
+ * el nivel inferior da la vuelta, su ranura actual se "derrama" hacia abajo. Programar es O(1)
+ * y cada tick solo recorre las ranuras que vencen, sin importar cuántos timers haya pendientes.
+ *
+ * schedule() puede llamarse desde cualquier hilo; advanceTo() debe llamarlo un único hilo.
+ * No hay cancelación: quien procesa los vencidos debe tolerar timers obsoletos.
+ */
+public final class HierarchicalTimerWheel<T> {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<List<ArrayDeque<Timer<T>>>> wheels = new ArrayList<>(LEVELS);
+    private final Queue<Timer<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private long currentTick;
+
+    private record Timer<T>(long deadlineTick, T payload) {}
+
+    public HierarchicalTimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<ArrayDeque<Timer<T>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ArrayDeque<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /**
+     * Programa el payload para vencer en deadlineMillis (redondeado hacia arriba al próximo tick)
+     */
+    public void schedule(T payload, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis);
+        pending.add(new Timer<>(deadlineTick, payload));
+        size.incrementAndGet();
+    }
+
+    /**
+     * Avanza el wheel hasta nowMillis y devuelve los payloads vencidos en el camino
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<T> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            drainPending(expired);
+            ArrayDeque<Timer<T>> slot = wheels.get(0).get((int) (currentTick & SLOT_MASK));
+            for (int i = slot.size(); i > 0; i--) {
+                Timer<T> timer = slot.poll();
+                if (timer.deadlineTick() <= currentTick) {
+                    expired.add(timer.payload());
+                } else {
+                    slot.add(timer);
+                }
+            }
+        }
+        // Los programados entre ticks quedan ubicados aunque no haya avanzado el reloj
+        drainPending(expired);
+        size.addAndGet(-expired.size());
+        return expired;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Al completar una vuelta de un nivel se redistribuye la ranura actual del nivel superior.
+     * Se recorre de arriba hacia abajo para que lo que baja de un nivel alto pueda volver a bajar
+     * en el mismo tick.
+     */
+    private void cascade() {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            int shift = SLOT_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            ArrayDeque<Timer<T>> slot = wheels.get(level).get((int) ((currentTick >>> shift) & SLOT_MASK));
+            if (slot.isEmpty()) {
+                continue;
+            }
+            List<Timer<T>> toPlace = new ArrayList<>(slot);
+            slot.clear();
+            toPlace.forEach(this::place);
+        }
+    }
+
+    private void drainPending(List<T> expired) {
+        Timer<T> timer;
+        while ((timer = pending.poll()) != null) {
+            if (timer.deadlineTick() <= currentTick) {
+                expired.add(timer.payload());
+            } else {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        // Al derramarse puede quedar con delta 0: va a la ranura del tick actual, que se procesa a continuación
+        long deadline = Math.max(timer.deadlineTick(), currentTick);
+        long delta = deadline - currentTick;
+        if (delta >= MAX_SPAN) {
+            // Más allá del horizonte: se estaciona en el último nivel y se reubica al derramarse
+            deadline = currentTick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+        int level = 0;
+        while (delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+        wheels.get(level).get(slot).add(timer);
+    }
+}
@@ -0,0 +1,121 @@
+package com.packed_go.order_service.util;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de números de orden estilo Snowflake: "ORD-YYYYMM-" + id de 64 bits.
+ *
+ * El id se compone de 41 bits de milisegundos desde 2024-01-01, 10 bits de nodo y 12 de secuencia.
+ * El par (milisegundo, secuencia) vive en un único AtomicLong que se avanza por CAS: si el reloj
+ * avanzó se reinicia la secuencia, y si no (mismo milisegundo o reloj atrasado) se suma 1, de modo
+ * que al agotarse la secuencia se "toma prestado" el milisegundo siguiente sin bloquear. Así los ids
+ * son estrictamente crecientes por nodo y únicos entre nodos con distinto app.orders.node-id.
+ *
+ * El prefijo del mes (zona por defecto) se cachea y solo se recalcula al cambiar de mes.
+ */
+public final class OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD-";
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static volatile OrderNumberGenerator instance =
+            new OrderNumberGenerator(defaultNodeId(), Clock.systemUTC(), DateTimeUtils.getDefaultZone());
+
+    private final long nodeBits;
+    private final Clock clock;
+    private final ZoneId zone;
+    private final AtomicLong state = new AtomicLong(); // (milisegundos desde EPOCH << SEQUENCE_BITS) | secuencia
+    private volatile MonthPrefix monthPrefix = new MonthPrefix(0, 0, null);
+
+    private record MonthPrefix(long startMillis, long endMillis, String prefix) {}
+
+    public OrderNumberGenerator(int nodeId, Clock clock, ZoneId zone) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        this.zone = zone;
+    }
+
+    /**
+     * Generador compartido del proceso (lo usa Order al persistir)
+     */
+    public static OrderNumberGenerator getInstance() {
+        return instance;
+    }
+
+    /**
+     * Fija el nodo del generador compartido. Debe llamarse al arrancar, antes de crear órdenes.
+     */
+    public static synchronized void configure(int nodeId) {
+        if (instance.nodeId() != nodeId) {
+            instance = new OrderNumberGenerator(nodeId, Clock.systemUTC(), DateTimeUtils.getDefaultZone());
+        }
+    }
+
+    public int nodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    /**
+     * Próximo id numérico (único y creciente para este nodo)
+     */
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = clock.millis() - EPOCH_MILLIS;
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /**
+     * Próximo número de orden, p. ej. "ORD-202610-1234567890123456789"
+     */
+    public String nextOrderNumber() {
+        long id = nextId();
+        long millis = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+        return new StringBuilder(32).append(prefixFor(millis)).append(id).toString();
+    }
+
+    private String prefixFor(long millis) {
+        MonthPrefix current = monthPrefix;
+        if (millis >= current.startMillis() && millis < current.endMillis()) {
+            return current.prefix();
+        }
+        ZonedDateTime monthStart = Instant.ofEpochMilli(millis).atZone(zone)
+                .withDayOfMonth(1).toLocalDate().atStartOfDay(zone);
+        String prefix = PREFIX + monthStart.getYear()
+                + (monthStart.getMonthValue() < 10 ? "0" : "") + monthStart.getMonthValue() + "-";
+        current = new MonthPrefix(monthStart.toInstant().toEpochMilli(),
+                monthStart.plusMonths(1).toInstant().toEpochMilli(), prefix);
+        monthPrefix = current;
+        return prefix;
+    }
+
+    /**
+     * Nodo por defecto derivado del hostname: solo sirve con una instancia. Con varias, dos
+     * hostnames pueden caer en el mismo nodo; OrderNumberConfig exige app.orders.node-id
+     * cuando app.orders.multi-instance=true
+     */
+    private static int defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName().hashCode() & MAX_NODE_ID;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.packed_go.order_service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Tokens firmados de posición en la sala de espera.
+ *
+ * Formato: base64url(eventId|userId|position|expiresAtMillis) "." base64url(HMAC-SHA256). El token lleva
+ * todo lo necesario para saber si su dueño ya fue admitido, así que el servicio no guarda nada por
+ * token. La clave HMAC se deriva del secreto configurado, así nunca coincide con la clave de los JWT.
+ */
+public final class QueueTokenCodec {
+
+    private static final String KEY_CONTEXT = "packedgo-waiting-room-v1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+
+    public record QueueToken(Long eventId, Long userId, long position, long expiresAtMillis) {}
+
+    public QueueTokenCodec(String secret) {
+        SecretKeySpec key = new SecretKeySpec(
+                newMac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                        .doFinal(KEY_CONTEXT.getBytes(StandardCharsets.UTF_8)),
+                "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    public String encode(QueueToken token) {
+        String payload = ENCODER.encodeToString((token.eventId() + "|" + token.userId() + "|"
+                + token.position() + "|" + token.expiresAtMillis()).getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        return payload + "." + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Contenido del token si la firma es válida y no venció; si no, null
+     */
+    public QueueToken decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            int dot = token.indexOf('.');
+            if (dot <= 0) {
+                return null;
+            }
+            String payload = token.substring(0, dot);
+            byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, DECODER.decode(token.substring(dot + 1)))) {
+                return null;
+            }
+
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", -1);
+            if (fields.length != 4) {
+                return null;
+            }
+            QueueToken decoded = new QueueToken(Long.valueOf(fields[0]), Long.valueOf(fields[1]),
+                    Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+            return System.currentTimeMillis() < decoded.expiresAtMillis() ? decoded : null;
+        } catch (IllegalArgumentException e) {
+            // Base64 o números mal formados
+            return null;
+        }
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.packed_go.order_service.benchmark;
+
+import java.util.function.Supplier;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import com.packed_go.order_service.OrderServiceApplication;
+
+/**
+ * order-service completo (sin web) sobre un Postgres descartable para los benchmarks JMH.
+ * Requiere Docker. Los servicios externos apuntan a direcciones que no se llaman: los benchmarks
+ * solo trabajan contra la base.
+ */
+final class BenchmarkEnvironment implements AutoCloseable {
+
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start(String cartStore) {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "server.port=0",
+                        "app.jwt.secret=benchmark-secret-benchmark-secret-benchmark-secret",
+                        "app.services.event-service.base-url=http://localhost:1",
+                        "app.services.auth-service.base-url=http://localhost:1",
+                        "app.cart.expiration-minutes=15",
+                        "app.cart.cleanup-interval-minutes=60",
+                        "app.cart.store=" + cartStore,
+                        "app.orders.node-id=1",
+                        "spring.mail.host=localhost",
+                        "spring.mail.port=25",
+                        "spring.mail.username=benchmark",
+                        "spring.mail.password=benchmark",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.packed_go.order_service=WARN")
+                .run();
+        return new BenchmarkEnvironment(postgres, context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    <T> T inTransaction(Supplier<T> work) {
+        return context.getBean(TransactionTemplate.class).execute(status -> work.get());
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        postgres.stop();
+    }
+}
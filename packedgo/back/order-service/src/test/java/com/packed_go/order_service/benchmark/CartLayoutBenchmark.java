@@ -0,0 +1,137 @@
+package com.packed_go.order_service.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.packed_go.order_service.dto.response.CartDTO;
+import com.packed_go.order_service.entity.CartItem;
+import com.packed_go.order_service.entity.CartItemConsumption;
+import com.packed_go.order_service.entity.ShoppingCart;
+import com.packed_go.order_service.service.CartService;
+import com.packed_go.order_service.service.CartStore;
+
+/**
+ * Lectura y escritura de un carrito con 1, 10 y 50 entradas del mismo evento, guardadas como una
+ * línea con quantity = N (compact) o como una línea clonada por entrada (cloned, el formato que
+ * compacta docs/scripts/compact_cart_items.sql). Cada línea lleva dos consumiciones.
+ *
+ * read: GET /api/cart (carrito con items y consumiciones + conversión a DTO).
+ * write: cambio de precio de la entrada aplicado a todas las líneas y guardado del carrito.
+ *
+ * Ejecutar con: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.packed_go.order_service.benchmark.CartLayoutBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartLayoutBenchmark {
+
+    private static final Long USER_ID = 1L;
+    private static final BigDecimal PRICE = new BigDecimal("1500.00");
+    private static final BigDecimal NEW_PRICE = new BigDecimal("1650.00");
+
+    @Param({"compact", "cloned"})
+    private String layout;
+
+    @Param({"1", "10", "50"})
+    private int tickets;
+
+    private BenchmarkEnvironment environment;
+    private CartService cartService;
+    private CartStore cartStore;
+    private boolean repriced;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        environment = BenchmarkEnvironment.start("jpa");
+        cartService = environment.bean(CartService.class);
+        cartStore = environment.bean(CartStore.class);
+
+        environment.inTransaction(() -> {
+            ShoppingCart cart = ShoppingCart.builder()
+                    .userId(USER_ID)
+                    .expiresAt(LocalDateTime.now().plusDays(1))
+                    .build();
+            if ("compact".equals(layout)) {
+                cart.addItem(line(tickets));
+            } else {
+                for (int i = 0; i < tickets; i++) {
+                    cart.addItem(line(1));
+                }
+            }
+            cart.recalculateTotal();
+            return cartStore.save(cart);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+
+    @Benchmark
+    public CartDTO read() {
+        return cartService.getActiveCart(USER_ID);
+    }
+
+    @Benchmark
+    public BigDecimal write() {
+        // Alterna el precio en cada invocación para que siempre haya cambios que escribir
+        BigDecimal price = (repriced = !repriced) ? NEW_PRICE : PRICE;
+        return environment.inTransaction(() -> {
+            ShoppingCart cart = cartStore.findActiveCart(USER_ID).orElseThrow();
+            cart.getItems().forEach(item -> item.updateUnitPrice(price));
+            return cartStore.save(cart).getTotalAmount();
+        });
+    }
+
+    private static CartItem line(int quantity) {
+        CartItem item = CartItem.builder()
+                .eventId(1L)
+                .eventName("Benchmark event")
+                .adminId(1L)
+                .quantity(quantity)
+                .unitPrice(PRICE)
+                .build();
+        item.addConsumption(consumption(10L, "Cerveza", new BigDecimal("800.00")));
+        item.addConsumption(consumption(11L, "Agua", new BigDecimal("500.00")));
+        return item;
+    }
+
+    private static CartItemConsumption consumption(Long consumptionId, String name, BigDecimal unitPrice) {
+        return CartItemConsumption.builder()
+                .consumptionId(consumptionId)
+                .consumptionName(name)
+                .quantity(1)
+                .unitPrice(unitPrice)
+                .subtotal(unitPrice)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartLayoutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,184 @@
+package com.packed_go.order_service.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.packed_go.order_service.client.PaymentServiceClient;
+import com.packed_go.order_service.dto.response.OrderPageDTO;
+import com.packed_go.order_service.dto.response.OrderSummaryDTO;
+import com.packed_go.order_service.entity.Order;
+import com.packed_go.order_service.entity.OrderItem;
+import com.packed_go.order_service.entity.OrderItemConsumption;
+import com.packed_go.order_service.service.CartStore;
+import com.packed_go.order_service.service.FulfillmentService;
+import com.packed_go.order_service.service.OrderService;
+import com.packed_go.order_service.util.OrderCursor;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Historial paginado por cursor sobre Postgres: cada página son exactamente dos consultas
+ * (resúmenes + items con consumiciones) y el cursor (createdAt, id) no pierde ni repite
+ * órdenes cuando varias comparten createdAt.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(OrderServiceImpl.class)
+class OrderHistoryPagingTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final Long USER_ID = 42L;
+    private static final LocalDateTime SAME_INSTANT = LocalDateTime.of(2026, 10, 1, 21, 0);
+
+    @MockitoBean
+    private CartStore cartStore;
+
+    @MockitoBean
+    private PaymentServiceClient paymentServiceClient;
+
+    @MockitoBean
+    private FulfillmentService fulfillmentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    /** Ids en el orden esperado del historial: createdAt DESC, id DESC */
+    private final List<Long> expectedOrder = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Cinco órdenes con el mismo createdAt entre una más nueva y dos más viejas
+        Long newest = persistOrder(SAME_INSTANT.plusMinutes(5));
+        List<Long> tied = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tied.add(persistOrder(SAME_INSTANT));
+        }
+        Long older = persistOrder(SAME_INSTANT.minusMinutes(5));
+        Long oldest = persistOrder(SAME_INSTANT.minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        expectedOrder.add(newest);
+        tied.stream().sorted((a, b) -> Long.compare(b, a)).forEach(expectedOrder::add);
+        expectedOrder.add(older);
+        expectedOrder.add(oldest);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void walksTiedTimestampsWithTwoQueriesPerPage() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            OrderPageDTO page = orderService.getUserOrdersPage(USER_ID, cursor, 2);
+            assertEquals(2, statistics.getPrepareStatementCount(), "queries for page " + pages);
+
+            for (OrderSummaryDTO order : page.getOrders()) {
+                seen.add(order.getId());
+                assertEquals(1, order.getItems().size());
+                assertEquals(1, order.getItems().get(0).getConsumptions().size());
+            }
+            cursor = page.getNextCursor();
+            assertEquals(page.isHasMore(), cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expectedOrder, seen);
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void cursorInsideTiedGroupContinuesWithLowerIds() {
+        // Cursor en la tercera orden del grupo empatado: siguen las dos de menor id y luego las más viejas
+        Long boundary = expectedOrder.get(3);
+        String cursor = new OrderCursor(SAME_INSTANT, boundary).encode();
+
+        OrderPageDTO page = orderService.getUserOrdersPage(USER_ID, cursor, 10);
+
+        assertEquals(expectedOrder.subList(4, expectedOrder.size()),
+                page.getOrders().stream().map(OrderSummaryDTO::getId).toList());
+        assertFalse(page.isHasMore());
+        assertTrue(page.getOrders().stream().allMatch(order -> order.getId() < boundary
+                || order.getCreatedAt().isBefore(SAME_INSTANT)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lastFullPageReportsNoMore() {
+        OrderPageDTO page = orderService.getUserOrdersPage(USER_ID, null, expectedOrder.size());
+
+        assertEquals(expectedOrder, page.getOrders().stream().map(OrderSummaryDTO::getId).toList());
+        assertFalse(page.isHasMore());
+        assertNotNull(page.getOrders().get(0).getItems());
+    }
+
+    private Long persistOrder(LocalDateTime createdAt) {
+        Order order = Order.builder()
+                .userId(USER_ID)
+                .adminId(1L)
+                .totalAmount(new BigDecimal("2300.00"))
+                .build();
+        OrderItem item = OrderItem.builder()
+                .eventId(1L)
+                .eventName("Fiesta")
+                .quantity(1)
+                .unitPrice(new BigDecimal("1500.00"))
+                .build();
+        item.addConsumption(OrderItemConsumption.builder()
+                .consumptionId(10L)
+                .consumptionName("Cerveza")
+                .quantity(1)
+                .unitPrice(new BigDecimal("800.00"))
+                .subtotal(new BigDecimal("800.00"))
+                .build());
+        item.calculateSubtotal();
+        order.addItem(item);
+        Long id = entityManager.persistAndFlush(order).getId();
+
+        // @PrePersist fija createdAt con la hora actual: se reemplaza para armar los empates
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE orders SET created_at = :createdAt WHERE id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", id)
+                .executeUpdate();
+        return id;
+    }
+}
@@ -0,0 +1,366 @@
+package com.packed_go.order_service.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.packed_go.order_service.client.PaymentServiceClient;
+import com.packed_go.order_service.dto.MultiOrderCheckoutRequest;
+import com.packed_go.order_service.dto.MultiOrderCheckoutResponse;
+import com.packed_go.order_service.dto.PaymentGroupDTO;
+import com.packed_go.order_service.dto.external.PaymentServiceRequest;
+import com.packed_go.order_service.dto.external.PaymentServiceResponse;
+import com.packed_go.order_service.dto.request.PaymentCallbackRequest;
+import com.packed_go.order_service.entity.CartItem;
+import com.packed_go.order_service.entity.Order;
+import com.packed_go.order_service.entity.ShoppingCart;
+import com.packed_go.order_service.repository.OrderRepository;
+import com.packed_go.order_service.service.CartStore;
+import com.packed_go.order_service.service.FulfillmentService;
+
+/**
+ * Creación de los pagos de un checkout multi-organizador con un PaymentServiceClient de reemplazo
+ * que responde, falla o se cuelga por admin: sin payment-service ni Postgres se verifica que cada
+ * orden quede con su sesión o cancelada, que el pool saturado degrade a llamadas en el hilo del
+ * request y que una sesión creada después del timeout no reabra la orden.
+ */
+class OrderServiceImplPaymentTest {
+
+    private static final Long USER_ID = 7L;
+    private static final long TIMEOUT_MS = 300;
+
+    private final StandInOrders orders = new StandInOrders();
+    private final StandInPaymentServiceClient payments = new StandInPaymentServiceClient();
+    private final List<Order> fulfilled = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private OrderServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void cancelsOnlyTheOrderWhosePaymentTimedOut() throws InterruptedException {
+        service = newService(8, 100, TIMEOUT_MS);
+        payments.respond(1L, this::session);
+        payments.respond(2L, request -> {
+            awaitRelease();
+            return session(request);
+        });
+        payments.respond(3L, this::session);
+
+        MultiOrderCheckoutResponse response = service.checkoutMultiAdmin(USER_ID, checkoutRequest());
+
+        assertEquals("PARTIAL", response.getSessionStatus());
+        assertEquals(3, response.getTotalOrders());
+        assertEquals(new BigDecimal("2000.00"), response.getTotalPending());
+        assertGroup(response, 1L, "PENDING_PAYMENT");
+        assertGroup(response, 2L, "PAYMENT_ERROR");
+        assertGroup(response, 3L, "PENDING_PAYMENT");
+        assertEquals(Order.OrderStatus.CANCELLED, orders.forAdmin(2L).getStatus());
+        assertNull(orders.forAdmin(2L).getCheckoutUrl());
+        assertNotNull(orders.forAdmin(1L).getCheckoutUrl());
+
+        // La llamada colgada sigue en curso: al terminar crea la sesión, pero la orden no se reabre
+        release.countDown();
+        assertTrue(payments.completed(2L).await(5, TimeUnit.SECONDS));
+        assertEquals(Order.OrderStatus.CANCELLED, orders.forAdmin(2L).getStatus());
+        assertNull(orders.forAdmin(2L).getCheckoutUrl());
+    }
+
+    @Test
+    void failsTheCheckoutWhenEveryPaymentFails() {
+        service = newService(8, 100, TIMEOUT_MS);
+        for (long adminId = 1; adminId <= 3; adminId++) {
+            payments.respond(adminId, request -> {
+                throw new IllegalStateException("payment-service unavailable");
+            });
+        }
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> service.checkoutMultiAdmin(USER_ID, checkoutRequest()));
+
+        assertTrue(error.getMessage().contains("payment-service unavailable"), error.getMessage());
+        for (long adminId = 1; adminId <= 3; adminId++) {
+            assertEquals(Order.OrderStatus.CANCELLED, orders.forAdmin(adminId).getStatus());
+        }
+    }
+
+    @Test
+    void runsPaymentsOnTheRequestThreadWhenThePoolIsSaturated() {
+        // Un hilo ocupado con el admin 1 y una cola de 1 para el admin 2: el admin 3 no entra
+        service = newService(1, 1, 5_000);
+        Thread requestThread = Thread.currentThread();
+        payments.respond(1L, request -> {
+            awaitRelease();
+            return session(request);
+        });
+        payments.respond(2L, this::session);
+        payments.respond(3L, request -> {
+            // CallerRunsPolicy: se ejecuta en el hilo del request y destraba al admin 1
+            release.countDown();
+            return session(request);
+        });
+
+        MultiOrderCheckoutResponse response = service.checkoutMultiAdmin(USER_ID, checkoutRequest());
+
+        assertEquals("PENDING_PAYMENT", response.getSessionStatus());
+        assertEquals(requestThread, payments.threadOf(3L));
+        assertTrue(payments.threadOf(1L).getName().startsWith("checkout-payment-"));
+        assertTrue(payments.threadOf(2L).getName().startsWith("checkout-payment-"));
+    }
+
+    @Test
+    void doesNotFulfilAPaymentApprovedForACancelledOrder() {
+        service = newService(8, 100, TIMEOUT_MS);
+        payments.respond(1L, this::session);
+        payments.respond(2L, request -> {
+            throw new IllegalStateException("timeout");
+        });
+        payments.respond(3L, this::session);
+        service.checkoutMultiAdmin(USER_ID, checkoutRequest());
+
+        PaymentCallbackRequest callback = new PaymentCallbackRequest();
+        callback.setOrderNumber(orders.forAdmin(2L).getOrderNumber());
+        callback.setPaymentStatus("APPROVED");
+        service.updateOrderFromPaymentCallback(callback);
+
+        assertEquals(Order.OrderStatus.CANCELLED, orders.forAdmin(2L).getStatus());
+        assertTrue(fulfilled.isEmpty());
+    }
+
+    private OrderServiceImpl newService(int threads, int queueCapacity, long timeoutMs) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new StandInTransactionManager());
+        FulfillmentService fulfillment = new FulfillmentService() {
+            @Override
+            public void enqueue(Order order, String customerEmail) {
+                fulfilled.add(order);
+            }
+
+            @Override
+            public void dispatchDueTasks() {
+            }
+        };
+        return new OrderServiceImpl(orders.repository(), null, new StandInCartStore(), payments, fulfillment,
+                transactionTemplate, threads, queueCapacity, timeoutMs);
+    }
+
+    private PaymentServiceResponse session(PaymentServiceRequest request) {
+        return PaymentServiceResponse.builder()
+                .paymentId(request.getAdminId() * 100)
+                .orderId(request.getOrderId())
+                .sessionId("cs_test_" + request.getOrderId())
+                .checkoutUrl("https://checkout.stripe.com/c/pay/cs_test_" + request.getOrderId())
+                .build();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static MultiOrderCheckoutRequest checkoutRequest() {
+        return MultiOrderCheckoutRequest.builder().userId(USER_ID).build();
+    }
+
+    private static void assertGroup(MultiOrderCheckoutResponse response, Long adminId, String status) {
+        PaymentGroupDTO group = response.getPaymentGroups().stream()
+                .filter(candidate -> candidate.getAdminId().equals(adminId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(status, group.getStatus());
+        assertEquals("PAYMENT_ERROR".equals(status), group.getInitPoint() == null);
+    }
+
+    /**
+     * Carrito activo con una entrada de $1000 de cada uno de los admins 1, 2 y 3
+     */
+    private static final class StandInCartStore implements CartStore {
+
+        @Override
+        public Optional<ShoppingCart> findActiveCart(Long userId) {
+            ShoppingCart cart = ShoppingCart.builder()
+                    .id(50L)
+                    .userId(userId)
+                    .expiresAt(LocalDateTime.now().plusMinutes(15))
+                    .build();
+            for (long adminId = 1; adminId <= 3; adminId++) {
+                cart.addItem(CartItem.builder()
+                        .eventId(adminId * 10)
+                        .eventName("Evento " + adminId)
+                        .adminId(adminId)
+                        .quantity(1)
+                        .unitPrice(new BigDecimal("1000.00"))
+                        .build());
+            }
+            return Optional.of(cart);
+        }
+
+        @Override
+        public ShoppingCart save(ShoppingCart cart) {
+            return cart;
+        }
+
+        @Override
+        public void delete(ShoppingCart cart) {
+        }
+
+        @Override
+        public void flush(Long userId) {
+        }
+
+        @Override
+        public void repriceEvent(Long eventId, BigDecimal unitPrice) {
+        }
+
+        @Override
+        public void repriceConsumption(Long consumptionId, BigDecimal unitPrice) {
+        }
+    }
+
+    /**
+     * Llama al comportamiento configurado para el admin de cada orden y registra en qué hilo corrió
+     */
+    private static final class StandInPaymentServiceClient extends PaymentServiceClient {
+
+        private final Map<Long, Function<PaymentServiceRequest, PaymentServiceResponse>> behaviours = new ConcurrentHashMap<>();
+        private final Map<Long, Thread> threads = new ConcurrentHashMap<>();
+        private final Map<Long, CountDownLatch> completions = new ConcurrentHashMap<>();
+
+        StandInPaymentServiceClient() {
+            super(null);
+        }
+
+        void respond(Long adminId, Function<PaymentServiceRequest, PaymentServiceResponse> behaviour) {
+            behaviours.put(adminId, behaviour);
+            completions.put(adminId, new CountDownLatch(1));
+        }
+
+        Thread threadOf(Long adminId) {
+            return threads.get(adminId);
+        }
+
+        CountDownLatch completed(Long adminId) {
+            return completions.get(adminId);
+        }
+
+        @Override
+        public PaymentServiceResponse createPaymentStripe(PaymentServiceRequest request) {
+            threads.put(request.getAdminId(), Thread.currentThread());
+            try {
+                return behaviours.get(request.getAdminId()).apply(request);
+            } finally {
+                completions.get(request.getAdminId()).countDown();
+            }
+        }
+    }
+
+    /**
+     * OrderRepository en memoria con solo las operaciones que usa el checkout
+     */
+    private static final class StandInOrders {
+
+        private final Map<Long, Order> byId = new ConcurrentHashMap<>();
+        private final AtomicLong ids = new AtomicLong();
+
+        Order forAdmin(Long adminId) {
+            return byId.values().stream()
+                    .filter(order -> order.getAdminId().equals(adminId))
+                    .findFirst()
+                    .orElseThrow();
+        }
+
+        @SuppressWarnings("unchecked")
+        OrderRepository repository() {
+            return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                    new Class<?>[]{OrderRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "saveAll" -> {
+                            List<Order> saved = new ArrayList<>();
+                            ((Iterable<Order>) args[0]).forEach(order -> saved.add(save(order)));
+                            yield saved;
+                        }
+                        case "save" -> save((Order) args[0]);
+                        case "findAllById" -> {
+                            List<Order> found = new ArrayList<>();
+                            ((Iterable<Long>) args[0]).forEach(id -> found.add(byId.get(id)));
+                            yield found;
+                        }
+                        case "findByOrderNumber" -> byId.values().stream()
+                                .filter(order -> order.getOrderNumber().equals(args[0]))
+                                .findFirst();
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private Order save(Order order) {
+            if (order.getId() == null) {
+                order.setId(ids.incrementAndGet());
+                order.setOrderNumber("ORD-TEST-" + order.getId());
+            }
+            byId.put(order.getId(), order);
+            return order;
+        }
+    }
+
+    private static final class StandInTransactionManager extends AbstractPlatformTransactionManager {
+
+        private boolean active;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return active;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active = true;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active = false;
+        }
+    }
+}
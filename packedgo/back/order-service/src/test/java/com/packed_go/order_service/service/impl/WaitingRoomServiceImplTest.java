@@ -0,0 +1,183 @@
+package com.packed_go.order_service.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.packed_go.order_service.dto.response.QueueStatusDTO;
+import com.packed_go.order_service.exception.WaitingRoomException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Avance de la cola de un evento, ETA y ajuste del ritmo de admisión. El reloj de la sala de
+ * espera es el del test: el tiempo solo avanza con tick, así que cada aserción es exacta y no hay sleeps.
+ */
+class WaitingRoomServiceImplTest {
+
+    private static final Long EVENT_ID = 1L;
+
+    // Origen arbitrario, como System.nanoTime
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.HOURS.toNanos(7));
+
+    private WaitingRoomServiceImpl waitingRoom;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoom = new WaitingRoomServiceImpl("waiting-room-test-secret", new SimpleMeterRegistry(), nanos::get);
+        ReflectionTestUtils.setField(waitingRoom, "enabled", true);
+        ReflectionTestUtils.setField(waitingRoom, "initialRate", 10.0);
+        ReflectionTestUtils.setField(waitingRoom, "minRate", 2.0);
+        ReflectionTestUtils.setField(waitingRoom, "maxRate", 200.0);
+        ReflectionTestUtils.setField(waitingRoom, "burst", 2);
+        ReflectionTestUtils.setField(waitingRoom, "targetLatencyMs", 1000L);
+        ReflectionTestUtils.setField(waitingRoom, "backoffRatio", 0.5);
+        ReflectionTestUtils.setField(waitingRoom, "tokenTtlMinutes", 30L);
+    }
+
+    @Test
+    void admitsTheBurstRightAwayAndQueuesTheRest() {
+        assertDoesNotThrow(() -> waitingRoom.admit(101L, EVENT_ID, null));
+        assertDoesNotThrow(() -> waitingRoom.admit(102L, EVENT_ID, null));
+
+        WaitingRoomException queued = assertThrows(WaitingRoomException.class,
+                () -> waitingRoom.admit(103L, EVENT_ID, null));
+        QueueStatusDTO status = queued.getStatus();
+        assertFalse(status.getAdmitted());
+        assertEquals(3L, status.getPosition());
+        assertEquals(0L, status.getPositionsAhead());
+        // A 10 posiciones por segundo, la siguiente posición entra en una décima: se redondea a 1 segundo
+        assertEquals(1L, status.getEstimatedWaitSeconds());
+        assertEquals(10.0, status.getAdmissionRatePerSecond());
+    }
+
+    @Test
+    void estimatesTheWaitFromPositionAndRate() {
+        QueueStatusDTO last = null;
+        for (long userId = 1; userId <= 52; userId++) {
+            last = waitingRoom.join(userId, EVENT_ID);
+        }
+
+        assertEquals(52L, last.getPosition());
+        assertEquals(49L, last.getPositionsAhead());
+        assertEquals(5L, last.getEstimatedWaitSeconds());
+        assertTrue(last.getPollAfterSeconds() >= 2);
+    }
+
+    @Test
+    void keepsThePositionWhenTheSameUserJoinsAgain() {
+        waitingRoom.join(1L, EVENT_ID);
+        QueueStatusDTO first = waitingRoom.join(2L, EVENT_ID);
+        QueueStatusDTO again = waitingRoom.join(2L, EVENT_ID);
+
+        assertEquals(first.getPosition(), again.getPosition());
+        assertEquals(3L, waitingRoom.join(3L, EVENT_ID).getPosition());
+    }
+
+    @Test
+    void advancesWithElapsedTimeUntilTheTokenIsAdmitted() {
+        for (long userId = 1; userId <= 4; userId++) {
+            waitingRoom.join(userId, EVENT_ID);
+        }
+        QueueStatusDTO waiting = waitingRoom.join(5L, EVENT_ID);
+        assertFalse(waiting.getAdmitted());
+        assertThrows(WaitingRoomException.class, () -> waitingRoom.admit(5L, EVENT_ID, waiting.getQueueToken()));
+
+        // Faltan admitir las posiciones 3, 4 y 5 a 10/s: a los 200 ms ya no hay nadie por delante
+        // pero todavía no le toca, a los 300 ms sí
+        tick(200);
+        QueueStatusDTO almost = waitingRoom.getStatus(5L, waiting.getQueueToken());
+        assertFalse(almost.getAdmitted());
+        assertEquals(0L, almost.getPositionsAhead());
+        assertEquals(1L, almost.getEstimatedWaitSeconds());
+
+        tick(100);
+        QueueStatusDTO status = waitingRoom.getStatus(5L, waiting.getQueueToken());
+        assertTrue(status.getAdmitted());
+        assertEquals(0L, status.getPositionsAhead());
+        assertEquals(0L, status.getEstimatedWaitSeconds());
+        assertDoesNotThrow(() -> waitingRoom.admit(5L, EVENT_ID, waiting.getQueueToken()));
+    }
+
+    @Test
+    void rejectsStatusRequestsWithSomeoneElsesToken() {
+        QueueStatusDTO status = waitingRoom.join(1L, EVENT_ID);
+
+        assertThrows(IllegalArgumentException.class, () -> waitingRoom.getStatus(2L, status.getQueueToken()));
+        assertThrows(IllegalArgumentException.class, () -> waitingRoom.getStatus(1L, "not-a-token"));
+    }
+
+    @Test
+    void assignsANewPositionWhenTheTokenIsForAnotherEvent() {
+        QueueStatusDTO otherEvent = waitingRoom.join(1L, 2L);
+        waitingRoom.join(2L, EVENT_ID);
+        waitingRoom.join(3L, EVENT_ID);
+
+        WaitingRoomException queued = assertThrows(WaitingRoomException.class,
+                () -> waitingRoom.admit(1L, EVENT_ID, otherEvent.getQueueToken()));
+        assertEquals(3L, queued.getStatus().getPosition());
+    }
+
+    @Test
+    void raisesTheRateWithFastOutcomesWhileThereIsAQueue() {
+        for (long userId = 1; userId <= 10; userId++) {
+            waitingRoom.join(userId, EVENT_ID);
+        }
+
+        waitingRoom.recordOutcome(EVENT_ID, 50_000_000L, false);
+
+        assertEquals(10.1, waitingRoom.join(10L, EVENT_ID).getAdmissionRatePerSecond());
+    }
+
+    @Test
+    void lowersTheRateAtMostOncePerSecondWhenOverloaded() {
+        waitingRoom.join(1L, EVENT_ID);
+        // La primera reducción puede llegar un segundo después de creada la cola
+        tick(999);
+        waitingRoom.recordOutcome(EVENT_ID, 0, true);
+        assertEquals(10.0, waitingRoom.join(1L, EVENT_ID).getAdmissionRatePerSecond());
+
+        tick(1);
+        waitingRoom.recordOutcome(EVENT_ID, 0, true);
+        waitingRoom.recordOutcome(EVENT_ID, 5_000_000_000L, false);
+        assertEquals(5.0, waitingRoom.join(1L, EVENT_ID).getAdmissionRatePerSecond());
+
+        tick(1_000);
+        waitingRoom.recordOutcome(EVENT_ID, 0, true);
+        assertEquals(2.5, waitingRoom.join(1L, EVENT_ID).getAdmissionRatePerSecond());
+
+        // Nunca por debajo de min-rate
+        tick(1_000);
+        waitingRoom.recordOutcome(EVENT_ID, 0, true);
+        assertEquals(2.0, waitingRoom.join(1L, EVENT_ID).getAdmissionRatePerSecond());
+    }
+
+    @Test
+    void ignoresOutcomesForEventsWithoutAQueue() {
+        assertDoesNotThrow(() -> waitingRoom.recordOutcome(99L, 5_000_000_000L, true));
+    }
+
+    @Test
+    void admitsEveryoneWhenDisabled() {
+        ReflectionTestUtils.setField(waitingRoom, "enabled", false);
+
+        for (long userId = 1; userId <= 100; userId++) {
+            long buyer = userId;
+            assertDoesNotThrow(() -> waitingRoom.admit(buyer, EVENT_ID, null));
+        }
+        assertTrue(waitingRoom.join(1L, EVENT_ID).getAdmitted());
+    }
+
+    private void tick(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,262 @@
+package com.packed_go.order_service.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.packed_go.order_service.entity.CartItem;
+import com.packed_go.order_service.entity.CartItemConsumption;
+import com.packed_go.order_service.entity.ShoppingCart;
+import com.packed_go.order_service.exception.CartModifiedException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * WriteBehindCartStore con un JdbcTemplate y un gestor de transacciones de reemplazo: sin Postgres,
+ * se verifica qué se vuelca, cuándo, y dentro de qué transacción.
+ */
+class WriteBehindCartStoreTest {
+
+    private static final Long USER_ID = 7L;
+
+    private StandInJdbcTemplate jdbc;
+    private StandInTransactionManager transactionManager;
+    private WriteBehindCartStore store;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new StandInJdbcTemplate();
+        transactionManager = new StandInTransactionManager();
+        store = new WriteBehindCartStore(jdbc, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "idBlockSize", 50);
+    }
+
+    @Test
+    void keepsActiveCartsInMemoryUntilFlushed() {
+        ShoppingCart saved = store.save(newCart());
+
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getItems().get(0).getId());
+        assertNotNull(saved.getItems().get(0).getConsumptions().get(0).getId());
+        assertEquals(0, jdbc.cartUpserts);
+
+        ShoppingCart read = store.findActiveCart(USER_ID).orElseThrow();
+        assertNotSame(saved, read);
+        assertEquals(saved.getId(), read.getId());
+        assertEquals(saved.getItems().get(0).getId(), read.getItems().get(0).getId());
+
+        store.flushDirtyCarts();
+        store.flushDirtyCarts();
+        assertEquals(1, jdbc.cartUpserts);
+    }
+
+    @Test
+    void rejectsSaveOfStaleCopy() {
+        store.save(newCart());
+        ShoppingCart first = store.findActiveCart(USER_ID).orElseThrow();
+        ShoppingCart second = store.findActiveCart(USER_ID).orElseThrow();
+
+        first.getItems().get(0).setQuantity(2);
+        first.getItems().get(0).calculateSubtotal();
+        store.save(first);
+        // La misma copia puede volver a guardarse: save le actualiza la versión
+        store.save(first);
+
+        second.getItems().get(0).setQuantity(3);
+        assertThrows(CartModifiedException.class, () -> store.save(second));
+        assertEquals(2, store.findActiveCart(USER_ID).orElseThrow().getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void repriceInvalidatesCopiesReadBefore() {
+        store.save(newCart());
+        ShoppingCart before = store.findActiveCart(USER_ID).orElseThrow();
+
+        store.repriceEvent(1L, new BigDecimal("2000.00"));
+
+        assertThrows(CartModifiedException.class, () -> store.save(before));
+        ShoppingCart after = store.findActiveCart(USER_ID).orElseThrow();
+        assertEquals(0, new BigDecimal("2000.00").compareTo(after.getItems().get(0).getUnitPrice()));
+    }
+
+    @Test
+    void rejectsSecondNewCartForSameUser() {
+        store.save(newCart());
+        assertThrows(CartModifiedException.class, () -> store.save(newCart()));
+    }
+
+    @Test
+    void flushJoinsCallerTransaction() {
+        store.save(newCart());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> store.flush(USER_ID));
+
+        // Una sola transacción: el volcado no abrió otra (ni suspendió la del llamador)
+        assertEquals(1, transactionManager.begins);
+        assertEquals(1, transactionManager.commits);
+        assertEquals(1, jdbc.cartUpserts);
+
+        store.flushDirtyCarts();
+        assertEquals(1, jdbc.cartUpserts);
+    }
+
+    @Test
+    void rolledBackFlushLeavesCartDirty() {
+        store.save(newCart());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            store.flush(USER_ID);
+            status.setRollbackOnly();
+        });
+        assertEquals(1, transactionManager.rollbacks);
+
+        store.flushDirtyCarts();
+        assertEquals(2, jdbc.cartUpserts);
+    }
+
+    @Test
+    void closedCartIsPersistedAndEvicted() {
+        store.save(newCart());
+        ShoppingCart cart = store.findActiveCart(USER_ID).orElseThrow();
+
+        cart.setStatus("COMPLETED");
+        store.save(cart);
+
+        assertEquals(1, jdbc.cartUpserts);
+        assertEquals("COMPLETED", jdbc.lastCartStatus);
+        assertTrue(store.findActiveCart(USER_ID).isEmpty());
+    }
+
+    private static ShoppingCart newCart() {
+        ShoppingCart cart = ShoppingCart.builder()
+                .userId(USER_ID)
+                .expiresAt(LocalDateTime.now().plusMinutes(15))
+                .build();
+        CartItem item = CartItem.builder()
+                .eventId(1L)
+                .eventName("Fiesta")
+                .adminId(3L)
+                .quantity(1)
+                .unitPrice(new BigDecimal("1500.00"))
+                .build();
+        item.addConsumption(CartItemConsumption.builder()
+                .consumptionId(10L)
+                .consumptionName("Cerveza")
+                .quantity(1)
+                .unitPrice(new BigDecimal("800.00"))
+                .subtotal(new BigDecimal("800.00"))
+                .build());
+        cart.addItem(item);
+        return cart;
+    }
+
+    /**
+     * Reserva ids de una secuencia en memoria, no encuentra carritos en la base y registra los volcados
+     */
+    private static final class StandInJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicLong sequence = new AtomicLong();
+        int cartUpserts;
+        String lastCartStatus;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            int count = (Integer) args[1];
+            List<T> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add((T) Long.valueOf(sequence.incrementAndGet()));
+            }
+            return ids;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            return List.of();
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT INTO shopping_carts")) {
+                cartUpserts++;
+                lastCartStatus = (String) args[2];
+            }
+            return 1;
+        }
+
+        @Override
+        public int update(PreparedStatementCreator psc) {
+            return 0;
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            return new int[0][];
+        }
+    }
+
+    /**
+     * Transacciones sin recurso: cuenta inicios, commits y rollbacks. No soporta suspender,
+     * así que un REQUIRES_NEW dentro de otra transacción fallaría.
+     */
+    private static final class StandInTransactionManager extends AbstractPlatformTransactionManager {
+
+        private boolean active;
+        int begins;
+        int commits;
+        int rollbacks;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return active;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            active = true;
+            begins++;
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks++;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            active = false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.packed_go.order_service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Simulación del vencimiento de carritos con reloj virtual: cada carrito debe vencer una sola vez,
+ * nunca antes de su deadline y en el primer avance posterior al tick que lo contiene.
+ */
+class HierarchicalTimerWheelTest {
+
+    private static final long TICK_MILLIS = 1_000;
+    private static final int CARTS = 100_000;
+    private static final long HORIZON_MILLIS = TimeUnit.HOURS.toMillis(3);
+
+    @Test
+    void expiresHundredThousandCartsOnTime() {
+        Random random = new Random(42);
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(TICK_MILLIS, 0);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long cartId = 0; cartId < CARTS; cartId++) {
+            long deadline = (long) (random.nextDouble() * HORIZON_MILLIS);
+            deadlines.put(cartId, deadline);
+            wheel.schedule(cartId, deadline);
+        }
+        assertEquals(CARTS, wheel.size());
+
+        Map<Long, Long> expiredAt = new HashMap<>();
+        long previous = -1; // Todavía no hubo ningún avance
+        long now = 0;
+        long nextCartId = CARTS;
+        while (expiredAt.size() < deadlines.size()) {
+            // El scheduler no corre a intervalos exactos
+            now += 200 + random.nextInt(2_800);
+
+            // Carritos nuevos mientras la simulación avanza (15 minutos de vida, como app.cart.expiration)
+            if (now < HORIZON_MILLIS && random.nextInt(4) == 0) {
+                long deadline = now + TimeUnit.MINUTES.toMillis(15);
+                deadlines.put(nextCartId, deadline);
+                wheel.schedule(nextCartId++, deadline);
+            }
+
+            for (Long cartId : wheel.advanceTo(now)) {
+                long deadline = deadlines.get(cartId);
+                long dueAt = Math.floorDiv(deadline + TICK_MILLIS - 1, TICK_MILLIS) * TICK_MILLIS;
+                assertNull(expiredAt.put(cartId, now), "cart " + cartId + " expired twice");
+                assertTrue(now >= deadline, "cart " + cartId + " expired before its deadline");
+                assertTrue(previous < dueAt, "cart " + cartId + " was due at an earlier advance");
+            }
+            previous = now;
+            assertTrue(now < HORIZON_MILLIS * 2, "timers still pending long after the last deadline");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void parksTimersBeyondTheHorizonUntilTheyAreDue() {
+        // 4 niveles de 64 ranuras: con tick de 1 ms el horizonte es 64^4 ms
+        long span = 1L << 24;
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(1, 0);
+        List<Long> deadlines = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000; i++) {
+            long deadline = span + random.nextInt((int) span);
+            deadlines.add(deadline);
+            wheel.schedule(i, deadline);
+        }
+        long first = deadlines.stream().mapToLong(Long::longValue).min().orElseThrow();
+        long last = deadlines.stream().mapToLong(Long::longValue).max().orElseThrow();
+
+        assertTrue(wheel.advanceTo(first - 1).isEmpty());
+        List<Integer> expired = wheel.advanceTo(first);
+        assertTrue(expired.stream().allMatch(i -> deadlines.get(i) == first));
+        expired.addAll(wheel.advanceTo(last));
+        assertEquals(1_000, expired.size());
+        assertEquals(1_000, expired.stream().distinct().count());
+    }
+
+    @Test
+    void acceptsSchedulesFromManyThreadsWhileAdvancing() throws InterruptedException {
+        HierarchicalTimerWheel<Long> wheel = new HierarchicalTimerWheel<>(TICK_MILLIS, 0);
+        int threads = 8;
+        int perThread = CARTS / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            long base = (long) t * perThread;
+            executor.execute(() -> {
+                for (long cartId = base; cartId < base + perThread; cartId++) {
+                    wheel.schedule(cartId, TICK_MILLIS * (1 + cartId % 600));
+                }
+                done.countDown();
+            });
+        }
+
+        List<Long> expired = new ArrayList<>();
+        while (done.getCount() > 0) {
+            expired.addAll(wheel.advanceTo(0));
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        for (long now = TICK_MILLIS; now <= TICK_MILLIS * 600; now += TICK_MILLIS) {
+            expired.addAll(wheel.advanceTo(now));
+        }
+
+        assertEquals(CARTS, expired.size());
+        assertEquals(CARTS, expired.stream().distinct().count());
+        assertEquals(0, wheel.size());
+    }
+}
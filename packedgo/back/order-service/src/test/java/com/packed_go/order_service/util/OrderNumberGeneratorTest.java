@@ -0,0 +1,113 @@
+package com.packed_go.order_service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unicidad de los ids del generador con muchos hilos, con el reloj detenido (la secuencia se
+ * agota y toma prestados milisegundos) y entre nodos distintos.
+ */
+class OrderNumberGeneratorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Argentina/Buenos_Aires");
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void generatesUniqueIncreasingIdsFromManyThreads() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(1, Clock.systemUTC(), ZONE);
+        assertUniqueAndIncreasingPerThread(generator);
+    }
+
+    @Test
+    void staysUniqueWhenTheClockDoesNotMove() throws Exception {
+        // Con el reloj fijo cada milisegundo rinde 4096 ids y luego se toma prestado el siguiente
+        Clock stopped = Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneOffset.UTC);
+        OrderNumberGenerator generator = new OrderNumberGenerator(1, stopped, ZONE);
+        assertUniqueAndIncreasingPerThread(generator);
+    }
+
+    @Test
+    void differentNodesNeverCollide() throws Exception {
+        Clock stopped = Clock.fixed(Instant.parse("2026-10-18T12:00:00Z"), ZoneOffset.UTC);
+        List<OrderNumberGenerator> nodes = List.of(
+                new OrderNumberGenerator(0, stopped, ZONE),
+                new OrderNumberGenerator(1, stopped, ZONE),
+                new OrderNumberGenerator(OrderNumberGenerator.MAX_NODE_ID, stopped, ZONE));
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            OrderNumberGenerator node = nodes.get(t % nodes.size());
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    String number = node.nextOrderNumber();
+                    assertTrue(numbers.add(number), "duplicate order number " + number);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * IDS_PER_THREAD, numbers.size());
+        assertTrue(numbers.stream().allMatch(number -> number.startsWith("ORD-202610-")));
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderNumberGenerator(-1, Clock.systemUTC(), ZONE));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderNumberGenerator(OrderNumberGenerator.MAX_NODE_ID + 1, Clock.systemUTC(), ZONE));
+    }
+
+    private static void assertUniqueAndIncreasingPerThread(OrderNumberGenerator generator) throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                long previous = Long.MIN_VALUE;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    long id = generator.nextId();
+                    assertTrue(id > previous, "ids went backwards within a thread");
+                    assertTrue(ids.add(id), "duplicate id " + id);
+                    previous = id;
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        ids.forEach(id -> assertEquals(generator.nodeId(), (int) ((id >>> 12) & OrderNumberGenerator.MAX_NODE_ID)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.packed_go.order_service.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.packed_go.order_service.util.QueueTokenCodec.QueueToken;
+
+/**
+ * Tokens de la sala de espera: ida y vuelta, y rechazo de tokens alterados, firmados con otro
+ * secreto, vencidos o mal formados.
+ */
+class QueueTokenCodecTest {
+
+    private static final long IN_ONE_HOUR = System.currentTimeMillis() + 3_600_000L;
+
+    private final QueueTokenCodec codec = new QueueTokenCodec("waiting-room-test-secret");
+
+    @Test
+    void decodesWhatItEncodes() {
+        QueueToken token = new QueueToken(12L, 345L, 678L, IN_ONE_HOUR);
+
+        assertEquals(token, codec.decode(codec.encode(token)));
+    }
+
+    @Test
+    void rejectsATamperedPosition() {
+        String encoded = codec.encode(new QueueToken(12L, 345L, 678L, IN_ONE_HOUR));
+        String signature = encoded.substring(encoded.indexOf('.'));
+
+        // Misma firma con una posición mejor
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("12|345|1|" + IN_ONE_HOUR).getBytes(StandardCharsets.UTF_8));
+
+        assertNull(codec.decode(forgedPayload + signature));
+    }
+
+    @Test
+    void rejectsATamperedSignature() {
+        String encoded = codec.encode(new QueueToken(12L, 345L, 678L, IN_ONE_HOUR));
+        int signatureStart = encoded.indexOf('.') + 1;
+        char first = encoded.charAt(signatureStart);
+        String tampered = encoded.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A')
+                + encoded.substring(signatureStart + 1);
+
+        assertNull(codec.decode(tampered));
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherSecret() {
+        String foreign = new QueueTokenCodec("another-secret").encode(new QueueToken(12L, 345L, 678L, IN_ONE_HOUR));
+
+        assertNull(codec.decode(foreign));
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String expired = codec.encode(new QueueToken(12L, 345L, 678L, System.currentTimeMillis() - 1));
+
+        assertNull(codec.decode(expired));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertNull(codec.decode(null));
+        assertNull(codec.decode(""));
+        assertNull(codec.decode("no-signature"));
+        assertNull(codec.decode(".only-signature"));
+        assertNull(codec.decode("not*base64.not*base64"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.packed_go.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.packed_go.security.qr.QRImageRenderer;
+import com.packed_go.security.qr.QRPayloadCodec;
+import com.packed_go.security.qr.QRSigner;
+
+/**
+ * Render de un QR de ticket a PNG: MatrixToImageWriter + ImageIO (lo que hacían QRCodeServiceImpl
+ * y EmailService) frente a QRImageRenderer, para un QR suelto y para el lote de un email.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QRImageRenderBenchmark {
+
+    private static final int SIZE = QRImageRenderer.DEFAULT_SIZE;
+
+    @Param({"1", "2"})
+    private int payloadVersion;
+
+    private String qrText;
+    private List<String> orderTexts;
+
+    @Setup
+    public void setUp() {
+        QRPayloadCodec codec = new QRPayloadCodec(payloadVersion, false, new QRSigner("benchmark-secret"));
+        qrText = codec.encode(123_456, 654_321, 42, 98_765, 1_760_000_000_000L, 1);
+        orderTexts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orderTexts.add(codec.encode(123_456 + i, 654_321 + i, 42, 98_765, 1_760_000_000_000L, 1));
+        }
+    }
+
+    @Benchmark
+    public byte[] imageIo() throws WriterException, IOException {
+        return renderWithImageIo(qrText);
+    }
+
+    @Benchmark
+    public byte[] renderer() {
+        return QRImageRenderer.render(qrText, SIZE, SIZE);
+    }
+
+    @Benchmark
+    public List<byte[]> imageIoOrderOfTen() throws WriterException, IOException {
+        List<byte[]> images = new ArrayList<>(orderTexts.size());
+        for (String text : orderTexts) {
+            images.add(renderWithImageIo(text));
+        }
+        return images;
+    }
+
+    @Benchmark
+    public List<byte[]> rendererOrderOfTen() {
+        return QRImageRenderer.renderAll(orderTexts, null);
+    }
+
+    private static byte[] renderWithImageIo(String text) throws WriterException, IOException {
+        BitMatrix matrix = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, SIZE, SIZE);
+        BufferedImage image = MatrixToImageWriter.toBufferedImage(matrix);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "PNG", out);
+        return out.toByteArray();
+    }
+}
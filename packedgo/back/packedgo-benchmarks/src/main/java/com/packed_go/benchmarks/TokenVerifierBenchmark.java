@@ -0,0 +1,110 @@
+package com.packed_go.benchmarks;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.packed_go.security.TokenVerifier;
+import com.packed_go.security.VerifiedToken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Costo de verificar un JWT de auth-service: el patrón de los JwtTokenValidator por servicio
+ * (clave derivada del secreto y parser nuevo en cada llamada, un parseo por cada dato que se lee)
+ * frente a TokenVerifier (clave y parser construidos una vez, un solo parseo), con y sin el
+ * timer de Micrometer, y el rechazo de un token con firma alterada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerifierBenchmark {
+
+    private String secret;
+    private TokenVerifier verifier;
+    private TokenVerifier meteredVerifier;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        secret = Base64.getEncoder().encodeToString(
+                "packedgo-benchmark-secret-with-at-least-256-bits".getBytes());
+        verifier = new TokenVerifier(secret, null);
+        meteredVerifier = new TokenVerifier(secret, new SimpleMeterRegistry());
+        token = Jwts.builder()
+                .subject("customer")
+                .claim("userId", 42)
+                .claim("email", "customer@packedgo.com")
+                .claim("role", "CUSTOMER")
+                .claim("authorities", List.of("ROLE_CUSTOMER"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(verifier.signingKey())
+                .compact();
+        // Se altera el primer carácter de la firma (el último puede codificar solo bits de relleno)
+        int signature = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signature);
+        tamperedToken = token.substring(0, signature) + (first == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+    }
+
+    /**
+     * validateToken + getUserIdFromToken + getRoleFromToken como en los validadores de cada servicio
+     */
+    @Benchmark
+    public void legacyParsePerClaim(Blackhole blackhole) {
+        blackhole.consume(legacyClaims(token));
+        blackhole.consume(legacyClaims(token).get("userId", Long.class));
+        blackhole.consume(legacyClaims(token).get("role", String.class));
+    }
+
+    @Benchmark
+    public void verifyOnce(Blackhole blackhole) {
+        VerifiedToken verified = verifier.verify(token);
+        blackhole.consume(verified.userId());
+        blackhole.consume(verified.role());
+    }
+
+    @Benchmark
+    public void verifyOnceMetered(Blackhole blackhole) {
+        VerifiedToken verified = meteredVerifier.verify(token);
+        blackhole.consume(verified.userId());
+        blackhole.consume(verified.role());
+    }
+
+    @Benchmark
+    public VerifiedToken rejectTampered() {
+        return verifier.verifyOrNull(tamperedToken);
+    }
+
+    private Claims legacyClaims(String jwt) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+}
@@ -0,0 +1,37 @@
+package com.packed_go.security;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Identidad del usuario ya verificada por el api-gateway para la petición en curso.
+ * La resuelve GatewayIdentityFilter una sola vez y queda como atributo del request.
+ */
+public record GatewayIdentity(Long userId, String role) {
+
+    static final String ATTRIBUTE = GatewayIdentity.class.getName();
+    static final String TOKEN_ATTRIBUTE = GatewayIdentity.class.getName() + ".token";
+
+    /**
+     * Identidad de la petición en curso, o null si no llegó (o no era válida) la cabecera del gateway
+     */
+    public static GatewayIdentity current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (GatewayIdentity) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Identidad de la petición en curso solo si fue emitida para este mismo token
+     */
+    public static GatewayIdentity forToken(String token) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || token == null
+                || !token.equals(attributes.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return null;
+        }
+        return (GatewayIdentity) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,108 @@
+package com.packed_go.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Sobre de identidad que el api-gateway firma tras verificar el JWT (cabecera X-Gateway-Identity).
+ *
+ * Formato: base64url(userId|role|expiresAtMillis|huella) "." base64url(HMAC-SHA256), donde la huella son
+ * los primeros 16 bytes del SHA-256 del token: el sobre solo vale junto con el mismo Authorization que
+ * lo originó. La clave HMAC se deriva del secreto compartido, así nunca coincide con la clave de los JWT.
+ */
+public class GatewayIdentityCodec {
+
+    public static final String HEADER = "X-Gateway-Identity";
+
+    private static final String KEY_CONTEXT = "packedgo-gateway-identity-v1";
+    private static final int FINGERPRINT_BYTES = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    private final long ttlMillis;
+
+    public GatewayIdentityCodec(String secret, long ttlMillis) {
+        SecretKeySpec key = new SecretKeySpec(
+                newMac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                        .doFinal(KEY_CONTEXT.getBytes(StandardCharsets.UTF_8)),
+                "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Sobre firmado para un token ya verificado (null si el token no trae userId)
+     * Vence a los ttl-ms o antes, si el token vence antes
+     */
+    public String sign(VerifiedToken verified, String token) {
+        if (verified.userId() == null) {
+            return null;
+        }
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        if (verified.expiresAt() != null) {
+            expiresAt = Math.min(expiresAt, verified.expiresAt().toEpochMilli());
+        }
+        String payload = ENCODER.encodeToString((verified.userId() + "|"
+                + (verified.role() != null ? verified.role() : "") + "|"
+                + expiresAt + "|"
+                + ENCODER.encodeToString(fingerprint(token))).getBytes(StandardCharsets.UTF_8));
+        byte[] signature = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        return payload + "." + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Identidad del sobre si la firma, el vencimiento y la huella del token son válidos; si no, null
+     */
+    public GatewayIdentity verify(String envelope, String token) {
+        try {
+            int dot = envelope.indexOf('.');
+            if (dot <= 0) {
+                return null;
+            }
+            String payload = envelope.substring(0, dot);
+            byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, DECODER.decode(envelope.substring(dot + 1)))) {
+                return null;
+            }
+
+            String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", -1);
+            if (fields.length != 4 || System.currentTimeMillis() >= Long.parseLong(fields[2])) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(fingerprint(token), DECODER.decode(fields[3]))) {
+                return null;
+            }
+            return new GatewayIdentity(Long.valueOf(fields[0]), fields[1].isEmpty() ? null : fields[1]);
+        } catch (IllegalArgumentException e) {
+            // Base64 o números mal formados
+            return null;
+        }
+    }
+
+    private byte[] fingerprint(String token) {
+        return Arrays.copyOf(sha256.get().digest(token.getBytes(StandardCharsets.US_ASCII)), FINGERPRINT_BYTES);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.packed_go.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifica la cabecera X-Gateway-Identity una vez por petición (un HMAC y un SHA-256).
+ *
+ * Si es válida publica GatewayIdentity en el request y los validadores de cada servicio ya no parsean
+ * el JWT. Nunca rechaza la petición: sin sobre válido los controllers validan el JWT como antes.
+ */
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayIdentityFilter.class);
+
+    private final GatewayIdentityCodec codec;
+
+    public GatewayIdentityFilter(GatewayIdentityCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String envelope = request.getHeader(GatewayIdentityCodec.HEADER);
+        String authHeader = request.getHeader("Authorization");
+        if (envelope != null && authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            GatewayIdentity identity = codec.verify(envelope, token);
+            if (identity != null) {
+                request.setAttribute(GatewayIdentity.ATTRIBUTE, identity);
+                request.setAttribute(GatewayIdentity.TOKEN_ATTRIBUTE, token);
+            } else {
+                log.warn("⚠️ Ignoring invalid or expired gateway identity for {}", request.getRequestURI());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
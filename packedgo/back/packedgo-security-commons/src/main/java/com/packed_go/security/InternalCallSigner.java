@@ -0,0 +1,81 @@
+package com.packed_go.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Firma de llamadas internas entre servicios que no pasan por el api-gateway (cabecera X-Internal-Signature).
+ *
+ * Formato: timestampMillis "." base64url(HMAC-SHA256(timestampMillis|path)). La firma cubre la ruta
+ * completa (con context-path), así que no sirve para otro endpoint, y vence pasado max-skew-ms. La clave
+ * HMAC se deriva del secreto compartido, así nunca coincide con la de los JWT ni con la del sobre de identidad.
+ */
+public class InternalCallSigner {
+
+    public static final String HEADER = "X-Internal-Signature";
+
+    private static final String KEY_CONTEXT = "packedgo-internal-call-v1";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+    private final long maxSkewMillis;
+
+    public InternalCallSigner(String secret, long maxSkewMillis) {
+        SecretKeySpec key = new SecretKeySpec(
+                newMac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                        .doFinal(KEY_CONTEXT.getBytes(StandardCharsets.UTF_8)),
+                "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> newMac(key));
+        this.maxSkewMillis = maxSkewMillis;
+    }
+
+    /**
+     * Valor de la cabecera para una llamada a path (p. ej. /api/pricing/events/12)
+     */
+    public String sign(String path) {
+        long timestamp = System.currentTimeMillis();
+        return timestamp + "." + ENCODER.encodeToString(signature(timestamp, path));
+    }
+
+    /**
+     * true si la firma corresponde a path y no venció
+     */
+    public boolean verify(String header, String path) {
+        if (header == null || path == null) {
+            return false;
+        }
+        try {
+            int dot = header.indexOf('.');
+            if (dot <= 0) {
+                return false;
+            }
+            long timestamp = Long.parseLong(header.substring(0, dot));
+            if (Math.abs(System.currentTimeMillis() - timestamp) > maxSkewMillis) {
+                return false;
+            }
+            return MessageDigest.isEqual(signature(timestamp, path), DECODER.decode(header.substring(dot + 1)));
+        } catch (IllegalArgumentException e) {
+            // Base64 o timestamp mal formados
+            return false;
+        }
+    }
+
+    private byte[] signature(long timestamp, String path) {
+        return mac.get().doFinal((timestamp + "|" + path).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
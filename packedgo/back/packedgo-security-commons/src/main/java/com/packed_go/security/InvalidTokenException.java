@@ -0,0 +1,11 @@
+package com.packed_go.security;
+
+/**
+ * El token no es un JWT válido: firma incorrecta, mal formado o vencido
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
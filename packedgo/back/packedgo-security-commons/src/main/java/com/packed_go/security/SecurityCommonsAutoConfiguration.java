@@ -0,0 +1,104 @@
+package com.packed_go.security;
+
+import com.packed_go.security.qr.QRPayloadCodec;
+import com.packed_go.security.qr.QRSignatureVerifier;
+import com.packed_go.security.qr.QRSigner;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Beans de seguridad comunes a todos los servicios.
+ *
+ * Los secretos se toman de packedgo.security.* y, si no están, de las propiedades que ya usaba cada
+ * servicio (app.jwt.secret / jwt.secret, app.identity.secret / gateway.identity.secret y app.internal.secret).
+ * El filtro de identidad solo se registra en servicios servlet (no en el gateway reactivo).
+ * Los beans de QR firmados solo existen en los servicios que declaran app.qr.signing-secret.
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration")
+public class SecurityCommonsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TokenVerifier tokenVerifier(
+            @Value("${packedgo.security.jwt.secret:${app.jwt.secret:${jwt.secret}}}") String jwtSecret,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new TokenVerifier(jwtSecret, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public GatewayIdentityCodec gatewayIdentityCodec(
+            @Value("${packedgo.security.jwt.secret:${app.jwt.secret:${jwt.secret}}}") String jwtSecret,
+            @Value("${packedgo.security.identity.secret:${app.identity.secret:${gateway.identity.secret:}}}") String identitySecret,
+            @Value("${packedgo.security.identity.ttl-ms:${gateway.identity.ttl-ms:30000}}") long ttlMillis) {
+        return new GatewayIdentityCodec(identitySecret.isBlank() ? jwtSecret : identitySecret, ttlMillis);
+    }
+
+    /**
+     * Firma de las llamadas internas directas entre servicios (p. ej. avisos de precio de event-service a order-service)
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public InternalCallSigner internalCallSigner(
+            @Value("${packedgo.security.jwt.secret:${app.jwt.secret:${jwt.secret}}}") String jwtSecret,
+            @Value("${packedgo.security.internal.secret:${app.internal.secret:}}") String internalSecret,
+            @Value("${packedgo.security.internal.max-skew-ms:60000}") long maxSkewMillis) {
+        return new InternalCallSigner(internalSecret.isBlank() ? jwtSecret : internalSecret, maxSkewMillis);
+    }
+
+    /**
+     * Codec y verificación de QR de tickets: event-service los emite y valida, users-service los verifica en el borde
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "app.qr.signing-secret")
+    static class QRConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public QRSigner qrSigner(@Value("${app.qr.signing-secret:}") String signingSecret) {
+            return new QRSigner(signingSecret);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public QRPayloadCodec qrPayloadCodec(
+                @Value("${app.qr.payload-version:1}") int outputVersion,
+                @Value("${app.qr.require-signature:false}") boolean requireSignature,
+                QRSigner qrSigner) {
+            return new QRPayloadCodec(outputVersion, requireSignature, qrSigner);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public QRSignatureVerifier qrSignatureVerifier(
+                @Value("${app.qr.require-signature:false}") boolean requireSignature,
+                QRSigner qrSigner) {
+            return new QRSignatureVerifier(qrSigner, requireSignature);
+        }
+    }
+
+    /**
+     * Separado en una clase anidada para que el gateway (sin API servlet) no cargue tipos servlet
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletIdentityConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<GatewayIdentityFilter> gatewayIdentityFilter(GatewayIdentityCodec codec) {
+            FilterRegistrationBean<GatewayIdentityFilter> registration =
+                    new FilterRegistrationBean<>(new GatewayIdentityFilter(codec));
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.packed_go.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.crypto.SecretKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificador de los JWT emitidos por auth-service, compartido por todos los servicios.
+ *
+ * La clave HMAC se decodifica una sola vez y el JwtParser (inmutable y thread-safe) se reutiliza
+ * en cada verificación; cada token se parsea una vez y se devuelve como VerifiedToken.
+ * Con MeterRegistry se registra security.token.verify{result=valid|invalid}.
+ */
+public class TokenVerifier {
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public TokenVerifier(String base64Secret, MeterRegistry meterRegistry) {
+        this.signingKey = hmacKey(base64Secret);
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.validTimer = meterRegistry != null ? timer(meterRegistry, "valid") : null;
+        this.invalidTimer = meterRegistry != null ? timer(meterRegistry, "invalid") : null;
+    }
+
+    /**
+     * Clave HMAC a partir del secreto en Base64 (el mismo formato que usa auth-service para firmar)
+     * @throws IllegalStateException si el secreto no es Base64 o tiene menos de 256 bits
+     */
+    public static SecretKey hmacKey(String base64Secret) {
+        if (base64Secret == null || base64Secret.isBlank()) {
+            throw new IllegalStateException("JWT secret is not set (JWT_SECRET)");
+        }
+        try {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
+        } catch (DecodingException | WeakKeyException e) {
+            throw new IllegalStateException(
+                    "JWT secret (JWT_SECRET) must be a Base64 value of at least 256 bits: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Clave de firma, para quien emite tokens (auth-service)
+     */
+    public SecretKey signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * Verifica firma y vencimiento; lanza InvalidTokenException si el token no es válido
+     */
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        try {
+            VerifiedToken verified = VerifiedToken.from(parser.parseSignedClaims(token).getPayload());
+            record(validTimer, start);
+            return verified;
+        } catch (JwtException | IllegalArgumentException e) {
+            record(invalidTimer, start);
+            throw new InvalidTokenException("Invalid JWT token: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Igual que verify, pero devuelve null en lugar de lanzar si el token no es válido
+     */
+    public VerifiedToken verifyOrNull(String token) {
+        try {
+            return verify(token);
+        } catch (InvalidTokenException e) {
+            return null;
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("security.token.verify")
+                .tag("result", result)
+                .description("Verificación de firma y parseo de un JWT")
+                .register(meterRegistry);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.packed_go.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims de un JWT ya verificado, extraídos una sola vez.
+ * Los servicios leen de acá en lugar de volver a parsear el token por cada dato.
+ */
+public record VerifiedToken(String subject,
+                            Long userId,
+                            String role,
+                            String email,
+                            List<String> authorities,
+                            String type,
+                            Instant expiresAt) {
+
+    static VerifiedToken from(Claims claims) {
+        Object userId = claims.get("userId");
+        Object authorities = claims.get("authorities");
+        return new VerifiedToken(
+                claims.getSubject(),
+                userId instanceof Number number ? Long.valueOf(number.longValue()) : null,
+                claims.get("role", String.class),
+                claims.get("email", String.class),
+                authorities instanceof List<?> list ? list.stream().map(String::valueOf).toList() : List.of(),
+                claims.get("type", String.class),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+}
@@ -0,0 +1,196 @@
+package com.packed_go.security.qr;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+/**
+ * Render de códigos QR a PNG sin pasar por BufferedImage/ImageIO.
+ *
+ * El BitMatrix de ZXing se empaqueta directamente en filas de 1 bit y se codifica
+ * como PNG indexado de 2 colores; el texto opcional debajo del QR se rasteriza en
+ * el mismo buffer antes de comprimir. Writers, Deflater y buffers son por hilo.
+ * Lo usan event-service (imágenes de tickets) y order-service (QR de los emails).
+ */
+public final class QRImageRenderer {
+
+    public static final int DEFAULT_SIZE = 300;
+
+    private static final int CAPTION_MARGIN = 40;
+    private static final int CAPTION_HEIGHT = 50;
+    private static final int CAPTION_BASELINE = 35;
+    private static final Font CAPTION_FONT = new Font("Arial", Font.BOLD, 20);
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // Paleta: índice 0 = blanco, índice 1 = negro (bit encendido del BitMatrix)
+    private static final byte[] PALETTE = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0, 0, 0};
+    private static final Map<EncodeHintType, Object> HINTS = new EnumMap<>(EncodeHintType.class);
+
+    private static final ThreadLocal<QRCodeWriter> WRITERS = ThreadLocal.withInitial(QRCodeWriter::new);
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<byte[]> DEFLATE_BUFFERS = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    static {
+        HINTS.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        HINTS.put(EncodeHintType.MARGIN, 1);
+    }
+
+    private QRImageRenderer() {
+    }
+
+    public static byte[] render(String text) {
+        return render(text, null);
+    }
+
+    public static byte[] render(String text, int width, int height) {
+        return renderMatrix(encode(text, width, height), null);
+    }
+
+    /**
+     * @param caption texto a dibujar centrado debajo del QR, o null para solo el QR
+     */
+    public static byte[] render(String text, String caption) {
+        return renderMatrix(encode(text, DEFAULT_SIZE, DEFAULT_SIZE), caption);
+    }
+
+    private static byte[] renderMatrix(BitMatrix matrix, String caption) {
+        int qrWidth = matrix.getWidth();
+        int qrHeight = matrix.getHeight();
+
+        int margin = caption != null ? CAPTION_MARGIN : 0;
+        int width = qrWidth + margin * 2;
+        int height = qrHeight + margin * 2 + (caption != null ? CAPTION_HEIGHT : 0);
+        int stride = (width + 7) >>> 3;
+
+        // Cada fila PNG: byte de filtro (0 = None) + píxeles de 1 bit, MSB primero
+        byte[] raw = new byte[height * (stride + 1)];
+        for (int y = 0; y < qrHeight; y++) {
+            int rowOffset = (y + margin) * (stride + 1) + 1;
+            for (int x = 0; x < qrWidth; x++) {
+                if (matrix.get(x, y)) {
+                    int px = x + margin;
+                    raw[rowOffset + (px >>> 3)] |= (byte) (0x80 >>> (px & 7));
+                }
+            }
+        }
+        if (caption != null) {
+            drawCaption(raw, stride, width, qrHeight + margin + CAPTION_BASELINE, caption);
+        }
+        return encodePng(width, height, raw);
+    }
+
+    /**
+     * Renderiza en el hilo que llama, reutilizando sus buffers; captions puede ser null o tener la
+     * misma longitud que texts. Cada QR tarda décimas de milisegundo: repartirlos en el common pool
+     * no compensa y compite con el resto de la aplicación.
+     */
+    public static List<byte[]> renderAll(List<String> texts, List<String> captions) {
+        List<byte[]> images = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            images.add(render(texts.get(i), captions != null ? captions.get(i) : null));
+        }
+        return images;
+    }
+
+    private static BitMatrix encode(String text, int width, int height) {
+        try {
+            return WRITERS.get().encode(text, BarcodeFormat.QR_CODE, width, height, HINTS);
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("Failed to encode QR code", e);
+        }
+    }
+
+    /**
+     * Rasteriza el texto en una imagen binaria del ancho del PNG y copia los píxeles negros
+     * a las filas correspondientes del buffer.
+     */
+    private static void drawCaption(byte[] raw, int stride, int width, int baseline, String caption) {
+        BufferedImage textImage = new BufferedImage(width, CAPTION_HEIGHT, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D g2d = textImage.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, CAPTION_HEIGHT);
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(CAPTION_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        int textTop = baseline - fm.getAscent();
+        g2d.drawString(caption, (width - fm.stringWidth(caption)) / 2, fm.getAscent());
+        g2d.dispose();
+
+        int rows = Math.min(CAPTION_HEIGHT, raw.length / (stride + 1) - textTop);
+        for (int y = 0; y < rows; y++) {
+            int rowOffset = (textTop + y) * (stride + 1) + 1;
+            for (int x = 0; x < width; x++) {
+                if ((textImage.getRGB(x, y) & 0xFFFFFF) == 0) {
+                    raw[rowOffset + (x >>> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+    }
+
+    private static byte[] encodePng(int width, int height, byte[] raw) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 + raw.length / 8);
+        out.writeBytes(PNG_SIGNATURE);
+
+        byte[] header = new byte[13];
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 1;  // bit depth
+        header[9] = 3;  // color type: indexed
+        writeChunk(out, "IHDR", header, header.length);
+        writeChunk(out, "PLTE", PALETTE, PALETTE.length);
+
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4);
+        byte[] buffer = DEFLATE_BUFFERS.get();
+        while (!deflater.finished()) {
+            int count = deflater.deflate(buffer);
+            compressed.write(buffer, 0, count);
+        }
+        byte[] idat = compressed.toByteArray();
+        writeChunk(out, "IDAT", idat, idat.length);
+        writeChunk(out, "IEND", new byte[0], 0);
+        return out.toByteArray();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data, int length) {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        byte[] lengthBytes = new byte[4];
+        writeInt(lengthBytes, 0, length);
+        out.writeBytes(lengthBytes);
+        out.writeBytes(typeBytes);
+        out.write(data, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        byte[] crcBytes = new byte[4];
+        writeInt(crcBytes, 0, (int) crc.getValue());
+        out.writeBytes(crcBytes);
+    }
+
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
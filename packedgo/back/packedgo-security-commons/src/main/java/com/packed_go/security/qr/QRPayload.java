@@ -0,0 +1,38 @@
+package com.packed_go.security.qr;
+
+/**
+ * Contenido de un QR de ticket ya parseado.
+ * Los campos ausentes en el QR quedan en {@link #ABSENT}.
+ * keyVersion es la versión de clave del evento con la que se firmó el QR, o 0 si no está firmado.
+ */
+public record QRPayload(
+        int version,
+        long ticketId,
+        long ticketConsumptionId,
+        long eventId,
+        long userId,
+        long timestamp,
+        int keyVersion) {
+
+    public static final long ABSENT = -1L;
+
+    public boolean hasTicketId() {
+        return ticketId != ABSENT;
+    }
+
+    public boolean hasTicketConsumptionId() {
+        return ticketConsumptionId != ABSENT;
+    }
+
+    public boolean hasEventId() {
+        return eventId != ABSENT;
+    }
+
+    public boolean hasUserId() {
+        return userId != ABSENT;
+    }
+
+    public boolean isSigned() {
+        return keyVersion > 0;
+    }
+}
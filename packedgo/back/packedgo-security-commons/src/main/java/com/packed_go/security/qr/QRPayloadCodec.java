@@ -0,0 +1,388 @@
+package com.packed_go.security.qr;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificador/decodificador de los QR de tickets.
+ *
+ * v1 (texto): PACKEDGO|T:ticketId|TC:ticketConsumptionId|E:eventId|U:userId|TS:timestamp[|K:keyVersion|S:tag]
+ * v2 (compacto): "PG2:" + Base45(versión, varints de los mismos campos[, keyVersion, tag])
+ *
+ * El payload v2 usa solo caracteres del modo alfanumérico de QR, lo que genera
+ * códigos de menor densidad que se escanean más rápido. El parser recorre el texto
+ * con un cursor, sin split/regex ni mapas intermedios; los bytes decodificados, el tag y la
+ * posición de lectura viven en un {@link DecodeState} por hilo, así que el decode solo
+ * asigna el QRPayload que devuelve.
+ *
+ * Cuando hay secreto configurado los QR se emiten firmados (ver {@link QRSigner});
+ * un QR con firma inválida se rechaza en el decode sin tocar la base de datos.
+ * Lo usan event-service para emitir y validar, y users-service para verificar en el borde.
+ */
+public class QRPayloadCodec {
+
+    public static final int VERSION_TEXT = 1;
+    public static final int VERSION_COMPACT = 2;
+
+    static final String TEXT_PREFIX = "PACKEDGO|";
+    static final String COMPACT_PREFIX = "PG2:";
+
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final String BASE45_ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+    private static final byte[] BASE45_VALUES = new byte[128];
+    private static final int MAX_COMPACT_BYTES = 96;
+    private static final ThreadLocal<DecodeState> DECODE_STATE = ThreadLocal.withInitial(DecodeState::new);
+
+    static {
+        java.util.Arrays.fill(BASE45_VALUES, (byte) -1);
+        for (int i = 0; i < BASE45_ALPHABET.length(); i++) {
+            BASE45_VALUES[BASE45_ALPHABET.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final int outputVersion;
+    private final boolean requireSignature;
+    private final QRSigner signer;
+
+    public QRPayloadCodec(int outputVersion, boolean requireSignature, QRSigner signer) {
+        if (outputVersion != VERSION_TEXT && outputVersion != VERSION_COMPACT) {
+            throw new IllegalArgumentException("Unsupported QR payload version: " + outputVersion);
+        }
+        this.outputVersion = outputVersion;
+        this.requireSignature = requireSignature;
+        this.signer = signer;
+    }
+
+    /**
+     * Codifica el payload en el formato configurado (app.qr.payload-version),
+     * firmado con la versión de clave del evento si la firma está habilitada
+     */
+    public String encode(long ticketId, long ticketConsumptionId, long eventId, long userId, long timestamp,
+                         int keyVersion) {
+        int signingKeyVersion = signer.isEnabled() ? keyVersion : 0;
+        if (outputVersion == VERSION_COMPACT) {
+            return encodeCompact(ticketId, ticketConsumptionId, eventId, userId, timestamp, signingKeyVersion);
+        }
+        return encodeText(ticketId, ticketConsumptionId, eventId, userId, timestamp, signingKeyVersion);
+    }
+
+    /**
+     * Decodifica un QR en cualquiera de los formatos soportados.
+     * @return el payload, o null si el QR no tiene un formato válido, su firma no
+     *         verifica o no está firmado y la firma es obligatoria
+     */
+    public QRPayload decode(CharSequence qr) {
+        if (qr == null) {
+            return null;
+        }
+        QRPayload payload = null;
+        if (startsWith(qr, COMPACT_PREFIX)) {
+            payload = decodeCompact(qr);
+        } else if (startsWith(qr, TEXT_PREFIX)) {
+            payload = decodeText(qr);
+        }
+        if (payload != null && requireSignature && !payload.isSigned()) {
+            return null;
+        }
+        return payload;
+    }
+
+    // ========== v1: texto ==========
+
+    String encodeText(long ticketId, long ticketConsumptionId, long eventId, long userId, long timestamp,
+                      int keyVersion) {
+        StringBuilder sb = new StringBuilder(96).append(TEXT_PREFIX);
+        sb.append("T:").append(ticketId);
+        if (ticketConsumptionId != QRPayload.ABSENT) {
+            sb.append("|TC:").append(ticketConsumptionId);
+        }
+        sb.append("|E:").append(eventId)
+          .append("|U:").append(userId)
+          .append("|TS:").append(timestamp);
+        if (keyVersion > 0) {
+            sb.append("|K:").append(keyVersion);
+            byte[] message = sb.toString().getBytes(StandardCharsets.US_ASCII);
+            byte[] tag = signer.sign(eventId, keyVersion, message, 0, message.length);
+            sb.append("|S:");
+            for (byte b : tag) {
+                sb.append(HEX_DIGITS.charAt((b >>> 4) & 0xF)).append(HEX_DIGITS.charAt(b & 0xF));
+            }
+        }
+        return sb.toString();
+    }
+
+    QRPayload decodeText(CharSequence qr) {
+        long ticketId = QRPayload.ABSENT;
+        long ticketConsumptionId = QRPayload.ABSENT;
+        long eventId = QRPayload.ABSENT;
+        long userId = QRPayload.ABSENT;
+        long timestamp = QRPayload.ABSENT;
+        long keyVersion = 0;
+        byte[] tag = null;
+        int signedLength = 0;
+        DecodeState state = DECODE_STATE.get();
+
+        int length = qr.length();
+        int i = TEXT_PREFIX.length();
+        while (i < length) {
+            // Clave: hasta ':' o '|'
+            int keyStart = i;
+            while (i < length && qr.charAt(i) != ':' && qr.charAt(i) != '|') {
+                i++;
+            }
+            int keyLength = i - keyStart;
+            if (i >= length || qr.charAt(i) == '|') {
+                // Segmento sin valor: se ignora
+                i++;
+                continue;
+            }
+            i++; // ':'
+
+            if (keyLength == 1 && qr.charAt(keyStart) == 'S') {
+                // Firma: siempre el último segmento, cubre todo el texto anterior al "|S:"
+                signedLength = keyStart - 1;
+                tag = parseHexTag(qr, i, state.tag) ? state.tag : null;
+                if (tag == null) {
+                    return null;
+                }
+                break;
+            }
+
+            // Valor: dígitos hasta '|'
+            long value = 0;
+            boolean validNumber = i < length && qr.charAt(i) != '|';
+            while (i < length && qr.charAt(i) != '|') {
+                int digit = qr.charAt(i) - '0';
+                if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                    validNumber = false;
+                }
+                if (validNumber) {
+                    value = value * 10 + digit;
+                }
+                i++;
+            }
+            i++; // '|'
+
+            char k0 = keyLength > 0 ? qr.charAt(keyStart) : 0;
+            char k1 = keyLength > 1 ? qr.charAt(keyStart + 1) : 0;
+            boolean known = (keyLength == 1 && (k0 == 'T' || k0 == 'E' || k0 == 'U' || k0 == 'K'))
+                    || (keyLength == 2 && k0 == 'T' && (k1 == 'C' || k1 == 'S'));
+            if (!known) {
+                continue;
+            }
+            if (!validNumber) {
+                return null;
+            }
+            if (keyLength == 1) {
+                switch (k0) {
+                    case 'T' -> ticketId = value;
+                    case 'E' -> eventId = value;
+                    case 'K' -> keyVersion = value;
+                    default -> userId = value;
+                }
+            } else if (k1 == 'C') {
+                ticketConsumptionId = value;
+            } else {
+                timestamp = value;
+            }
+        }
+
+        if (tag == null) {
+            // Sin firma no puede haber versión de clave
+            return keyVersion == 0
+                    ? new QRPayload(VERSION_TEXT, ticketId, ticketConsumptionId, eventId, userId, timestamp, 0)
+                    : null;
+        }
+        if (keyVersion <= 0 || keyVersion > Integer.MAX_VALUE || eventId == QRPayload.ABSENT
+                || !signer.verify(eventId, (int) keyVersion, qr, signedLength, tag)) {
+            return null;
+        }
+        return new QRPayload(VERSION_TEXT, ticketId, ticketConsumptionId, eventId, userId, timestamp, (int) keyVersion);
+    }
+
+    /**
+     * Lee en tag exactamente {@link QRSigner#TAG_LENGTH} bytes en hexadecimal que deben llegar hasta el final del texto
+     */
+    private static boolean parseHexTag(CharSequence qr, int from, byte[] tag) {
+        if (qr.length() - from != QRSigner.TAG_LENGTH * 2) {
+            return false;
+        }
+        for (int j = 0; j < QRSigner.TAG_LENGTH; j++) {
+            int high = Character.digit(qr.charAt(from + 2 * j), 16);
+            int low = Character.digit(qr.charAt(from + 2 * j + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            tag[j] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+
+    // ========== v2: binario compacto en Base45 ==========
+
+    String encodeCompact(long ticketId, long ticketConsumptionId, long eventId, long userId, long timestamp,
+                         int keyVersion) {
+        byte[] buffer = new byte[MAX_COMPACT_BYTES];
+        int length = 0;
+        buffer[length++] = VERSION_COMPACT;
+        // Cada campo se guarda como (valor + 1) para que ABSENT (-1) ocupe un solo byte en cero
+        length = writeVarLong(buffer, length, ticketId + 1);
+        length = writeVarLong(buffer, length, ticketConsumptionId + 1);
+        length = writeVarLong(buffer, length, eventId + 1);
+        length = writeVarLong(buffer, length, userId + 1);
+        length = writeVarLong(buffer, length, timestamp + 1);
+        if (keyVersion > 0) {
+            length = writeVarLong(buffer, length, keyVersion);
+            byte[] tag = signer.sign(eventId, keyVersion, buffer, 0, length);
+            System.arraycopy(tag, 0, buffer, length, tag.length);
+            length += tag.length;
+        }
+
+        StringBuilder sb = new StringBuilder(COMPACT_PREFIX.length() + (length * 3 + 1) / 2)
+                .append(COMPACT_PREFIX);
+        for (int i = 0; i + 1 < length; i += 2) {
+            int n = ((buffer[i] & 0xFF) << 8) | (buffer[i + 1] & 0xFF);
+            sb.append(BASE45_ALPHABET.charAt(n % 45))
+              .append(BASE45_ALPHABET.charAt((n / 45) % 45))
+              .append(BASE45_ALPHABET.charAt(n / 2025));
+        }
+        if ((length & 1) == 1) {
+            int n = buffer[length - 1] & 0xFF;
+            sb.append(BASE45_ALPHABET.charAt(n % 45))
+              .append(BASE45_ALPHABET.charAt(n / 45));
+        }
+        return sb.toString();
+    }
+
+    QRPayload decodeCompact(CharSequence qr) {
+        DecodeState state = DECODE_STATE.get();
+        byte[] buffer = state.buffer;
+        int length = decodeBase45(qr, COMPACT_PREFIX.length(), buffer);
+        if (length < 1 || buffer[0] != VERSION_COMPACT) {
+            return null;
+        }
+
+        state.length = length;
+        state.position = 1;
+        long ticketId = state.readVarLong();
+        long ticketConsumptionId = state.readVarLong();
+        long eventId = state.readVarLong();
+        long userId = state.readVarLong();
+        long timestamp = state.readVarLong();
+        if (state.position < 0) {
+            return null;
+        }
+
+        int keyVersion = 0;
+        if (state.position < length) {
+            // Payload firmado: versión de clave + tag sobre todos los bytes anteriores
+            long signedKeyVersion = state.readVarLong();
+            int tagStart = state.position;
+            if (tagStart < 0 || length - tagStart != QRSigner.TAG_LENGTH
+                    || signedKeyVersion <= 0 || signedKeyVersion > Integer.MAX_VALUE || eventId < 1
+                    || !signer.verify(eventId - 1, (int) signedKeyVersion, buffer, 0, tagStart, buffer, tagStart)) {
+                return null;
+            }
+            keyVersion = (int) signedKeyVersion;
+        }
+        return new QRPayload(VERSION_COMPACT, ticketId - 1, ticketConsumptionId - 1, eventId - 1, userId - 1,
+                timestamp - 1, keyVersion);
+    }
+
+    /**
+     * @return cantidad de bytes decodificados, o -1 si el texto no es Base45 válido
+     */
+    private static int decodeBase45(CharSequence qr, int from, byte[] out) {
+        int chars = qr.length() - from;
+        if (chars % 3 == 1 || (chars / 3) * 2 + (chars % 3 == 2 ? 1 : 0) > out.length) {
+            return -1;
+        }
+        int length = 0;
+        int i = from;
+        while (i < qr.length()) {
+            int remaining = qr.length() - i;
+            int c = base45Value(qr.charAt(i));
+            int d = base45Value(qr.charAt(i + 1));
+            if (c < 0 || d < 0) {
+                return -1;
+            }
+            if (remaining >= 3) {
+                int e = base45Value(qr.charAt(i + 2));
+                int n = e < 0 ? -1 : c + d * 45 + e * 2025;
+                if (n < 0 || n > 0xFFFF) {
+                    return -1;
+                }
+                out[length++] = (byte) (n >>> 8);
+                out[length++] = (byte) n;
+                i += 3;
+            } else {
+                int n = c + d * 45;
+                if (n > 0xFF) {
+                    return -1;
+                }
+                out[length++] = (byte) n;
+                i += 2;
+            }
+        }
+        return length;
+    }
+
+    private static int base45Value(char c) {
+        return c < 128 ? BASE45_VALUES[c] : -1;
+    }
+
+    private static int writeVarLong(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static boolean startsWith(CharSequence value, String prefix) {
+        if (value.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (value.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Buffers y cursor de lectura de un hilo, reutilizados en cada decode
+     */
+    private static final class DecodeState {
+        final byte[] buffer = new byte[MAX_COMPACT_BYTES];
+        final byte[] tag = new byte[QRSigner.TAG_LENGTH];
+        int length;
+        int position;
+
+        /**
+         * Lee un varint desde position; deja position en -1 si los datos están truncados o son inválidos.
+         */
+        long readVarLong() {
+            if (position < 0) {
+                return 0;
+            }
+            int cursor = position;
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (cursor >= length) {
+                    position = -1;
+                    return 0;
+                }
+                byte b = buffer[cursor++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    position = cursor;
+                    return value;
+                }
+            }
+            position = -1;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.packed_go.security.qr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verificación en el borde de la firma HMAC de los QR emitidos por event-service.
+ *
+ * Usa el mismo {@link QRPayloadCodec} que emite los QR, con la misma clave derivada por evento,
+ * y descarta QR falsificados o adulterados antes de llamar a event-service.
+ * La revocación por rotación de clave se sigue resolviendo en event-service, que conoce
+ * la versión vigente de cada evento.
+ */
+public class QRSignatureVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(QRSignatureVerifier.class);
+
+    public enum Result {
+        VALID,
+        UNSIGNED,
+        INVALID
+    }
+
+    private final QRSigner signer;
+    private final QRPayloadCodec codec;
+    private final boolean requireSignature;
+
+    public QRSignatureVerifier(QRSigner signer, boolean requireSignature) {
+        this.signer = signer;
+        // La obligatoriedad de la firma se resuelve acá para distinguir UNSIGNED de INVALID
+        this.codec = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, false, signer);
+        this.requireSignature = requireSignature;
+    }
+
+    public boolean isEnabled() {
+        return signer.isEnabled();
+    }
+
+    /**
+     * @return true si el QR puede reenviarse a event-service: firma válida para el evento,
+     *         o sin firma cuando la firma no es obligatoria (o no hay secreto configurado)
+     */
+    public boolean isAcceptable(String qrCode, Long eventId) {
+        if (!isEnabled()) {
+            return true;
+        }
+        Result result = verify(qrCode, eventId);
+        if (result == Result.INVALID) {
+            log.warn("❌ QR rejected at edge: invalid signature for event {}", eventId);
+            return false;
+        }
+        return result == Result.VALID || !requireSignature;
+    }
+
+    public Result verify(String qrCode, Long eventId) {
+        if (qrCode == null || eventId == null) {
+            return Result.INVALID;
+        }
+        QRPayload payload = codec.decode(qrCode);
+        if (payload == null) {
+            return Result.INVALID;
+        }
+        if (!payload.isSigned()) {
+            return Result.UNSIGNED;
+        }
+        return payload.eventId() == eventId ? Result.VALID : Result.INVALID;
+    }
+}
@@ -0,0 +1,164 @@
+package com.packed_go.security.qr;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Firma HMAC de los payloads QR con una clave por evento.
+ *
+ * La clave de cada evento se deriva del secreto maestro (app.qr.signing-secret)
+ * y de la versión de clave del evento (Event.qrKeyVersion), de modo que rotar la
+ * clave de un evento no afecta a los demás y cualquier servicio que conozca el
+ * secreto puede verificar un QR sin consultar la base de datos.
+ * El tag se trunca a {@link #TAG_LENGTH} bytes.
+ *
+ * Cada hilo guarda sus Mac ya inicializados con la clave de cada (evento, versión) en una
+ * tabla de acceso directo indexada por esos dos primitivos: verificar un QR de un evento
+ * reciente no arma claves String ni vuelve a llamar a Mac.init (doFinal deja el Mac listo
+ * para reutilizarse con la misma clave).
+ */
+public class QRSigner {
+
+    private static final Logger log = LoggerFactory.getLogger(QRSigner.class);
+
+    public static final int TAG_LENGTH = 8;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String KEY_CONTEXT = "packedgo-qr|";
+
+    /** Entradas por hilo; potencia de dos. Una colisión solo cuesta volver a inicializar el Mac */
+    private static final int MAC_CACHE_SLOTS = 64;
+
+    private final byte[] masterSecret;
+    private final ThreadLocal<MacCache> macCaches = ThreadLocal.withInitial(MacCache::new);
+    private final ThreadLocal<byte[]> macBuffers = ThreadLocal.withInitial(() -> new byte[32]);
+
+    public QRSigner(String signingSecret) {
+        this.masterSecret = signingSecret.getBytes(StandardCharsets.UTF_8);
+        if (!isEnabled()) {
+            log.warn("⚠️ app.qr.signing-secret is not set: QR payloads will be neither signed nor verified");
+        }
+    }
+
+    public boolean isEnabled() {
+        return masterSecret.length > 0;
+    }
+
+    /**
+     * Calcula el tag truncado sobre message[offset, offset + length)
+     */
+    public byte[] sign(long eventId, int keyVersion, byte[] message, int offset, int length) {
+        Mac mac = keyedMac(eventId, keyVersion);
+        mac.update(message, offset, length);
+        byte[] digest = macBuffers.get();
+        try {
+            mac.doFinal(digest, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] tag = new byte[TAG_LENGTH];
+        System.arraycopy(digest, 0, tag, 0, TAG_LENGTH);
+        return tag;
+    }
+
+    public boolean verify(long eventId, int keyVersion, byte[] message, int offset, int length,
+                          byte[] tag, int tagOffset) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Mac mac = keyedMac(eventId, keyVersion);
+        mac.update(message, offset, length);
+        return tagMatches(mac, tag, tagOffset);
+    }
+
+    /**
+     * Verifica un tag calculado sobre los primeros messageLength caracteres ASCII del texto
+     */
+    public boolean verify(long eventId, int keyVersion, CharSequence text, int messageLength, byte[] tag) {
+        if (!isEnabled()) {
+            return false;
+        }
+        Mac mac = keyedMac(eventId, keyVersion);
+        for (int i = 0; i < messageLength; i++) {
+            mac.update((byte) text.charAt(i));
+        }
+        return tagMatches(mac, tag, 0);
+    }
+
+    private boolean tagMatches(Mac mac, byte[] tag, int tagOffset) {
+        byte[] expected = macBuffers.get();
+        try {
+            mac.doFinal(expected, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        // Comparación en tiempo constante
+        int diff = 0;
+        for (int i = 0; i < TAG_LENGTH; i++) {
+            diff |= expected[i] ^ tag[tagOffset + i];
+        }
+        return diff == 0;
+    }
+
+    private Mac keyedMac(long eventId, int keyVersion) {
+        MacCache cache = macCaches.get();
+        long hash = (eventId * 31 + keyVersion) * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash >>> 58) & (MAC_CACHE_SLOTS - 1);
+        Mac mac = cache.macs[slot];
+        if (mac != null && cache.eventIds[slot] == eventId && cache.keyVersions[slot] == keyVersion) {
+            return mac;
+        }
+        SecretKeySpec key = deriveEventKey(eventId, keyVersion);
+        if (mac == null) {
+            mac = newMac();
+        }
+        try {
+            mac.init(key);
+        } catch (GeneralSecurityException e) {
+            cache.macs[slot] = null;
+            throw new IllegalStateException("Invalid QR signing key", e);
+        }
+        cache.macs[slot] = mac;
+        cache.eventIds[slot] = eventId;
+        cache.keyVersions[slot] = keyVersion;
+        return mac;
+    }
+
+    private SecretKeySpec deriveEventKey(long eventId, int keyVersion) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("QR signing secret is not configured");
+        }
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(masterSecret, ALGORITHM));
+            byte[] eventKey = mac.doFinal((KEY_CONTEXT + eventId + "|" + keyVersion).getBytes(StandardCharsets.UTF_8));
+            return new SecretKeySpec(eventKey, ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive QR key for event " + eventId, e);
+        }
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Mac inicializados de un hilo, indexados por (eventId, keyVersion)
+     */
+    private static final class MacCache {
+        final long[] eventIds = new long[MAC_CACHE_SLOTS];
+        final int[] keyVersions = new int[MAC_CACHE_SLOTS];
+        final Mac[] macs = new Mac[MAC_CACHE_SLOTS];
+    }
+}
@@ -0,0 +1,154 @@
+package com.packed_go.security.qr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round-trip y fuzzing del parser de QR: ninguna entrada debe lanzar excepción, y un QR firmado
+ * adulterado solo puede decodificarse si sigue representando exactamente el mismo payload.
+ */
+class QRPayloadCodecFuzzTest {
+
+    private static final int ITERATIONS = 20_000;
+    private static final String ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:|abcdefTCEUSKé\u0000";
+
+    private final QRSigner signer = new QRSigner("fuzz-secret");
+    private final QRSigner unsigned = new QRSigner("");
+
+    @Test
+    void roundTripsRandomPayloadsInBothFormats() {
+        Random random = new Random(42);
+        for (int version : new int[]{QRPayloadCodec.VERSION_TEXT, QRPayloadCodec.VERSION_COMPACT}) {
+            for (QRSigner qrSigner : new QRSigner[]{signer, unsigned}) {
+                QRPayloadCodec codec = new QRPayloadCodec(version, false, qrSigner);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    QRPayload expected = randomPayload(random, version, qrSigner.isEnabled());
+                    String qr = encode(codec, expected);
+
+                    assertEquals(expected, codec.decode(qr), qr);
+                }
+            }
+        }
+    }
+
+    @Test
+    void randomInputNeverThrows() {
+        Random random = new Random(7);
+        QRPayloadCodec codec = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, false, signer);
+        String[] prefixes = {"", QRPayloadCodec.TEXT_PREFIX, QRPayloadCodec.COMPACT_PREFIX};
+        for (int i = 0; i < ITERATIONS * 5; i++) {
+            StringBuilder qr = new StringBuilder(prefixes[random.nextInt(prefixes.length)]);
+            int length = random.nextInt(120);
+            for (int j = 0; j < length; j++) {
+                qr.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            codec.decode(qr);
+        }
+    }
+
+    @Test
+    void tamperedSignedPayloadsAreRejectedOrUnchanged() {
+        Random random = new Random(1234);
+        for (int version : new int[]{QRPayloadCodec.VERSION_TEXT, QRPayloadCodec.VERSION_COMPACT}) {
+            QRPayloadCodec codec = new QRPayloadCodec(version, true, signer);
+            for (int i = 0; i < ITERATIONS; i++) {
+                QRPayload original = randomPayload(random, version, true);
+                String tampered = mutate(encode(codec, original), random);
+
+                QRPayload decoded = codec.decode(tampered);
+                if (decoded != null) {
+                    // p. ej. un dígito hexadecimal de la firma pasado a mayúscula
+                    assertEquals(original, decoded, tampered);
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsPayloadsSignedWithAnotherSecret() {
+        QRPayloadCodec issuer = new QRPayloadCodec(QRPayloadCodec.VERSION_COMPACT, false, new QRSigner("other-secret"));
+        QRPayloadCodec codec = new QRPayloadCodec(QRPayloadCodec.VERSION_COMPACT, false, signer);
+
+        assertNull(codec.decode(issuer.encode(10, 20, 30, 40, 50, 1)));
+        assertNotNull(codec.decode(codec.encode(10, 20, 30, 40, 50, 1)));
+    }
+
+    @Test
+    void requiresSignatureWhenConfigured() {
+        QRPayloadCodec issuer = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, false, unsigned);
+        QRPayloadCodec codec = new QRPayloadCodec(QRPayloadCodec.VERSION_TEXT, true, signer);
+
+        assertNull(codec.decode(issuer.encode(10, 20, 30, 40, 50, 1)));
+    }
+
+    @Test
+    void keepsEachEventKeyApartWhenTheMacCacheIsFull() {
+        QRPayloadCodec codec = new QRPayloadCodec(QRPayloadCodec.VERSION_COMPACT, true, signer);
+        String[] issued = new String[500];
+        for (int event = 0; event < issued.length; event++) {
+            issued[event] = codec.encode(10, 20, event, 40, 50, 1 + event % 3);
+        }
+
+        // Más eventos que entradas del cache por hilo: se desalojan y se vuelven a inicializar
+        for (int round = 0; round < 2; round++) {
+            for (int event = 0; event < issued.length; event++) {
+                assertEquals(event, codec.decode(issued[event]).eventId());
+            }
+        }
+        // Un tag de la versión 1 no verifica con la 2 aunque ambas ya estén en el cache
+        byte[] message = {1, 2, 3, 4};
+        byte[] tag = signer.sign(7, 1, message, 0, message.length);
+        assertTrue(signer.verify(7, 1, message, 0, message.length, tag, 0));
+        signer.sign(7, 2, message, 0, message.length);
+        assertFalse(signer.verify(7, 2, message, 0, message.length, tag, 0));
+        assertTrue(signer.verify(7, 1, message, 0, message.length, tag, 0));
+    }
+
+    private static QRPayload randomPayload(Random random, int version, boolean signed) {
+        long ticketConsumptionId = random.nextInt(4) == 0 ? QRPayload.ABSENT : randomId(random);
+        int keyVersion = signed ? 1 + random.nextInt(1000) : 0;
+        return new QRPayload(version, randomId(random), ticketConsumptionId, randomId(random), randomId(random),
+                1_600_000_000_000L + (random.nextLong() & 0xFFFFFFFFFFL), keyVersion);
+    }
+
+    private static long randomId(Random random) {
+        // Mezcla de ids chicos y grandes para ejercitar varints de 1 a 9 bytes
+        return switch (random.nextInt(3)) {
+            case 0 -> random.nextInt(1000);
+            case 1 -> random.nextInt(Integer.MAX_VALUE);
+            default -> random.nextLong() & (Long.MAX_VALUE >>> 1);
+        };
+    }
+
+    private static String encode(QRPayloadCodec codec, QRPayload payload) {
+        return codec.encode(payload.ticketId(), payload.ticketConsumptionId(), payload.eventId(), payload.userId(),
+                payload.timestamp(), payload.keyVersion());
+    }
+
+    private static String mutate(String qr, Random random) {
+        StringBuilder sb = new StringBuilder(qr);
+        int mutations = 1 + random.nextInt(3);
+        for (int m = 0; m < mutations; m++) {
+            int position = random.nextInt(sb.length());
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> sb.setCharAt(position, c);
+                case 1 -> sb.insert(position, c);
+                default -> {
+                    if (sb.length() > 1) {
+                        sb.deleteCharAt(position);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,38 +1,35 @@
 package com.packedgo.payment_service.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.packed_go.security.GatewayIdentity;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.TokenVerifier;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-
+/**
+ * Adaptador sobre el TokenVerifier de packedgo-security-commons.
+ * Si el api-gateway ya verificó este mismo token (GatewayIdentity), el userId sale de ahí
+ * sin volver a parsear el JWT.
+ */
 @Component
 @Slf4j
+@RequiredArgsConstructor
 public class JwtTokenValidator {
 
-    private final SecretKey secretKey;
-
-    public JwtTokenValidator(@Value("${jwt.secret}") String secret) {
-        // Decodificar desde BASE64 igual que auth-service
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        this.secretKey = Keys.hmacShaKeyFor(keyBytes);
-    }
+    private final TokenVerifier tokenVerifier;
 
     /**
      * Valida si un token JWT es válido
      */
     public boolean validateToken(String token) {
+        if (GatewayIdentity.forToken(token) != null) {
+            return true;
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
+            tokenVerifier.verify(token);
             return true;
-        } catch (Exception e) {
+        } catch (InvalidTokenException e) {
             log.error("Error validando token JWT: {}", e.getMessage());
             return false;
         }
@@ -42,20 +39,16 @@ public class JwtTokenValidator {
      * Extrae el userId del token JWT
      */
     public Long getUserIdFromToken(String token) {
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.userId();
+        }
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            Object userIdObj = claims.get("userId");
-            if (userIdObj instanceof Integer) {
-                return ((Integer) userIdObj).longValue();
-            } else if (userIdObj instanceof Long) {
-                return (Long) userIdObj;
+            Long userId = tokenVerifier.verify(token).userId();
+            if (userId == null) {
+                throw new RuntimeException("userId not found in token");
             }
-            throw new RuntimeException("userId not found in token");
+            return userId;
         } catch (Exception e) {
             log.error("Error extrayendo userId del token: {}", e.getMessage());
             throw new RuntimeException("Invalid token: " + e.getMessage());
@@ -71,4 +64,4 @@ public class JwtTokenValidator {
         }
         return authHeader.substring(7);
     }
-}
\ No newline at end of file
+}
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.packed_go.security.qr.QRSignatureVerifier;
 import com.packed_go.users_service.dto.EmployeeDTO.AssignedEventInfo;
 import com.packed_go.users_service.dto.EmployeeDTO.EmployeeStatsResponse;
 import com.packed_go.users_service.dto.EmployeeDTO.FindTicketByCodeRequest;
@@ -34,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final QRSignatureVerifier qrSignatureVerifier;
 
     @Qualifier("eventServiceWebClient")
     private final WebClient eventServiceWebClient;
@@ -74,6 +76,14 @@ public class EmployeeController {
                 ));
             }
 
+            // Rechazar en el borde los QR falsificados o adulterados sin llamar a event-service
+            if (!qrSignatureVerifier.isAcceptable(request.getQrCode(), request.getEventId())) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "❌ Código QR inválido o adulterado"
+                ));
+            }
+
             // Llamar a event-service para validar el ticket
             log.info("🎫 Employee {} validating ticket for event {}", employeeId, request.getEventId());
 
@@ -125,6 +135,14 @@ public class EmployeeController {
                 ));
             }
 
+            // Rechazar en el borde los QR falsificados o adulterados sin llamar a event-service
+            if (!qrSignatureVerifier.isAcceptable(request.getQrCode(), request.getEventId())) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "❌ Código QR inválido o adulterado"
+                ));
+            }
+
             // Llamar a event-service para validar y canjear la consumición
             log.info("🍺 Employee {} registering consumption for event {}", employeeId, request.getEventId());
 
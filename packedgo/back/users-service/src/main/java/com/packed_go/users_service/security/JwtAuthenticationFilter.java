@@ -14,6 +14,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.packed_go.security.VerifiedToken;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -39,12 +41,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getTokenFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenValidator.validateToken(jwt)) {
-                String username = tokenValidator.getUsernameFromToken(jwt);
-                Long userId = tokenValidator.getUserIdFromToken(jwt);
-                String role = tokenValidator.getRoleFromToken(jwt);
-                String email = tokenValidator.getEmailFromToken(jwt);
-                List<String> authorities = tokenValidator.getAuthoritiesFromToken(jwt);
+            // Una sola verificación del token para todos los claims que se necesitan
+            VerifiedToken verified = StringUtils.hasText(jwt) ? tokenValidator.verifyIfValid(jwt) : null;
+            if (verified != null) {
+                String username = verified.subject();
+                Long userId = verified.userId();
+                String role = verified.role();
+                String email = verified.email();
+                List<String> authorities = verified.authorities();
 
                 // Create authorities list
                 List<SimpleGrantedAuthority> grantedAuthorities = new java.util.ArrayList<>();
@@ -2,96 +2,81 @@ package com.packed_go.users_service.security;
 
 import java.util.List;
 
-import javax.crypto.SecretKey;
-
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import com.packed_go.security.GatewayIdentity;
+import com.packed_go.security.InvalidTokenException;
+import com.packed_go.security.TokenVerifier;
+import com.packed_go.security.VerifiedToken;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * JWT Utility compartida entre microservicios
- * Permite validar tokens generados por auth-service
+ * Permite validar tokens generados por auth-service (sobre el TokenVerifier de packedgo-security-commons)
+ * Si el api-gateway ya verificó este mismo token (GatewayIdentity), userId y rol salen de ahí
  */
 @Component
 @Slf4j
 public class JwtTokenValidator {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final TokenVerifier tokenVerifier;
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtTokenValidator(TokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
     }
 
     public boolean validateToken(String token) {
+        if (GatewayIdentity.forToken(token) != null) {
+            return true;
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            tokenVerifier.verify(token);
             return true;
-        } catch (JwtException | IllegalArgumentException ex) {
+        } catch (InvalidTokenException ex) {
             log.error("Invalid JWT token: {}", ex.getMessage());
             return false;
         }
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifica el token una sola vez y devuelve todos sus claims (null si no es válido)
+     */
+    public VerifiedToken verifyIfValid(String token) {
+        try {
+            return tokenVerifier.verify(token);
+        } catch (InvalidTokenException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
+            return null;
+        }
+    }
 
-        return claims.getSubject();
+    public String getUsernameFromToken(String token) {
+        return tokenVerifier.verify(token).subject();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("userId", Long.class);
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.userId();
+        }
+        return tokenVerifier.verify(token).userId();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("role", String.class);
+        GatewayIdentity identity = GatewayIdentity.forToken(token);
+        if (identity != null) {
+            return identity.role();
+        }
+        return tokenVerifier.verify(token).role();
     }
 
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("email", String.class);
+        return tokenVerifier.verify(token).email();
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getAuthoritiesFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.get("authorities", List.class);
+        return tokenVerifier.verify(token).authorities();
     }
 
     /**
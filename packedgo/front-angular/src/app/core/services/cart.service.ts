@@ -229,8 +229,9 @@ export class CartService {
     const cart = this.cartSubject.value;
     if (!cart) return 0;
     
-    const item = cart.items.find(i => i.eventId === eventId);
-    return item ? item.quantity : 0;
+    return cart.items
+      .filter(i => i.eventId === eventId)
+      .reduce((total, i) => total + i.quantity, 0);
   }
 
   /**
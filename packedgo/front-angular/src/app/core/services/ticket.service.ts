@@ -1,7 +1,7 @@
 import { Injectable, inject } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
-import { catchError, tap } from 'rxjs/operators';
+import { catchError, map, tap } from 'rxjs/operators';
 import { environment } from '../../../environments/environment';
 import { AuthService } from './auth.service';
 
@@ -26,7 +26,8 @@ export interface Ticket {
   userId: number;
   passCode: string;
   passId: number;
-  qrCode?: string; // Base64 PNG image
+  qrCode?: string; // Imagen del QR: data URI en la compra, object URL cargado con loadQRImage en los listados
+  qrImageUrl?: string; // GET /api/event-service/tickets/{id}/qr.png (requiere el JWT del dueño)
   eventId: number;
   eventName: string;
   eventDate: string;
@@ -89,6 +90,31 @@ export class TicketService {
     );
   }
 
+  /**
+   * Descarga la imagen del QR con el JWT (un <img src> no manda el header Authorization)
+   * y devuelve un object URL para usar en el template; liberarlo con releaseQRImages
+   */
+  loadQRImage(ticket: Ticket): Observable<string> {
+    const url = new URL(ticket.qrImageUrl!, environment.apiUrl).toString();
+    const headers = new HttpHeaders({ 'Authorization': `Bearer ${this.authService.getToken()}` });
+    return this.http.get(url, { headers, responseType: 'blob' }).pipe(
+      map(blob => URL.createObjectURL(blob)),
+      catchError(error => {
+        console.error('❌ Error obteniendo imagen QR:', error);
+        return throwError(() => error);
+      })
+    );
+  }
+
+  /**
+   * Libera los object URL creados por loadQRImage
+   */
+  releaseQRImages(tickets: Ticket[]): void {
+    tickets
+      .filter(ticket => ticket.qrCode?.startsWith('blob:'))
+      .forEach(ticket => URL.revokeObjectURL(ticket.qrCode!));
+  }
+
   /**
    * Genera los headers con el token JWT
    */
@@ -460,8 +460,8 @@ export class CustomerDashboardComponent implements OnInit, OnDestroy {
   }
 
   /**
-   * Duplica un item del carrito (crea una copia idéntica)
-   * Con Opción A: cada item = 1 entrada = 1 QR
+   * Duplica una entrada del carrito (misma entrada y consumiciones)
+   * El backend la suma a la misma línea: quantity + 1 (cada entrada = 1 QR al emitir)
    */
   duplicateItem(item: any): void {
     Swal.fire({
@@ -479,7 +479,7 @@ export class CustomerDashboardComponent implements OnInit, OnDestroy {
           quantity: c.quantity
         })) || [];
 
-        // Agregar al carrito (esto creará un nuevo item con quantity=1)
+        // Agregar al carrito (se suma a la línea idéntica existente)
         this.cartService.addToCart({
           eventId: item.eventId,
           quantity: 1,
@@ -690,6 +690,7 @@ export class CustomerDashboardComponent implements OnInit, OnDestroy {
     
     this.ticketService.getUserTickets(userId).subscribe({
       next: (tickets) => {
+        this.ticketService.releaseQRImages(this.myTickets);
         this.myTickets = tickets;
         this.isLoadingTickets = false;
       },
@@ -718,6 +719,16 @@ export class CustomerDashboardComponent implements OnInit, OnDestroy {
   showTicketQR(ticket: Ticket): void {
     this.selectedTicket = ticket;
     this.showQrModal = true;
+    // El listado no trae la imagen: se pide una sola vez, al abrir el QR
+    if (!ticket.qrCode && ticket.qrImageUrl) {
+      this.ticketService.loadQRImage(ticket).subscribe({
+        next: (imageUrl) => {
+          ticket.qrCode = imageUrl;
+          this.cdr.detectChanges();
+        },
+        error: () => Swal.fire('Error', 'No se pudo cargar el código QR', 'error')
+      });
+    }
   }
 
   openTicketLocation(ticket: Ticket): void {
@@ -960,5 +971,6 @@ export class CustomerDashboardComponent implements OnInit, OnDestroy {
     if (this.cartSubscription) {
       this.cartSubscription.unsubscribe();
     }
+    this.ticketService.releaseQRImages(this.myTickets);
   }
 }
@@ -1,4 +1,4 @@
-import { Component, OnInit, inject } from '@angular/core';
+import { Component, OnDestroy, OnInit, inject } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { ActivatedRoute, Router, RouterModule } from '@angular/router';
 import { OrderService } from '../../../core/services/order.service';
@@ -15,7 +15,7 @@ import { forkJoin } from 'rxjs';
   templateUrl: './order-success.component.html',
   styleUrls: ['./order-success.component.css']
 })
-export class OrderSuccessComponent implements OnInit {
+export class OrderSuccessComponent implements OnInit, OnDestroy {
   private route = inject(ActivatedRoute);
   private router = inject(Router);
   private orderService = inject(OrderService);
@@ -189,6 +189,7 @@ export class OrderSuccessComponent implements OnInit {
           this.tickets = tickets;
         }
         
+        this.loadQRImages();
         this.isLoadingTickets = false;
         this.isLoading = false;
       },
@@ -200,6 +201,24 @@ export class OrderSuccessComponent implements OnInit {
     });
   }
 
+  /**
+   * Los tickets llegan sin imagen: se pide el PNG de cada QR con el JWT
+   */
+  private loadQRImages(): void {
+    this.tickets
+      .filter(ticket => !ticket.qrCode && ticket.qrImageUrl)
+      .forEach(ticket => {
+        this.ticketService.loadQRImage(ticket).subscribe({
+          next: (imageUrl) => ticket.qrCode = imageUrl,
+          error: () => console.warn('⚠️ No se pudo cargar el QR del ticket', ticket.ticketId)
+        });
+      });
+  }
+
+  ngOnDestroy(): void {
+    this.ticketService.releaseQRImages(this.tickets);
+  }
+
   downloadTicketQR(ticket: Ticket): void {
     if (ticket.qrCode) {
       this.ticketService.downloadQRCode(